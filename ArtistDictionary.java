@@ -0,0 +1,114 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The ArtistDictionary class assigns each distinct artist name a dense int ID and keeps one shared String per
+ * artist. Interning the artists of every SongRecord through the dictionary means that an artist who appears on
+ * thousands of songs is stored in memory once instead of once per song.
+ *
+ * The methods are thread-safe, so one dictionary can be shared by indexes built on different threads
+ * (for example, by a background catalog reload). name takes no lock, since song stores call it for every
+ * artist they return.
+ *
+ * Precondition: None.
+ * Postcondition: IDs are assigned in first-seen order starting at 0 and never change.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class ArtistDictionary {
+
+    // Artist name to ID.
+    private final HashMap<String, Integer> ids = new HashMap<>();
+
+    // ID to the shared artist name; only the first count entries are used. Entries are written before count,
+    // and a larger array is published before count, so a reader that sees an ID also sees its name.
+    private volatile String[] names = new String[16];
+    private volatile int count;
+
+    /**
+     * Returns the ID of an artist, assigning a new one if the artist has not been seen.
+     *
+     * Precondition: name is not null.
+     * Postcondition: The dictionary contains name.
+     *
+     * @param name the artist name.
+     * @return the artist's ID.
+     */
+    public synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = count;
+            if (id == names.length) {
+                names = Arrays.copyOf(names, id * 2);
+            }
+            names[id] = name;
+            ids.put(name, id);
+            count = id + 1;
+        }
+        return id;
+    }
+
+    /**
+     * Replaces a song's artist names with the dictionary's shared Strings.
+     *
+     * Precondition: song is not null and its artist list is not null.
+     * Postcondition: Every artist of song is in the dictionary and song's list holds the shared Strings.
+     *
+     * @param song the song whose artists are interned.
+     */
+    public synchronized void internArtists(SongRecord song) {
+        List<String> artists = song.getArtists();
+        String[] shared = new String[artists.size()];
+        for (int i = 0; i < shared.length; i++) {
+            int id = intern(artists.get(i));
+            shared[i] = names[id];
+        }
+        song.setArtists(Arrays.asList(shared));
+    }
+
+    /**
+     * Returns the ID of an artist without adding it.
+     *
+     * Precondition: None.
+     * Postcondition: The dictionary is unchanged.
+     *
+     * @param name the artist name.
+     * @return the artist's ID, or -1 if the artist is unknown.
+     */
+    public synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name of an artist ID.
+     *
+     * Precondition: 0 &lt;= id &lt; size().
+     * Postcondition: The shared artist name is returned.
+     *
+     * @param id the artist ID.
+     * @return the artist name.
+     */
+    public String name(int id) {
+        if (id < 0 || id >= count) {
+            throw new IndexOutOfBoundsException("Artist ID " + id + " out of range [0, " + count + ")");
+        }
+        return names[id];
+    }
+
+    /**
+     * Returns the number of distinct artists.
+     *
+     * Precondition: None.
+     * Postcondition: The artist count is returned.
+     *
+     * @return the number of artists.
+     */
+    public int size() {
+        return count;
+    }
+}
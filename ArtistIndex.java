@@ -0,0 +1,188 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ArtistIndex class is an inverted index from artist ID to the row ordinals of that artist's songs.
+ * Postings are kept in compressed sparse row form: one int[] holds every artist's ascending ordinals back to
+ * back, and a second int[] holds where each artist's run starts. There is no per-artist object.
+ *
+ * Because every posting list is sorted, songs shared by several artists are found by intersecting lists,
+ * starting with the shortest and using galloping search so a rare artist is cheap to combine with a common one.
+ *
+ * Precondition: The index is built from a SongStore and an ArtistDictionary.
+ * Postcondition: Returned ordinals refer to rows of the store the index was built from.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class ArtistIndex {
+
+    private final ArtistDictionary dictionary;
+
+    // postings[offsets[a] .. offsets[a + 1]) are the ascending ordinals of artist a.
+    private final int[] offsets;
+    private final int[] postings;
+
+    private ArtistIndex(ArtistDictionary dictionary, int[] offsets, int[] postings) {
+        this.dictionary = dictionary;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the index over every row of a store, assigning IDs to new artists through the dictionary.
+     * The songs are only read, so the store may belong to a published catalog or a read-only backend, and
+     * the dictionary may grow concurrently through other loads or indexes.
+     *
+     * Precondition: store and dictionary are not null.
+     * Postcondition: Every artist of every stored song has a posting list; the songs are unchanged.
+     *
+     * @param store the songs to index.
+     * @param dictionary the dictionary that assigns artist IDs.
+     * @return the built index.
+     */
+    public static ArtistIndex build(SongStore store, ArtistDictionary dictionary) {
+        int rows = store.size();
+        int[][] artistsByRow = new int[rows][];
+        for (int row = 0; row < rows; row++) {
+            List<String> artists = store.getRecord(row).getArtists();
+            int[] ids = new int[artists == null ? 0 : artists.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = dictionary.intern(artists.get(i));
+            }
+            // Sort and drop repeats so an artist listed twice on one song gets a single posting.
+            Arrays.sort(ids);
+            int distinct = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (i == 0 || ids[i] != ids[i - 1]) {
+                    ids[distinct++] = ids[i];
+                }
+            }
+            artistsByRow[row] = distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+        }
+
+        // Every ID assigned above is below this size; artists interned later by other threads have no postings.
+        int artistCount = dictionary.size();
+
+        // Counting sort: count postings per artist, turn counts into start offsets, then fill in row order.
+        int[] offsets = new int[artistCount + 1];
+        for (int[] ids : artistsByRow) {
+            for (int id : ids) {
+                offsets[id + 1]++;
+            }
+        }
+        for (int a = 0; a < artistCount; a++) {
+            offsets[a + 1] += offsets[a];
+        }
+        int[] postings = new int[offsets[artistCount]];
+        int[] next = Arrays.copyOf(offsets, artistCount);
+        for (int row = 0; row < rows; row++) {
+            for (int id : artistsByRow[row]) {
+                postings[next[id]++] = row;
+            }
+        }
+        return new ArtistIndex(dictionary, offsets, postings);
+    }
+
+    /**
+     * Returns the ordinals of every song by an artist.
+     *
+     * Precondition: None.
+     * Postcondition: An ascending array of ordinals is returned (empty if the artist is unknown).
+     *
+     * @param artist the artist name.
+     * @return the artist's song ordinals.
+     */
+    public int[] songsByArtist(String artist) {
+        int id = dictionary.idOf(artist);
+        if (id < 0 || id + 1 >= offsets.length) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(postings, offsets[id], offsets[id + 1]);
+    }
+
+    /**
+     * Returns the ordinals of the songs credited to all of the given artists.
+     *
+     * Precondition: artists is not empty.
+     * Postcondition: An ascending array of ordinals is returned (empty if any artist is unknown).
+     *
+     * @param artists the artist names.
+     * @return the ordinals of songs shared by every artist.
+     * @throws IllegalArgumentException if no artist is given.
+     */
+    public int[] songsByAllArtists(String... artists) {
+        if (artists.length == 0) {
+            throw new IllegalArgumentException("At least one artist is required");
+        }
+        int[][] lists = new int[artists.length][];
+        for (int i = 0; i < artists.length; i++) {
+            lists[i] = songsByArtist(artists[i]);
+        }
+        // Intersect the shortest lists first so intermediate results stay small.
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of songs by an artist.
+     *
+     * Precondition: None.
+     * Postcondition: The posting count is returned (0 if the artist is unknown).
+     *
+     * @param artist the artist name.
+     * @return the number of songs.
+     */
+    public int countByArtist(String artist) {
+        int id = dictionary.idOf(artist);
+        return id < 0 || id + 1 >= offsets.length ? 0 : offsets[id + 1] - offsets[id];
+    }
+
+    /**
+     * Intersects two ascending arrays. Each element of the smaller array is located in the larger one by
+     * galloping (exponential then binary) search from the previous match.
+     *
+     * Precondition: small and large are sorted ascending without duplicates.
+     * Postcondition: The ascending intersection is returned.
+     *
+     * @param small the first array (ideally the shorter one).
+     * @param large the second array.
+     * @return the elements present in both arrays.
+     */
+    public static int[] intersect(int[] small, int[] large) {
+        if (small.length > large.length) {
+            int[] swap = small;
+            small = large;
+            large = swap;
+        }
+        int[] out = new int[small.length];
+        int count = 0;
+        int low = 0;
+        for (int value : small) {
+            int step = 1;
+            int high = low;
+            while (high < large.length && large[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int found = Arrays.binarySearch(large, low, Math.min(high + 1, large.length), value);
+            if (found >= 0) {
+                out[count++] = value;
+                low = found + 1;
+            } else {
+                low = -found - 1;
+            }
+            if (low >= large.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+}
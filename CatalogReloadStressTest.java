@@ -0,0 +1,155 @@
+//package hashingAndDocumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The CatalogReloadStressTest class checks that SongProgram.reloadSongs can replace the catalog while many
+ * threads keep calling getSongById. Two generated CSV files, A and B, are reloaded alternately; reader
+ * threads look up IDs from both files the whole time.
+ *
+ * A reader fails the test if a lookup throws, returns a song with a different ID than requested, finds
+ * neither or both of a pair of songs that only exist in one file each (which would mean it saw a mix of
+ * two catalogs), or sees the catalog generation go backwards.
+ *
+ * Precondition: The JVM has enough heap for two catalogs of the chosen size at once.
+ * Postcondition: Read throughput and reload durations are printed, and the process exits with status 1
+ *                if any check failed.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class CatalogReloadStressTest {
+
+    /**
+     * Runs the stress test.
+     *
+     * Precondition: args is empty or holds the songs per file, reader threads and reloads.
+     * Postcondition: The results are printed to standard output.
+     *
+     * @param args optional songs per file (default 50,000), reader threads (default 8) and reloads (default 20).
+     * @throws Exception if the test files cannot be written or the threads are interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int reloads = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        File fileA = File.createTempFile("reload-a-", ".csv");
+        File fileB = File.createTempFile("reload-b-", ".csv");
+        try {
+            SongCsvGenerator.write(fileA.getPath(), songs, 1);
+            SongCsvGenerator.write(fileB.getPath(), songs, 2);
+            run(fileA.getPath(), fileB.getPath(), readers, reloads);
+        } finally {
+            fileA.delete();
+            fileB.delete();
+        }
+    }
+
+    private static void run(String pathA, String pathB, int readerCount, int reloads)
+            throws IOException, InterruptedException {
+        SongProgram program = new SongProgram();
+        if (!program.reloadSongs(pathA)) {
+            throw new IOException("Initial load failed");
+        }
+        String[] idsA = ids(pathA);
+        String[] idsB = ids(pathB);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong lookups = new AtomicLong();
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(readerCount);
+        for (int r = 0; r < readerCount; r++) {
+            int seed = r;
+            Thread reader = new Thread(() -> {
+                long count = 0;
+                long lastGeneration = 0;
+                int i = seed;
+                try {
+                    while (running.get()) {
+                        i = (i + 7919) % idsA.length;
+                        String idA = idsA[i];
+                        String idB = idsB[i % idsB.length];
+
+                        // Both songs are read from one catalog, which must hold exactly one of them.
+                        SongCatalog current = program.getCatalog();
+                        SongRecord a = current.getSongById(idA);
+                        SongRecord b = current.getSongById(idB);
+                        if ((a == null) == (b == null)) {
+                            fail(failures, "Catalog " + current.getGeneration() + " mixes files A and B");
+                        }
+                        if (current.getGeneration() < lastGeneration) {
+                            fail(failures, "Generation went back from " + lastGeneration + " to "
+                                    + current.getGeneration());
+                        }
+                        lastGeneration = current.getGeneration();
+
+                        // The public lookup must never return the wrong song, whichever catalog it reads.
+                        SongRecord found = program.getSongById(idA);
+                        if (found != null && !found.getId().equals(idA)) {
+                            fail(failures, "Lookup of " + idA + " returned " + found.getId());
+                        }
+                        count += 3;
+                    }
+                } catch (RuntimeException e) {
+                    fail(failures, "Reader threw " + e);
+                } finally {
+                    lookups.addAndGet(count);
+                    finished.countDown();
+                }
+            }, "reader-" + r);
+            reader.start();
+        }
+
+        long minNanos = Long.MAX_VALUE;
+        long maxNanos = 0;
+        long totalNanos = 0;
+        long start = System.nanoTime();
+        for (int reload = 0; reload < reloads; reload++) {
+            if (!program.reloadSongs(reload % 2 == 0 ? pathB : pathA)) {
+                fail(failures, "Reload " + reload + " failed");
+                continue;
+            }
+            long nanos = program.getLastReloadNanos();
+            minNanos = Math.min(minNanos, nanos);
+            maxNanos = Math.max(maxNanos, nanos);
+            totalNanos += nanos;
+        }
+        running.set(false);
+        finished.await(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("Readers: %d, reloads: %d, final generation: %d%n", readerCount,
+                program.getReloadCount(), program.getCatalogGeneration());
+        System.out.printf("Lookups: %,d (%,.0f per second during reloads)%n", lookups.get(),
+                lookups.get() / seconds);
+        System.out.printf("Reload time: min %.1f ms, mean %.1f ms, max %.1f ms%n", minNanos / 1e6,
+                totalNanos / 1e6 / Math.max(1, reloads), maxNanos / 1e6);
+        if (failures.get() > 0) {
+            System.out.println("FAILED: " + failures.get() + " failed checks");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    private static String[] ids(String path) throws IOException {
+        SongStore store = SongCatalog.load(path, 0).getStore();
+        String[] ids = new String[store.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.getId(i);
+        }
+        return ids;
+    }
+
+    private static void fail(AtomicLong failures, String message) {
+        // Only the first few failures are printed, so a broken build does not flood the console.
+        if (failures.incrementAndGet() <= 10) {
+            System.out.println(message);
+        }
+    }
+}
@@ -0,0 +1,530 @@
+//package hashingAndDocumentation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The CompactSongText class is the text storage of a SongStore: it holds the release date, title and artists
+ * of every row in a compact encoding, and the store's records read those fields from it. The store keeps no
+ * String or List objects for these fields, so the SongRecords a store was built from can be collected.
+ *
+ * Encoding:
+ *   release date  an int per row: year &lt;&lt; 9 | month &lt;&lt; 5 | day, where a month or day of 0 marks a
+ *                 year-only or year-month date; a date that does not round-trip exactly through this form
+ *                 (such as "0") is stored in a small dictionary and encoded as -(index + 1);
+ *   title         the UTF-8 bytes of every title in one shared byte arena, each prefixed by its length as a
+ *                 variable-length integer, plus an int arena offset per row; the rare title that UTF-8
+ *                 cannot hold exactly (one with an unpaired surrogate) is kept as a String instead;
+ *   artists       the ArtistDictionary ID of every artist in one int array, plus an int start and count per
+ *                 row.
+ * IDs stay in the store's ID column. Replacing a row appends its new title and artists, and the old ones stay
+ * in the arrays unused, as in OffHeapSongStore.
+ *
+ * Memory estimates assume a 64-bit JVM with compressed object pointers and compact strings: a String costs
+ * 24 bytes plus its byte array (16-byte header, padded to 8 bytes).
+ *
+ * Precondition: Rows are written with set before they are read, and not written while other threads read.
+ * Postcondition: The getters return values equal to those of the SongRecords that were set.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class CompactSongText {
+
+    // Encoded field names, in report order.
+    private static final String[] FIELDS = {"releaseDate", "name", "artists"};
+
+    // Release date code of a null date.
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+
+    // Title offset of a null title; offsets below it index otherNames as -(index + 2).
+    private static final int NULL_NAME = -1;
+
+    private final ArtistDictionary artists;
+
+    private int rowCount;
+
+    private int[] releaseDates;
+    private final ArrayList<String> otherDates;
+    private final HashMap<String, Integer> otherDateIds;
+
+    private final ByteArena titles;
+    private int[] titleOffsets;
+    private final ArrayList<String> otherNames;
+
+    // Start and count of each row's artist IDs; a count of -1 marks a null list.
+    private int[] artistStarts;
+    private int[] artistCounts;
+    private int[] artistIds;
+    private int artistIdCount;
+
+    /**
+     * Constructor that creates empty text storage.
+     *
+     * Precondition: capacity is not negative and artists is not null.
+     * Postcondition: Storage with no rows is created; it grows automatically beyond capacity.
+     *
+     * @param capacity the number of rows to allocate up front.
+     * @param artists the dictionary that assigns artist IDs; it may be shared with other storage.
+     */
+    public CompactSongText(int capacity, ArtistDictionary artists) {
+        int rows = Math.max(capacity, 1);
+        this.artists = artists;
+        this.releaseDates = new int[rows];
+        this.otherDates = new ArrayList<>();
+        this.otherDateIds = new HashMap<>();
+        this.titles = new ByteArena(rows * 16);
+        this.titleOffsets = new int[rows];
+        this.otherNames = new ArrayList<>();
+        this.artistStarts = new int[rows];
+        this.artistCounts = new int[rows];
+        this.artistIds = new int[rows + rows / 2];
+    }
+
+    private CompactSongText(CompactSongText source, int capacity) {
+        int rows = Math.max(capacity, 1);
+        this.artists = source.artists;
+        this.rowCount = source.rowCount;
+        this.releaseDates = Arrays.copyOf(source.releaseDates, rows);
+        this.otherDates = new ArrayList<>(source.otherDates);
+        this.otherDateIds = new HashMap<>(source.otherDateIds);
+        this.titles = new ByteArena(source.titles);
+        this.titleOffsets = Arrays.copyOf(source.titleOffsets, rows);
+        this.otherNames = new ArrayList<>(source.otherNames);
+        this.artistStarts = Arrays.copyOf(source.artistStarts, rows);
+        this.artistCounts = Arrays.copyOf(source.artistCounts, rows);
+        this.artistIds = Arrays.copyOf(source.artistIds, Math.max(source.artistIdCount, 1));
+        this.artistIdCount = source.artistIdCount;
+    }
+
+    /**
+     * Returns an independent copy of the stored rows, with room for capacity rows. The artist dictionary is
+     * shared, since it only ever grows.
+     *
+     * Precondition: capacity &gt;= size().
+     * Postcondition: A copy with the same rows is returned; this storage is unchanged.
+     *
+     * @param capacity the number of rows the copy should be able to take without growing.
+     * @return the copy.
+     */
+    public CompactSongText copy(int capacity) {
+        return new CompactSongText(this, capacity);
+    }
+
+    /**
+     * Stores the release date, title and artists of a song at a row, appending the row or replacing it.
+     *
+     * Precondition: song is not null and 0 &lt;= row &lt;= size().
+     * Postcondition: The row reads back the song's text fields.
+     *
+     * @param row the row ordinal.
+     * @param song the song whose text fields are stored.
+     * @throws IllegalStateException if the titles need more than 2 GB of arena.
+     */
+    public void set(int row, SongRecord song) {
+        if (row >= releaseDates.length) {
+            grow(Math.max(row + 1, releaseDates.length * 2));
+        }
+        releaseDates[row] = encodeReleaseDate(song.getReleaseDate());
+        titleOffsets[row] = encodeName(song.getName());
+
+        List<String> names = song.getArtists();
+        if (names == null) {
+            artistCounts[row] = -1;
+        } else {
+            if (artistIdCount + names.size() > artistIds.length) {
+                artistIds = Arrays.copyOf(artistIds, Math.max(artistIdCount + names.size(), artistIds.length * 2));
+            }
+            artistStarts[row] = artistIdCount;
+            artistCounts[row] = names.size();
+            for (int i = 0; i < names.size(); i++) {
+                artistIds[artistIdCount++] = artists.intern(names.get(i));
+            }
+        }
+        rowCount = Math.max(rowCount, row + 1);
+    }
+
+    private int encodeReleaseDate(String date) {
+        if (date == null) {
+            return NULL_DATE;
+        }
+        int packed = packReleaseDate(date);
+        if (packed < 0) {
+            Integer index = otherDateIds.get(date);
+            if (index == null) {
+                index = otherDates.size();
+                otherDateIds.put(date, index);
+                otherDates.add(date);
+            }
+            packed = -(index + 1);
+        }
+        return packed;
+    }
+
+    private int encodeName(String name) {
+        if (name == null) {
+            return NULL_NAME;
+        }
+        if (hasUnpairedSurrogate(name)) {
+            otherNames.add(name);
+            return -(otherNames.size() + 1);
+        }
+        return titles.append(name);
+    }
+
+    private static boolean hasUnpairedSurrogate(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void grow(int capacity) {
+        releaseDates = Arrays.copyOf(releaseDates, capacity);
+        titleOffsets = Arrays.copyOf(titleOffsets, capacity);
+        artistStarts = Arrays.copyOf(artistStarts, capacity);
+        artistCounts = Arrays.copyOf(artistCounts, capacity);
+    }
+
+    /**
+     * Packs a release date of the form YYYY, YYYY-MM or YYYY-MM-DD into an int.
+     *
+     * Precondition: None.
+     * Postcondition: unpackReleaseDate of a non-negative result returns date exactly.
+     *
+     * @param date the release date text.
+     * @return the packed date, or -1 if the text is not in one of the three forms.
+     */
+    public static int packReleaseDate(String date) {
+        int length = date == null ? 0 : date.length();
+        if (length != 4 && length != 7 && length != 10) {
+            return -1;
+        }
+        int year = digits(date, 0, 4);
+        int month = length >= 7 && date.charAt(4) == '-' ? digits(date, 5, 7) : -1;
+        int day = length == 10 && date.charAt(7) == '-' ? digits(date, 8, 10) : -1;
+        if (year < 0 || (length >= 7 && (month < 1 || month > 12)) || (length == 10 && (day < 1 || day > 31))) {
+            return -1;
+        }
+        return year << 9 | Math.max(month, 0) << 5 | Math.max(day, 0);
+    }
+
+    /**
+     * Turns a packed release date back into its text.
+     *
+     * Precondition: packed was returned by packReleaseDate and is not negative.
+     * Postcondition: The original text is returned.
+     *
+     * @param packed the packed date.
+     * @return the release date text.
+     */
+    public static String unpackReleaseDate(int packed) {
+        int year = packed >>> 9;
+        int month = (packed >>> 5) & 0xF;
+        int day = packed & 0x1F;
+        char[] text = new char[day != 0 ? 10 : month != 0 ? 7 : 4];
+        writeDigits(text, 0, year, 4);
+        if (month != 0) {
+            text[4] = '-';
+            writeDigits(text, 5, month, 2);
+        }
+        if (day != 0) {
+            text[7] = '-';
+            writeDigits(text, 8, day, 2);
+        }
+        return new String(text);
+    }
+
+    /**
+     * Returns whether a packed release date gives only the year.
+     *
+     * Precondition: packed was returned by packReleaseDate and is not negative.
+     * Postcondition: The precision is returned.
+     *
+     * @param packed the packed date.
+     * @return true for a year-only date.
+     */
+    public static boolean isYearOnly(int packed) {
+        return (packed & 0x1FF) == 0;
+    }
+
+    /**
+     * Returns the number of stored rows.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the release date of a row.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: Text equal to the row's original release date is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the release date, or null if the song had none.
+     */
+    public String getReleaseDate(int ordinal) {
+        int packed = releaseDates[ordinal];
+        if (packed == NULL_DATE) {
+            return null;
+        }
+        return packed < 0 ? otherDates.get(-packed - 1) : unpackReleaseDate(packed);
+    }
+
+    /**
+     * Returns the packed release date of a row, or a negative value if it is not a YYYY[-MM[-DD]] date.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: The packed value is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the packed release date.
+     */
+    public int getPackedReleaseDate(int ordinal) {
+        return releaseDates[ordinal];
+    }
+
+    /**
+     * Returns the title of a row, decoded from the arena.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: Text equal to the row's original title is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the title, or null if the song had none.
+     */
+    public String getName(int ordinal) {
+        int position = titleOffsets[ordinal];
+        if (position < 0) {
+            return position == NULL_NAME ? null : otherNames.get(-position - 2);
+        }
+        byte[] arena = titles.bytes;
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = arena[position++];
+            length |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return new String(arena, position, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the artists of a row, as the dictionary's shared Strings.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: A list equal to the row's original artist list is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the artists, or null if the song had no list.
+     */
+    public List<String> getArtists(int ordinal) {
+        int count = artistCounts[ordinal];
+        if (count < 0) {
+            return null;
+        }
+        int start = artistStarts[ordinal];
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = artists.name(artistIds[start + i]);
+        }
+        return Arrays.asList(names);
+    }
+
+    /**
+     * Returns the estimated bytes the stored fields would use as the String and List objects of
+     * EagerSongRecords, with each artist's name shared by all of its songs.
+     *
+     * Precondition: None.
+     * Postcondition: The estimate is returned.
+     *
+     * @return the bytes the fields would use as objects.
+     */
+    public long getBytesBefore() {
+        return Arrays.stream(measure()[0]).sum();
+    }
+
+    /**
+     * Returns the bytes used by the encoding, including unused space and the dictionary entries it refers to.
+     *
+     * Precondition: None.
+     * Postcondition: The estimate is returned.
+     *
+     * @return the bytes used by the stored fields.
+     */
+    public long getBytesAfter() {
+        return Arrays.stream(measure()[1]).sum();
+    }
+
+    /**
+     * Returns a table of memory per field: "before" is what the fields would use as the String and List
+     * objects of EagerSongRecords, and "after" is what this storage uses for them.
+     *
+     * Precondition: No row is being set.
+     * Postcondition: The table is returned.
+     *
+     * @return the formatted memory breakdown.
+     */
+    public String memoryReport() {
+        long[][] bytes = measure();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-12s %14s %14s %8s%n", "field", "before", "after", "saved"));
+        for (int f = 0; f < FIELDS.length; f++) {
+            out.append(row(FIELDS[f], bytes[0][f], bytes[1][f]));
+        }
+        out.append(row("total", Arrays.stream(bytes[0]).sum(), Arrays.stream(bytes[1]).sum()));
+        return out.toString();
+    }
+
+    private static String row(String field, long before, long after) {
+        double saved = before == 0 ? 0 : 100.0 * (before - after) / before;
+        return String.format("%-12s %,14d %,14d %7.1f%%%n", field, before, after, saved);
+    }
+
+    /**
+     * Estimates the memory of the stored fields as objects and measures the encoded arrays, per field.
+     */
+    private long[][] measure() {
+        long[] before = new long[FIELDS.length];
+        long[] after = new long[FIELDS.length];
+        BitSet usedArtists = new BitSet();
+        for (int row = 0; row < rowCount; row++) {
+            // Each field costs the record a 4-byte reference plus the objects it points to.
+            before[0] += 4 + stringBytes(getReleaseDate(row));
+            before[1] += 4 + stringBytes(getName(row));
+            before[2] += 4;
+            int count = artistCounts[row];
+            if (count >= 0) {
+                // Arrays.asList wraps the array in a 16-byte object.
+                before[2] += 16 + arrayBytes(count, 4);
+                for (int i = 0; i < count; i++) {
+                    usedArtists.set(artistIds[artistStarts[row] + i]);
+                }
+            }
+        }
+
+        long artistNames = 0;
+        long dictionaryArtists = 0;
+        for (int id = usedArtists.nextSetBit(0); id >= 0; id = usedArtists.nextSetBit(id + 1)) {
+            long name = stringBytes(artists.name(id));
+            artistNames += name;
+            // The shared String plus its entries in the dictionary's map and array.
+            dictionaryArtists += name + 32 + 16 + 4;
+        }
+        before[2] += artistNames;
+
+        long dictionaryDates = 0;
+        for (String date : otherDates) {
+            dictionaryDates += 4 + stringBytes(date);
+        }
+        long otherTitles = 0;
+        for (String name : otherNames) {
+            otherTitles += 4 + stringBytes(name);
+        }
+        after[0] = arrayBytes(releaseDates.length, Integer.BYTES) + dictionaryDates;
+        after[1] = arrayBytes(titleOffsets.length, Integer.BYTES) + arrayBytes(titles.bytes.length, 1) + otherTitles;
+        after[2] = 2 * arrayBytes(artistStarts.length, Integer.BYTES) + arrayBytes(artistIds.length, Integer.BYTES)
+                + dictionaryArtists;
+        return new long[][] {before, after};
+    }
+
+    private static long stringBytes(String text) {
+        if (text == null) {
+            return 0;
+        }
+        boolean latin1 = true;
+        for (int i = 0; i < text.length() && latin1; i++) {
+            latin1 = text.charAt(i) < 256;
+        }
+        return 24 + arrayBytes(text.length(), latin1 ? 1 : 2);
+    }
+
+    private static long arrayBytes(long length, int elementSize) {
+        return (16 + length * elementSize + 7) & ~7L;
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] text, int at, int value, int width) {
+        for (int i = at + width - 1; i >= at; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * A growable byte array of length-prefixed UTF-8 strings.
+     */
+    private static final class ByteArena {
+        private byte[] bytes;
+        private int length;
+
+        ByteArena(int capacity) {
+            bytes = new byte[Math.max(capacity, 64)];
+        }
+
+        ByteArena(ByteArena source) {
+            bytes = Arrays.copyOf(source.bytes, Math.max(source.length, 64));
+            length = source.length;
+        }
+
+        int append(String text) {
+            // Most titles are ASCII, whose UTF-8 bytes are the chars themselves.
+            int ascii = 0;
+            while (ascii < text.length() && text.charAt(ascii) < 0x80) {
+                ascii++;
+            }
+            byte[] utf8 = ascii == text.length() ? null : text.getBytes(StandardCharsets.UTF_8);
+            int size = utf8 == null ? ascii : utf8.length;
+            int needed = length + 5 + size;
+            if (needed < 0) {
+                throw new IllegalStateException("Title arena exceeds 2 GB");
+            }
+            if (needed > bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(needed, 2L * bytes.length)));
+            }
+            int offset = length;
+            int value = size;
+            while (value >= 0x80) {
+                bytes[length++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+            if (utf8 == null) {
+                for (int i = 0; i < size; i++) {
+                    bytes[length + i] = (byte) text.charAt(i);
+                }
+            } else {
+                System.arraycopy(utf8, 0, bytes, length, size);
+            }
+            length += size;
+            return offset;
+        }
+    }
+}
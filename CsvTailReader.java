@@ -0,0 +1,343 @@
+//package hashingAndDocumentation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * The CsvTailReader class follows a song CSV file that another process keeps appending to. It remembers the
+ * byte offset just past the last complete line it consumed, and each poll parses only the complete lines
+ * written since then. A last line without its newline is left for the next poll, so a row that is still
+ * being written is never read half-way.
+ *
+ * A poll starts over from the beginning of the file when the file was truncated (it is shorter than the
+ * consumed offset) or rotated (it is a different file, or its already consumed start has changed). The
+ * returned Batch then holds every row of the file and is marked as a full load, so the caller can replace
+ * its songs instead of adding to them.
+ *
+ * Rows that cannot be parsed are skipped and counted in the SongMetrics passed to poll, so one bad row does
+ * not stop the rows after it from being ingested.
+ *
+ * A reader is not thread-safe; poll it from one thread at a time.
+ *
+ * Precondition: The CSV file has a header as its first line and is UTF-8 encoded.
+ * Postcondition: Every complete data row is returned exactly once per file generation, in file order.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class CsvTailReader {
+
+    // Number of bytes read from the file at a time.
+    private static final int READ_BLOCK_SIZE = 1 << 20;
+
+    // Number of leading bytes whose checksum identifies the file across polls.
+    private static final int PREFIX_CHECK_SIZE = 4096;
+
+    private final Path path;
+
+    // Offset just past the last consumed line; 0 before the first poll or after a reset.
+    private long offset;
+
+    // Identity of the file at the last poll, used to notice rotation.
+    private Object fileKey;
+    private long lastModified;
+    private long prefixLength;
+    private long prefixChecksum;
+
+    /**
+     * Constructor that creates a reader positioned before the start of the file.
+     *
+     * Precondition: filePath is not null.
+     * Postcondition: The first poll returns every row of the file as a full load.
+     *
+     * @param filePath the path to the CSV file to follow.
+     */
+    public CsvTailReader(String filePath) {
+        this.path = Paths.get(filePath);
+    }
+
+    /**
+     * Reads the complete lines appended since the last poll, or every line if the file was truncated or rotated.
+     * Rows that cannot be parsed are counted in metrics and left out of the batch.
+     *
+     * Precondition: The file exists and metrics is not null.
+     * Postcondition: The consumed offset has moved past the last complete line of the file; if reading
+     *                fails, the offset is unchanged.
+     *
+     * @param metrics the metrics that count the rows read, parsed and rejected.
+     * @return the rows read by this poll.
+     * @throws IOException if the file cannot be read.
+     */
+    public Batch poll(SongMetrics metrics) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            boolean fullLoad = offset == 0 || size < offset
+                    || !Objects.equals(attributes.fileKey(), fileKey)
+                    || (modified != lastModified && prefixChecksum(channel, prefixLength) != prefixChecksum);
+            long from = offset;
+            List<SongRecord> songs = new ArrayList<>();
+            if (fullLoad) {
+                from = skipHeader(channel, size);
+            }
+            SongMetrics.LoadRecorder recorder = metrics.startLoad(path + " from byte " + from);
+            long consumedTo;
+            long rejected;
+            try {
+                consumedTo = readLines(channel, from, size, songs, recorder);
+            } finally {
+                rejected = recorder.finish();
+            }
+
+            // A file whose header is not complete yet stays at offset 0, so the next poll is a full load again.
+            offset = consumedTo;
+            fileKey = attributes.fileKey();
+            lastModified = modified;
+            prefixLength = Math.min(offset, PREFIX_CHECK_SIZE);
+            prefixChecksum = prefixChecksum(channel, prefixLength);
+            return new Batch(fullLoad, songs, from, offset, rejected);
+        }
+    }
+
+    /**
+     * Forgets the consumed offset, so the next poll reads the whole file again.
+     *
+     * Precondition: None.
+     * Postcondition: The next poll returns a full load.
+     */
+    public void reset() {
+        offset = 0;
+        fileKey = null;
+    }
+
+    /**
+     * Returns the byte offset just past the last consumed line.
+     *
+     * Precondition: None.
+     * Postcondition: The offset is returned (0 before the first poll).
+     *
+     * @return the consumed offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the path of the followed file.
+     *
+     * Precondition: None.
+     * Postcondition: The path is returned.
+     *
+     * @return the file path.
+     */
+    public String getPath() {
+        return path.toString();
+    }
+
+    /**
+     * Returns the offset just after the header line, or 0 if the header is not complete yet.
+     */
+    private static long skipHeader(FileChannel channel, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(PREFIX_CHECK_SIZE);
+        long position = 0;
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return 0;
+    }
+
+    /**
+     * Parses every complete line in [from, size) into songs.
+     *
+     * Precondition: from is the start of a line.
+     * Postcondition: Returns the offset just past the last complete line (from if there is none).
+     */
+    private static long readLines(FileChannel channel, long from, long size, List<SongRecord> songs,
+                                  SongMetrics.LoadRecorder recorder) throws IOException {
+        if (from == 0) {
+            // The header itself is not complete yet, so there are no data rows to read.
+            return 0;
+        }
+        SongRecordParser parser = SongRecordParser.forCurrentThread();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(READ_BLOCK_SIZE, Math.max(size - from, 1)));
+        CharBuffer chars = CharBuffer.allocate(bytes.capacity());
+        long position = from;
+        long consumed = from;
+
+        while (position < size) {
+            int n = channel.read(bytes, position);
+            if (n <= 0) {
+                break;
+            }
+            position += n;
+            int lastNewline = lastNewline(bytes);
+            if (lastNewline < 0) {
+                if (!bytes.hasRemaining()) {
+                    // A single line is longer than the buffer: enlarge it and keep reading.
+                    ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+                    bytes.flip();
+                    larger.put(bytes);
+                    bytes = larger;
+                    chars = CharBuffer.allocate(bytes.capacity());
+                }
+                continue;
+            }
+
+            // Decode and parse the complete lines, then carry the partial line over to the next read.
+            int limit = bytes.position();
+            bytes.flip();
+            bytes.limit(lastNewline + 1);
+            chars.clear();
+            CoderResult result = decoder.reset().decode(bytes, chars, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            decoder.flush(chars);
+            parseLines(parser, chars.array(), 0, chars.position(), songs, recorder);
+            consumed += lastNewline + 1;
+            bytes.limit(limit);
+            bytes.compact();
+        }
+        return consumed;
+    }
+
+    /**
+     * Returns the index of the last '\n' among the bytes read into buffer, or -1 if there is none.
+     */
+    private static int lastNewline(ByteBuffer buffer) {
+        for (int i = buffer.position() - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the newline-terminated lines in chars[from, to), skipping blank lines and rows that cannot be parsed.
+     */
+    private static void parseLines(SongRecordParser parser, char[] chars, int from, int to, List<SongRecord> songs,
+                                   SongMetrics.LoadRecorder recorder) {
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && chars[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            // Drop the carriage return of a Windows line ending.
+            if (lineEnd > lineStart && chars[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > lineStart) {
+                recorder.lineRead();
+                SongRecord song = recorder.parse(parser, chars, lineStart, lineEnd);
+                if (song != null) {
+                    songs.add(song);
+                }
+            }
+            lineStart = next;
+        }
+    }
+
+    /**
+     * Returns the CRC-32 of the first length bytes of the file.
+     */
+    private static long prefixChecksum(FileChannel channel, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        if (length > 0) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+                // Keep reading until the prefix is complete or the file ends.
+            }
+            buffer.flip();
+            crc.update(buffer);
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * The rows read by one poll.
+     */
+    public static final class Batch {
+        private final boolean fullLoad;
+        private final List<SongRecord> songs;
+        private final long fromOffset;
+        private final long toOffset;
+        private final long rejectedCount;
+
+        Batch(boolean fullLoad, List<SongRecord> songs, long fromOffset, long toOffset, long rejectedCount) {
+            this.fullLoad = fullLoad;
+            this.songs = songs;
+            this.fromOffset = fromOffset;
+            this.toOffset = toOffset;
+            this.rejectedCount = rejectedCount;
+        }
+
+        /**
+         * Returns whether the batch holds the whole file (first poll, truncation or rotation) rather than
+         * only appended rows.
+         *
+         * @return true for a full load.
+         */
+        public boolean isFullLoad() { return fullLoad; }
+
+        /**
+         * Returns the parsed rows in file order.
+         *
+         * @return the songs read.
+         */
+        public List<SongRecord> getSongs() { return songs; }
+
+        /**
+         * Returns the offset the batch started reading at.
+         *
+         * @return the start offset in bytes.
+         */
+        public long getFromOffset() { return fromOffset; }
+
+        /**
+         * Returns the offset just past the last line of the batch.
+         *
+         * @return the end offset in bytes.
+         */
+        public long getToOffset() { return toOffset; }
+
+        /**
+         * Returns the number of rows that could not be parsed and were skipped.
+         *
+         * @return the rejected row count.
+         */
+        public long getRejectedCount() { return rejectedCount; }
+    }
+}
@@ -0,0 +1,126 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The EagerSongRecord class is a SongRecord that holds every value in its own field, parsed when the record
+ * is made. It is the record built by SongRecordParser and by the CSV loaders, and the one to create when a
+ * song is assembled by hand.
+ *
+ * Precondition: When using the CSV constructor, the input string must contain exactly 19 comma-separated
+ *               values in the correct order.
+ * Postcondition: A record is created with all fields populated from default values or the parsed CSV.
+ *
+ * Example CSV input (19 values expected):
+ *   "0.5,2020,0.1,[Artist1;Artist2],0.7,210000,0.8,0,abc123,0.0,5,0.1,-5.0,1,Song Name,50,2020-01-01,0.05,120.0"
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class EagerSongRecord extends SongRecord {
+    // Instance variables to store song attributes
+    private double valence;
+    private int year;
+    private double acousticness;
+    private List<String> artists;
+    private double danceability;
+    private int durationMs;
+    private double energy;
+    private int explicit;
+    private String id;
+    private double instrumentalness;
+    private int key;
+    private double liveness;
+    private double loudness;
+    private int mode;
+    private String name;
+    private int popularity;
+    private String releaseDate;
+    private double speechiness;
+    private double tempo;
+
+    /**
+     * Default constructor that sets default values for the record.
+     *
+     * Precondition: None.
+     * Postcondition: All fields are set to default values (e.g., 0 for numbers, "Unknown Title" for name).
+     */
+    public EagerSongRecord() {
+        this.valence = 0.0;
+        this.year = 0;
+        this.acousticness = 0.0;
+        this.artists = Arrays.asList("Unknown Artist");
+        this.danceability = 0.0;
+        this.durationMs = 0;
+        this.energy = 0.0;
+        this.explicit = 0;
+        this.id = "";
+        this.instrumentalness = 0.0;
+        this.key = 0;
+        this.liveness = 0.0;
+        this.loudness = 0.0;
+        this.mode = 0;
+        this.name = "Unknown Title";
+        this.popularity = 0;
+        this.releaseDate = "0";
+        this.speechiness = 0.0;
+        this.tempo = 0.0;
+    }
+
+    /**
+     * Constructs a record from a CSV-formatted string.
+     * Parsing is delegated to the calling thread's SongRecordParser, which reads the fields in a single pass
+     * and also accepts quoted fields that contain commas.
+     *
+     * Precondition: The 'data' parameter must be a properly formatted CSV string containing exactly 19 values.
+     * Postcondition: The record has its fields populated with the values parsed from the CSV string.
+     *
+     * @param data A CSV string with 19 comma-separated values representing song attributes.
+     * @throws NumberFormatException if numeric conversion fails.
+     * @throws IllegalArgumentException if the string does not contain 19 values.
+     */
+    public EagerSongRecord(String data) {
+        SongRecordParser.forCurrentThread().parseInto(data, this);
+    }
+
+    @Override public double getValence() { return valence; }
+    @Override public int getYear() { return year; }
+    @Override public double getAcousticness() { return acousticness; }
+    @Override public List<String> getArtists() { return artists; }
+    @Override public double getDanceability() { return danceability; }
+    @Override public int getDurationMs() { return durationMs; }
+    @Override public double getEnergy() { return energy; }
+    @Override public int getExplicit() { return explicit; }
+    @Override public String getId() { return id; }
+    @Override public double getInstrumentalness() { return instrumentalness; }
+    @Override public int getKey() { return key; }
+    @Override public double getLiveness() { return liveness; }
+    @Override public double getLoudness() { return loudness; }
+    @Override public int getMode() { return mode; }
+    @Override public String getName() { return name; }
+    @Override public int getPopularity() { return popularity; }
+    @Override public String getReleaseDate() { return releaseDate; }
+    @Override public double getSpeechiness() { return speechiness; }
+    @Override public double getTempo() { return tempo; }
+
+    @Override public void setValence(double valence) { this.valence = valence; contentChanged(); }
+    @Override public void setYear(int year) { this.year = year; contentChanged(); }
+    @Override public void setAcousticness(double acousticness) { this.acousticness = acousticness; contentChanged(); }
+    @Override public void setArtists(List<String> artists) { this.artists = artists; contentChanged(); }
+    @Override public void setDanceability(double danceability) { this.danceability = danceability; contentChanged(); }
+    @Override public void setDurationMs(int durationMs) { this.durationMs = durationMs; contentChanged(); }
+    @Override public void setEnergy(double energy) { this.energy = energy; contentChanged(); }
+    @Override public void setExplicit(int explicit) { this.explicit = explicit; contentChanged(); }
+    @Override public void setId(String id) { this.id = id; }
+    @Override public void setInstrumentalness(double instrumentalness) { this.instrumentalness = instrumentalness; contentChanged(); }
+    @Override public void setKey(int key) { this.key = key; contentChanged(); }
+    @Override public void setLiveness(double liveness) { this.liveness = liveness; contentChanged(); }
+    @Override public void setLoudness(double loudness) { this.loudness = loudness; contentChanged(); }
+    @Override public void setMode(int mode) { this.mode = mode; contentChanged(); }
+    @Override public void setName(String name) { this.name = name; contentChanged(); }
+    @Override public void setPopularity(int popularity) { this.popularity = popularity; contentChanged(); }
+    @Override public void setReleaseDate(String releaseDate) { this.releaseDate = releaseDate; contentChanged(); }
+    @Override public void setSpeechiness(double speechiness) { this.speechiness = speechiness; contentChanged(); }
+    @Override public void setTempo(double tempo) { this.tempo = tempo; contentChanged(); }
+}
@@ -0,0 +1,184 @@
+//package hashingAndDocumentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The GroupByQuery class describes a grouped aggregation over a SongStore, such as "mean energy and tempo
+ * per year" or "valence percentiles per key", and runs it in parallel.
+ *
+ * Every group gets a row count, and for each measured column its sum, mean, minimum and maximum. When
+ * quantiles are enabled, each measured column also gets an approximate quantile sketch (see GroupByResult).
+ *
+ * The rows are split into one contiguous range per worker thread. Each worker fills its own GroupByResult
+ * from the store's primitive columns, and the partial results are merged at the end, so no accumulator is
+ * shared between threads and no value is boxed.
+ *
+ * Precondition: The store is not modified while a query runs on it.
+ * Postcondition: Counts, sums, minimums and maximums equal those of a sequential scan (sums up to
+ *                floating-point rounding order).
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class GroupByQuery {
+
+    // Smallest number of rows worth giving to a separate task.
+    private static final int MIN_ROWS_PER_TASK = 16 * 1024;
+
+    private final SongGrouping grouping;
+    private final List<SongColumn> measures = new ArrayList<>();
+    private boolean quantiles;
+
+    /**
+     * Constructor that creates a query grouping songs one way, with no measured columns yet.
+     *
+     * Precondition: grouping is not null.
+     * Postcondition: Running the query counts the songs of each group.
+     *
+     * @param grouping how songs are grouped.
+     */
+    public GroupByQuery(SongGrouping grouping) {
+        this.grouping = grouping;
+    }
+
+    /**
+     * Adds columns whose sum, mean, minimum and maximum are computed per group.
+     *
+     * Precondition: columns are not null.
+     * Postcondition: The columns are measured; a column given twice is measured once.
+     *
+     * @param columns the attributes to aggregate.
+     * @return this query, for chaining.
+     */
+    public GroupByQuery measure(SongColumn... columns) {
+        for (SongColumn column : columns) {
+            if (!measures.contains(column)) {
+                measures.add(column);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Enables approximate quantiles (such as medians and percentiles) for every measured column.
+     *
+     * Precondition: None.
+     * Postcondition: Results of the query answer GroupByResult.quantile.
+     *
+     * @return this query, for chaining.
+     */
+    public GroupByQuery withQuantiles() {
+        quantiles = true;
+        return this;
+    }
+
+    /**
+     * Returns how songs are grouped.
+     *
+     * Precondition: None.
+     * Postcondition: The grouping is returned.
+     *
+     * @return the grouping.
+     */
+    public SongGrouping getGrouping() {
+        return grouping;
+    }
+
+    /**
+     * Returns the measured columns, in the order they were added.
+     *
+     * Precondition: None.
+     * Postcondition: A new array is returned.
+     *
+     * @return the measured columns.
+     */
+    public SongColumn[] getMeasures() {
+        return measures.toArray(new SongColumn[0]);
+    }
+
+    /**
+     * Returns whether results include quantile sketches.
+     *
+     * Precondition: None.
+     * Postcondition: The flag is returned.
+     *
+     * @return true if quantiles are enabled.
+     */
+    public boolean hasQuantiles() {
+        return quantiles;
+    }
+
+    /**
+     * Runs the query over every row of a store on the common fork-join pool.
+     *
+     * Precondition: store is not null and is not modified while the query runs.
+     * Postcondition: A result with one group per distinct key in the store is returned.
+     *
+     * @param store the songs to aggregate.
+     * @return the result.
+     */
+    public GroupByResult run(SongStore store) {
+        return run(store, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the query over every row of a store on the given pool.
+     *
+     * Precondition: store and pool are not null, and store is not modified while the query runs.
+     * Postcondition: A result with one group per distinct key in the store is returned.
+     *
+     * @param store the songs to aggregate.
+     * @param pool the pool that runs the partial aggregations.
+     * @return the result.
+     */
+    public GroupByResult run(SongStore store, ForkJoinPool pool) {
+        SongColumn[] columns = getMeasures();
+        int size = store.size();
+        if (size == 0) {
+            return new GroupByResult(this, 0, -1, new double[columns.length], new double[columns.length]);
+        }
+
+        // Fix the key range and the quantile sketch bounds up front, so every partial has the same layout.
+        SongColumn source = grouping.getSource();
+        int keyMin = grouping.keyOf((int) store.min(null, source));
+        int keyMax = grouping.keyOf((int) store.max(null, source));
+        double[] low = new double[columns.length];
+        double[] high = new double[columns.length];
+        if (quantiles) {
+            for (int m = 0; m < columns.length; m++) {
+                low[m] = store.min(null, columns[m]);
+                high[m] = store.max(null, columns[m]);
+            }
+        }
+
+        int tasks = Math.max(1, Math.min(pool.getParallelism(), size / MIN_ROWS_PER_TASK));
+        List<ForkJoinTask<GroupByResult>> partials = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int start = (int) ((long) size * t / tasks);
+            int end = (int) ((long) size * (t + 1) / tasks);
+            partials.add(pool.submit(() -> {
+                GroupByResult partial = new GroupByResult(this, keyMin, keyMax, low, high);
+                for (int row = start; row < end; row++) {
+                    partial.add(store, row);
+                }
+                return partial;
+            }));
+        }
+
+        GroupByResult result = partials.get(0).join();
+        for (int t = 1; t < tasks; t++) {
+            result.merge(partials.get(t).join());
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "GroupByQuery{grouping=" + grouping + ", measures=" + Arrays.toString(getMeasures())
+                + ", quantiles=" + quantiles + '}';
+    }
+}
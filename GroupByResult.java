@@ -0,0 +1,420 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+
+/**
+ * The GroupByResult class holds the per-group aggregates computed by a GroupByQuery: a row count per group,
+ * and the sum, minimum and maximum of every measured column. All values live in flat primitive arrays
+ * indexed by group slot (group key minus the smallest key) and measured column, so adding a row only updates
+ * a few array elements.
+ *
+ * Quantiles are approximated with a fixed-width histogram of QUANTILE_BINS bins per group and column, spread
+ * between the column's minimum and maximum over the whole store when the query ran. A quantile is therefore
+ * accurate to within one bin width (1/1024 of the column's range). Values added later that fall outside that
+ * range are counted in the first or last bin. Histograms merge by adding their counts.
+ *
+ * A result can keep growing: add updates it with further songs, and merge folds in another partial result.
+ * It is not thread-safe while it is being updated.
+ *
+ * Precondition: Results are only merged with results of the same query run over the same store.
+ * Postcondition: The getters describe every row added so far.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class GroupByResult {
+
+    // Number of histogram bins per group and measured column.
+    public static final int QUANTILE_BINS = 1024;
+
+    private final SongGrouping grouping;
+    private final SongColumn[] measures;
+
+    // Position of each column in measures, by SongColumn ordinal, or -1 if it is not measured.
+    private final int[] measureIndex = new int[SongColumn.values().length];
+
+    // Group key stored in slot 0, and the number of slots.
+    private int keyMin;
+    private int slots;
+
+    // Per slot: row count. Per slot and measure (slot * measures.length + m): sum, minimum and maximum.
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxs;
+
+    // Per slot, measure and bin; null when the query has no quantiles.
+    private long[] histograms;
+    private final double[] histogramLow;
+    private final double[] binsPerUnit;
+
+    /**
+     * Constructor that creates an empty result for a query, with slots for the keys keyMin to keyMax.
+     *
+     * Precondition: low and high hold the quantile sketch bounds of each measured column.
+     * Postcondition: An empty result is created; keys outside the range are added on demand.
+     */
+    GroupByResult(GroupByQuery query, int keyMin, int keyMax, double[] low, double[] high) {
+        this.grouping = query.getGrouping();
+        this.measures = query.getMeasures();
+        Arrays.fill(measureIndex, -1);
+        for (int m = 0; m < measures.length; m++) {
+            measureIndex[measures[m].ordinal()] = m;
+        }
+        this.keyMin = keyMin;
+        this.slots = Math.max(0, keyMax - keyMin + 1);
+        this.counts = new long[slots];
+        this.sums = new double[slots * measures.length];
+        this.mins = new double[slots * measures.length];
+        this.maxs = new double[slots * measures.length];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+        this.histogramLow = low.clone();
+        this.binsPerUnit = new double[measures.length];
+        if (query.hasQuantiles()) {
+            histograms = new long[slots * measures.length * QUANTILE_BINS];
+            for (int m = 0; m < measures.length; m++) {
+                double range = high[m] - low[m];
+                binsPerUnit[m] = range > 0 ? QUANTILE_BINS / range : 0;
+            }
+        }
+    }
+
+    /**
+     * Adds one row of a store to its group.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; store.size().
+     * Postcondition: The row is counted in its group.
+     *
+     * @param store the store holding the row.
+     * @param ordinal the row ordinal.
+     */
+    public void add(SongStore store, int ordinal) {
+        int slot = slotFor(grouping.keyOf(store, ordinal));
+        counts[slot]++;
+        for (int m = 0; m < measures.length; m++) {
+            accumulate(slot, m, store.get(measures[m], ordinal));
+        }
+    }
+
+    /**
+     * Adds one song to its group, for example a song appended after the query ran.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The song is counted in its group.
+     *
+     * @param song the song to add.
+     */
+    public void add(SongRecord song) {
+        int slot = slotFor(grouping.keyOf(song));
+        counts[slot]++;
+        for (int m = 0; m < measures.length; m++) {
+            accumulate(slot, m, measures[m].read(song));
+        }
+    }
+
+    /**
+     * Adds every group of another result of the same query into this one.
+     *
+     * Precondition: other was created by the same query with the same quantile bounds.
+     * Postcondition: This result describes the rows of both results.
+     *
+     * @param other the partial result to fold in.
+     */
+    public void merge(GroupByResult other) {
+        int m = measures.length;
+        for (int otherSlot = 0; otherSlot < other.slots; otherSlot++) {
+            if (other.counts[otherSlot] == 0) {
+                continue;
+            }
+            int slot = slotFor(other.keyMin + otherSlot);
+            counts[slot] += other.counts[otherSlot];
+            for (int i = 0; i < m; i++) {
+                int to = slot * m + i;
+                int from = otherSlot * m + i;
+                sums[to] += other.sums[from];
+                mins[to] = Math.min(mins[to], other.mins[from]);
+                maxs[to] = Math.max(maxs[to], other.maxs[from]);
+                if (histograms != null) {
+                    for (int b = 0; b < QUANTILE_BINS; b++) {
+                        histograms[to * QUANTILE_BINS + b] += other.histograms[from * QUANTILE_BINS + b];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns an independent copy of this result.
+     *
+     * Precondition: None.
+     * Postcondition: Later changes to either result do not affect the other.
+     *
+     * @return the copy.
+     */
+    public GroupByResult copy() {
+        return new GroupByResult(this);
+    }
+
+    private GroupByResult(GroupByResult source) {
+        this.grouping = source.grouping;
+        this.measures = source.measures;
+        System.arraycopy(source.measureIndex, 0, measureIndex, 0, measureIndex.length);
+        this.keyMin = source.keyMin;
+        this.slots = source.slots;
+        this.counts = source.counts.clone();
+        this.sums = source.sums.clone();
+        this.mins = source.mins.clone();
+        this.maxs = source.maxs.clone();
+        this.histograms = source.histograms == null ? null : source.histograms.clone();
+        this.histogramLow = source.histogramLow;
+        this.binsPerUnit = source.binsPerUnit;
+    }
+
+    /**
+     * Returns the keys of every non-empty group, in ascending order.
+     *
+     * Precondition: None.
+     * Postcondition: A new array is returned.
+     *
+     * @return the group keys.
+     */
+    public int[] getGroups() {
+        int[] groups = new int[slots];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (counts[slot] > 0) {
+                groups[count++] = keyMin + slot;
+            }
+        }
+        return Arrays.copyOf(groups, count);
+    }
+
+    /**
+     * Returns how songs were grouped.
+     *
+     * Precondition: None.
+     * Postcondition: The grouping is returned.
+     *
+     * @return the grouping.
+     */
+    public SongGrouping getGrouping() {
+        return grouping;
+    }
+
+    /**
+     * Returns the number of songs in a group.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned (0 for an unknown group).
+     *
+     * @param group the group key.
+     * @return the number of songs.
+     */
+    public long count(int group) {
+        int slot = group - keyMin;
+        return slot >= 0 && slot < slots ? counts[slot] : 0;
+    }
+
+    /**
+     * Returns the sum of a measured column over a group.
+     *
+     * Precondition: column was measured by the query.
+     * Postcondition: The sum is returned (0 for an empty group).
+     *
+     * @param group the group key.
+     * @param column the measured attribute.
+     * @return the sum.
+     * @throws IllegalArgumentException if the column was not measured.
+     */
+    public double sum(int group, SongColumn column) {
+        int m = measure(column);
+        return count(group) == 0 ? 0 : sums[(group - keyMin) * measures.length + m];
+    }
+
+    /**
+     * Returns the mean of a measured column over a group.
+     *
+     * Precondition: column was measured by the query.
+     * Postcondition: The mean is returned, or NaN for an empty group.
+     *
+     * @param group the group key.
+     * @param column the measured attribute.
+     * @return the mean.
+     * @throws IllegalArgumentException if the column was not measured.
+     */
+    public double mean(int group, SongColumn column) {
+        long count = count(group);
+        return count == 0 ? Double.NaN : sum(group, column) / count;
+    }
+
+    /**
+     * Returns the smallest value of a measured column in a group.
+     *
+     * Precondition: column was measured by the query.
+     * Postcondition: The minimum is returned, or NaN for an empty group.
+     *
+     * @param group the group key.
+     * @param column the measured attribute.
+     * @return the minimum.
+     * @throws IllegalArgumentException if the column was not measured.
+     */
+    public double min(int group, SongColumn column) {
+        int m = measure(column);
+        return count(group) == 0 ? Double.NaN : mins[(group - keyMin) * measures.length + m];
+    }
+
+    /**
+     * Returns the largest value of a measured column in a group.
+     *
+     * Precondition: column was measured by the query.
+     * Postcondition: The maximum is returned, or NaN for an empty group.
+     *
+     * @param group the group key.
+     * @param column the measured attribute.
+     * @return the maximum.
+     * @throws IllegalArgumentException if the column was not measured.
+     */
+    public double max(int group, SongColumn column) {
+        int m = measure(column);
+        return count(group) == 0 ? Double.NaN : maxs[(group - keyMin) * measures.length + m];
+    }
+
+    /**
+     * Returns an approximate quantile of a measured column in a group, such as 0.5 for the median or 0.9
+     * for the 90th percentile. The value is interpolated within its histogram bin and clamped to the group's
+     * exact minimum and maximum; quantiles 0 and 1 return them exactly.
+     *
+     * Precondition: The query had quantiles enabled, column was measured, and 0 &lt;= q &lt;= 1.
+     * Postcondition: The quantile is returned, or NaN for an empty group.
+     *
+     * @param group the group key.
+     * @param column the measured attribute.
+     * @param q the quantile to estimate.
+     * @return the estimated value.
+     * @throws IllegalArgumentException if quantiles are not enabled, the column was not measured, or q is
+     *                                  outside [0, 1].
+     */
+    public double quantile(int group, SongColumn column, double q) {
+        int m = measure(column);
+        if (histograms == null) {
+            throw new IllegalArgumentException("Quantiles were not enabled for this query");
+        }
+        if (!(q >= 0 && q <= 1)) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        long count = count(group);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int cell = (group - keyMin) * measures.length + m;
+        if (q == 0 || binsPerUnit[m] == 0) {
+            return q == 1 ? maxs[cell] : mins[cell];
+        }
+        if (q == 1) {
+            return maxs[cell];
+        }
+
+        double rank = q * count;
+        long seen = 0;
+        int base = cell * QUANTILE_BINS;
+        for (int b = 0; b < QUANTILE_BINS; b++) {
+            long inBin = histograms[base + b];
+            if (inBin > 0 && seen + inBin >= rank) {
+                double value = histogramLow[m] + (b + (rank - seen) / inBin) / binsPerUnit[m];
+                return Math.max(mins[cell], Math.min(maxs[cell], value));
+            }
+            seen += inBin;
+        }
+        return maxs[cell];
+    }
+
+    /**
+     * Returns a table with one line per group: its key, its count, and the mean of every measured column.
+     *
+     * Precondition: None.
+     * Postcondition: The table is returned.
+     *
+     * @return the formatted result.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-10s %10s", grouping, "count"));
+        for (SongColumn column : measures) {
+            out.append(String.format(" %16s", "mean " + column.name().toLowerCase()));
+        }
+        out.append('\n');
+        for (int group : getGroups()) {
+            out.append(String.format("%-10d %,10d", group, count(group)));
+            for (SongColumn column : measures) {
+                out.append(String.format(" %16.4f", mean(group, column)));
+            }
+            out.append('\n');
+        }
+        return out.toString();
+    }
+
+    private int measure(SongColumn column) {
+        int m = measureIndex[column.ordinal()];
+        if (m < 0) {
+            throw new IllegalArgumentException("Column " + column + " was not measured");
+        }
+        return m;
+    }
+
+    private void accumulate(int slot, int m, double value) {
+        int cell = slot * measures.length + m;
+        sums[cell] += value;
+        if (value < mins[cell]) {
+            mins[cell] = value;
+        }
+        if (value > maxs[cell]) {
+            maxs[cell] = value;
+        }
+        if (histograms != null) {
+            int bin = (int) ((value - histogramLow[m]) * binsPerUnit[m]);
+            bin = bin < 0 ? 0 : Math.min(bin, QUANTILE_BINS - 1);
+            histograms[cell * QUANTILE_BINS + bin]++;
+        }
+    }
+
+    /**
+     * Returns the slot of a group key, widening the key range first if the key is outside it.
+     */
+    private int slotFor(int key) {
+        int slot = key - keyMin;
+        if (slot >= 0 && slot < slots) {
+            return slot;
+        }
+        int newMin = slots == 0 ? key : Math.min(keyMin, key);
+        int newSlots = slots == 0 ? 1 : Math.max(keyMin + slots, key + 1) - newMin;
+        int shift = slots == 0 ? 0 : keyMin - newMin;
+        int m = measures.length;
+        counts = widen(counts, newSlots, shift);
+        sums = widen(sums, newSlots * m, shift * m, 0);
+        mins = widen(mins, newSlots * m, shift * m, Double.POSITIVE_INFINITY);
+        maxs = widen(maxs, newSlots * m, shift * m, Double.NEGATIVE_INFINITY);
+        if (histograms != null) {
+            long[] wider = new long[newSlots * m * QUANTILE_BINS];
+            System.arraycopy(histograms, 0, wider, shift * m * QUANTILE_BINS, histograms.length);
+            histograms = wider;
+        }
+        keyMin = newMin;
+        slots = newSlots;
+        return key - keyMin;
+    }
+
+    private static long[] widen(long[] values, int length, int shift) {
+        long[] wider = new long[length];
+        System.arraycopy(values, 0, wider, shift, values.length);
+        return wider;
+    }
+
+    private static double[] widen(double[] values, int length, int shift, double empty) {
+        double[] wider = new double[length];
+        Arrays.fill(wider, empty);
+        System.arraycopy(values, 0, wider, shift, values.length);
+        return wider;
+    }
+}
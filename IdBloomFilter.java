@@ -0,0 +1,149 @@
+//package hashingAndDocumentation;
+
+/**
+ * The IdBloomFilter class is a Bloom filter over song IDs: a compact bit set that answers "might this ID be
+ * in the set?" with no false negatives and a small, configurable rate of false positives. It takes about
+ * 10 bits per ID for a 1% false positive rate, compared with roughly 100 bytes per ID for a hash map.
+ *
+ * IDs are hashed once with hash, and the same 64-bit hash can be tested against many filters, since each
+ * filter derives its k bit positions from it by double hashing (h1 + i * h2).
+ *
+ * Precondition: IDs are not null.
+ * Postcondition: mightContain returns true for every ID that was added.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class IdBloomFilter {
+
+    private final long[] bits;
+    private final long mask;
+    private final int hashCount;
+    private int count;
+
+    /**
+     * Constructor that creates an empty filter sized for an expected number of IDs.
+     *
+     * Precondition: 0 &lt; falsePositiveRate &lt; 1.
+     * Postcondition: An empty filter is created; its size is rounded up to a power of two bits.
+     *
+     * @param expectedIds the number of IDs that will be added.
+     * @param falsePositiveRate the wanted probability that an absent ID is reported as present.
+     */
+    public IdBloomFilter(int expectedIds, double falsePositiveRate) {
+        int n = Math.max(1, expectedIds);
+        double optimalBits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long size = Long.highestOneBit(Math.max(64, (long) Math.ceil(optimalBits)) * 2 - 1);
+        this.bits = new long[(int) Math.min(size >>> 6, 1 << 30)];
+        this.mask = (long) bits.length * 64 - 1;
+        this.hashCount = Math.max(1, (int) Math.round((double) (mask + 1) / n * Math.log(2)));
+    }
+
+    /**
+     * Returns the 64-bit hash of an ID used by add and mightContain.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The hash is returned; equal IDs always have equal hashes.
+     *
+     * @param id the song ID.
+     * @return the hash.
+     */
+    public static long hash(String id) {
+        // FNV-1a over the characters, then the SplitMix64 finalizer to spread the bits.
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h = (h ^ id.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Adds an ID.
+     *
+     * Precondition: id is not null.
+     * Postcondition: mightContain(id) returns true.
+     *
+     * @param id the song ID.
+     */
+    public void add(String id) {
+        long hash = hash(id);
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash + i * h2) & mask;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+        count++;
+    }
+
+    /**
+     * Tests whether an ID might have been added, given its hash.
+     *
+     * Precondition: hash was returned by IdBloomFilter.hash.
+     * Postcondition: true is returned for every added ID; false means the ID was certainly not added.
+     *
+     * @param hash the hash of the ID.
+     * @return whether the ID might be in the filter.
+     */
+    public boolean mightContain(long hash) {
+        long h2 = (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = (hash + i * h2) & mask;
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether an ID might have been added.
+     *
+     * Precondition: id is not null.
+     * Postcondition: true is returned for every added ID; false means the ID was certainly not added.
+     *
+     * @param id the song ID.
+     * @return whether the ID might be in the filter.
+     */
+    public boolean mightContain(String id) {
+        return mightContain(hash(id));
+    }
+
+    /**
+     * Returns the number of IDs added.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of add calls.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns the memory used by the bit set.
+     *
+     * Precondition: None.
+     * Postcondition: The size is returned.
+     *
+     * @return the size in bytes.
+     */
+    public long getBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    /**
+     * Returns the expected false positive rate for the IDs added so far.
+     *
+     * Precondition: None.
+     * Postcondition: A value between 0 and 1 is returned.
+     *
+     * @return the estimated false positive rate.
+     */
+    public double expectedFalsePositiveRate() {
+        double bitCount = mask + 1.0;
+        return Math.pow(1 - Math.exp(-hashCount * count / bitCount), hashCount);
+    }
+}
@@ -0,0 +1,211 @@
+//package hashingAndDocumentation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram class records durations (or any non-negative long values) from many threads without
+ * locking, and reports percentiles such as p50, p99 and p99.9.
+ *
+ * Values are counted in log-linear buckets: values below 16 have a bucket each, and every power-of-two range
+ * above is split into 16 equal sub-buckets, so a reported percentile is within 1/16 (6.25%) of the true
+ * value. To keep threads from contending on one counter, the buckets are striped: each thread increments its
+ * own copy, chosen by thread ID, and the copies are summed when the histogram is read.
+ *
+ * Recording costs one array index computation and one atomic increment, with no allocation.
+ *
+ * Precondition: Recorded values are not negative.
+ * Postcondition: Reads reflect every record call that completed before the read started.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class LatencyHistogram {
+
+    // Sub-buckets per power of two, as a shift (16 sub-buckets).
+    private static final int SUB_BITS = 4;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    // Enough buckets for every non-negative long.
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+    // Stripes of BUCKETS counters each; the number of stripes is a power of two.
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+
+    /**
+     * Constructor that creates an empty histogram with one stripe per available processor (at most 16).
+     *
+     * Precondition: None.
+     * Postcondition: An empty histogram is created.
+     */
+    public LatencyHistogram() {
+        int stripes = Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.counts = new AtomicLongArray(stripes * BUCKETS);
+        this.stripeMask = stripes - 1;
+    }
+
+    /**
+     * Records one value.
+     *
+     * Precondition: None.
+     * Postcondition: The value is counted; negative values are counted as 0.
+     *
+     * @param value the value to record, typically a duration in nanoseconds.
+     */
+    public void record(long value) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        counts.incrementAndGet(stripe * BUCKETS + bucketOf(Math.max(value, 0)));
+    }
+
+    /**
+     * Records the time elapsed since a start time taken with System.nanoTime.
+     *
+     * Precondition: startNanos was returned by System.nanoTime.
+     * Postcondition: The elapsed time is counted.
+     *
+     * @param startNanos the start time.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the bucket counts summed over all stripes.
+     *
+     * Precondition: None.
+     * Postcondition: A new array with one count per bucket is returned.
+     *
+     * @return the merged counts.
+     */
+    private long[] snapshot() {
+        long[] merged = new long[BUCKETS];
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            int base = stripe * BUCKETS;
+            for (int b = 0; b < BUCKETS; b++) {
+                merged[b] += counts.get(base + b);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of values.
+     */
+    public long count() {
+        long total = 0;
+        for (long count : snapshot()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Returns an estimate of a percentile of the recorded values: the upper bound of the bucket that holds it.
+     *
+     * Precondition: 0 &lt;= percentile &lt;= 100.
+     * Postcondition: The estimate is returned, or 0 if nothing was recorded.
+     *
+     * @param percentile the percentile, such as 99.9.
+     * @return the estimated value.
+     */
+    public long percentile(double percentile) {
+        long[] merged = snapshot();
+        long total = 0;
+        for (long count : merged) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += merged[b];
+            if (seen >= rank) {
+                return upperBound(b);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Returns the approximate mean of the recorded values, using each bucket's midpoint.
+     *
+     * Precondition: None.
+     * Postcondition: The mean is returned, or 0 if nothing was recorded.
+     *
+     * @return the estimated mean.
+     */
+    public double mean() {
+        long[] merged = snapshot();
+        long total = 0;
+        double sum = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            if (merged[b] > 0) {
+                total += merged[b];
+                sum += merged[b] * ((double) lowerBound(b) + upperBound(b)) / 2;
+            }
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    /**
+     * Clears every count.
+     *
+     * Precondition: None.
+     * Postcondition: Values recorded concurrently with the reset may or may not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns a one-line summary with the count and the main percentiles, treating values as nanoseconds.
+     *
+     * Precondition: None.
+     * Postcondition: The summary is returned.
+     *
+     * @return the summary text, with durations in microseconds.
+     */
+    public String summary() {
+        return String.format("count=%,d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count(), mean() / 1e3, percentile(50) / 1e3, percentile(90) / 1e3, percentile(99) / 1e3,
+                percentile(99.9) / 1e3, percentile(100) / 1e3);
+    }
+
+    /**
+     * Returns the bucket of a non-negative value.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+        return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        int sub = bucket % SUB_COUNT;
+        return (long) (SUB_COUNT + sub) << (exponent - SUB_BITS);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_COUNT) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+        return lowerBound(bucket) + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
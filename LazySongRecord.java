@@ -0,0 +1,463 @@
+//package hashingAndDocumentation;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * The LazySongRecord class is a SongRecord that keeps the raw UTF-8 bytes of its CSV line and decodes each
+ * field only when its getter is first called. Loading only has to find the field boundaries and decode the
+ * ID, so it skips the number parsing and the String and list allocations for the 18 other fields; callers
+ * that read two or three fields pay for those fields alone.
+ *
+ * Until a field other than the ID is read, a record holds only the line, the ID and an empty reference, so
+ * it is smaller than an eager record with its Strings and artist list. The first such read allocates the
+ * record's Values: the field boundaries, and room for every field, filled as fields are decoded or set. A
+ * decoded value is reused, so every later getter is nearly as fast as the eager class. Decoding uses SongRecordParser's decode methods and
+ * gives exactly the values a full parse would; equals, hashCode and toString go through the getters and
+ * therefore behave as for an eager record. Setters work as usual and the set value replaces the line's.
+ *
+ * A record made with of reports a malformed number only when the field is first read (by a
+ * NumberFormatException from its getter), and a wrong number of fields when it is made. Loaders use
+ * checked instead, which also decodes every number once, so that a row with a malformed number is skipped
+ * at load time rather than failing later.
+ *
+ * Once most fields have been read, a lazy record holds both the line and the decoded values and is larger
+ * than an eager one; use loadSongsFromCSV when every song will be read in full.
+ *
+ * Precondition: None.
+ * Postcondition: Every getter returns the value EagerSongRecord(String) would hold for the same line.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class LazySongRecord extends SongRecord {
+
+    // Bytes read from the file at a time by load.
+    private static final int READ_BLOCK_BYTES = 1 << 20;
+
+    // Numeric fields, as decoded by checked.
+    private static final int[] INT_FIELDS = {SongRecordParser.YEAR, SongRecordParser.DURATION_MS,
+            SongRecordParser.EXPLICIT, SongRecordParser.KEY, SongRecordParser.MODE, SongRecordParser.POPULARITY};
+    private static final int[] DOUBLE_FIELDS = {SongRecordParser.VALENCE, SongRecordParser.ACOUSTICNESS,
+            SongRecordParser.DANCEABILITY, SongRecordParser.ENERGY, SongRecordParser.INSTRUMENTALNESS,
+            SongRecordParser.LIVENESS, SongRecordParser.LOUDNESS, SongRecordParser.SPEECHINESS, SongRecordParser.TEMPO};
+
+    private static final AtomicReferenceFieldUpdater<LazySongRecord, Values> VALUES =
+            AtomicReferenceFieldUpdater.newUpdater(LazySongRecord.class, Values.class, "values");
+
+    // The CSV line without its line terminator.
+    private final byte[] line;
+
+    private String id;
+
+    // Null until a field other than the ID is first read or set; installed with VALUES.
+    private volatile Values values;
+
+    /**
+     * Constructor that creates a lazy record for a CSV line, finding its field boundaries and decoding its ID.
+     *
+     * Precondition: line holds one CSV line, without its line terminator; the array is not modified
+     *               afterwards.
+     * Postcondition: A record is created; fields other than the ID are decoded when first read.
+     *
+     * @param line the UTF-8 bytes of the line; kept, not copied.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public LazySongRecord(byte[] line) {
+        this(line, splitFields(line));
+    }
+
+    private LazySongRecord(byte[] line, int[] starts) {
+        this.line = line;
+        this.id = decodeText(line, starts, SongRecordParser.ID);
+    }
+
+    /**
+     * Loads every song of a CSV file as lazy records, in file order. The header line is skipped, and a row
+     * that is blank, does not contain 19 fields or holds a malformed number is skipped and counted by recorder.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: One record per valid data line is returned.
+     *
+     * @param csvPath the CSV file to read.
+     * @param recorder counts the rows read, parsed and rejected.
+     * @return the songs.
+     * @throws IOException if the file cannot be read.
+     */
+    public static List<SongRecord> load(String csvPath, SongMetrics.LoadRecorder recorder) throws IOException {
+        List<SongRecord> songs = new ArrayList<>();
+        try (InputStream in = new FileInputStream(csvPath)) {
+            byte[] block = new byte[READ_BLOCK_BYTES];
+            // Bytes of a line that continues past the end of the previous block.
+            byte[] carry = new byte[0];
+            boolean header = true;
+            int read;
+            while ((read = in.read(block)) > 0) {
+                int lineStart = 0;
+                for (int i = 0; i < read; i++) {
+                    if (block[i] != '\n') {
+                        continue;
+                    }
+                    byte[] lineBytes = join(carry, block, lineStart, i);
+                    carry = new byte[0];
+                    lineStart = i + 1;
+                    if (header) {
+                        header = false;
+                        recorder.headerRead();
+                    } else {
+                        add(songs, lineBytes, recorder);
+                    }
+                }
+                carry = join(carry, block, lineStart, read);
+            }
+            if (carry.length > 0 && !header) {
+                add(songs, carry, recorder);
+            }
+        }
+        return songs;
+    }
+
+    private static void add(List<SongRecord> songs, byte[] line, SongMetrics.LoadRecorder recorder) {
+        recorder.lineRead();
+        SongRecord song = recorder.parse(isBlank(line), () -> checked(line));
+        if (song != null) {
+            songs.add(song);
+        }
+    }
+
+    /**
+     * Returns whether a line holds nothing but whitespace, like String.isBlank for the ASCII whitespace a CSV
+     * line can contain.
+     *
+     * Precondition: line is not null.
+     * Postcondition: The line is unchanged.
+     *
+     * @param line the UTF-8 bytes of the line.
+     * @return true if the line is empty or all whitespace.
+     */
+    static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t' && b != '\r' && b != '\f' && b != 0x0B) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a record for a CSV line like of, after decoding every numeric field once so that a malformed
+     * number is reported now. The decoded numbers are not kept.
+     *
+     * Precondition: line holds one CSV line without its line terminator; the array is not modified afterwards.
+     * Postcondition: A record for the line is returned.
+     *
+     * @param line the UTF-8 bytes of the line.
+     * @return the song.
+     * @throws NumberFormatException if a numeric field is malformed.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    static SongRecord checked(byte[] line) {
+        int[] starts = splitFields(line);
+        for (int field : INT_FIELDS) {
+            decodeInt(line, starts, field);
+        }
+        for (int field : DOUBLE_FIELDS) {
+            decodeDouble(line, starts, field);
+        }
+        return new LazySongRecord(line, starts);
+    }
+
+    /**
+     * Returns a lazy record for a CSV line.
+     *
+     * Precondition: line holds one CSV line without its line terminator; the array is not modified afterwards.
+     * Postcondition: A record for the line is returned.
+     *
+     * @param line the UTF-8 bytes of the line.
+     * @return the song.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    static SongRecord of(byte[] line) {
+        return new LazySongRecord(line);
+    }
+
+    /**
+     * Returns carry followed by block[from, to).
+     */
+    private static byte[] join(byte[] carry, byte[] block, int from, int to) {
+        byte[] joined = Arrays.copyOf(carry, carry.length + to - from);
+        System.arraycopy(block, from, joined, carry.length, to - from);
+        return joined;
+    }
+
+    /**
+     * Finds the start of every field, following the same quoting rules as SongRecordParser.
+     */
+    private static int[] splitFields(byte[] line) {
+        int end = line.length;
+        // Drop the carriage return of a CRLF line, as BufferedReader.readLine does.
+        if (end > 0 && line[end - 1] == '\r') {
+            end--;
+        }
+        int[] starts = new int[SongRecordParser.FIELD_COUNT + 1];
+        int field = 0;
+        int pos = 0;
+        while (true) {
+            if (field == SongRecordParser.FIELD_COUNT) {
+                throw new IllegalArgumentException("Expected " + SongRecordParser.FIELD_COUNT
+                        + " fields but found more in: " + text(line, end));
+            }
+            starts[field] = pos;
+            if (pos < end && line[pos] == '"') {
+                // Quoted field: runs until a quote that is not followed by another quote.
+                pos++;
+                while (pos < end && !(line[pos] == '"' && (pos + 1 >= end || line[pos + 1] != '"'))) {
+                    pos += line[pos] == '"' ? 2 : 1;
+                }
+                // Step over the closing quote.
+                pos++;
+            } else {
+                while (pos < end && line[pos] != ',') {
+                    pos++;
+                }
+            }
+            field++;
+            if (pos >= end) {
+                break;
+            }
+            if (line[pos] != ',') {
+                throw new IllegalArgumentException("Unexpected character after quoted field " + (field - 1)
+                        + " in: " + text(line, end));
+            }
+            pos++;
+        }
+        if (field != SongRecordParser.FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + SongRecordParser.FIELD_COUNT + " fields but found "
+                    + field + " in: " + text(line, end));
+        }
+        starts[field] = pos + 1;
+        return starts;
+    }
+
+    private static String text(byte[] line, int end) {
+        return new String(line, 0, end, StandardCharsets.UTF_8);
+    }
+
+    // Content bounds of a field, excluding the quotes of a quoted field.
+
+    private static boolean quoted(byte[] line, int[] starts, int field) {
+        int start = starts[field];
+        return start < starts[field + 1] - 1 && line[start] == '"';
+    }
+
+    private static int contentStart(byte[] line, int[] starts, int field) {
+        return starts[field] + (quoted(line, starts, field) ? 1 : 0);
+    }
+
+    private static int contentEnd(byte[] line, int[] starts, int field) {
+        // A quoted field ends with its closing quote; an unterminated one is recorded as if it had one past
+        // the end of the line, so it runs to the end of the line as in SongRecordParser.
+        return starts[field + 1] - (quoted(line, starts, field) ? 2 : 1);
+    }
+
+    private static String decodeText(byte[] line, int[] starts, int field) {
+        return SongRecordParser.forCurrentThread().decodeText(line, contentStart(line, starts, field),
+                contentEnd(line, starts, field), quoted(line, starts, field));
+    }
+
+    private static int decodeInt(byte[] line, int[] starts, int field) {
+        return SongRecordParser.forCurrentThread().decodeInt(line, contentStart(line, starts, field),
+                contentEnd(line, starts, field), quoted(line, starts, field));
+    }
+
+    private static double decodeDouble(byte[] line, int[] starts, int field) {
+        return SongRecordParser.forCurrentThread().decodeDouble(line, contentStart(line, starts, field),
+                contentEnd(line, starts, field), quoted(line, starts, field));
+    }
+
+    private static List<String> decodeArtists(byte[] line, int[] starts, int field) {
+        return SongRecordParser.forCurrentThread().decodeArtists(line, contentStart(line, starts, field),
+                contentEnd(line, starts, field), quoted(line, starts, field));
+    }
+
+    /**
+     * Returns the record's Values, creating them on first use.
+     */
+    private Values values() {
+        Values current = values;
+        if (current == null) {
+            Values created = new Values(splitFields(line));
+            current = VALUES.compareAndSet(this, null, created) ? created : values;
+        }
+        return current;
+    }
+
+    private int intValue(int field) {
+        Values current = values();
+        if (current.pending(field)) {
+            current.numbers[field] = decodeInt(line, current.starts, field);
+            current.markDecoded(field);
+        }
+        return (int) current.numbers[field];
+    }
+
+    private double doubleValue(int field) {
+        Values current = values();
+        if (current.pending(field)) {
+            current.numbers[field] = Double.doubleToRawLongBits(decodeDouble(line, current.starts, field));
+            current.markDecoded(field);
+        }
+        return Double.longBitsToDouble(current.numbers[field]);
+    }
+
+    private void setNumber(int field, long value) {
+        Values current = values();
+        current.numbers[field] = value;
+        current.markDecoded(field);
+        contentChanged();
+    }
+
+    // -------------------------
+    // Getters and Setters
+    // -------------------------
+
+    @Override public double getValence() { return doubleValue(SongRecordParser.VALENCE); }
+    @Override public int getYear() { return intValue(SongRecordParser.YEAR); }
+    @Override public double getAcousticness() { return doubleValue(SongRecordParser.ACOUSTICNESS); }
+    @Override public double getDanceability() { return doubleValue(SongRecordParser.DANCEABILITY); }
+    @Override public int getDurationMs() { return intValue(SongRecordParser.DURATION_MS); }
+    @Override public double getEnergy() { return doubleValue(SongRecordParser.ENERGY); }
+    @Override public int getExplicit() { return intValue(SongRecordParser.EXPLICIT); }
+    @Override public String getId() { return id; }
+    @Override public double getInstrumentalness() { return doubleValue(SongRecordParser.INSTRUMENTALNESS); }
+    @Override public int getKey() { return intValue(SongRecordParser.KEY); }
+    @Override public double getLiveness() { return doubleValue(SongRecordParser.LIVENESS); }
+    @Override public double getLoudness() { return doubleValue(SongRecordParser.LOUDNESS); }
+    @Override public int getMode() { return intValue(SongRecordParser.MODE); }
+    @Override public int getPopularity() { return intValue(SongRecordParser.POPULARITY); }
+    @Override public double getSpeechiness() { return doubleValue(SongRecordParser.SPEECHINESS); }
+    @Override public double getTempo() { return doubleValue(SongRecordParser.TEMPO); }
+
+    @Override
+    public List<String> getArtists() {
+        Values current = values();
+        if (current.pending(SongRecordParser.ARTISTS)) {
+            current.artists = decodeArtists(line, current.starts, SongRecordParser.ARTISTS);
+            current.markDecoded(SongRecordParser.ARTISTS);
+        }
+        return current.artists;
+    }
+
+    @Override
+    public String getName() {
+        Values current = values();
+        if (current.pending(SongRecordParser.NAME)) {
+            current.name = decodeText(line, current.starts, SongRecordParser.NAME);
+            current.markDecoded(SongRecordParser.NAME);
+        }
+        return current.name;
+    }
+
+    @Override
+    public String getReleaseDate() {
+        Values current = values();
+        if (current.pending(SongRecordParser.RELEASE_DATE)) {
+            current.releaseDate = decodeText(line, current.starts, SongRecordParser.RELEASE_DATE);
+            current.markDecoded(SongRecordParser.RELEASE_DATE);
+        }
+        return current.releaseDate;
+    }
+
+    @Override public void setValence(double valence) { setNumber(SongRecordParser.VALENCE, Double.doubleToRawLongBits(valence)); }
+    @Override public void setYear(int year) { setNumber(SongRecordParser.YEAR, year); }
+    @Override public void setAcousticness(double acousticness) { setNumber(SongRecordParser.ACOUSTICNESS, Double.doubleToRawLongBits(acousticness)); }
+    @Override public void setDanceability(double danceability) { setNumber(SongRecordParser.DANCEABILITY, Double.doubleToRawLongBits(danceability)); }
+    @Override public void setDurationMs(int durationMs) { setNumber(SongRecordParser.DURATION_MS, durationMs); }
+    @Override public void setEnergy(double energy) { setNumber(SongRecordParser.ENERGY, Double.doubleToRawLongBits(energy)); }
+    @Override public void setExplicit(int explicit) { setNumber(SongRecordParser.EXPLICIT, explicit); }
+    @Override public void setId(String id) { this.id = id; }
+    @Override public void setInstrumentalness(double instrumentalness) { setNumber(SongRecordParser.INSTRUMENTALNESS, Double.doubleToRawLongBits(instrumentalness)); }
+    @Override public void setKey(int key) { setNumber(SongRecordParser.KEY, key); }
+    @Override public void setLiveness(double liveness) { setNumber(SongRecordParser.LIVENESS, Double.doubleToRawLongBits(liveness)); }
+    @Override public void setLoudness(double loudness) { setNumber(SongRecordParser.LOUDNESS, Double.doubleToRawLongBits(loudness)); }
+    @Override public void setMode(int mode) { setNumber(SongRecordParser.MODE, mode); }
+    @Override public void setPopularity(int popularity) { setNumber(SongRecordParser.POPULARITY, popularity); }
+    @Override public void setSpeechiness(double speechiness) { setNumber(SongRecordParser.SPEECHINESS, Double.doubleToRawLongBits(speechiness)); }
+    @Override public void setTempo(double tempo) { setNumber(SongRecordParser.TEMPO, Double.doubleToRawLongBits(tempo)); }
+
+    @Override
+    public void setArtists(List<String> artists) {
+        Values current = values();
+        current.artists = artists;
+        current.markDecoded(SongRecordParser.ARTISTS);
+        contentChanged();
+    }
+
+    @Override
+    public void setName(String name) {
+        Values current = values();
+        current.name = name;
+        current.markDecoded(SongRecordParser.NAME);
+        contentChanged();
+    }
+
+    @Override
+    public void setReleaseDate(String releaseDate) {
+        Values current = values();
+        current.releaseDate = releaseDate;
+        current.markDecoded(SongRecordParser.RELEASE_DATE);
+        contentChanged();
+    }
+
+    /**
+     * The fields of a lazy record that have been decoded or set, and the field boundaries of its line.
+     * Threads racing to decode the same field store equal values, so the only cost of a race is decoding twice.
+     */
+    private static final class Values {
+        private static final AtomicIntegerFieldUpdater<Values> DECODED =
+                AtomicIntegerFieldUpdater.newUpdater(Values.class, "decoded");
+
+        // Index of the first byte of each field (its opening quote, for a quoted field), then the index one
+        // past the separator that would follow the last field. Field f ends just before starts[f + 1] - 1.
+        final int[] starts;
+
+        // Numeric fields by field index: the int value, or the bits of the double value.
+        final long[] numbers = new long[SongRecordParser.FIELD_COUNT];
+
+        List<String> artists;
+        String name;
+        String releaseDate;
+
+        // Bit f is set once field f is held here; written with DECODED after the value.
+        private volatile int decoded;
+
+        Values(int[] starts) {
+            this.starts = starts;
+        }
+
+        /**
+         * Returns whether a field still has to be decoded from the line.
+         */
+        boolean pending(int field) {
+            return (decoded & (1 << field)) == 0;
+        }
+
+        /**
+         * Marks a field as held here.
+         */
+        void markDecoded(int field) {
+            int bit = 1 << field;
+            int current;
+            do {
+                current = decoded;
+            } while ((current & bit) == 0 && !DECODED.compareAndSet(this, current, current | bit));
+        }
+    }
+}
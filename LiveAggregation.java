@@ -0,0 +1,92 @@
+//package hashingAndDocumentation;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The LiveAggregation class keeps the result of a GroupByQuery up to date while songs are added to the
+ * catalog. Songs appended by SongProgram.ingestAppendedSongs are added to the existing result one by one,
+ * which costs a few array updates per song instead of a new scan. Any other change (a reload, a full load,
+ * or a row replaced by a newer version) is noticed as a different song store on the next call to result,
+ * which then runs the query again.
+ *
+ * Precondition: The aggregation is created by SongProgram.liveAggregate, which reports appended songs to it.
+ * Postcondition: result always describes the song store currently served by the program.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class LiveAggregation {
+
+    private final GroupByQuery query;
+    private final Supplier<SongStore> currentStore;
+
+    // The store the result describes, and the result itself; guarded by this.
+    private SongStore basis;
+    private GroupByResult result;
+
+    /**
+     * Constructor that creates a live aggregation over the store returned by currentStore.
+     *
+     * Precondition: query and currentStore are not null.
+     * Postcondition: The query runs on the first call to result.
+     *
+     * @param query the aggregation to maintain.
+     * @param currentStore returns the store currently serving lookups.
+     */
+    public LiveAggregation(GroupByQuery query, Supplier<SongStore> currentStore) {
+        this.query = query;
+        this.currentStore = currentStore;
+    }
+
+    /**
+     * Returns the query this aggregation maintains.
+     *
+     * Precondition: None.
+     * Postcondition: The query is returned.
+     *
+     * @return the query.
+     */
+    public GroupByQuery getQuery() {
+        return query;
+    }
+
+    /**
+     * Returns the aggregates over the current songs, running the query again only if the songs changed in
+     * some other way than by appending.
+     *
+     * Precondition: None.
+     * Postcondition: A copy of the current result is returned; later updates do not change it.
+     *
+     * @return the current result.
+     */
+    public synchronized GroupByResult result() {
+        SongStore store = currentStore.get();
+        if (store != basis) {
+            result = query.run(store);
+            basis = store;
+        }
+        return result.copy();
+    }
+
+    /**
+     * Updates the result after songs were appended: if it described the store before the append, the songs
+     * are added to it and it now describes the store after. Otherwise the next call to result recomputes it.
+     *
+     * Precondition: after holds the rows of before followed by songs, in that order.
+     * Postcondition: The result describes after, or will be recomputed.
+     *
+     * @param before the store the songs were appended to.
+     * @param after the store holding the appended songs.
+     * @param songs the appended songs.
+     */
+    public synchronized void appended(SongStore before, SongStore after, List<SongRecord> songs) {
+        if (basis != before || result == null) {
+            return;
+        }
+        for (SongRecord song : songs) {
+            result.add(song);
+        }
+        basis = after;
+    }
+}
@@ -0,0 +1,97 @@
+//package hashingAndDocumentation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * The OffHeapQueryCheck class checks that the secondary queries of SongProgram work when the songs were
+ * loaded with loadSongsOffHeap, whose records are read-only views. A generated CSV file is loaded once into
+ * the song map and once off-heap, and artist, title, range and similarity queries must return the same songs
+ * from both.
+ *
+ * Precondition: The JVM has enough heap for two copies of the chosen number of songs.
+ * Postcondition: Each query is printed with its result, and the process exits with status 1 if any query
+ *                threw or returned different songs.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class OffHeapQueryCheck {
+
+    private static int failures;
+
+    /**
+     * Runs the check.
+     *
+     * Precondition: args is empty or holds the number of songs.
+     * Postcondition: The results are printed to standard output.
+     *
+     * @param args optional number of songs (default 20,000).
+     * @throws Exception if the test file cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        int songs = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        File csv = File.createTempFile("offheap-", ".csv");
+        try {
+            SongCsvGenerator.write(csv.getPath(), songs, 1);
+            SongProgram heap = new SongProgram();
+            heap.loadSongsFromCSV(csv.getPath());
+            SongProgram offHeap = new SongProgram();
+            offHeap.loadSongsOffHeap(csv.getPath());
+
+            SongRecord sample = heap.getSongStore().getRecord(songs / 2);
+            String artist = sample.getArtists().get(0);
+            String title = sample.getName().substring(0, Math.min(3, sample.getName().length()));
+            RangeQuery range = new RangeQuery().between(SongColumn.YEAR, 1990, 1999)
+                    .atLeast(SongColumn.POPULARITY, 50);
+
+            check("artist " + artist, heap, offHeap, p -> p.getSongsByArtist(artist));
+            check("all artists " + sample.getArtists(), heap, offHeap,
+                    p -> p.getSongsByAllArtists(sample.getArtists().toArray(new String[0])));
+            check("title " + title, heap, offHeap, p -> p.suggestByTitle(title, songs));
+            check("range 1990s, popularity >= 50", heap, offHeap, p -> p.findSongs(range));
+            check("similar to " + sample.getId(), heap, offHeap, p -> p.findSimilar(sample.getId(), 10, null));
+            check("similar exact to " + sample.getId(), heap, offHeap,
+                    p -> p.findSimilarExact(sample.getId(), 10, null));
+        } finally {
+            csv.delete();
+        }
+        if (failures > 0) {
+            System.out.println("FAILED: " + failures + " failed checks");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Runs a query on both programs and compares the IDs of the songs found, ignoring their order.
+     */
+    private static void check(String name, SongProgram heap, SongProgram offHeap,
+                              Function<SongProgram, List<SongRecord>> query) {
+        try {
+            TreeSet<String> expected = ids(query.apply(heap));
+            TreeSet<String> actual = ids(query.apply(offHeap));
+            if (expected.isEmpty() || !expected.equals(actual)) {
+                failures++;
+                System.out.printf("%-40s FAILED: %d songs on the heap, %d off-heap%n", name, expected.size(),
+                        actual.size());
+            } else {
+                System.out.printf("%-40s %d songs%n", name, actual.size());
+            }
+        } catch (RuntimeException e) {
+            failures++;
+            System.out.printf("%-40s FAILED: %s%n", name, e);
+        }
+    }
+
+    private static TreeSet<String> ids(List<SongRecord> songs) {
+        List<String> ids = new ArrayList<>(songs.size());
+        for (SongRecord song : songs) {
+            ids.add(song.getId());
+        }
+        return new TreeSet<>(ids);
+    }
+}
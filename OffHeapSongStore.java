@@ -0,0 +1,369 @@
+//package hashingAndDocumentation;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The OffHeapSongStore class keeps songs outside the Java heap, so a catalog of tens of millions of songs
+ * does not fill the heap with long-lived SongRecord, String and List objects that every full GC must trace.
+ *
+ * Layout:
+ *   rows   one fixed-width ROW_SIZE-byte slot per song in direct ByteBuffer chunks: the nine double
+ *          attributes, the six int attributes, and a reference to each of the four text fields;
+ *   arena  the UTF-8 bytes of every id, name, release date and artist list, appended to direct ByteBuffer
+ *          chunks; artist names are each terminated by a unit separator (U+001F), as in SongSnapshot.
+ * A text reference packs the arena address into its upper 40 bits and the byte length into its lower 24.
+ *
+ * Lookups go through a SongIdIndex, which stores packed IDs in primitive arrays. getRecord and getSongById
+ * return a small read-only view (a SongRecord subclass holding only the store and the row ordinal) that
+ * reads every field from the off-heap row when its getter is called; nothing is materialized up front.
+ *
+ * Direct memory is limited by -XX:MaxDirectMemorySize, which defaults to the maximum heap size; raise it for
+ * catalogs larger than the heap.
+ *
+ * Precondition: Songs are added from one thread, before the store is shared with readers.
+ * Postcondition: A view returns the values the song had when it was added.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class OffHeapSongStore {
+
+    // Size of each direct buffer chunk (8 MB), as a shift.
+    private static final int CHUNK_SHIFT = 23;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    // Byte offsets of the fields within a row.
+    private static final int VALENCE = 0;
+    private static final int ACOUSTICNESS = 8;
+    private static final int DANCEABILITY = 16;
+    private static final int ENERGY = 24;
+    private static final int INSTRUMENTALNESS = 32;
+    private static final int LIVENESS = 40;
+    private static final int LOUDNESS = 48;
+    private static final int SPEECHINESS = 56;
+    private static final int TEMPO = 64;
+    private static final int YEAR = 72;
+    private static final int DURATION_MS = 76;
+    private static final int EXPLICIT = 80;
+    private static final int KEY = 84;
+    private static final int MODE = 88;
+    private static final int POPULARITY = 92;
+    private static final int ID = 96;
+    private static final int NAME = 104;
+    private static final int RELEASE_DATE = 112;
+    private static final int ARTISTS = 120;
+
+    // Bytes per row; a power of two, so rows never straddle chunks.
+    public static final int ROW_SIZE = 128;
+    private static final int ROWS_PER_CHUNK = CHUNK_SIZE / ROW_SIZE;
+
+    // Bits of a text reference that hold the length.
+    private static final int LENGTH_BITS = 24;
+
+    // Separates (and terminates) artist names in the arena.
+    private static final char ARTIST_SEPARATOR = '\u001F';
+
+    private final List<ByteBuffer> rowChunks = new ArrayList<>();
+    private final List<ByteBuffer> arenaChunks = new ArrayList<>();
+
+    // Number of rows, and the arena address where the next text is written.
+    private int size;
+    private long arenaEnd;
+
+    private final SongIdIndex idIndex = new SongIdIndex(1024);
+
+    // Reused while encoding text, so adding a song allocates nothing for ASCII fields.
+    private byte[] scratch = new byte[256];
+    private final StringBuilder artistText = new StringBuilder();
+
+    /**
+     * Loads every row of a CSV file into a new off-heap store. Each line is parsed into one reused
+     * SongRecord and copied off-heap, so no per-song objects survive the load. A later row with the same
+     * ID replaces an earlier one, and a row that cannot be parsed is skipped and counted by recorder, as in
+     * SongProgram.loadSongsFromCSV.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: A store holding one row per distinct ID is returned.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @param recorder counts the rows read, parsed and rejected.
+     * @return the populated store.
+     * @throws IOException if the file cannot be read.
+     */
+    public static OffHeapSongStore load(String csvPath, SongMetrics.LoadRecorder recorder) throws IOException {
+        OffHeapSongStore store = new OffHeapSongStore();
+        try (BufferedReader br = new BufferedReader(new FileReader(csvPath, StandardCharsets.UTF_8))) {
+            SongRecordParser parser = new SongRecordParser();
+            SongRecord scratch = new EagerSongRecord();
+            String line;
+
+            // Skip the header line.
+            recorder.readLine(br);
+
+            while ((line = recorder.readLine(br)) != null) {
+                String row = line;
+                if (recorder.parse(row.isBlank(), () -> { parser.parseInto(row, scratch); return scratch; }) != null) {
+                    store.put(scratch);
+                }
+                recorder.indexed();
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Copies a song into the store. A song whose ID is already stored replaces that row; its old text stays
+     * in the arena unused.
+     *
+     * Precondition: song is not null; its text fields are not null.
+     * Postcondition: The song's values are stored; the song object itself is not retained.
+     *
+     * @param song the song to store.
+     * @return the row ordinal of the song.
+     * @throws IllegalArgumentException if a text field is 16 MB or longer in UTF-8.
+     */
+    public int put(SongRecord song) {
+        int ordinal = idIndex.get(song.getId());
+        if (ordinal < 0) {
+            if (size == rowChunks.size() * ROWS_PER_CHUNK) {
+                rowChunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.nativeOrder()));
+            }
+            ordinal = size++;
+            idIndex.put(song.getId(), ordinal);
+        }
+        ByteBuffer chunk = rowChunks.get(ordinal / ROWS_PER_CHUNK);
+        int row = (ordinal % ROWS_PER_CHUNK) * ROW_SIZE;
+        chunk.putDouble(row + VALENCE, song.getValence());
+        chunk.putDouble(row + ACOUSTICNESS, song.getAcousticness());
+        chunk.putDouble(row + DANCEABILITY, song.getDanceability());
+        chunk.putDouble(row + ENERGY, song.getEnergy());
+        chunk.putDouble(row + INSTRUMENTALNESS, song.getInstrumentalness());
+        chunk.putDouble(row + LIVENESS, song.getLiveness());
+        chunk.putDouble(row + LOUDNESS, song.getLoudness());
+        chunk.putDouble(row + SPEECHINESS, song.getSpeechiness());
+        chunk.putDouble(row + TEMPO, song.getTempo());
+        chunk.putInt(row + YEAR, song.getYear());
+        chunk.putInt(row + DURATION_MS, song.getDurationMs());
+        chunk.putInt(row + EXPLICIT, song.getExplicit());
+        chunk.putInt(row + KEY, song.getKey());
+        chunk.putInt(row + MODE, song.getMode());
+        chunk.putInt(row + POPULARITY, song.getPopularity());
+        chunk.putLong(row + ID, writeText(song.getId()));
+        chunk.putLong(row + NAME, writeText(song.getName()));
+        chunk.putLong(row + RELEASE_DATE, writeText(song.getReleaseDate()));
+
+        artistText.setLength(0);
+        for (String artist : song.getArtists()) {
+            artistText.append(artist).append(ARTIST_SEPARATOR);
+        }
+        chunk.putLong(row + ARTISTS, writeText(artistText));
+        return ordinal;
+    }
+
+    /**
+     * Returns the number of songs in the store.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned.
+     *
+     * @return the number of songs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a view of the song with an ID.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The store is unchanged.
+     *
+     * @param id the unique ID of the song.
+     * @return a read-only view of the song, or null if no song has this ID.
+     */
+    public SongRecord getSongById(String id) {
+        int ordinal = idIndex.get(id);
+        return ordinal < 0 ? null : new Row(this, ordinal);
+    }
+
+    /**
+     * Returns a view of the song at a row.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: A read-only view of the row is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the view.
+     */
+    public SongRecord getRecord(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + size + ")");
+        }
+        return new Row(this, ordinal);
+    }
+
+    /**
+     * Returns every song as a list of views in row order. The list is not copied: each element is
+     * created when it is read.
+     *
+     * Precondition: None.
+     * Postcondition: An unmodifiable list of size() views is returned.
+     *
+     * @return the songs.
+     */
+    public List<SongRecord> records() {
+        return new AbstractList<SongRecord>() {
+            @Override
+            public SongRecord get(int index) {
+                return getRecord(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the number of direct memory bytes allocated for rows and text.
+     *
+     * Precondition: None.
+     * Postcondition: The allocated size is returned.
+     *
+     * @return the off-heap footprint in bytes.
+     */
+    public long getOffHeapBytes() {
+        return (long) (rowChunks.size() + arenaChunks.size()) * CHUNK_SIZE;
+    }
+
+    /**
+     * Appends text to the arena and returns its reference.
+     */
+    private long writeText(CharSequence text) {
+        int length = text.length();
+        byte[] bytes;
+        int byteLength = length;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        bytes = scratch;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Not ASCII: let the JDK encode it.
+                bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                byteLength = bytes.length;
+                break;
+            }
+            bytes[i] = (byte) c;
+        }
+        if (byteLength >= 1 << LENGTH_BITS) {
+            throw new IllegalArgumentException("Text of " + byteLength + " bytes is too long to store");
+        }
+
+        // Start a new chunk when the text does not fit in the current one, so text never straddles chunks.
+        int offset = (int) (arenaEnd & (CHUNK_SIZE - 1));
+        if (arenaChunks.isEmpty() || offset + byteLength > CHUNK_SIZE) {
+            if (byteLength > CHUNK_SIZE) {
+                throw new IllegalArgumentException("Text of " + byteLength + " bytes is too long to store");
+            }
+            arenaChunks.add(ByteBuffer.allocateDirect(CHUNK_SIZE));
+            arenaEnd = (long) (arenaChunks.size() - 1) << CHUNK_SHIFT;
+            offset = 0;
+        }
+        arenaChunks.get(arenaChunks.size() - 1).put(offset, bytes, 0, byteLength);
+        long reference = arenaEnd << LENGTH_BITS | byteLength;
+        arenaEnd += byteLength;
+        return reference;
+    }
+
+    private String readText(long reference) {
+        long address = reference >>> LENGTH_BITS;
+        int length = (int) (reference & ((1 << LENGTH_BITS) - 1));
+        byte[] bytes = new byte[length];
+        arenaChunks.get((int) (address >>> CHUNK_SHIFT)).get((int) (address & (CHUNK_SIZE - 1)), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> splitArtists(String text) {
+        List<String> artists = new ArrayList<>(2);
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ARTIST_SEPARATOR) {
+                artists.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return Arrays.asList(artists.toArray(new String[0]));
+    }
+
+    /**
+     * A read-only SongRecord view of one row. Each getter reads the row when it is called, so a view that
+     * outlives a later put of the same ID shows the new values.
+     */
+    private static final class Row extends SongRecord {
+        private final OffHeapSongStore store;
+        private final ByteBuffer chunk;
+        private final int row;
+
+        Row(OffHeapSongStore store, int ordinal) {
+            this.store = store;
+            this.chunk = store.rowChunks.get(ordinal / ROWS_PER_CHUNK);
+            this.row = (ordinal % ROWS_PER_CHUNK) * ROW_SIZE;
+        }
+
+        @Override public double getValence() { return chunk.getDouble(row + VALENCE); }
+        @Override public int getYear() { return chunk.getInt(row + YEAR); }
+        @Override public double getAcousticness() { return chunk.getDouble(row + ACOUSTICNESS); }
+        @Override public List<String> getArtists() { return splitArtists(store.readText(chunk.getLong(row + ARTISTS))); }
+        @Override public double getDanceability() { return chunk.getDouble(row + DANCEABILITY); }
+        @Override public int getDurationMs() { return chunk.getInt(row + DURATION_MS); }
+        @Override public double getEnergy() { return chunk.getDouble(row + ENERGY); }
+        @Override public int getExplicit() { return chunk.getInt(row + EXPLICIT); }
+        @Override public String getId() { return store.readText(chunk.getLong(row + ID)); }
+        @Override public double getInstrumentalness() { return chunk.getDouble(row + INSTRUMENTALNESS); }
+        @Override public int getKey() { return chunk.getInt(row + KEY); }
+        @Override public double getLiveness() { return chunk.getDouble(row + LIVENESS); }
+        @Override public double getLoudness() { return chunk.getDouble(row + LOUDNESS); }
+        @Override public int getMode() { return chunk.getInt(row + MODE); }
+        @Override public String getName() { return store.readText(chunk.getLong(row + NAME)); }
+        @Override public int getPopularity() { return chunk.getInt(row + POPULARITY); }
+        @Override public String getReleaseDate() { return store.readText(chunk.getLong(row + RELEASE_DATE)); }
+        @Override public double getSpeechiness() { return chunk.getDouble(row + SPEECHINESS); }
+        @Override public double getTempo() { return chunk.getDouble(row + TEMPO); }
+
+        @Override public void setValence(double valence) { throw readOnly(); }
+        @Override public void setYear(int year) { throw readOnly(); }
+        @Override public void setAcousticness(double acousticness) { throw readOnly(); }
+        @Override public void setArtists(List<String> artists) { throw readOnly(); }
+        @Override public void setDanceability(double danceability) { throw readOnly(); }
+        @Override public void setDurationMs(int durationMs) { throw readOnly(); }
+        @Override public void setEnergy(double energy) { throw readOnly(); }
+        @Override public void setExplicit(int explicit) { throw readOnly(); }
+        @Override public void setId(String id) { throw readOnly(); }
+        @Override public void setInstrumentalness(double instrumentalness) { throw readOnly(); }
+        @Override public void setKey(int key) { throw readOnly(); }
+        @Override public void setLiveness(double liveness) { throw readOnly(); }
+        @Override public void setLoudness(double loudness) { throw readOnly(); }
+        @Override public void setMode(int mode) { throw readOnly(); }
+        @Override public void setName(String name) { throw readOnly(); }
+        @Override public void setPopularity(int popularity) { throw readOnly(); }
+        @Override public void setReleaseDate(String releaseDate) { throw readOnly(); }
+        @Override public void setSpeechiness(double speechiness) { throw readOnly(); }
+        @Override public void setTempo(double tempo) { throw readOnly(); }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Off-heap song views are read-only");
+        }
+    }
+}
@@ -0,0 +1,322 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+
+/**
+ * The OrdinalBitmap class is an immutable, compressed set of row ordinals in the style of a Roaring bitmap.
+ *
+ * Ordinals are grouped by their high 16 bits. Each group is stored in a container chosen by its density:
+ *   array container   a sorted char[] of the low 16 bits, used for groups of at most 4096 ordinals (2 bytes each).
+ *   bitmap container  a long[1024] with one bit per possible low value, used for denser groups (8 KB each).
+ * Intersections work container by container, so sparse and dense sets are both cheap to combine and the
+ * matching ordinals are never materialized as a list until toArray is called.
+ *
+ * Precondition: Ordinals are not negative.
+ * Postcondition: Bitmaps are never modified after they are created.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public final class OrdinalBitmap {
+
+    // Largest group kept as an array container; above this a bitmap container is smaller.
+    private static final int ARRAY_LIMIT = 4096;
+
+    // Number of longs in a bitmap container (65,536 bits).
+    private static final int BITMAP_WORDS = 1024;
+
+    private static final OrdinalBitmap EMPTY = new OrdinalBitmap(new char[0], new Object[0], new int[0], 0);
+
+    // High 16 bits of each container, ascending.
+    private final char[] keys;
+
+    // Each container is a char[] (array container) or a long[] (bitmap container).
+    private final Object[] containers;
+
+    // Number of ordinals in each container.
+    private final int[] cardinalities;
+
+    private final int containerCount;
+
+    private OrdinalBitmap(char[] keys, Object[] containers, int[] cardinalities, int containerCount) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinalities = cardinalities;
+        this.containerCount = containerCount;
+    }
+
+    /**
+     * Returns an empty bitmap.
+     *
+     * Precondition: None.
+     * Postcondition: A bitmap with cardinality 0 is returned.
+     *
+     * @return the empty bitmap.
+     */
+    public static OrdinalBitmap empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a bitmap from a slice of an array of distinct ordinals in any order.
+     * Ordinals are bucketed by container first, so only the small array containers are ever sorted.
+     *
+     * Precondition: ordinals[from, to) are distinct and not negative.
+     * Postcondition: A bitmap containing exactly those ordinals is returned; the array is unchanged.
+     *
+     * @param ordinals the array holding the ordinals.
+     * @param from the first index to include.
+     * @param to the index after the last one to include.
+     * @return the bitmap.
+     */
+    public static OrdinalBitmap of(int[] ordinals, int from, int to) {
+        if (from >= to) {
+            return EMPTY;
+        }
+        int maxOrdinal = 0;
+        for (int i = from; i < to; i++) {
+            maxOrdinal = Math.max(maxOrdinal, ordinals[i]);
+        }
+        int[] counts = new int[(maxOrdinal >>> 16) + 1];
+        for (int i = from; i < to; i++) {
+            counts[ordinals[i] >>> 16]++;
+        }
+
+        int containerCount = 0;
+        for (int count : counts) {
+            containerCount += count > 0 ? 1 : 0;
+        }
+        char[] keys = new char[containerCount];
+        Object[] containers = new Object[containerCount];
+        int[] cardinalities = new int[containerCount];
+        // slotOfKey maps a high key to its container index; fill tracks the next free position of arrays.
+        int[] slotOfKey = new int[counts.length];
+        int[] fill = new int[containerCount];
+        int slot = 0;
+        for (int key = 0; key < counts.length; key++) {
+            if (counts[key] > 0) {
+                keys[slot] = (char) key;
+                cardinalities[slot] = counts[key];
+                containers[slot] = counts[key] > ARRAY_LIMIT ? new long[BITMAP_WORDS] : new char[counts[key]];
+                slotOfKey[key] = slot++;
+            }
+        }
+        for (int i = from; i < to; i++) {
+            int ordinal = ordinals[i];
+            int s = slotOfKey[ordinal >>> 16];
+            Object container = containers[s];
+            if (container instanceof long[]) {
+                ((long[]) container)[(ordinal >>> 6) & (BITMAP_WORDS - 1)] |= 1L << ordinal;
+            } else {
+                ((char[]) container)[fill[s]++] = (char) ordinal;
+            }
+        }
+        for (Object container : containers) {
+            if (container instanceof char[]) {
+                Arrays.sort((char[]) container);
+            }
+        }
+        return new OrdinalBitmap(keys, containers, cardinalities, containerCount);
+    }
+
+    /**
+     * Returns the number of ordinals in the bitmap.
+     *
+     * Precondition: None.
+     * Postcondition: The cardinality is returned.
+     *
+     * @return the number of ordinals.
+     */
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < containerCount; i++) {
+            total += cardinalities[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns whether the bitmap holds no ordinals.
+     *
+     * Precondition: None.
+     * Postcondition: The bitmap is unchanged.
+     *
+     * @return true if the bitmap is empty.
+     */
+    public boolean isEmpty() {
+        return containerCount == 0;
+    }
+
+    /**
+     * Returns whether an ordinal is in the bitmap.
+     *
+     * Precondition: None.
+     * Postcondition: The bitmap is unchanged.
+     *
+     * @param ordinal the ordinal to test.
+     * @return true if the ordinal is present.
+     */
+    public boolean contains(int ordinal) {
+        if (ordinal < 0) {
+            return false;
+        }
+        int slot = Arrays.binarySearch(keys, 0, containerCount, (char) (ordinal >>> 16));
+        if (slot < 0 || keys[slot] != ordinal >>> 16) {
+            return false;
+        }
+        Object container = containers[slot];
+        if (container instanceof long[]) {
+            return (((long[]) container)[(ordinal >>> 6) & (BITMAP_WORDS - 1)] & (1L << ordinal)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, (char) ordinal) >= 0;
+    }
+
+    /**
+     * Returns the ordinals present in both this bitmap and another.
+     *
+     * Precondition: other is not null.
+     * Postcondition: A new bitmap holding the intersection is returned; neither input changes.
+     *
+     * @param other the bitmap to intersect with.
+     * @return the intersection.
+     */
+    public OrdinalBitmap and(OrdinalBitmap other) {
+        int capacity = Math.min(containerCount, other.containerCount);
+        char[] resultKeys = new char[capacity];
+        Object[] resultContainers = new Object[capacity];
+        int[] resultCardinalities = new int[capacity];
+        int count = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < containerCount && j < other.containerCount) {
+            char a = keys[i];
+            char b = other.keys[j];
+            if (a < b) {
+                i++;
+            } else if (a > b) {
+                j++;
+            } else {
+                Object left = containers[i];
+                Object right = other.containers[j];
+                Object result;
+                if (left instanceof long[] && right instanceof long[]) {
+                    result = andBitmaps((long[]) left, (long[]) right);
+                } else if (left instanceof long[]) {
+                    result = andArrayBitmap((char[]) right, (long[]) left);
+                } else if (right instanceof long[]) {
+                    result = andArrayBitmap((char[]) left, (long[]) right);
+                } else {
+                    result = andArrays((char[]) left, (char[]) right);
+                }
+                int cardinality = cardinalityOf(result);
+                if (cardinality > 0) {
+                    resultKeys[count] = a;
+                    resultContainers[count] = result;
+                    resultCardinalities[count] = cardinality;
+                    count++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return count == 0 ? EMPTY : new OrdinalBitmap(resultKeys, resultContainers, resultCardinalities, count);
+    }
+
+    /**
+     * Returns the ordinals of the bitmap as an ascending array.
+     *
+     * Precondition: None.
+     * Postcondition: An array of cardinality() ordinals is returned.
+     *
+     * @return the ordinals in ascending order.
+     */
+    public int[] toArray() {
+        int[] out = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < containerCount; i++) {
+            int high = keys[i] << 16;
+            Object container = containers[i];
+            if (container instanceof long[]) {
+                long[] words = (long[]) container;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    long word = words[w];
+                    while (word != 0) {
+                        out[n++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                for (char low : (char[]) container) {
+                    out[n++] = high | low;
+                }
+            }
+        }
+        return out;
+    }
+
+    private static char[] andArrays(char[] left, char[] right) {
+        char[] out = new char[Math.min(left.length, right.length)];
+        int n = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                out[n++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static char[] andArrayBitmap(char[] array, long[] bitmap) {
+        char[] out = new char[array.length];
+        int n = 0;
+        for (char low : array) {
+            out[n] = low;
+            n += (int) ((bitmap[low >>> 6] >>> low) & 1L);
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Intersects two bitmap containers, converting the result to an array container when it becomes sparse.
+     */
+    private static Object andBitmaps(long[] left, long[] right) {
+        long[] words = new long[BITMAP_WORDS];
+        int cardinality = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] = left[w] & right[w];
+            cardinality += Long.bitCount(words[w]);
+        }
+        if (cardinality > ARRAY_LIMIT) {
+            return words;
+        }
+        char[] out = new char[cardinality];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            long word = words[w];
+            while (word != 0) {
+                out[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+        return out;
+    }
+
+    private static int cardinalityOf(Object container) {
+        if (container instanceof char[]) {
+            return ((char[]) container).length;
+        }
+        int cardinality = 0;
+        for (long word : (long[]) container) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+}
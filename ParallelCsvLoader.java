@@ -0,0 +1,355 @@
+//package hashingAndDocumentation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ParallelCsvLoader class loads a song CSV file using every available core. The file is split into
+ * byte ranges whose boundaries are moved forward to the next newline, each range is memory-mapped and
+ * parsed on a fork-join pool, and the parsed chunks are merged into the target map in file order.
+ *
+ * Because chunks are merged in the same order the lines appear in the file, the resulting map is identical
+ * to the one produced by SongProgram.loadSongsFromCSV (a later row with the same ID replaces an earlier one).
+ * As there, a row that cannot be parsed is skipped and counted in the SongMetrics with its reason; each
+ * chunk records its rows with a LoadRecorder of its own.
+ *
+ * Precondition: The CSV file must exist, have a header as its first line, and be UTF-8 encoded.
+ * Postcondition: After load, the throughput of the last run is available through the getters.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class ParallelCsvLoader {
+
+    // Default size of a chunk before it is aligned to the next newline.
+    private static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    // Number of bytes read at a time while looking for a newline.
+    private static final int SCAN_BUFFER_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final SongMetrics metrics;
+
+    // Statistics from the most recent call to load.
+    private long rowsLoaded;
+    private long rowsRejected;
+    private long bytesRead;
+    private long elapsedNanos;
+
+    /**
+     * Constructor that creates a loader backed by the common fork-join pool.
+     *
+     * Precondition: None.
+     * Postcondition: The loader uses the common pool and the default chunk size.
+     */
+    public ParallelCsvLoader() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructor that creates a loader backed by the common fork-join pool that counts its rows in metrics.
+     *
+     * Precondition: metrics is not null.
+     * Postcondition: The loader uses the common pool and the default chunk size, and records every load in
+     *                metrics.
+     *
+     * @param metrics the metrics that count the rows read, parsed and rejected.
+     */
+    public ParallelCsvLoader(SongMetrics metrics) {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, metrics);
+    }
+
+    /**
+     * Constructor that creates a loader with an explicit pool and chunk size.
+     *
+     * Precondition: pool is not null and chunkSize is positive.
+     * Postcondition: The loader parses chunks of roughly chunkSize bytes on the given pool. Rejected rows
+     *                are counted only by getRowsRejected.
+     *
+     * @param pool the fork-join pool used to parse chunks.
+     * @param chunkSize the target size of each chunk in bytes.
+     * @throws IllegalArgumentException if chunkSize is not positive.
+     */
+    public ParallelCsvLoader(ForkJoinPool pool, int chunkSize) {
+        this(pool, chunkSize, new SongMetrics(() -> new SongMetrics.Occupancy("none", 0, 0, 0)));
+    }
+
+    /**
+     * Constructor that creates a loader with an explicit pool and chunk size that counts its rows in metrics.
+     *
+     * Precondition: pool and metrics are not null and chunkSize is positive.
+     * Postcondition: The loader parses chunks of roughly chunkSize bytes on the given pool and records every
+     *                load in metrics.
+     *
+     * @param pool the fork-join pool used to parse chunks.
+     * @param chunkSize the target size of each chunk in bytes.
+     * @param metrics the metrics that count the rows read, parsed and rejected.
+     * @throws IllegalArgumentException if chunkSize is not positive.
+     */
+    public ParallelCsvLoader(ForkJoinPool pool, int chunkSize, SongMetrics metrics) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Loads every data row of the CSV file into the target map, keyed by song ID.
+     * The first line (header) is skipped, and rows that cannot be parsed are skipped and counted.
+     *
+     * Precondition: The file at filePath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: target contains one SongRecord per distinct ID, exactly as the sequential loader would
+     *                produce, and the throughput and rejection statistics are updated.
+     *
+     * @param filePath the path to the CSV file containing song information.
+     * @param target the map that receives the parsed songs.
+     * @throws IOException if the file cannot be opened or read.
+     */
+    public void load(String filePath, Map<String, SongRecord> target) throws IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        long rejected = 0;
+        long size;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            size = channel.size();
+            long dataStart = findLineEnd(channel, 0, size);
+            long[] bounds = chunkBoundaries(channel, dataStart, size);
+
+            // Submit one task per chunk so that the pool can parse them concurrently.
+            List<ChunkTask> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                ChunkTask task = new ChunkTask(channel, bounds[i], bounds[i + 1], metrics,
+                        filePath + " from byte " + bounds[i]);
+                pool.execute(task);
+                tasks.add(task);
+            }
+
+            // Merge in file order so that duplicate IDs resolve the same way as the sequential loader.
+            for (ChunkTask task : tasks) {
+                for (SongRecord song : task.join()) {
+                    target.put(song.getId(), song);
+                    rows++;
+                }
+                rejected += task.rejected;
+            }
+        }
+
+        this.rowsLoaded = rows;
+        this.rowsRejected = rejected;
+        this.bytesRead = size;
+        this.elapsedNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the number of rows parsed by the last call to load.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned (0 if load was never called).
+     *
+     * @return the number of rows loaded.
+     */
+    public long getRowsLoaded() { return rowsLoaded; }
+
+    /**
+     * Returns the number of rows skipped by the last call to load because they could not be parsed.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned (0 if load was never called).
+     *
+     * @return the number of rows rejected.
+     */
+    public long getRowsRejected() { return rowsRejected; }
+
+    /**
+     * Returns the size in bytes of the file read by the last call to load.
+     *
+     * Precondition: None.
+     * Postcondition: The byte count is returned (0 if load was never called).
+     *
+     * @return the number of bytes read.
+     */
+    public long getBytesRead() { return bytesRead; }
+
+    /**
+     * Returns the wall-clock duration of the last call to load.
+     *
+     * Precondition: None.
+     * Postcondition: The duration in nanoseconds is returned.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /**
+     * Returns the row throughput of the last call to load.
+     *
+     * Precondition: None.
+     * Postcondition: Rows per second is returned (0 if nothing was timed).
+     *
+     * @return rows parsed per second.
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsLoaded * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the byte throughput of the last call to load.
+     *
+     * Precondition: None.
+     * Postcondition: Megabytes (2^20 bytes) per second is returned (0 if nothing was timed).
+     *
+     * @return megabytes read per second.
+     */
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (bytesRead / (1024.0 * 1024.0)) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns a one-line summary of the last load's throughput.
+     *
+     * Precondition: None.
+     * Postcondition: A human-readable summary is returned.
+     *
+     * @return the throughput summary.
+     */
+    public String throughputSummary() {
+        return String.format("Loaded %d rows (%.1f MB) in %.1f ms: %.0f rows/s, %.1f MB/s",
+                rowsLoaded, bytesRead / (1024.0 * 1024.0), elapsedNanos / 1e6,
+                getRowsPerSecond(), getMegabytesPerSecond());
+    }
+
+    /**
+     * Computes chunk boundaries between dataStart and size, each aligned to the start of a line.
+     *
+     * Precondition: dataStart is the offset of the first data row.
+     * Postcondition: Returns ascending offsets; consecutive pairs delimit whole lines.
+     */
+    private long[] chunkBoundaries(FileChannel channel, long dataStart, long size) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(dataStart);
+        long position = dataStart;
+        while (position < size) {
+            long next = position + chunkSize;
+            // Move the split point past the next newline so that no line is cut in half.
+            next = next >= size ? size : findLineEnd(channel, next, size);
+            bounds.add(next);
+            position = next;
+        }
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset just after the first '\n' at or after from, or size if there is none.
+     */
+    private static long findLineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int n = channel.read(buffer, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+        }
+        return size;
+    }
+
+    /**
+     * A fork-join task that maps one chunk of the file and parses every line in it, skipping rows that
+     * cannot be parsed.
+     */
+    private static final class ChunkTask extends RecursiveTask<List<SongRecord>> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final SongMetrics metrics;
+        private final String source;
+
+        // Rows of this chunk that were rejected; read after join.
+        private long rejected;
+
+        ChunkTask(FileChannel channel, long start, long end, SongMetrics metrics, String source) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.metrics = metrics;
+            this.source = source;
+        }
+
+        @Override
+        protected List<SongRecord> compute() {
+            SongMetrics.LoadRecorder recorder = metrics.startLoad(source);
+            try {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(bytes);
+                return parseLines(chars.array(), chars.arrayOffset() + chars.position(),
+                        chars.arrayOffset() + chars.limit(), recorder);
+            } catch (IOException e) {
+                throw new IllegalStateException("Error reading CSV chunk at offset " + start, e);
+            } finally {
+                rejected = recorder.finish();
+            }
+        }
+
+        /**
+         * Splits the decoded chunk into lines the same way BufferedReader.readLine does for
+         * "\n" and "\r\n" line endings, and parses each line into a SongRecord.
+         */
+        private static List<SongRecord> parseLines(char[] chars, int from, int to,
+                                                   SongMetrics.LoadRecorder recorder) {
+            SongRecordParser parser = SongRecordParser.forCurrentThread();
+            List<SongRecord> songs = new ArrayList<>();
+            int lineStart = from;
+            while (lineStart < to) {
+                int lineEnd = lineStart;
+                while (lineEnd < to && chars[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                // Drop the carriage return of a Windows line ending.
+                if (lineEnd > lineStart && chars[lineEnd - 1] == '\r') {
+                    lineEnd--;
+                }
+                recorder.lineRead();
+                SongRecord song = recorder.parse(parser, chars, lineStart, lineEnd);
+                if (song != null) {
+                    songs.add(song);
+                }
+                lineStart = next;
+            }
+            return songs;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+//package hashingAndDocumentation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RangeQuery class describes a conjunction of range predicates on song attributes, such as
+ * "year between 1990 and 1999 and popularity at least 70", and evaluates it against a SongStore.
+ *
+ * Predicates on columns that have a SortedColumnIndex are answered by binary search and combined as
+ * compressed bitmaps, starting with the most selective one. Once the running result is much smaller than
+ * the next predicate's matches, the remaining predicates are checked row by row on the store instead.
+ * Predicates on columns without an index are always checked on the store.
+ *
+ * Precondition: Bounds are inclusive; a predicate with min &gt; max matches nothing.
+ * Postcondition: The result is the same as chaining SongStore.filterRange over every predicate.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class RangeQuery {
+
+    // Filtering rows on the store is preferred once the running result is this many times smaller than the
+    // next predicate's match count.
+    private static final int SCAN_RATIO = 8;
+
+    private final List<SongColumn> columns = new ArrayList<>();
+    private final List<double[]> bounds = new ArrayList<>();
+
+    /**
+     * Adds the predicate min &lt;= column &lt;= max.
+     *
+     * Precondition: column is not null.
+     * Postcondition: The predicate is added to the query.
+     *
+     * @param column the attribute to test.
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return this query, for chaining.
+     */
+    public RangeQuery between(SongColumn column, double min, double max) {
+        columns.add(column);
+        bounds.add(new double[] {min, max});
+        return this;
+    }
+
+    /**
+     * Adds the predicate column &gt;= min.
+     *
+     * Precondition: column is not null.
+     * Postcondition: The predicate is added to the query.
+     *
+     * @param column the attribute to test.
+     * @param min the inclusive lower bound.
+     * @return this query, for chaining.
+     */
+    public RangeQuery atLeast(SongColumn column, double min) {
+        return between(column, min, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Adds the predicate column &lt;= max.
+     *
+     * Precondition: column is not null.
+     * Postcondition: The predicate is added to the query.
+     *
+     * @param column the attribute to test.
+     * @param max the inclusive upper bound.
+     * @return this query, for chaining.
+     */
+    public RangeQuery atMost(SongColumn column, double max) {
+        return between(column, Double.NEGATIVE_INFINITY, max);
+    }
+
+    /**
+     * Returns the ordinals of the store rows that satisfy every predicate.
+     *
+     * Precondition: Every index in indexes was built over store.
+     * Postcondition: An ascending array of matching ordinals is returned (all rows if there are no predicates).
+     *
+     * @param store the songs to query.
+     * @param indexes the available sorted indexes by column.
+     * @return the matching ordinals.
+     */
+    public int[] evaluate(SongStore store, Map<SongColumn, SortedColumnIndex> indexes) {
+        int predicateCount = columns.size();
+        int[] counts = new int[predicateCount];
+        for (int p = 0; p < predicateCount; p++) {
+            SortedColumnIndex index = indexes.get(columns.get(p));
+            counts[p] = index == null ? Integer.MAX_VALUE : index.count(min(p), max(p));
+        }
+
+        // Apply predicates from the most to the least selective; unindexed ones come last.
+        boolean[] applied = new boolean[predicateCount];
+        OrdinalBitmap bitmap = null;
+        int[] selection = null;
+        for (int step = 0; step < predicateCount; step++) {
+            int p = -1;
+            for (int q = 0; q < predicateCount; q++) {
+                if (!applied[q] && (p < 0 || counts[q] < counts[p])) {
+                    p = q;
+                }
+            }
+            applied[p] = true;
+            SortedColumnIndex index = indexes.get(columns.get(p));
+
+            if (selection == null && index != null
+                    && (bitmap == null || (long) bitmap.cardinality() * SCAN_RATIO >= counts[p])) {
+                OrdinalBitmap matches = index.rangeBitmap(min(p), max(p));
+                bitmap = bitmap == null ? matches : bitmap.and(matches);
+                if (bitmap.isEmpty()) {
+                    return new int[0];
+                }
+            } else {
+                if (selection == null && bitmap != null) {
+                    selection = bitmap.toArray();
+                }
+                selection = store.filterRange(selection, columns.get(p), min(p), max(p));
+                if (selection.length == 0) {
+                    return selection;
+                }
+            }
+        }
+        if (selection != null) {
+            return selection;
+        }
+        if (bitmap != null) {
+            return bitmap.toArray();
+        }
+        int[] all = new int[store.size()];
+        for (int row = 0; row < all.length; row++) {
+            all[row] = row;
+        }
+        return all;
+    }
+
+    private double min(int predicate) {
+        return bounds.get(predicate)[0];
+    }
+
+    private double max(int predicate) {
+        return bounds.get(predicate)[1];
+    }
+}
@@ -0,0 +1,539 @@
+//package hashingAndDocumentation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The ShardedSongCatalog class serves songs from many CSV files (shards) without keeping all of them in
+ * memory. When a shard is added, only its IDs are read, into a small IdBloomFilter; its songs are loaded
+ * the first time a lookup passes that filter. A lookup for an ID that no shard holds is almost always
+ * rejected by the filters alone, without touching disk.
+ *
+ * Loaded shards are kept under a memory budget: when loading a shard takes the estimated total over the
+ * budget, the least recently used other shards are unloaded until it fits again (the shard just loaded is
+ * always kept, even if it alone exceeds the budget). An unloaded shard keeps its filter and is loaded again
+ * when needed. A shard may have a snapshot file (see SongSnapshot); while the snapshot is up to date with
+ * the CSV file, the shard is opened from it instead of parsing the CSV.
+ *
+ * Lookups do not lock, except while loading a shard. If a shard's CSV file changes after it was added, its
+ * filter is rebuilt from the songs the next time it is loaded. Rows that cannot be parsed are skipped and
+ * counted, both by the ID scan and by shard loads.
+ *
+ * Precondition: Each song ID occurs in at most one shard; otherwise the earliest added shard wins.
+ * Postcondition: getSongById returns the same songs as one catalog loaded from all the shards would.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class ShardedSongCatalog {
+
+    // False positive rate of the shard filters.
+    private static final double FILTER_FALSE_POSITIVE_RATE = 0.01;
+
+    // Estimated heap bytes of a loaded catalog per byte of CSV (about 3.7 measured on generated data).
+    private static final int HEAP_BYTES_PER_CSV_BYTE = 4;
+
+    private final long memoryBudget;
+    private final SongMetrics metrics;
+    private final List<Shard> shards = new CopyOnWriteArrayList<>();
+
+    // Estimated memory of the loaded shards; guarded by this.
+    private long loadedBytes;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder filterRejects = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder shardLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+
+    /**
+     * Constructor that creates a catalog with no shards.
+     *
+     * Precondition: memoryBudget is positive.
+     * Postcondition: An empty catalog is created.
+     *
+     * @param memoryBudget the estimated bytes the loaded shards may use together.
+     */
+    public ShardedSongCatalog(long memoryBudget) {
+        this(memoryBudget, new SongMetrics(() -> new SongMetrics.Occupancy("none", 0, 0, 0)));
+    }
+
+    /**
+     * Constructor that creates an empty catalog that counts the rows it reads in metrics.
+     *
+     * Precondition: memoryBudget is positive and metrics is not null.
+     * Postcondition: An empty catalog is created.
+     *
+     * @param memoryBudget the estimated bytes the loaded shards may use together.
+     * @param metrics the metrics that count the rows read, parsed and rejected by scans and shard loads.
+     */
+    public ShardedSongCatalog(long memoryBudget, SongMetrics metrics) {
+        this.memoryBudget = memoryBudget;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Adds a shard backed by a CSV file. The file is read once to collect its IDs; the songs are not kept.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: The shard's IDs can be looked up; its songs are loaded on first use.
+     *
+     * @param csvPath the CSV file of the shard.
+     * @throws IOException if the file cannot be read.
+     */
+    public void addShard(String csvPath) throws IOException {
+        addShard(csvPath, null);
+    }
+
+    /**
+     * Adds a shard backed by a CSV file and a snapshot of it. While the snapshot is up to date with the CSV
+     * file, IDs are read from it and the shard is opened from it; otherwise the CSV file is used.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: The shard's IDs can be looked up; its songs are loaded on first use.
+     *
+     * @param csvPath the CSV file of the shard.
+     * @param snapshotPath the snapshot written from csvPath, or null if there is none.
+     * @throws IOException if the file cannot be read.
+     */
+    public void addShard(String csvPath, String snapshotPath) throws IOException {
+        Shard shard = new Shard(csvPath, snapshotPath);
+        shard.scan();
+        shards.add(shard);
+    }
+
+    /**
+     * Retrieves a song by its unique ID, loading the shards whose filters match it if they are not loaded.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The song is returned, or null if no shard holds it.
+     *
+     * @param id the unique ID of the song.
+     * @return the song, or null.
+     * @throws UncheckedIOException if a matching shard cannot be loaded.
+     */
+    public SongRecord getSongById(String id) {
+        lookups.increment();
+        long hash = IdBloomFilter.hash(id);
+        boolean matched = false;
+        for (Shard shard : shards) {
+            if (!shard.filter.mightContain(hash)) {
+                continue;
+            }
+            matched = true;
+            SongRecord song = shard.songs().getSongById(id);
+            if (song != null) {
+                return song;
+            }
+            falsePositives.increment();
+        }
+        if (!matched) {
+            filterRejects.increment();
+        }
+        return null;
+    }
+
+    /**
+     * Passes every song of every shard to an action, loading the shards one after another. Under a tight
+     * budget, shards loaded earlier in the walk may be unloaded again.
+     *
+     * Precondition: None.
+     * Postcondition: action has been called once per song.
+     *
+     * @param action the action to run for each song.
+     * @throws UncheckedIOException if a shard cannot be loaded.
+     */
+    public void forEachSong(Consumer<SongRecord> action) {
+        for (Shard shard : shards) {
+            SongSource source = shard.songs();
+            for (int ordinal = 0; ordinal < source.size(); ordinal++) {
+                action.accept(source.getRecord(ordinal));
+            }
+        }
+    }
+
+    /**
+     * Returns every song of every shard as a stream, in shard order. A shard is loaded when the stream
+     * reaches it, so unloaded shards are read one at a time as the stream is consumed.
+     *
+     * Precondition: None.
+     * Postcondition: A stream of all songs is returned.
+     *
+     * @return the songs.
+     * @throws UncheckedIOException if a shard cannot be loaded while the stream is consumed.
+     */
+    public Stream<SongRecord> stream() {
+        return shards.stream().flatMap(shard -> {
+            SongSource source = shard.songs();
+            return IntStream.range(0, source.size()).mapToObj(source::getRecord);
+        });
+    }
+
+    /**
+     * Returns the number of shards.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of shards added.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the number of shards whose songs are currently loaded.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of loaded shards.
+     */
+    public int getLoadedShardCount() {
+        int loaded = 0;
+        for (Shard shard : shards) {
+            if (shard.source != null) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the estimated memory used by the loaded shards.
+     *
+     * Precondition: None.
+     * Postcondition: The estimate is returned.
+     *
+     * @return the estimated bytes.
+     */
+    public synchronized long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    /**
+     * Returns the memory used by the filters of all shards.
+     *
+     * Precondition: None.
+     * Postcondition: The total is returned.
+     *
+     * @return the filter bytes.
+     */
+    public long getFilterBytes() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            bytes += shard.filter.getBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of lookups rejected by every filter, which therefore touched no shard.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the rejected lookup count.
+     */
+    public long getFilterRejectCount() {
+        return filterRejects.sum();
+    }
+
+    /**
+     * Returns the number of times a filter matched an ID that its shard did not hold.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the false positive count.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Returns the number of shard loads, including loads of shards that had been unloaded.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the load count.
+     */
+    public long getShardLoadCount() {
+        return shardLoads.sum();
+    }
+
+    /**
+     * Returns the number of times a shard was unloaded to stay within the memory budget.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of rows skipped because they could not be parsed, by ID scans and shard loads.
+     * A row is counted again each time its shard is loaded.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the rejected row count.
+     */
+    public long getRejectedRowCount() {
+        return rejectedRows.sum();
+    }
+
+    /**
+     * Returns a one-line summary of the shards and lookup statistics.
+     *
+     * Precondition: None.
+     * Postcondition: The summary is returned.
+     *
+     * @return the statistics text.
+     */
+    public String stats() {
+        return String.format("shards=%d loaded=%d (%,d/%,d bytes) filters=%,d bytes lookups=%,d filterRejects=%,d "
+                + "falsePositives=%,d loads=%,d evictions=%,d rejectedRows=%,d", getShardCount(),
+                getLoadedShardCount(), getLoadedBytes(), memoryBudget, getFilterBytes(), lookups.sum(),
+                getFilterRejectCount(), getFalsePositiveCount(), getShardLoadCount(), getEvictionCount(),
+                getRejectedRowCount());
+    }
+
+    /**
+     * Publishes the songs of a newly loaded shard and unloads least recently used shards until the total fits
+     * the budget.
+     */
+    private synchronized void loaded(Shard shard, SongSource source, long estimatedBytes) {
+        shard.source = source;
+        shard.estimatedBytes = estimatedBytes;
+        loadedBytes += estimatedBytes;
+        shardLoads.increment();
+        while (loadedBytes > memoryBudget) {
+            Shard oldest = null;
+            for (Shard candidate : shards) {
+                if (candidate != shard && candidate.source != null
+                        && (oldest == null || candidate.lastUsed < oldest.lastUsed)) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            oldest.source = null;
+            loadedBytes -= oldest.estimatedBytes;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * The loaded songs of a shard.
+     */
+    private interface SongSource {
+        SongRecord getSongById(String id);
+
+        int size();
+
+        SongRecord getRecord(int ordinal);
+    }
+
+    /**
+     * Songs parsed from a shard's CSV file.
+     */
+    private static final class CatalogSource implements SongSource {
+        private final SongCatalog catalog;
+
+        CatalogSource(SongCatalog catalog) {
+            this.catalog = catalog;
+        }
+
+        @Override
+        public SongRecord getSongById(String id) {
+            return catalog.getSongById(id);
+        }
+
+        @Override
+        public int size() {
+            return catalog.size();
+        }
+
+        @Override
+        public SongRecord getRecord(int ordinal) {
+            return catalog.getStore().getRecord(ordinal);
+        }
+    }
+
+    /**
+     * Songs served from a shard's mapped snapshot.
+     */
+    private static final class SnapshotSource implements SongSource {
+        private final SongSnapshot snapshot;
+
+        SnapshotSource(SongSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public SongRecord getSongById(String id) {
+            return snapshot.getSongById(id);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public SongRecord getRecord(int ordinal) {
+            return snapshot.getRecord(ordinal);
+        }
+    }
+
+    /**
+     * One shard: its files, its ID filter, and its songs while loaded.
+     */
+    private final class Shard {
+        final String csvPath;
+        final String snapshotPath;
+
+        // Replaced when the CSV file changed since the last scan.
+        volatile IdBloomFilter filter;
+
+        // Size and modification time of the CSV file when the filter was built.
+        private long scannedLength;
+        private long scannedModified;
+
+        // Loaded songs and their estimated size, or null while unloaded; guarded by the catalog's lock.
+        volatile SongSource source;
+        long estimatedBytes;
+
+        // System.nanoTime of the last lookup that loaded or used the shard; approximate ordering is enough.
+        volatile long lastUsed;
+
+        Shard(String csvPath, String snapshotPath) {
+            this.csvPath = csvPath;
+            this.snapshotPath = snapshotPath;
+        }
+
+        /**
+         * Builds the filter from the snapshot's ID heap if it is up to date, or else from the CSV's ID column.
+         */
+        void scan() throws IOException {
+            File csv = new File(csvPath);
+            long length = csv.length();
+            long modified = csv.lastModified();
+            SongSnapshot snapshot = openSnapshot();
+            IdBloomFilter scanned;
+            if (snapshot != null) {
+                scanned = new IdBloomFilter(snapshot.size(), FILTER_FALSE_POSITIVE_RATE);
+                for (int ordinal = 0; ordinal < snapshot.size(); ordinal++) {
+                    scanned.add(snapshot.getId(ordinal));
+                }
+            } else {
+                // About 150 bytes per row, so the filter rarely ends up much too small or too large.
+                scanned = new IdBloomFilter((int) Math.min(Integer.MAX_VALUE, length / 150), FILTER_FALSE_POSITIVE_RATE);
+                SongRecordParser parser = new SongRecordParser();
+                SongMetrics.LoadRecorder recorder = metrics.startLoad(csvPath);
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(csvPath), StandardCharsets.UTF_8)) {
+                    // Skip the header line.
+                    recorder.readLine(reader);
+                    String line;
+                    while ((line = recorder.readLine(reader)) != null) {
+                        String row = line;
+                        String id = recorder.parse(row.isBlank(), () -> parser.parseId(row));
+                        if (id != null) {
+                            scanned.add(id);
+                        }
+                        recorder.indexed();
+                    }
+                } finally {
+                    rejectedRows.add(recorder.finish());
+                }
+            }
+            filter = scanned;
+            scannedLength = length;
+            scannedModified = modified;
+        }
+
+        /**
+         * Returns the shard's songs, loading them first if needed.
+         */
+        SongSource songs() {
+            lastUsed = System.nanoTime();
+            SongSource current = source;
+            if (current != null) {
+                return current;
+            }
+            // One thread loads the shard while others that need it wait; other shards are not blocked.
+            synchronized (this) {
+                current = source;
+                if (current == null) {
+                    try {
+                        current = load();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Cannot load shard " + csvPath, e);
+                    }
+                }
+                return current;
+            }
+        }
+
+        private SongSource load() throws IOException {
+            File csv = new File(csvPath);
+            SongSnapshot snapshot = openSnapshot();
+            SongSource loadedSource;
+            long bytes;
+            if (snapshot != null) {
+                loadedSource = new SnapshotSource(snapshot);
+                bytes = new File(snapshotPath).length();
+            } else {
+                ParallelCsvLoader loader = new ParallelCsvLoader(metrics);
+                loadedSource = new CatalogSource(SongCatalog.load(csvPath, 0, loader));
+                rejectedRows.add(loader.getRowsRejected());
+                bytes = csv.length() * HEAP_BYTES_PER_CSV_BYTE;
+            }
+            if (csv.length() != scannedLength || csv.lastModified() != scannedModified) {
+                // The file changed since the filter was built; rebuild it from the songs just loaded.
+                IdBloomFilter rebuilt = new IdBloomFilter(loadedSource.size(), FILTER_FALSE_POSITIVE_RATE);
+                for (int ordinal = 0; ordinal < loadedSource.size(); ordinal++) {
+                    rebuilt.add(loadedSource.getRecord(ordinal).getId());
+                }
+                filter = rebuilt;
+                scannedLength = csv.length();
+                scannedModified = csv.lastModified();
+            }
+            loaded(this, loadedSource, bytes);
+            return loadedSource;
+        }
+
+        /**
+         * Opens the shard's snapshot, or returns null if it has none or it is missing, stale or corrupt.
+         */
+        private SongSnapshot openSnapshot() {
+            if (snapshotPath == null) {
+                return null;
+            }
+            try {
+                return SongSnapshot.open(snapshotPath, csvPath);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,410 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * The SimilarityIndex class finds the songs whose audio features are closest to a given song.
+ *
+ * Each song is described by a 9-dimensional feature vector: valence, danceability, energy, acousticness,
+ * instrumentalness, liveness, speechiness, tempo and loudness. Tempo and loudness are min-max normalized to
+ * [0, 1] over the catalog so that every dimension has a comparable range. Similarity is squared Euclidean
+ * distance between vectors.
+ *
+ * Two search modes are provided:
+ *   exact        a full scan over one contiguous float[] per dimension. The per-dimension loops are simple
+ *                enough for the JIT to vectorize with SIMD instructions.
+ *   approximate  a KD-tree whose leaves hold their vectors contiguously. Search visits leaves in order of
+ *                their distance bound and stops after a fixed budget of leaves, trading some recall for speed.
+ *
+ * Precondition: The index is built from a SongStore whose rows do not change afterwards.
+ * Postcondition: Results are store ordinals, nearest first, never including the query song itself.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SimilarityIndex {
+
+    // Number of features per song.
+    public static final int DIMENSIONS = 9;
+
+    // Default number of KD-tree leaves inspected by an approximate search.
+    public static final int DEFAULT_LEAF_BUDGET = 48;
+
+    // Maximum number of songs in a KD-tree leaf.
+    private static final int LEAF_SIZE = 32;
+
+    // Store columns used as features, in vector order.
+    private static final SongColumn[] FEATURES = {
+        SongColumn.VALENCE, SongColumn.DANCEABILITY, SongColumn.ENERGY, SongColumn.ACOUSTICNESS,
+        SongColumn.INSTRUMENTALNESS, SongColumn.LIVENESS, SongColumn.SPEECHINESS, SongColumn.TEMPO,
+        SongColumn.LOUDNESS
+    };
+
+    private final int size;
+
+    // Feature values by dimension: columns[d][ordinal].
+    private final float[][] columns;
+
+    // KD-tree: treeOrder lists ordinals in leaf order, and treeVectors holds their vectors row by row.
+    private final int[] treeOrder;
+    private final float[] treeVectors;
+
+    // Internal node n splits its range on splitDimension[n] at splitValue[n]; children are 2n+1 and 2n+2.
+    private final int[] splitDimension;
+    private final float[] splitValue;
+
+    private final int leafBudget;
+
+    /**
+     * Builds the feature columns and the KD-tree for every row of a store.
+     *
+     * Precondition: store is not null.
+     * Postcondition: An index over store.size() songs is created with the default leaf budget.
+     *
+     * @param store the songs to index.
+     */
+    public SimilarityIndex(SongStore store) {
+        this(store, DEFAULT_LEAF_BUDGET);
+    }
+
+    /**
+     * Builds the feature columns and the KD-tree with a custom approximate-search budget.
+     *
+     * Precondition: store is not null and leafBudget is positive.
+     * Postcondition: An index over store.size() songs is created.
+     *
+     * @param store the songs to index.
+     * @param leafBudget the number of leaves an approximate search may inspect.
+     * @throws IllegalArgumentException if leafBudget is not positive.
+     */
+    public SimilarityIndex(SongStore store, int leafBudget) {
+        if (leafBudget <= 0) {
+            throw new IllegalArgumentException("leafBudget must be positive: " + leafBudget);
+        }
+        this.size = store.size();
+        this.leafBudget = leafBudget;
+        this.columns = new float[DIMENSIONS][size];
+
+        for (int d = 0; d < DIMENSIONS; d++) {
+            SongColumn column = FEATURES[d];
+            boolean normalize = column == SongColumn.TEMPO || column == SongColumn.LOUDNESS;
+            double min = normalize ? store.min(null, column) : 0.0;
+            double range = normalize ? store.max(null, column) - min : 1.0;
+            if (!(range > 0)) {
+                range = 1.0;
+            }
+            float[] values = columns[d];
+            for (int row = 0; row < size; row++) {
+                values[row] = (float) ((store.get(column, row) - min) / range);
+            }
+        }
+
+        // The tree is balanced, so its depth is known before building.
+        int leaves = Math.max(1, (size + LEAF_SIZE - 1) / LEAF_SIZE);
+        int depth = 32 - Integer.numberOfLeadingZeros(leaves - 1);
+        this.splitDimension = new int[(1 << depth) - 1];
+        this.splitValue = new float[splitDimension.length];
+        this.treeOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            treeOrder[i] = i;
+        }
+        build(0, 0, size, depth);
+
+        this.treeVectors = new float[size * DIMENSIONS];
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < DIMENSIONS; d++) {
+                treeVectors[i * DIMENSIONS + d] = columns[d][treeOrder[i]];
+            }
+        }
+    }
+
+    /**
+     * Returns the k songs nearest to a song by scanning every row.
+     *
+     * Precondition: 0 &lt;= queryOrdinal &lt; size and k is not negative.
+     * Postcondition: Up to k ordinals accepted by filter are returned, nearest first.
+     *
+     * @param queryOrdinal the store ordinal of the query song.
+     * @param k the number of results wanted.
+     * @param filter accepts the ordinals that may be returned, or null to accept all.
+     * @return the nearest ordinals.
+     */
+    public int[] nearestExact(int queryOrdinal, int k, IntPredicate filter) {
+        float[] query = vector(queryOrdinal);
+        float[] distances = new float[size];
+        // One pass per dimension over contiguous arrays; the JIT vectorizes this loop.
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float[] values = columns[d];
+            float q = query[d];
+            for (int row = 0; row < size; row++) {
+                float diff = values[row] - q;
+                distances[row] += diff * diff;
+            }
+        }
+
+        TopK top = new TopK(k);
+        for (int row = 0; row < size; row++) {
+            if (distances[row] < top.worst() && row != queryOrdinal && (filter == null || filter.test(row))) {
+                top.offer(row, distances[row]);
+            }
+        }
+        return top.sorted();
+    }
+
+    /**
+     * Returns approximately the k songs nearest to a song using the KD-tree.
+     *
+     * Precondition: 0 &lt;= queryOrdinal &lt; size and k is not negative.
+     * Postcondition: Up to k ordinals accepted by filter are returned, nearest first.
+     *
+     * @param queryOrdinal the store ordinal of the query song.
+     * @param k the number of results wanted.
+     * @param filter accepts the ordinals that may be returned, or null to accept all.
+     * @return the nearest ordinals found within the leaf budget.
+     */
+    public int[] nearestApproximate(int queryOrdinal, int k, IntPredicate filter) {
+        float[] query = vector(queryOrdinal);
+        TopK top = new TopK(k);
+        search(query, queryOrdinal, filter, top);
+        return top.sorted();
+    }
+
+    /**
+     * Returns the number of indexed songs.
+     *
+     * Precondition: None.
+     * Postcondition: The song count is returned.
+     *
+     * @return the number of songs.
+     */
+    public int size() {
+        return size;
+    }
+
+    private float[] vector(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + size + ")");
+        }
+        float[] vector = new float[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = columns[d][ordinal];
+        }
+        return vector;
+    }
+
+    /**
+     * Recursively splits treeOrder[lo, hi) at its median on the dimension with the largest spread.
+     */
+    private void build(int node, int lo, int hi, int levels) {
+        if (levels == 0 || hi - lo <= LEAF_SIZE) {
+            return;
+        }
+        int dimension = 0;
+        float widest = -1;
+        for (int d = 0; d < DIMENSIONS; d++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = lo; i < hi; i++) {
+                float v = columns[d][treeOrder[i]];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > widest) {
+                widest = max - min;
+                dimension = d;
+            }
+        }
+        int mid = (lo + hi) >>> 1;
+        select(columns[dimension], lo, hi - 1, mid);
+        splitDimension[node] = dimension;
+        splitValue[node] = columns[dimension][treeOrder[mid]];
+        build(2 * node + 1, lo, mid, levels - 1);
+        build(2 * node + 2, mid, hi, levels - 1);
+    }
+
+    /**
+     * Reorders treeOrder[lo, hi] so that position nth holds the element that would be there if sorted by
+     * values, with smaller elements before it and larger ones after it (quickselect).
+     */
+    private void select(float[] values, int lo, int hi, int nth) {
+        while (lo < hi) {
+            float pivot = values[treeOrder[(lo + hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (values[treeOrder[i]] < pivot) {
+                    i++;
+                }
+                while (values[treeOrder[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = treeOrder[i];
+                    treeOrder[i] = treeOrder[j];
+                    treeOrder[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j) {
+                hi = j;
+            } else if (nth >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Best-first KD-tree search (as in FLANN): descends to the query's leaf, queues every skipped sibling
+     * with a lower bound on its distance, and then continues with the closest queued subtree until the leaf
+     * budget is spent or no queued subtree can beat the current k-th distance.
+     */
+    private void search(float[] query, int queryOrdinal, IntPredicate filter, TopK top) {
+        PriorityQueue<Branch> branches = new PriorityQueue<>();
+        branches.add(new Branch(0, 0, size, 0, new float[DIMENSIONS]));
+        int leavesLeft = leafBudget;
+        while (leavesLeft > 0 && !branches.isEmpty()) {
+            Branch branch = branches.poll();
+            if (branch.bound >= top.worst()) {
+                break;
+            }
+            int node = branch.node;
+            int lo = branch.lo;
+            int hi = branch.hi;
+            while (node < splitDimension.length && hi - lo > LEAF_SIZE) {
+                int mid = (lo + hi) >>> 1;
+                int dimension = splitDimension[node];
+                float gap = query[dimension] - splitValue[node];
+                // The far child's bound replaces this dimension's offset with the distance to the plane.
+                float[] offsets = branch.offsets.clone();
+                float bound = branch.bound - offsets[dimension] * offsets[dimension] + gap * gap;
+                offsets[dimension] = gap;
+                if (gap < 0) {
+                    branches.add(new Branch(2 * node + 2, mid, hi, bound, offsets));
+                    node = 2 * node + 1;
+                    hi = mid;
+                } else {
+                    branches.add(new Branch(2 * node + 1, lo, mid, bound, offsets));
+                    node = 2 * node + 2;
+                    lo = mid;
+                }
+            }
+            leavesLeft--;
+            for (int i = lo; i < hi; i++) {
+                int base = i * DIMENSIONS;
+                float distance = 0;
+                for (int d = 0; d < DIMENSIONS; d++) {
+                    float diff = treeVectors[base + d] - query[d];
+                    distance += diff * diff;
+                }
+                int ordinal = treeOrder[i];
+                if (distance < top.worst() && ordinal != queryOrdinal && (filter == null || filter.test(ordinal))) {
+                    top.offer(ordinal, distance);
+                }
+            }
+        }
+    }
+
+    /**
+     * A queued KD-tree subtree: its node and ordinal range, and a lower bound on the squared distance from the
+     * query to any song in it, made of the per-dimension offsets to the splitting planes crossed so far.
+     */
+    private static final class Branch implements Comparable<Branch> {
+        final int node;
+        final int lo;
+        final int hi;
+        final float bound;
+        final float[] offsets;
+
+        Branch(int node, int lo, int hi, float bound, float[] offsets) {
+            this.node = node;
+            this.lo = lo;
+            this.hi = hi;
+            this.bound = bound;
+            this.offsets = offsets;
+        }
+
+        @Override
+        public int compareTo(Branch other) {
+            return Float.compare(bound, other.bound);
+        }
+    }
+
+    /**
+     * A bounded max-heap that keeps the k smallest distances seen so far.
+     */
+    private static final class TopK {
+        private final int[] ordinals;
+        private final float[] distances;
+        private int count;
+
+        TopK(int k) {
+            ordinals = new int[Math.max(k, 0)];
+            distances = new float[ordinals.length];
+        }
+
+        /**
+         * Returns the distance a candidate must beat to be kept.
+         */
+        float worst() {
+            if (ordinals.length == 0) {
+                return Float.NEGATIVE_INFINITY;
+            }
+            return count < ordinals.length ? Float.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(int ordinal, float distance) {
+            int i;
+            if (count < ordinals.length) {
+                // Sift the new element up from the end.
+                i = count++;
+                while (i > 0 && distances[(i - 1) / 2] < distance) {
+                    ordinals[i] = ordinals[(i - 1) / 2];
+                    distances[i] = distances[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+            } else {
+                // Replace the root (current worst) and sift down.
+                i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= count) {
+                        break;
+                    }
+                    if (child + 1 < count && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    ordinals[i] = ordinals[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+            }
+            ordinals[i] = ordinal;
+            distances[i] = distance;
+        }
+
+        /**
+         * Returns the kept ordinals, nearest first.
+         */
+        int[] sorted() {
+            long[] packed = new long[count];
+            for (int i = 0; i < count; i++) {
+                // Non-negative floats order the same as their raw bits, so one sort orders by distance.
+                packed[i] = ((long) Float.floatToIntBits(distances[i]) << 32) | ordinals[i];
+            }
+            Arrays.sort(packed);
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = (int) packed[i];
+            }
+            return result;
+        }
+    }
+}
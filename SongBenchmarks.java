@@ -0,0 +1,255 @@
+//package hashingAndDocumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The SongBenchmarks class is a micro-benchmark suite for the song catalog, used to catch performance
+ * regressions in SongRecord and SongProgram. It covers:
+ *   parse          the EagerSongRecord(String) constructor
+ *   load/N         SongProgram.loadSongsFromCSV on a generated file of N songs
+ *   lookup/hit     getSongById for IDs that exist (hash map, then the packed ID index)
+ *   lookup/miss    getSongById for IDs that do not exist
+ *   hashCode       SongRecord.hashCode
+ *   equals         SongRecord.equals on equal copies and on different songs
+ *   print          printAllSongs into a discarding stream
+ *
+ * Every benchmark runs warm-up iterations before measured ones, so the JIT has compiled the code under
+ * test, and results feed a checksum that is printed at the end so the JIT cannot discard the work. The
+ * data comes from SongCsvGenerator with a fixed seed, so runs are reproducible without the real dataset.
+ *
+ * Precondition: The JVM has enough heap for the largest dataset size (about 1 GB per million songs).
+ * Postcondition: One line per benchmark is printed with the mean and standard deviation of ns per operation.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongBenchmarks {
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    // Loading is slow, so it uses fewer iterations.
+    private static final int LOAD_WARMUP_ITERATIONS = 2;
+    private static final int LOAD_MEASURED_ITERATIONS = 5;
+
+    private static final long SEED = 42;
+
+    // Accumulates benchmark results so that the measured work has an observable effect.
+    private static long checksum;
+
+    // Standard output, kept so results can be printed while benchmarks discard their own output.
+    private static final PrintStream CONSOLE = System.out;
+
+    /**
+     * The work of one benchmark iteration, returning a value that is added to the checksum.
+     */
+    private interface Iteration {
+        long run();
+    }
+
+    /**
+     * Runs the benchmark suite.
+     *
+     * Precondition: args is empty or holds a comma-separated list of dataset sizes for the load benchmarks.
+     * Postcondition: The results are printed to standard output and temporary CSV files are deleted.
+     *
+     * @param args optional dataset sizes (default 10000,100000).
+     * @throws IOException if a temporary CSV file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int[] sizes = parseSizes(args.length > 0 ? args[0] : "10000,100000");
+        CONSOLE.printf("%-24s %14s %12s%n", "benchmark", "ns/op", "+/-");
+
+        // Parsing, hashing and equality use the same in-memory lines.
+        SongCsvGenerator generator = new SongCsvGenerator(SEED);
+        String[] lines = new String[100_000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = generator.nextLine();
+        }
+        benchmark("parse", lines.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (String line : lines) {
+                sum += new EagerSongRecord(line).getPopularity();
+            }
+            return sum;
+        });
+
+        SongRecord[] songs = new SongRecord[lines.length];
+        SongRecord[] copies = new SongRecord[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            songs[i] = new EagerSongRecord(lines[i]);
+            copies[i] = new EagerSongRecord(lines[i]);
+        }
+        benchmark("hashCode", songs.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (SongRecord song : songs) {
+                sum += song.hashCode();
+            }
+            return sum;
+        });
+        benchmark("equals/equal", songs.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (int i = 0; i < songs.length; i++) {
+                sum += songs[i].equals(copies[i]) ? 1 : 0;
+            }
+            return sum;
+        });
+        benchmark("equals/different", songs.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (int i = 1; i < songs.length; i++) {
+                sum += songs[i].equals(copies[i - 1]) ? 1 : 0;
+            }
+            return sum;
+        });
+
+        for (int size : sizes) {
+            runCatalogBenchmarks(size);
+        }
+        CONSOLE.println("Checksum: " + checksum);
+    }
+
+    /**
+     * Runs the load, lookup and print benchmarks on a generated CSV file of the given size.
+     */
+    private static void runCatalogBenchmarks(int size) throws IOException {
+        File csv = File.createTempFile("songs-" + size + "-", ".csv");
+        try {
+            SongCsvGenerator.write(csv.getPath(), size, SEED);
+            benchmark("load/" + size, size, LOAD_WARMUP_ITERATIONS, LOAD_MEASURED_ITERATIONS, () -> {
+                SongProgram program = new SongProgram();
+                quietly(() -> program.loadSongsFromCSV(csv.getPath()));
+                return program.getSongStore().size();
+            });
+            benchmark("load-lazy/" + size, size, LOAD_WARMUP_ITERATIONS, LOAD_MEASURED_ITERATIONS, () -> {
+                SongProgram program = new SongProgram();
+                quietly(() -> program.loadSongsFromCSVLazy(csv.getPath()));
+                return program.getSongStore().size();
+            });
+
+            SongProgram program = new SongProgram();
+            quietly(() -> program.loadSongsFromCSV(csv.getPath()));
+            SongStore store = program.getSongStore();
+            // Hits are fresh String objects, as IDs typed by a user or received in a request would be.
+            String[] hits = new String[Math.min(size, 100_000)];
+            for (int i = 0; i < hits.length; i++) {
+                hits[i] = new String(store.getId((int) ((long) i * store.size() / hits.length)).toCharArray());
+            }
+            SongCsvGenerator missGenerator = new SongCsvGenerator(SEED + 1);
+            String[] misses = new String[hits.length];
+            for (int i = 0; i < misses.length; i++) {
+                misses[i] = missGenerator.nextId();
+            }
+
+            lookupBenchmarks("lookup/map/" + size, program, hits, misses);
+            program.buildIdIndex();
+            lookupBenchmarks("lookup/index/" + size, program, hits, misses);
+
+            CountingOutputStream sink = new CountingOutputStream();
+            benchmark("print/" + size, size, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+                PrintStream previous = System.out;
+                System.setOut(new PrintStream(sink, false));
+                try {
+                    program.printAllSongs();
+                } finally {
+                    System.out.flush();
+                    System.setOut(previous);
+                }
+                return sink.count;
+            });
+        } finally {
+            if (!csv.delete()) {
+                csv.deleteOnExit();
+            }
+        }
+    }
+
+    private static void lookupBenchmarks(String name, SongProgram program, String[] hits, String[] misses) {
+        benchmark(name + "/hit", hits.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (String id : hits) {
+                sum += program.getSongById(id) != null ? 1 : 0;
+            }
+            return sum;
+        });
+        benchmark(name + "/miss", misses.length, WARMUP_ITERATIONS, MEASURED_ITERATIONS, () -> {
+            long sum = 0;
+            for (String id : misses) {
+                sum += program.getSongById(id) != null ? 1 : 0;
+            }
+            return sum;
+        });
+    }
+
+    /**
+     * Runs warm-up and measured iterations of a benchmark and prints its mean time per operation.
+     */
+    private static void benchmark(String name, int operations, int warmup, int measured, Iteration iteration) {
+        for (int i = 0; i < warmup; i++) {
+            checksum += iteration.run();
+        }
+        double[] nanosPerOp = new double[measured];
+        for (int i = 0; i < measured; i++) {
+            long start = System.nanoTime();
+            checksum += iteration.run();
+            nanosPerOp[i] = (double) (System.nanoTime() - start) / operations;
+        }
+        double mean = 0;
+        for (double value : nanosPerOp) {
+            mean += value;
+        }
+        mean /= measured;
+        double variance = 0;
+        for (double value : nanosPerOp) {
+            variance += (value - mean) * (value - mean);
+        }
+        double deviation = measured > 1 ? Math.sqrt(variance / (measured - 1)) : 0;
+        CONSOLE.printf("%-24s %14.1f %12.1f%n", name, mean, deviation);
+    }
+
+    /**
+     * Runs an action with standard output discarded, for methods that print progress messages.
+     */
+    private static void quietly(Runnable action) {
+        PrintStream previous = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            action.run();
+        } finally {
+            System.setOut(previous);
+        }
+    }
+
+    private static int[] parseSizes(String text) {
+        List<Integer> sizes = new ArrayList<>();
+        for (String part : text.split(",")) {
+            sizes.add(Integer.parseInt(part.trim()));
+        }
+        int[] result = new int[sizes.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sizes.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * An output stream that discards its bytes and only counts them.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
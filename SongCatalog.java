@@ -0,0 +1,231 @@
+//package hashingAndDocumentation;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The SongCatalog class is an immutable, fully built set of songs that can be shared by any number of
+ * threads without locking. A catalog is loaded completely (songs, columnar store and packed ID index)
+ * before anyone can see it, and is never changed afterwards, so a newer catalog replaces it by swapping one
+ * reference instead of by modifying it. Readers therefore never block and never observe a half-loaded catalog.
+ *
+ * Each catalog carries a generation number that increases with every reload, and the time its load took.
+ *
+ * Precondition: The songs of a catalog are not modified after it is created.
+ * Postcondition: Every lookup on a catalog returns the same result for its whole lifetime.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public final class SongCatalog {
+
+    private final long generation;
+    private final String sourcePath;
+    private final SongStore store;
+    private final SongIdIndex idIndex;
+    private final long loadNanos;
+    private final long loadedAtMillis;
+
+    /**
+     * Constructor that wraps an already built store as a catalog.
+     *
+     * Precondition: store is not null and will not be modified.
+     * Postcondition: A catalog serving the store's songs is created; its ID index is built if needed.
+     *
+     * @param generation the catalog's generation number.
+     * @param sourcePath the file the songs were loaded from.
+     * @param store the songs.
+     * @param loadNanos how long loading the songs took, in nanoseconds.
+     */
+    public SongCatalog(long generation, String sourcePath, SongStore store, long loadNanos) {
+        this.generation = generation;
+        this.sourcePath = sourcePath;
+        this.store = store;
+        this.idIndex = store.derived(SongIdIndex.class, SongIdIndex::build);
+        this.loadNanos = loadNanos;
+        this.loadedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Loads a CSV file into a new catalog. Rows are parsed in parallel and a later row with the same ID
+     * replaces an earlier one, as in SongProgram.loadSongsFromCSV; rows that cannot be parsed are skipped.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: A fully built catalog is returned.
+     *
+     * @param csvPath the CSV file to load.
+     * @param generation the generation number of the new catalog.
+     * @return the catalog.
+     * @throws IOException if the file cannot be read.
+     */
+    public static SongCatalog load(String csvPath, long generation) throws IOException {
+        return load(csvPath, generation, new ParallelCsvLoader());
+    }
+
+    /**
+     * Loads a CSV file into a new catalog with the given loader, whose statistics afterwards describe this
+     * load. Rows that cannot be parsed are skipped and counted by the loader.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format; loader
+     *               is not null.
+     * Postcondition: A fully built catalog is returned.
+     *
+     * @param csvPath the CSV file to load.
+     * @param generation the generation number of the new catalog.
+     * @param loader the loader that parses the file.
+     * @return the catalog.
+     * @throws IOException if the file cannot be read.
+     */
+    public static SongCatalog load(String csvPath, long generation, ParallelCsvLoader loader) throws IOException {
+        long start = System.nanoTime();
+        HashMap<String, SongRecord> songs = new HashMap<>();
+        loader.load(csvPath, songs);
+        SongStore store = SongStore.from(songs.values());
+        // The ID index is built here, inside the measured load, rather than by the first reader.
+        store.derived(SongIdIndex.class, SongIdIndex::build);
+        return new SongCatalog(generation, csvPath, store, System.nanoTime() - start);
+    }
+
+    /**
+     * Builds a catalog from songs that were read in file order, such as the rows of a CsvTailReader full load.
+     * A later song with the same ID replaces an earlier one, as in SongProgram.loadSongsFromCSV.
+     *
+     * Precondition: songs is not null and contains no null elements.
+     * Postcondition: A fully built catalog is returned.
+     *
+     * @param songs the songs in file order.
+     * @param sourcePath the file the songs were read from.
+     * @param generation the generation number of the new catalog.
+     * @return the catalog.
+     */
+    public static SongCatalog of(List<SongRecord> songs, String sourcePath, long generation) {
+        long start = System.nanoTime();
+        LinkedHashMap<String, SongRecord> byId = new LinkedHashMap<>();
+        for (SongRecord song : songs) {
+            byId.put(song.getId(), song);
+        }
+        SongStore store = SongStore.from(byId.values());
+        store.derived(SongIdIndex.class, SongIdIndex::build);
+        return new SongCatalog(generation, sourcePath, store, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a new catalog holding this catalog's songs plus some upserted ones. A song whose ID is already
+     * in the catalog replaces the old song at its ordinal; other songs are appended in order. Existing rows
+     * are copied as whole columns rather than parsed or added again, so the cost is dominated by rebuilding
+     * the ID index. This catalog is not changed, so readers holding it are unaffected.
+     *
+     * Precondition: songs is not null and contains no null elements.
+     * Postcondition: A fully built catalog with the given generation is returned.
+     *
+     * @param songs the new or changed songs, in file order.
+     * @param generation the generation number of the new catalog.
+     * @return the updated catalog.
+     */
+    public SongCatalog withUpserts(List<SongRecord> songs, long generation) {
+        long start = System.nanoTime();
+        SongStore updated = store.copy(songs.size());
+        SongIdIndex index = new SongIdIndex(store.size() + songs.size());
+        for (int ordinal = 0; ordinal < updated.size(); ordinal++) {
+            index.put(updated.getId(ordinal), ordinal);
+        }
+        for (SongRecord song : songs) {
+            int ordinal = index.get(song.getId());
+            if (ordinal >= 0) {
+                updated.set(ordinal, song);
+            } else {
+                index.put(song.getId(), updated.add(song));
+            }
+        }
+        updated.derived(SongIdIndex.class, s -> index);
+        return new SongCatalog(generation, sourcePath, updated, System.nanoTime() - start);
+    }
+
+    /**
+     * Retrieves a song by its unique ID.
+     *
+     * Precondition: None.
+     * Postcondition: The catalog is unchanged.
+     *
+     * @param id the unique ID of the song.
+     * @return the song, or null if the catalog has no song with this ID.
+     */
+    public SongRecord getSongById(String id) {
+        int ordinal = idIndex.get(id);
+        return ordinal < 0 ? null : store.getRecord(ordinal);
+    }
+
+    /**
+     * Returns the number of songs in the catalog.
+     *
+     * Precondition: None.
+     * Postcondition: The song count is returned.
+     *
+     * @return the number of songs.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Returns the columnar store holding the catalog's songs.
+     *
+     * Precondition: None.
+     * Postcondition: The store is returned; callers must not add rows to it.
+     *
+     * @return the song store.
+     */
+    public SongStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the catalog's generation number; a reloaded catalog has a higher number than the one it replaced.
+     *
+     * Precondition: None.
+     * Postcondition: The generation is returned.
+     *
+     * @return the generation number.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the path of the file the catalog was loaded from.
+     *
+     * Precondition: None.
+     * Postcondition: The path is returned.
+     *
+     * @return the source path.
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * Returns how long loading the catalog took, including building its ID index.
+     *
+     * Precondition: None.
+     * Postcondition: The duration is returned.
+     *
+     * @return the load duration in nanoseconds.
+     */
+    public long getLoadNanos() {
+        return loadNanos;
+    }
+
+    /**
+     * Returns when the catalog finished loading.
+     *
+     * Precondition: None.
+     * Postcondition: The time is returned.
+     *
+     * @return the completion time in milliseconds since the epoch.
+     */
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+}
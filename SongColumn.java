@@ -0,0 +1,78 @@
+//package hashingAndDocumentation;
+
+/**
+ * The SongColumn enum lists the numeric attributes of a SongRecord that can be stored column by column.
+ * Each constant knows whether its values are integers and how to read its value from a SongRecord.
+ *
+ * Precondition: None.
+ * Postcondition: Each constant identifies exactly one numeric SongRecord attribute.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public enum SongColumn {
+    VALENCE(false),
+    YEAR(true),
+    ACOUSTICNESS(false),
+    DANCEABILITY(false),
+    DURATION_MS(true),
+    ENERGY(false),
+    EXPLICIT(true),
+    INSTRUMENTALNESS(false),
+    KEY(true),
+    LIVENESS(false),
+    LOUDNESS(false),
+    MODE(true),
+    POPULARITY(true),
+    SPEECHINESS(false),
+    TEMPO(false);
+
+    // True if the attribute is stored as an int, false if it is stored as a double.
+    private final boolean integer;
+
+    SongColumn(boolean integer) {
+        this.integer = integer;
+    }
+
+    /**
+     * Returns whether the attribute holds integer values.
+     *
+     * Precondition: None.
+     * Postcondition: Returns true for int attributes and false for double attributes.
+     *
+     * @return true if the column is an int column.
+     */
+    public boolean isInteger() {
+        return integer;
+    }
+
+    /**
+     * Reads this attribute from a SongRecord, widening int attributes to double.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The attribute's value is returned.
+     *
+     * @param song the record to read from.
+     * @return the attribute value.
+     */
+    public double read(SongRecord song) {
+        switch (this) {
+            case VALENCE: return song.getValence();
+            case YEAR: return song.getYear();
+            case ACOUSTICNESS: return song.getAcousticness();
+            case DANCEABILITY: return song.getDanceability();
+            case DURATION_MS: return song.getDurationMs();
+            case ENERGY: return song.getEnergy();
+            case EXPLICIT: return song.getExplicit();
+            case INSTRUMENTALNESS: return song.getInstrumentalness();
+            case KEY: return song.getKey();
+            case LIVENESS: return song.getLiveness();
+            case LOUDNESS: return song.getLoudness();
+            case MODE: return song.getMode();
+            case POPULARITY: return song.getPopularity();
+            case SPEECHINESS: return song.getSpeechiness();
+            case TEMPO: return song.getTempo();
+            default: throw new IllegalStateException("Unknown column: " + this);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+//package hashingAndDocumentation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * The SongCsvGenerator class writes synthetic song CSV files in the same 19-column format as the real
+ * dataset, so that benchmarks and experiments can run without it. The output depends only on the seed and
+ * the row count, so two runs with the same arguments produce byte-identical files.
+ *
+ * Values follow the shape of the real data: 22-character base62 IDs, Python-style artist lists that are
+ * quoted whenever they contain commas, titles that sometimes contain commas or quotes, release dates given
+ * as a year, a year and month, or a full date, and audio features with the real ranges and decimal lengths.
+ *
+ * Precondition: None.
+ * Postcondition: Every generated line can be parsed by SongRecordParser.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongCsvGenerator {
+
+    // Header line of the song CSV format.
+    public static final String HEADER = "valence,year,acousticness,artists,danceability,duration_ms,energy,"
+            + "explicit,id,instrumentalness,key,liveness,loudness,mode,name,popularity,release_date,"
+            + "speechiness,tempo";
+
+    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final String[] WORDS = {
+        "love", "night", "blue", "heart", "dance", "fire", "rain", "summer", "home", "dream", "road", "light",
+        "baby", "time", "world", "girl", "moon", "river", "gold", "wild", "sweet", "lonely", "city", "forever",
+        "Sonata", "No.", "Op.", "in", "the", "of", "my", "you", "me", "a", "Allegro", "Adagio", "Caf\u00e9", "Se\u00f1or"
+    };
+
+    private static final String[] FIRST_NAMES = {
+        "John", "Frank", "Ella", "Billie", "Aretha", "Elvis", "Nina", "Miles", "Johnny", "Dolly", "Ray", "Etta",
+        "Wolfgang Amadeus", "Ludwig van", "Sergei", "Bj\u00f6rk", "Celia", "Jos\u00e9"
+    };
+
+    private static final String[] LAST_NAMES = {
+        "Smith", "Sinatra", "Fitzgerald", "Holiday", "Franklin", "Presley", "Simone", "Davis", "Cash", "Parton",
+        "Charles", "James", "Mozart", "Beethoven", "Rachmaninoff", "Cruz", "Feliciano", "O'Connor"
+    };
+
+    // Number of distinct artists to draw from; popular artists are picked more often.
+    private static final int ARTIST_COUNT = 30_000;
+
+    private final Random random;
+
+    /**
+     * Constructor that creates a generator with a fixed seed.
+     *
+     * Precondition: None.
+     * Postcondition: A generator whose output depends only on seed is created.
+     *
+     * @param seed the random seed.
+     */
+    public SongCsvGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Writes a CSV file with a header and the given number of songs.
+     *
+     * Precondition: rows is not negative and the parent directory of path exists.
+     * Postcondition: The file at path is replaced by the generated CSV.
+     *
+     * @param path the file to write.
+     * @param rows the number of songs.
+     * @param seed the random seed.
+     * @throws IOException if writing fails.
+     */
+    public static void write(String path, int rows, long seed) throws IOException {
+        SongCsvGenerator generator = new SongCsvGenerator(seed);
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (int i = 0; i < rows; i++) {
+                writer.write(generator.nextLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Returns the next CSV line (without a line terminator).
+     *
+     * Precondition: None.
+     * Postcondition: A 19-column song line is returned and the generator advances.
+     *
+     * @return the CSV line.
+     */
+    public String nextLine() {
+        int year = 1921 + random.nextInt(100);
+        StringBuilder line = new StringBuilder(256);
+        line.append(decimal(random.nextDouble(), 3 + random.nextInt(2))).append(',');
+        line.append(year).append(',');
+        line.append(decimal(random.nextDouble(), 3 + random.nextInt(4))).append(',');
+        appendArtists(line);
+        line.append(',');
+        line.append(decimal(random.nextDouble(), 3)).append(',');
+        line.append(30_000 + random.nextInt(570_000)).append(',');
+        line.append(decimal(random.nextDouble(), 3 + random.nextInt(3))).append(',');
+        line.append(random.nextInt(10) == 0 ? 1 : 0).append(',');
+        line.append(nextId()).append(',');
+        appendInstrumentalness(line);
+        line.append(',');
+        line.append(random.nextInt(12)).append(',');
+        line.append(decimal(random.nextDouble(), 4)).append(',');
+        line.append(decimal(-60 * random.nextDouble() * random.nextDouble(), 3)).append(',');
+        line.append(random.nextInt(2)).append(',');
+        appendCsvField(line, nextTitle());
+        line.append(',');
+        line.append(Math.min(100, (int) (Math.abs(random.nextGaussian()) * 30))).append(',');
+        appendReleaseDate(line, year);
+        line.append(',');
+        line.append(decimal(random.nextDouble() * 0.5, 4)).append(',');
+        line.append(decimal(60 + random.nextDouble() * 150, 3));
+        return line.toString();
+    }
+
+    /**
+     * Returns a random 22-character base62 ID of a 128-bit value, like a Spotify track ID.
+     *
+     * Precondition: None.
+     * Postcondition: A new ID is returned and the generator advances.
+     *
+     * @return the ID.
+     */
+    public String nextId() {
+        char[] chars = new char[22];
+        chars[0] = BASE62.charAt(random.nextInt(8));
+        for (int i = 1; i < chars.length; i++) {
+            chars[i] = BASE62.charAt(random.nextInt(BASE62.length()));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Generates a CSV file from the command line.
+     *
+     * Precondition: args holds an output path, and optionally a row count and a seed.
+     * Postcondition: The CSV file is written, or an error message is printed.
+     *
+     * @param args the output path, the number of rows (default 100,000) and the seed (default 42).
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: SongCsvGenerator <output.csv> [rows] [seed]");
+            return;
+        }
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        try {
+            write(args[0], rows, seed);
+            System.out.println("Wrote " + rows + " songs to " + args[0]);
+        } catch (IOException e) {
+            System.err.println("Error writing CSV file: " + e.getMessage());
+        }
+    }
+
+    private void appendArtists(StringBuilder line) {
+        int count = random.nextInt(10) < 8 ? 1 : 2 + random.nextInt(3);
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                list.append(", ");
+            }
+            String artist = artistName();
+            // Python quotes a name with double quotes when it contains an apostrophe.
+            char quote = artist.indexOf('\'') >= 0 ? '"' : '\'';
+            list.append(quote).append(artist).append(quote);
+        }
+        list.append(']');
+        appendCsvField(line, list.toString());
+    }
+
+    private String artistName() {
+        // Squaring skews the choice towards low numbers, so some artists have many songs.
+        double skew = random.nextDouble();
+        int artist = (int) (skew * skew * ARTIST_COUNT);
+        String name = FIRST_NAMES[artist % FIRST_NAMES.length] + " "
+                + LAST_NAMES[artist / FIRST_NAMES.length % LAST_NAMES.length];
+        return artist < FIRST_NAMES.length * LAST_NAMES.length ? name : name + " " + artist;
+    }
+
+    /**
+     * Instrumentalness is often exactly zero or a tiny value in scientific notation, such as 7.887e-05.
+     */
+    private void appendInstrumentalness(StringBuilder line) {
+        int shape = random.nextInt(3);
+        if (shape == 0) {
+            line.append("0.0");
+        } else if (shape == 1) {
+            line.append(decimal(1 + random.nextDouble() * 8.99, 3)).append("e-0").append(4 + random.nextInt(5));
+        } else {
+            line.append(decimal(random.nextDouble(), 3 + random.nextInt(4)));
+        }
+    }
+
+    private String nextTitle() {
+        int words = 1 + random.nextInt(5);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(random.nextInt(15) == 0 ? ", " : " ");
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        if (random.nextInt(40) == 0) {
+            title.append(" (\"Live\")");
+        } else if (random.nextInt(10) == 0) {
+            title.append(" - Remastered");
+        }
+        return title.toString();
+    }
+
+    private void appendReleaseDate(StringBuilder line, int year) {
+        line.append(year);
+        int precision = random.nextInt(10);
+        if (precision >= 3) {
+            line.append('-').append(twoDigits(1 + random.nextInt(12)));
+            if (precision >= 4) {
+                line.append('-').append(twoDigits(1 + random.nextInt(28)));
+            }
+        }
+    }
+
+    /**
+     * Formats value with the given number of decimals, dropping trailing zeros like the real data does.
+     */
+    private static String decimal(double value, int decimals) {
+        long scale = 1;
+        for (int i = 0; i < decimals; i++) {
+            scale *= 10;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        StringBuilder text = new StringBuilder(decimals + 8);
+        if (value < 0 && scaled != 0) {
+            text.append('-');
+        }
+        text.append(scaled / scale).append('.');
+        String fraction = Long.toString(scaled % scale + scale).substring(1);
+        int end = fraction.length();
+        while (end > 1 && fraction.charAt(end - 1) == '0') {
+            end--;
+        }
+        return text.append(fraction, 0, end).toString();
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+
+    /**
+     * Appends a CSV field, quoting it when it contains a comma or quote and doubling embedded quotes.
+     */
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
@@ -0,0 +1,278 @@
+//package hashingAndDocumentation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The SongDeduplicator class finds duplicate rows while songs are loaded. Rows are grouped by their content
+ * (every field except the ID, see SongRecord.contentFingerprint): the first row of a group is its original,
+ * and every later row with the same content is a duplicate, whether or not it has the same ID. Rows that
+ * share an ID with an earlier row but differ in content are reported separately as ID conflicts, since
+ * loading them into a map keyed by ID silently keeps only the last version.
+ *
+ * Groups are kept in an open-addressing table keyed by the 64-bit fingerprint, so no key is boxed. A
+ * fingerprint match is confirmed with SongRecord.contentEquals before a row counts as a duplicate.
+ *
+ * A deduplicator is not thread-safe; feed it rows from one thread, in file order.
+ *
+ * Precondition: Songs are not modified after they have been accepted.
+ * Postcondition: The counts and groups describe every row accepted so far.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongDeduplicator {
+
+    private static final double MAX_LOAD = 0.5;
+
+    // Open-addressing table from fingerprint to group number + 1 (0 marks an empty slot).
+    private long[] keys;
+    private int[] slots;
+    private int mask;
+
+    // Per group: its first row and its number of rows.
+    private SongRecord[] groupFirst = new SongRecord[16];
+    private int[] groupFirstRow = new int[16];
+    private int[] groupSize = new int[16];
+    private int groupCount;
+
+    // Every duplicate row, with its row number and group.
+    private SongRecord[] duplicates = new SongRecord[16];
+    private int[] duplicateRows = new int[16];
+    private int[] duplicateGroups = new int[16];
+    private int duplicateCount;
+
+    // The first row seen for each ID, and the IDs seen again with different content.
+    private final HashMap<String, SongRecord> firstById = new HashMap<>();
+    private final List<String> idConflicts = new ArrayList<>();
+
+    private int rowCount;
+
+    /**
+     * Constructor that creates an empty deduplicator.
+     *
+     * Precondition: None.
+     * Postcondition: No rows have been accepted.
+     */
+    public SongDeduplicator() {
+        allocate(64);
+    }
+
+    /**
+     * Checks a list of songs for duplicates, in list order.
+     *
+     * Precondition: songs is not null and contains no null elements.
+     * Postcondition: A deduplicator that has accepted every song is returned.
+     *
+     * @param songs the songs to check.
+     * @return the deduplicator holding the results.
+     */
+    public static SongDeduplicator analyze(Iterable<SongRecord> songs) {
+        SongDeduplicator deduplicator = new SongDeduplicator();
+        for (SongRecord song : songs) {
+            deduplicator.accept(song);
+        }
+        return deduplicator;
+    }
+
+    /**
+     * Records the next row.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The row is counted, and recorded as a duplicate or ID conflict where applicable.
+     *
+     * @param song the row to record.
+     * @return true if the row is the first with its content (the one to keep when collapsing duplicates).
+     */
+    public boolean accept(SongRecord song) {
+        return keep(song) == song;
+    }
+
+    /**
+     * Records the next row like accept, and returns the row that stands for it when duplicates are collapsed.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The row is counted, and recorded as a duplicate or ID conflict where applicable.
+     *
+     * @param song the row to record.
+     * @return song itself if it is the first with its content, otherwise the first row of its group.
+     */
+    public SongRecord keep(SongRecord song) {
+        int row = rowCount++;
+        SongRecord sameId = firstById.putIfAbsent(song.getId(), song);
+        if (sameId != null && !sameId.contentEquals(song)) {
+            idConflicts.add(song.getId());
+        }
+
+        long fingerprint = song.contentFingerprint();
+        int slot = (int) fingerprint & mask;
+        while (slots[slot] != 0) {
+            int group = slots[slot] - 1;
+            if (keys[slot] == fingerprint && groupFirst[group].contentEquals(song)) {
+                addDuplicate(song, row, group);
+                return groupFirst[group];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (groupCount == groupFirst.length) {
+            int capacity = groupCount * 2;
+            groupFirst = Arrays.copyOf(groupFirst, capacity);
+            groupFirstRow = Arrays.copyOf(groupFirstRow, capacity);
+            groupSize = Arrays.copyOf(groupSize, capacity);
+        }
+        int group = groupCount++;
+        groupFirst[group] = song;
+        groupFirstRow[group] = row;
+        groupSize[group] = 1;
+        keys[slot] = fingerprint;
+        slots[slot] = group + 1;
+        if (groupCount > keys.length * MAX_LOAD) {
+            rehash(keys.length * 2);
+        }
+        return song;
+    }
+
+    /**
+     * Returns the number of rows accepted.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of rows.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of distinct contents among the accepted rows.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of rows that are not duplicates.
+     */
+    public int getDistinctCount() {
+        return groupCount;
+    }
+
+    /**
+     * Returns the number of rows whose content equals that of an earlier row.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of duplicate rows.
+     */
+    public int getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    /**
+     * Returns every group of two or more rows with the same content, in order of first appearance.
+     * Each group lists its original first, followed by its duplicates in row order.
+     *
+     * Precondition: None.
+     * Postcondition: A new list is returned.
+     *
+     * @return the duplicate groups.
+     */
+    public List<List<SongRecord>> getDuplicateGroups() {
+        // Slot of each group in the result, or -1 for groups without duplicates.
+        int[] position = new int[groupCount];
+        Arrays.fill(position, -1);
+        List<List<SongRecord>> groups = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            if (groupSize[group] > 1) {
+                position[group] = groups.size();
+                List<SongRecord> members = new ArrayList<>(groupSize[group]);
+                members.add(groupFirst[group]);
+                groups.add(members);
+            }
+        }
+        for (int i = 0; i < duplicateCount; i++) {
+            groups.get(position[duplicateGroups[i]]).add(duplicates[i]);
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the row numbers (0-based, counting data rows only) of every duplicate row.
+     *
+     * Precondition: None.
+     * Postcondition: A new ascending array is returned.
+     *
+     * @return the duplicate row numbers.
+     */
+    public int[] getDuplicateRows() {
+        return Arrays.copyOf(duplicateRows, duplicateCount);
+    }
+
+    /**
+     * Returns the IDs that appeared again with different content, once per conflicting row.
+     *
+     * Precondition: None.
+     * Postcondition: A new list is returned.
+     *
+     * @return the conflicting IDs, in row order.
+     */
+    public List<String> getIdConflicts() {
+        return new ArrayList<>(idConflicts);
+    }
+
+    /**
+     * Returns a one-line summary of the results.
+     *
+     * Precondition: None.
+     * Postcondition: The summary is returned.
+     *
+     * @return the summary text.
+     */
+    public String summary() {
+        int groups = 0;
+        for (int group = 0; group < groupCount; group++) {
+            groups += groupSize[group] > 1 ? 1 : 0;
+        }
+        return String.format("%,d rows: %,d distinct, %,d duplicates in %,d groups, %,d ID conflicts",
+                rowCount, groupCount, duplicateCount, groups, idConflicts.size());
+    }
+
+    private void addDuplicate(SongRecord song, int row, int group) {
+        if (duplicateCount == duplicates.length) {
+            int capacity = duplicateCount * 2;
+            duplicates = Arrays.copyOf(duplicates, capacity);
+            duplicateRows = Arrays.copyOf(duplicateRows, capacity);
+            duplicateGroups = Arrays.copyOf(duplicateGroups, capacity);
+        }
+        duplicates[duplicateCount] = song;
+        duplicateRows[duplicateCount] = row;
+        duplicateGroups[duplicateCount] = group;
+        duplicateCount++;
+        groupSize[group]++;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        slots = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = (int) oldKeys[i] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                slots[slot] = oldSlots[i];
+            }
+        }
+    }
+}
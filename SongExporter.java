@@ -0,0 +1,706 @@
+//package hashingAndDocumentation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The SongExporter class writes a stream of songs as text, CSV or JSON lines in constant memory. The songs
+ * can come straight from a CSV file or a snapshot (see stream), so a catalog far larger than the heap can be
+ * exported without loading it into a SongProgram first.
+ *
+ * Each song is formatted by hand into a large reusable byte buffer (a SongJsonWriter), which is written to
+ * the output stream only when it fills up, so no String is built per song and the output stream is not
+ * flushed per line. An optional filter selects the songs, and the fields given to the constructor select
+ * and order the columns written.
+ *
+ * When the stream is parallel, it is split into chunks of about CHUNK_ROWS songs that are formatted on the
+ * common fork-join pool, each into its own buffer, and the buffers are written in stream order, so the
+ * output is identical to a sequential export. At most two chunks per core are in progress at a time, which
+ * bounds memory however long the stream is.
+ *
+ * Precondition: The output stream is not used by anyone else during an export.
+ * Postcondition: export writes one line per song that passes the filter, in stream order.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongExporter {
+
+    /**
+     * Output formats.
+     */
+    public enum Format {
+        // SongRecord.toString, one song per line; with every field this is what printAllSongs prints.
+        TEXT,
+        // A header line with the column names, then one CSV line per song that SongRecordParser can read back.
+        CSV,
+        // One JSON object per line.
+        JSON
+    }
+
+    /**
+     * The fields of a song, in CSV column order, with their CSV column name, their SongRecord property name and,
+     * for numeric fields, their SongColumn.
+     */
+    public enum Field {
+        VALENCE("valence", "valence", SongColumn.VALENCE),
+        YEAR("year", "year", SongColumn.YEAR),
+        ACOUSTICNESS("acousticness", "acousticness", SongColumn.ACOUSTICNESS),
+        ARTISTS("artists", "artists", null),
+        DANCEABILITY("danceability", "danceability", SongColumn.DANCEABILITY),
+        DURATION_MS("duration_ms", "durationMs", SongColumn.DURATION_MS),
+        ENERGY("energy", "energy", SongColumn.ENERGY),
+        EXPLICIT("explicit", "explicit", SongColumn.EXPLICIT),
+        ID("id", "id", null),
+        INSTRUMENTALNESS("instrumentalness", "instrumentalness", SongColumn.INSTRUMENTALNESS),
+        KEY("key", "key", SongColumn.KEY),
+        LIVENESS("liveness", "liveness", SongColumn.LIVENESS),
+        LOUDNESS("loudness", "loudness", SongColumn.LOUDNESS),
+        MODE("mode", "mode", SongColumn.MODE),
+        NAME("name", "name", null),
+        POPULARITY("popularity", "popularity", SongColumn.POPULARITY),
+        RELEASE_DATE("release_date", "releaseDate", null),
+        SPEECHINESS("speechiness", "speechiness", SongColumn.SPEECHINESS),
+        TEMPO("tempo", "tempo", SongColumn.TEMPO);
+
+        private final String columnName;
+        private final String propertyName;
+
+        // The column of a numeric field, or null for a text field.
+        private final SongColumn column;
+
+        Field(String columnName, String propertyName, SongColumn column) {
+            this.columnName = columnName;
+            this.propertyName = propertyName;
+            this.column = column;
+        }
+
+        /**
+         * Returns the field's column name in the CSV header.
+         *
+         * Precondition: None.
+         * Postcondition: The name is returned.
+         *
+         * @return the column name, such as duration_ms.
+         */
+        public String getColumnName() {
+            return columnName;
+        }
+
+        /**
+         * Returns the field's name in SongRecord.toString and in JSON.
+         *
+         * Precondition: None.
+         * Postcondition: The name is returned.
+         *
+         * @return the property name, such as durationMs.
+         */
+        public String getPropertyName() {
+            return propertyName;
+        }
+    }
+
+    // Size of the output buffer of a sequential export, and the initial size of a chunk's buffer.
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    // Number of songs formatted together by one task of a parallel export.
+    private static final int CHUNK_ROWS = 16_384;
+
+    // Chunks in progress per core during a parallel export.
+    private static final int CHUNKS_PER_CORE = 2;
+
+    private final Format format;
+    private final Field[] fields;
+
+    /**
+     * Constructor that creates an exporter writing the given fields, or every field if none are given.
+     *
+     * Precondition: format is not null.
+     * Postcondition: An exporter is created.
+     *
+     * @param format the output format.
+     * @param fields the fields to write, in order; empty for all fields in CSV column order.
+     */
+    public SongExporter(Format format, Field... fields) {
+        this.format = format;
+        this.fields = fields.length == 0 ? Field.values() : fields.clone();
+    }
+
+    /**
+     * Returns the songs of a CSV file as a stream that reads the file as it is consumed, so memory use does
+     * not grow with the file. Fields are decoded only when they are read (see LazySongRecord). The stream
+     * splits into byte ranges of the file, so it can be made parallel. The header line is skipped, and so
+     * are blank lines and lines that cannot be parsed.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: A stream of the file's songs in file order is returned; closing it closes the file.
+     *
+     * @param csvPath the CSV file to read.
+     * @return the songs.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static Stream<SongRecord> stream(String csvPath) throws IOException {
+        return stream(csvPath, new SongMetrics(() -> new SongMetrics.Occupancy("none", 0, 0, 0)));
+    }
+
+    /**
+     * Returns the songs of a CSV file as a stream like stream(csvPath), counting the lines read, parsed and
+     * skipped in metrics. Each byte range of the file is counted by a LoadRecorder of its own, whose counts
+     * reach metrics when the range has been read to its end.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format; metrics
+     *               is not null.
+     * Postcondition: A stream of the file's songs in file order is returned; closing it closes the file.
+     *
+     * @param csvPath the CSV file to read.
+     * @param metrics the metrics that count the lines.
+     * @return the songs.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static Stream<SongRecord> stream(String csvPath, SongMetrics metrics) throws IOException {
+        FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            long dataStart = CsvSpliterator.lineStartAfter(channel, 0, size);
+            CsvSpliterator songs = new CsvSpliterator(channel, dataStart, size, csvPath, metrics);
+            return StreamSupport.stream(songs, false).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the songs of a snapshot as a stream, in snapshot order. Each song is read from the mapped
+     * file when the stream reaches it.
+     *
+     * Precondition: snapshot is open.
+     * Postcondition: A stream of the snapshot's songs is returned.
+     *
+     * @param snapshot the snapshot to read.
+     * @return the songs.
+     */
+    public static Stream<SongRecord> stream(SongSnapshot snapshot) {
+        return IntStream.range(0, snapshot.size()).mapToObj(snapshot::getRecord);
+    }
+
+    /**
+     * Writes every song of a stream that passes the filter, in stream order. A parallel stream is
+     * formatted on all cores, with the same output.
+     *
+     * Precondition: out is not null.
+     * Postcondition: The songs are written and out is flushed; the stream is consumed.
+     *
+     * @param songs the songs to export.
+     * @param filter selects the songs to write, or null to write all of them.
+     * @param out the stream to write to.
+     * @return the number of songs written.
+     * @throws IOException if writing fails.
+     */
+    public long export(Stream<SongRecord> songs, Predicate<? super SongRecord> filter, OutputStream out)
+            throws IOException {
+        SongJsonWriter writer = new SongJsonWriter(out, BUFFER_BYTES);
+        writeHeader(writer);
+        long written = songs.isParallel()
+                ? exportParallel(songs.spliterator(), filter, writer, out)
+                : exportSequential(songs.iterator(), filter, writer);
+        writer.flush();
+        return written;
+    }
+
+    private long exportSequential(Iterator<SongRecord> songs, Predicate<? super SongRecord> filter,
+                                  SongJsonWriter writer) throws IOException {
+        long written = 0;
+        while (songs.hasNext()) {
+            SongRecord song = songs.next();
+            if (filter == null || filter.test(song)) {
+                writeSong(writer, song);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private long exportParallel(Spliterator<SongRecord> songs, Predicate<? super SongRecord> filter,
+                                SongJsonWriter writer, OutputStream out) throws IOException {
+        // Header bytes go out before any chunk.
+        writer.writeTo(out);
+        List<Spliterator<SongRecord>> chunks = new ArrayList<>();
+        split(songs, chunks);
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int window = Math.max(2, pool.getParallelism() * CHUNKS_PER_CORE);
+        // Buffers of chunks that have been written out, reused by later chunks.
+        ConcurrentLinkedQueue<SongJsonWriter> spare = new ConcurrentLinkedQueue<>();
+        ArrayDeque<CompletableFuture<Chunk>> running = new ArrayDeque<>();
+        long written = 0;
+        int next = 0;
+        try {
+            while (next < chunks.size() || !running.isEmpty()) {
+                while (next < chunks.size() && running.size() < window) {
+                    Spliterator<SongRecord> chunk = chunks.get(next);
+                    // Let the chunk's records be collected once it is formatted.
+                    chunks.set(next++, null);
+                    running.add(CompletableFuture.supplyAsync(() -> format(chunk, filter, spare), pool));
+                }
+                Chunk chunk = running.remove().join();
+                chunk.writer.writeTo(out);
+                written += chunk.count;
+                spare.add(chunk.writer);
+            }
+        } catch (CompletionException e) {
+            for (CompletableFuture<Chunk> pending : running) {
+                pending.cancel(false);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+        return written;
+    }
+
+    /**
+     * Splits songs into chunks of at most about CHUNK_ROWS songs, appended to chunks in stream order.
+     */
+    private static void split(Spliterator<SongRecord> songs, List<Spliterator<SongRecord>> chunks) {
+        while (songs.estimateSize() > CHUNK_ROWS) {
+            // The split-off part comes first in an ordered spliterator.
+            Spliterator<SongRecord> prefix = songs.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            split(prefix, chunks);
+        }
+        chunks.add(songs);
+    }
+
+    /**
+     * Formats the songs of one chunk into a spare buffer, or a new one.
+     */
+    private Chunk format(Spliterator<SongRecord> songs, Predicate<? super SongRecord> filter,
+                         ConcurrentLinkedQueue<SongJsonWriter> spare) {
+        SongJsonWriter buffer = spare.poll();
+        Chunk chunk = new Chunk(buffer != null ? buffer : new SongJsonWriter(null, BUFFER_BYTES), filter);
+        songs.forEachRemaining(chunk);
+        return chunk;
+    }
+
+    /**
+     * The formatted songs of one chunk of a parallel export.
+     */
+    private final class Chunk implements Consumer<SongRecord> {
+        private final SongJsonWriter writer;
+        private final Predicate<? super SongRecord> filter;
+        private long count;
+
+        Chunk(SongJsonWriter writer, Predicate<? super SongRecord> filter) {
+            this.writer = writer;
+            this.filter = filter;
+        }
+
+        @Override
+        public void accept(SongRecord song) {
+            if (filter != null && !filter.test(song)) {
+                return;
+            }
+            try {
+                writeSong(writer, song);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count++;
+        }
+    }
+
+    private void writeHeader(SongJsonWriter writer) throws IOException {
+        if (format != Format.CSV) {
+            return;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.writeByte(',');
+            }
+            writer.writeAscii(fields[i].columnName);
+        }
+        writer.writeByte('\n');
+    }
+
+    /**
+     * Writes one song as a line in the exporter's format.
+     */
+    private void writeSong(SongJsonWriter writer, SongRecord song) throws IOException {
+        switch (format) {
+            case TEXT:
+                writer.writeAscii("SongRecord{");
+                break;
+            case JSON:
+                writer.writeByte('{');
+                break;
+            default:
+                break;
+        }
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            switch (format) {
+                case TEXT:
+                    if (i > 0) {
+                        writer.writeAscii(", ");
+                    }
+                    writer.writeAscii(field.propertyName).writeByte('=');
+                    writeTextValue(writer, song, field);
+                    break;
+                case CSV:
+                    if (i > 0) {
+                        writer.writeByte(',');
+                    }
+                    writeCsvValue(writer, song, field);
+                    break;
+                default:
+                    if (i > 0) {
+                        writer.writeByte(',');
+                    }
+                    writer.writeByte('"').writeAscii(field.propertyName).writeAscii("\":");
+                    writeJsonValue(writer, song, field);
+                    break;
+            }
+        }
+        if (format == Format.TEXT || format == Format.JSON) {
+            writer.writeByte('}');
+        }
+        writer.writeByte('\n');
+    }
+
+    /**
+     * Writes a field as SongRecord.toString does: quoted with ' for the ID and name, List.toString for artists.
+     */
+    private static void writeTextValue(SongJsonWriter writer, SongRecord song, Field field) throws IOException {
+        switch (field) {
+            case ID:
+                writer.writeByte('\'').writeText(song.getId()).writeByte('\'');
+                break;
+            case NAME:
+                writer.writeByte('\'').writeText(song.getName()).writeByte('\'');
+                break;
+            case RELEASE_DATE:
+                writer.writeText(song.getReleaseDate());
+                break;
+            case ARTISTS:
+                List<String> artists = song.getArtists();
+                if (artists == null) {
+                    writer.writeAscii("null");
+                    break;
+                }
+                writer.writeByte('[');
+                for (int i = 0; i < artists.size(); i++) {
+                    if (i > 0) {
+                        writer.writeAscii(", ");
+                    }
+                    writer.writeText(artists.get(i));
+                }
+                writer.writeByte(']');
+                break;
+            default:
+                writeNumberValue(writer, song, field);
+                break;
+        }
+    }
+
+    /**
+     * Writes a field as a CSV value, quoted when SongRecordParser would otherwise split or unquote it.
+     */
+    private static void writeCsvValue(SongJsonWriter writer, SongRecord song, Field field) throws IOException {
+        switch (field) {
+            case ID:
+                writeCsvText(writer, song.getId());
+                break;
+            case NAME:
+                writeCsvText(writer, song.getName());
+                break;
+            case RELEASE_DATE:
+                writeCsvText(writer, song.getReleaseDate());
+                break;
+            case ARTISTS:
+                writeCsvArtists(writer, song.getArtists());
+                break;
+            default:
+                writeNumberValue(writer, song, field);
+                break;
+        }
+    }
+
+    private static void writeCsvText(SongJsonWriter writer, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        if (!needsCsvQuotes(text)) {
+            writer.writeText(text);
+            return;
+        }
+        writer.writeByte('"').writeText(text.replace("\"", "\"\"")).writeByte('"');
+    }
+
+    /**
+     * Writes artists as a list like ['Artist1', 'Artist2'], the form of the source data. Names holding a
+     * single quote are enclosed in double quotes instead.
+     */
+    private static void writeCsvArtists(SongJsonWriter writer, List<String> artists) throws IOException {
+        if (artists == null) {
+            return;
+        }
+        boolean quoted = artists.size() > 1;
+        for (int i = 0; !quoted && i < artists.size(); i++) {
+            quoted = needsCsvQuotes(artists.get(i)) || artists.get(i).indexOf('\'') >= 0;
+        }
+        if (quoted) {
+            writer.writeByte('"');
+        }
+        writer.writeByte('[');
+        for (int i = 0; i < artists.size(); i++) {
+            if (i > 0) {
+                writer.writeAscii(", ");
+            }
+            String artist = artists.get(i);
+            boolean doubleQuoted = artist.indexOf('\'') >= 0;
+            if (doubleQuoted) {
+                writer.writeAscii("\"\"").writeText(artist.replace("\"", "\"\"")).writeAscii("\"\"");
+            } else {
+                writer.writeByte('\'').writeText(quoted ? artist.replace("\"", "\"\"") : artist).writeByte('\'');
+            }
+        }
+        writer.writeByte(']');
+        if (quoted) {
+            writer.writeByte('"');
+        }
+    }
+
+    private static boolean needsCsvQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeJsonValue(SongJsonWriter writer, SongRecord song, Field field) throws IOException {
+        switch (field) {
+            case ID:
+                writer.writeString(song.getId());
+                break;
+            case NAME:
+                writer.writeString(song.getName());
+                break;
+            case RELEASE_DATE:
+                writer.writeString(song.getReleaseDate());
+                break;
+            case ARTISTS:
+                List<String> artists = song.getArtists();
+                writer.writeByte('[');
+                for (int i = 0; artists != null && i < artists.size(); i++) {
+                    if (i > 0) {
+                        writer.writeByte(',');
+                    }
+                    writer.writeString(artists.get(i));
+                }
+                writer.writeByte(']');
+                break;
+            default:
+                if (field.column.isInteger()) {
+                    writer.writeInt((int) field.column.read(song));
+                } else {
+                    writer.writeDouble(field.column.read(song));
+                }
+                break;
+        }
+    }
+
+    private static void writeNumberValue(SongJsonWriter writer, SongRecord song, Field field) throws IOException {
+        if (field.column.isInteger()) {
+            writer.writeInt((int) field.column.read(song));
+        } else {
+            writer.writeNumber(field.column.read(song));
+        }
+    }
+
+    /**
+     * The songs whose lines start in a byte range of a CSV file. A line belongs to the range its first byte
+     * falls in, so ranges can be split anywhere without reading the file; reading a range skips the partial
+     * line at its start and finishes the line that crosses its end. A blank line, or one that LazySongRecord
+     * cannot parse, is skipped and counted by the range's LoadRecorder.
+     */
+    private static final class CsvSpliterator implements Spliterator<SongRecord> {
+
+        // Smallest range worth splitting off.
+        private static final long MIN_SPLIT_BYTES = 1 << 20;
+
+        // Bytes read from the file at a time.
+        private static final int BLOCK_BYTES = 1 << 16;
+
+        // Typical bytes per line, for size estimates.
+        private static final int ESTIMATED_LINE_BYTES = 160;
+
+        private final FileChannel channel;
+        private long start;
+        private final long end;
+        private final String csvPath;
+        private final SongMetrics metrics;
+
+        // Reading state, set up by the first tryAdvance.
+        private ByteBuffer block;
+        private long blockPosition;
+        private long next = -1;
+        private byte[] carry = new byte[0];
+
+        // Counts this range's lines from the first tryAdvance until the range ends, then null.
+        private SongMetrics.LoadRecorder recorder;
+
+        CsvSpliterator(FileChannel channel, long start, long end, String csvPath, SongMetrics metrics) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.csvPath = csvPath;
+            this.metrics = metrics;
+        }
+
+        /**
+         * Returns the position just after the first newline at or after from, or size if there is none.
+         */
+        static long lineStartAfter(FileChannel channel, long from, long size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long position = from;
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (buffer.get(i) == '\n') {
+                        return position + i + 1;
+                    }
+                }
+                position += read;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super SongRecord> action) {
+            try {
+                if (next < 0) {
+                    block = ByteBuffer.allocate(BLOCK_BYTES);
+                    // The line that starts at the range start belongs here only if the previous byte ends a line.
+                    next = lineStartAfter(channel, start - 1, channel.size());
+                    blockPosition = next;
+                    block.limit(0);
+                    recorder = metrics.startLoad(csvPath + " from byte " + next);
+                }
+                while (recorder != null && next < end) {
+                    byte[] line = readLine();
+                    if (line == null) {
+                        break;
+                    }
+                    recorder.lineRead();
+                    SongRecord song = recorder.parse(LazySongRecord.isBlank(line), () -> LazySongRecord.checked(line));
+                    if (song != null) {
+                        action.accept(song);
+                        return true;
+                    }
+                }
+                if (recorder != null) {
+                    recorder.finish();
+                    recorder = null;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Reads the line starting at next, without its newline, or returns null at the end of the file.
+         */
+        private byte[] readLine() throws IOException {
+            while (true) {
+                byte[] array = block.array();
+                for (int i = block.position(); i < block.limit(); i++) {
+                    if (array[i] == '\n') {
+                        byte[] line = join(array, block.position(), i);
+                        block.position(i + 1);
+                        next = blockPosition + i + 1;
+                        return line;
+                    }
+                }
+                carry = join(array, block.position(), block.limit());
+                blockPosition += block.limit();
+                block.clear();
+                int read = channel.read(block, blockPosition);
+                block.flip();
+                if (read <= 0) {
+                    // Last line of a file without a final newline.
+                    byte[] line = carry;
+                    carry = new byte[0];
+                    next = blockPosition;
+                    return line.length > 0 ? line : null;
+                }
+            }
+        }
+
+        private byte[] join(byte[] array, int from, int to) {
+            byte[] joined = Arrays.copyOf(carry, carry.length + to - from);
+            System.arraycopy(array, from, joined, carry.length, to - from);
+            carry = new byte[0];
+            return joined;
+        }
+
+        @Override
+        public Spliterator<SongRecord> trySplit() {
+            if (next >= 0 || end - start < 2 * MIN_SPLIT_BYTES) {
+                return null;
+            }
+            long middle = start + (end - start) / 2;
+            CsvSpliterator prefix = new CsvSpliterator(channel, start, middle, csvPath, metrics);
+            start = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(0, (next >= 0 ? end - next : end - start) / ESTIMATED_LINE_BYTES);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL;
+        }
+    }
+}
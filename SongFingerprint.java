@@ -0,0 +1,117 @@
+//package hashingAndDocumentation;
+
+import java.util.List;
+
+/**
+ * The SongFingerprint class computes a 64-bit fingerprint of a song's content: every field of a SongRecord
+ * except its ID. Two songs with equal content always have the same fingerprint, and songs that differ in any
+ * field have different fingerprints except with negligible probability (about 2^-64 per pair).
+ *
+ * The fingerprint is computed in one pass over the fields without allocating: doubles are hashed through
+ * their bit patterns (matching Double.compare, which equals uses), strings four characters at a time, and
+ * the artist list element by element. The result is finished with the SplitMix64 mixing function so that
+ * every input bit affects every output bit.
+ *
+ * Precondition: None.
+ * Postcondition: Fingerprints are stable across runs and JVMs, so they may be stored or compared between processes.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public final class SongFingerprint {
+
+    // Odd multipliers from the golden ratio and SplitMix64.
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long MIX = 0xBF58476D1CE4E5B9L;
+
+    // Hashed in place of a null string or list, so null differs from an empty value.
+    private static final long NULL_MARKER = 0x6A09E667F3BCC908L;
+
+    private SongFingerprint() {
+    }
+
+    /**
+     * Returns the content fingerprint of a song.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The song is unchanged.
+     *
+     * @param song the song to fingerprint.
+     * @return the fingerprint of every field except the ID.
+     */
+    public static long of(SongRecord song) {
+        long h = GOLDEN;
+        h = mix(h, Double.doubleToLongBits(song.getValence()));
+        h = mix(h, song.getYear());
+        h = mix(h, Double.doubleToLongBits(song.getAcousticness()));
+        h = mixArtists(h, song.getArtists());
+        h = mix(h, Double.doubleToLongBits(song.getDanceability()));
+        h = mix(h, song.getDurationMs());
+        h = mix(h, Double.doubleToLongBits(song.getEnergy()));
+        h = mix(h, song.getExplicit());
+        h = mix(h, Double.doubleToLongBits(song.getInstrumentalness()));
+        h = mix(h, song.getKey());
+        h = mix(h, Double.doubleToLongBits(song.getLiveness()));
+        h = mix(h, Double.doubleToLongBits(song.getLoudness()));
+        h = mix(h, song.getMode());
+        h = mixString(h, song.getName());
+        h = mix(h, song.getPopularity());
+        h = mixString(h, song.getReleaseDate());
+        h = mix(h, Double.doubleToLongBits(song.getSpeechiness()));
+        h = mix(h, Double.doubleToLongBits(song.getTempo()));
+        return finish(h);
+    }
+
+    /**
+     * Folds one 64-bit value into the running hash.
+     */
+    private static long mix(long h, long value) {
+        return Long.rotateLeft(h ^ (value * GOLDEN), 31) * MIX;
+    }
+
+    /**
+     * Folds a string into the running hash, four characters per step, prefixed by its length.
+     */
+    private static long mixString(long h, String text) {
+        if (text == null) {
+            return mix(h, NULL_MARKER);
+        }
+        int length = text.length();
+        h = mix(h, length);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            h = mix(h, (long) text.charAt(i) | (long) text.charAt(i + 1) << 16
+                    | (long) text.charAt(i + 2) << 32 | (long) text.charAt(i + 3) << 48);
+        }
+        long tail = 0;
+        for (int shift = 0; i < length; i++, shift += 16) {
+            tail |= (long) text.charAt(i) << shift;
+        }
+        return mix(h, tail);
+    }
+
+    /**
+     * Folds the artist list into the running hash, prefixed by its size. Indexed access avoids creating an
+     * iterator for the random-access lists produced by the parsers.
+     */
+    private static long mixArtists(long h, List<String> artists) {
+        if (artists == null) {
+            return mix(h, NULL_MARKER);
+        }
+        int size = artists.size();
+        h = mix(h, size);
+        for (int i = 0; i < size; i++) {
+            h = mixString(h, artists.get(i));
+        }
+        return h;
+    }
+
+    /**
+     * Applies the SplitMix64 finalizer.
+     */
+    private static long finish(long h) {
+        h = (h ^ (h >>> 30)) * MIX;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -0,0 +1,79 @@
+//package hashingAndDocumentation;
+
+/**
+ * The SongGrouping enum lists the ways songs can be grouped for a GroupByQuery. Each constant maps a song to
+ * an int group key derived from one integer SongColumn, such as its release year or the decade it falls in.
+ *
+ * Precondition: None.
+ * Postcondition: keyOf never decreases as the source column's value increases, so the key range of a store
+ *                follows from the column's minimum and maximum.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public enum SongGrouping {
+    YEAR(SongColumn.YEAR),
+    DECADE(SongColumn.YEAR),
+    KEY(SongColumn.KEY),
+    MODE(SongColumn.MODE),
+    EXPLICIT(SongColumn.EXPLICIT);
+
+    // The column the group key is computed from.
+    private final SongColumn source;
+
+    SongGrouping(SongColumn source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the column the group key is computed from.
+     *
+     * Precondition: None.
+     * Postcondition: An integer column is returned.
+     *
+     * @return the source column.
+     */
+    public SongColumn getSource() {
+        return source;
+    }
+
+    /**
+     * Maps a value of the source column to a group key; a decade is keyed by its first year, such as 1990.
+     *
+     * Precondition: None.
+     * Postcondition: The group key is returned.
+     *
+     * @param value the source column value.
+     * @return the group key.
+     */
+    public int keyOf(int value) {
+        return this == DECADE ? Math.floorDiv(value, 10) * 10 : value;
+    }
+
+    /**
+     * Returns the group key of a row of a store.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; store.size().
+     * Postcondition: The group key is returned.
+     *
+     * @param store the store holding the row.
+     * @param ordinal the row ordinal.
+     * @return the group key.
+     */
+    public int keyOf(SongStore store, int ordinal) {
+        return keyOf((int) store.get(source, ordinal));
+    }
+
+    /**
+     * Returns the group key of a song.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The group key is returned.
+     *
+     * @param song the song.
+     * @return the group key.
+     */
+    public int keyOf(SongRecord song) {
+        return keyOf((int) source.read(song));
+    }
+}
@@ -0,0 +1,387 @@
+//package hashingAndDocumentation;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SongHttpServer class serves the songs of a SongProgram over HTTP, using the JDK's built-in
+ * com.sun.net.httpserver server. It has four endpoints:
+ *
+ * GET /songs/{id}                 one song as a JSON object, or 404.
+ * GET /songs?ids=a,b,c            a batch of songs as a JSON array, in the order asked, with null for
+ * POST /songs                     unknown IDs; POST takes the IDs in the body, separated by commas or
+ *                                 whitespace.
+ * GET /catalog                    every song as one JSON array, streamed with chunked encoding.
+ * GET /stats                      latency histograms of the endpoints above, render cache statistics and
+ *                                 the program's SongMetrics report, as plain text.
+ *
+ * Each request runs on its own virtual thread when the JVM supports them (Java 21 and later), so a slow
+ * client never holds a pooled thread. On older JVMs requests run on a cached pool of daemon threads.
+ * Lookups go through SongProgram.getSongById, which does not lock, so the server can run while songs are
+ * reloaded or ingested. Song lookups are answered with the JSON cached by SongProgram.getSongJson, written to
+ * the response as is; the catalog stream is written by SongJsonWriter straight into the response buffer.
+ *
+ * Precondition: Songs have been loaded into the program before the server starts.
+ * Postcondition: The server answers requests until stop is called.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongHttpServer {
+
+    // Largest number of IDs accepted in one batch request, and the largest request body read.
+    private static final int MAX_BATCH_IDS = 10_000;
+    private static final int MAX_BODY_BYTES = MAX_BATCH_IDS * 32;
+
+    // Buffer size for batch responses and for streaming the catalog.
+    private static final int STREAM_BUFFER_BYTES = 64 * 1024;
+
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    private final SongProgram program;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // Server-side latency of each endpoint, from the start of the handler to the end of the response.
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final LatencyHistogram catalogLatency = new LatencyHistogram();
+
+    private SongHttpServer(SongProgram program, HttpServer server, ExecutorService executor) {
+        this.program = program;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server for a program on a port.
+     *
+     * Precondition: program is not null and 0 &lt;= port &lt;= 65535.
+     * Postcondition: The server is listening; with port 0 it listens on a free port, given by getPort.
+     *
+     * @param program the program whose songs are served.
+     * @param port the TCP port to listen on, or 0 for any free port.
+     * @return the running server.
+     * @throws IOException if the port cannot be bound.
+     */
+    public static SongHttpServer start(SongProgram program, int port) throws IOException {
+        // The server writes the headers and the body separately; with Nagle's algorithm on, the body then
+        // waits for the client's delayed ACK, which adds about 40 ms to every response. The property is read
+        // once, when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        // A large backlog lets thousands of clients connect at once without being refused.
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 4096);
+        ExecutorService executor = newRequestExecutor();
+        SongHttpServer songServer = new SongHttpServer(program, server, executor);
+        server.createContext("/songs", songServer::handleSongs);
+        server.createContext("/catalog", songServer::handleCatalog);
+        server.createContext("/stats", songServer::handleStats);
+        server.setExecutor(executor);
+        server.start();
+        return songServer;
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread, or a cached pool of daemon threads
+     * when the JVM has no virtual threads.
+     *
+     * Precondition: None.
+     * Postcondition: A new executor is returned.
+     *
+     * @return the executor for requests.
+     */
+    static ExecutorService newRequestExecutor() {
+        // Looked up by reflection, so the class still compiles and runs on Java 17.
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "song-http");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * Precondition: None.
+     * Postcondition: The port is returned.
+     *
+     * @return the bound port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the latency histogram of single song lookups.
+     *
+     * Precondition: None.
+     * Postcondition: The live histogram is returned.
+     *
+     * @return the lookup latencies in nanoseconds.
+     */
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    /**
+     * Returns the latency histogram of batch lookups.
+     *
+     * Precondition: None.
+     * Postcondition: The live histogram is returned.
+     *
+     * @return the batch latencies in nanoseconds.
+     */
+    public LatencyHistogram getBatchLatency() {
+        return batchLatency;
+    }
+
+    /**
+     * Returns the latency statistics of every endpoint, the render cache statistics and the program's metrics
+     * report, as served by GET /stats.
+     *
+     * Precondition: None.
+     * Postcondition: One line per endpoint is returned, followed by the metrics report.
+     *
+     * @return the statistics text.
+     */
+    public String stats() {
+        return "lookup  " + lookupLatency.summary() + "\n"
+                + "batch   " + batchLatency.summary() + "\n"
+                + "catalog " + catalogLatency.summary() + "\n"
+                + "cache   " + program.getRenderCache().stats() + "\n"
+                + program.getMetrics().report();
+    }
+
+    /**
+     * Stops the server, giving requests in progress up to delaySeconds to finish.
+     *
+     * Precondition: delaySeconds is not negative.
+     * Postcondition: The server no longer accepts requests and its threads are shut down.
+     *
+     * @param delaySeconds the longest time to wait for requests in progress.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleSongs(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            String method = exchange.getRequestMethod();
+            if (path.startsWith("/songs/") && path.length() > "/songs/".length()) {
+                if (!method.equals("GET")) {
+                    sendError(exchange, 405, "method not allowed");
+                    return;
+                }
+                lookup(exchange, URLDecoder.decode(path.substring("/songs/".length()), StandardCharsets.UTF_8));
+                lookupLatency.recordSince(start);
+            } else if (method.equals("GET") || method.equals("POST")) {
+                batch(exchange, method.equals("POST"));
+                batchLatency.recordSince(start);
+            } else {
+                sendError(exchange, 405, "method not allowed");
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void lookup(HttpExchange exchange, String id) throws IOException {
+        byte[] json = program.getSongJson(id);
+        if (json == null) {
+            sendError(exchange, 404, "song not found");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, json.length);
+        exchange.getResponseBody().write(json);
+    }
+
+    private void batch(HttpExchange exchange, boolean fromBody) throws IOException {
+        String list;
+        if (fromBody) {
+            list = readBody(exchange);
+            if (list == null) {
+                sendError(exchange, 413, "request body too large");
+                return;
+            }
+        } else {
+            list = queryParameter(exchange.getRequestURI().getRawQuery(), "ids");
+            if (list == null) {
+                sendError(exchange, 400, "missing ids parameter");
+                return;
+            }
+        }
+        List<String> ids = splitIds(list);
+        if (ids.size() > MAX_BATCH_IDS) {
+            sendError(exchange, 413, "at most " + MAX_BATCH_IDS + " IDs per request");
+            return;
+        }
+
+        // The cached JSON of each song is written to the response as is, so the length is known up front.
+        byte[][] songs = program.getSongsJson(ids);
+        long length = 2 + Math.max(0, songs.length - 1);
+        for (byte[] song : songs) {
+            length += song == null ? NULL.length : song.length;
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, length);
+        OutputStream body = new BufferedOutputStream(exchange.getResponseBody(), STREAM_BUFFER_BYTES);
+        body.write('[');
+        for (int i = 0; i < songs.length; i++) {
+            if (i > 0) {
+                body.write(',');
+            }
+            body.write(songs[i] == null ? NULL : songs[i]);
+        }
+        body.write(']');
+        body.flush();
+    }
+
+    private void handleCatalog(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "method not allowed");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            // A length of 0 selects chunked encoding, so the songs are sent as they are written.
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                SongJsonWriter writer = new SongJsonWriter(body, STREAM_BUFFER_BYTES);
+                writer.writeByte('[');
+                boolean[] first = {true};
+                program.forEachSong(song -> {
+                    try {
+                        if (!first[0]) {
+                            writer.writeByte(',');
+                        }
+                        first[0] = false;
+                        writer.writeSong(song);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.writeByte(']');
+                writer.flush();
+            } catch (UncheckedIOException e) {
+                // Usually the client closed the connection in the middle of the stream.
+                throw e.getCause();
+            }
+            catalogLatency.recordSince(start);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            byte[] text = stats().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, text.length);
+            exchange.getResponseBody().write(text);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, SongJsonWriter writer)
+            throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, writer.size());
+        writer.writeTo(exchange.getResponseBody());
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        SongJsonWriter writer = new SongJsonWriter(null, 64 + message.length());
+        writer.writeAscii("{\"error\":").writeString(message).writeByte('}');
+        send(exchange, status, JSON, writer);
+    }
+
+    /**
+     * Reads the request body as UTF-8, or returns null if it is longer than MAX_BODY_BYTES.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    return null;
+                }
+                body.write(chunk, 0, read);
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the decoded value of a query parameter, or null if it is absent.
+     */
+    private static String queryParameter(String rawQuery, String name) {
+        if (rawQuery == null) {
+            return null;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0 && pair.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Splits a list of IDs separated by commas or whitespace, skipping empty entries.
+     */
+    private static List<String> splitIds(String list) {
+        List<String> ids = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= list.length(); i++) {
+            boolean separator = i == list.length() || list.charAt(i) == ',' || Character.isWhitespace(list.charAt(i));
+            if (separator) {
+                if (start >= 0) {
+                    ids.add(list.substring(start, i));
+                    start = -1;
+                }
+            } else if (start < 0) {
+                start = i;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,363 @@
+//package hashingAndDocumentation;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The SongIdIndex class maps song IDs to row ordinals (for example, ordinals of a SongStore) using a flat
+ * open-addressing hash table with linear probing.
+ *
+ * Spotify track IDs are 22 base62 characters that encode a 128-bit number. Such an ID is decoded into two longs,
+ * and the table stores only those two longs plus one long holding the ID's hash and ordinal per slot. There are
+ * no String, byte[] or node objects per entry, and a lookup compares longs instead of calling String.equals. IDs that do not
+ * fit the format (wrong length, characters outside [0-9A-Za-z], or a value of 2^128 or more) are kept in
+ * a regular HashMap fallback, so every String is accepted.
+ *
+ * Precondition: Ordinals passed to put are not negative.
+ * Postcondition: get returns the ordinal most recently stored for an ID, or -1.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongIdIndex {
+
+    // Number of characters in a packed ID.
+    public static final int PACKED_ID_LENGTH = 22;
+
+    // Maximum fill ratio of the table before it doubles in size.
+    private static final double MAX_LOAD = 0.7;
+
+    // 62^10 and 62^2, used to decode the ID ten characters at a time.
+    private static final long POW62_10 = 839299365868340224L;
+    private static final long POW62_2 = 62 * 62;
+
+    // Largest unsigned 64-bit value that can be multiplied by 62^2 without overflowing.
+    private static final long MAX_BEFORE_LAST_MULTIPLY = Long.divideUnsigned(-1L, POW62_2);
+
+    // Value of each ASCII base62 digit (0-9, A-Z, a-z), or -1 for any other character.
+    private static final byte[] DIGITS = new byte[128];
+
+    static {
+        Arrays.fill(DIGITS, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            DIGITS['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 26; i++) {
+            DIGITS['A' + i] = (byte) (10 + i);
+            DIGITS['a' + i] = (byte) (36 + i);
+        }
+    }
+
+    // Packed ID of each slot: the high 64 bits at index 2 * slot and the low 64 bits at 2 * slot + 1,
+    // so that both halves share a cache line.
+    private long[] keys;
+
+    // Per slot: the 32-bit hash of the ID in the high half and ordinal + 1 in the low half. A probe compares
+    // the hash before touching keys, so misses rarely read the larger key array. 0 marks an empty slot.
+    private long[] values;
+
+    private int mask;
+    private int packedCount;
+
+    // IDs that cannot be packed into two longs.
+    private final HashMap<String, Integer> fallback = new HashMap<>();
+
+    /**
+     * Constructor that creates an index sized for the expected number of IDs.
+     *
+     * Precondition: expectedSize is not negative.
+     * Postcondition: An empty index is created; it grows automatically beyond expectedSize.
+     *
+     * @param expectedSize the number of IDs expected to be stored.
+     */
+    public SongIdIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit((int) Math.max(16, expectedSize / MAX_LOAD) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Reads an index previously written by writeTo. The table arrays are copied in bulk, so no IDs are
+     * decoded or rehashed.
+     *
+     * Precondition: buffer is positioned at the start of data written by writeTo.
+     * Postcondition: An index equal to the written one is returned and buffer is positioned after it.
+     *
+     * @param buffer the buffer to read from.
+     * @return the index.
+     */
+    public static SongIdIndex readFrom(ByteBuffer buffer) {
+        int capacity = buffer.getInt();
+        SongIdIndex index = new SongIdIndex(0);
+        index.allocate(capacity);
+        index.packedCount = buffer.getInt();
+        buffer.asLongBuffer().get(index.keys);
+        buffer.position(buffer.position() + index.keys.length * Long.BYTES);
+        buffer.asLongBuffer().get(index.values);
+        buffer.position(buffer.position() + index.values.length * Long.BYTES);
+
+        int fallbackCount = buffer.getInt();
+        for (int i = 0; i < fallbackCount; i++) {
+            byte[] id = new byte[buffer.getInt()];
+            buffer.get(id);
+            index.fallback.put(new String(id, StandardCharsets.UTF_8), buffer.getInt());
+        }
+        return index;
+    }
+
+    /**
+     * Builds an index over every row of a SongStore, mapping each ID to its row ordinal.
+     * When an ID occurs more than once, the highest ordinal wins.
+     *
+     * Precondition: store is not null.
+     * Postcondition: An index with one entry per distinct ID is returned.
+     *
+     * @param store the store whose IDs are indexed.
+     * @return the populated index.
+     */
+    public static SongIdIndex build(SongStore store) {
+        SongIdIndex index = new SongIdIndex(store.size());
+        for (int ordinal = 0; ordinal < store.size(); ordinal++) {
+            index.put(store.getId(ordinal), ordinal);
+        }
+        return index;
+    }
+
+    /**
+     * Maps an ID to an ordinal, replacing any previous mapping.
+     *
+     * Precondition: id is not null and ordinal is not negative.
+     * Postcondition: get(id) returns ordinal.
+     *
+     * @param id the song ID.
+     * @param ordinal the row ordinal to store.
+     * @throws IllegalArgumentException if ordinal is negative.
+     */
+    public void put(String id, int ordinal) {
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Ordinal must not be negative: " + ordinal);
+        }
+        if (findOrInsert(id, ordinal) == -2) {
+            fallback.put(id, ordinal);
+        }
+    }
+
+    /**
+     * Returns the ordinal stored for an ID.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The index is unchanged.
+     *
+     * @param id the song ID.
+     * @return the ordinal, or -1 if the ID is not present.
+     */
+    public int get(String id) {
+        int ordinal = findOrInsert(id, -1);
+        if (ordinal == -2) {
+            Integer boxed = fallback.get(id);
+            return boxed == null ? -1 : boxed;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Returns the number of IDs in the index.
+     *
+     * Precondition: None.
+     * Postcondition: The entry count (packed and fallback) is returned.
+     *
+     * @return the number of IDs.
+     */
+    public int size() {
+        return packedCount + fallback.size();
+    }
+
+    /**
+     * Returns the number of IDs that could not be packed and live in the fallback map.
+     *
+     * Precondition: None.
+     * Postcondition: The fallback entry count is returned.
+     *
+     * @return the number of fallback IDs.
+     */
+    public int fallbackSize() {
+        return fallback.size();
+    }
+
+    /**
+     * Returns the number of slots in the packed table, for occupancy monitoring.
+     *
+     * Precondition: None.
+     * Postcondition: The slot count is returned.
+     *
+     * @return the number of slots.
+     */
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * Returns an estimate of the heap used by the packed table, in bytes.
+     * The fallback map is not included.
+     *
+     * Precondition: None.
+     * Postcondition: The estimate is returned.
+     *
+     * @return the estimated table size in bytes.
+     */
+    public long estimatedTableBytes() {
+        return (long) values.length * (Long.BYTES + Long.BYTES + Long.BYTES);
+    }
+
+    /**
+     * Writes the index in a binary form that readFrom can load without rehashing.
+     *
+     * Precondition: out is open.
+     * Postcondition: The table and the fallback entries have been written to out.
+     *
+     * @param out the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(values.length);
+        out.writeInt(packedCount);
+        for (long key : keys) {
+            out.writeLong(key);
+        }
+        for (long value : values) {
+            out.writeLong(value);
+        }
+        out.writeInt(fallback.size());
+        for (Map.Entry<String, Integer> entry : fallback.entrySet()) {
+            byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(id.length);
+            out.write(id);
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    /**
+     * Looks up id, and inserts or replaces it when ordinal is not negative.
+     * The ID is decoded from base62 into a 128-bit value (high, low) with unsigned arithmetic.
+     *
+     * Postcondition: Returns the stored ordinal (or -1 if absent) for lookups, the new ordinal for inserts,
+     *                and -2 if the ID cannot be packed.
+     */
+    private int findOrInsert(String id, int ordinal) {
+        if (id.length() != PACKED_ID_LENGTH) {
+            return -2;
+        }
+        // Each group of ten digits is below 62^10 < 2^60, so it fits in a long without overflow.
+        long first = digits(id, 0, 10);
+        long second = digits(id, 10, 20);
+        long last = digits(id, 20, 22);
+        if ((first | second | last) < 0) {
+            return -2;
+        }
+
+        // (high, low) = first * 62^10 + second; both factors are below 2^60, so this cannot overflow.
+        long high = Math.multiplyHigh(first, POW62_10);
+        long low = first * POW62_10 + second;
+        if (Long.compareUnsigned(low, second) < 0) {
+            high++;
+        }
+        // (high, low) = (high, low) * 62^2 + last, rejecting values of 2^128 or more.
+        if (Long.compareUnsigned(high, MAX_BEFORE_LAST_MULTIPLY) > 0) {
+            return -2;
+        }
+        long carry = Math.multiplyHigh(low, POW62_2) + ((low >> 63) & POW62_2);
+        high = high * POW62_2 + carry;
+        if (Long.compareUnsigned(high, carry) < 0) {
+            return -2;
+        }
+        low = low * POW62_2 + last;
+        if (Long.compareUnsigned(low, last) < 0) {
+            if (high == -1L) {
+                return -2;
+            }
+            high++;
+        }
+
+        int hash = hash(high, low);
+        long tag = (long) hash << 32;
+        int slot = hash & mask;
+        while (true) {
+            long stored = values[slot];
+            if (stored == 0) {
+                if (ordinal < 0) {
+                    return -1;
+                }
+                keys[2 * slot] = high;
+                keys[2 * slot + 1] = low;
+                values[slot] = tag | (ordinal + 1L);
+                if (++packedCount > values.length * MAX_LOAD) {
+                    resize();
+                }
+                return ordinal;
+            }
+            if ((stored & 0xFFFFFFFF00000000L) == tag && keys[2 * slot + 1] == low && keys[2 * slot] == high) {
+                if (ordinal < 0) {
+                    return (int) stored - 1;
+                }
+                values[slot] = tag | (ordinal + 1L);
+                return ordinal;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Doubles the table and reinserts every packed entry.
+     */
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = (int) (oldValues[i] >>> 32) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[2 * slot] = oldKeys[2 * i];
+                keys[2 * slot + 1] = oldKeys[2 * i + 1];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[2 * capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Mixes both halves of a packed ID into a table hash.
+     */
+    private static int hash(long high, long low) {
+        long h = (high * 0x9E3779B97F4A7C15L) ^ low;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Decodes id[from, to) as a base62 number, or returns -1 if a character is not a base62 digit.
+     */
+    private static long digits(String id, int from, int to) {
+        long value = 0;
+        int invalid = 0;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            int digit = c < 128 ? DIGITS[c] : -1;
+            invalid |= digit;
+            value = value * 62 + digit;
+        }
+        return invalid < 0 ? -1 : value;
+    }
+}
@@ -0,0 +1,169 @@
+//package hashingAndDocumentation;
+
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * The SongIdIndexBenchmark class compares the memory use and lookup speed of SongIdIndex with the
+ * HashMap&lt;String, SongRecord&gt; that SongProgram uses by default. Random 22-character base62 IDs are
+ * generated from a fixed seed, so runs are repeatable without a real dataset.
+ *
+ * Memory is measured as the growth of the used heap after a forced garbage collection, which is an
+ * approximation. Lookups are timed in two ways: throughput, where consecutive lookups are independent and
+ * the CPU may overlap their cache misses, and latency, where each lookup's key depends on the previous result
+ * so that one lookup's full cost is paid before the next starts (closer to one lookup per request).
+ *
+ * Precondition: The JVM has enough heap for two copies of the generated key set (-Xmx2g for 2 million IDs).
+ * Postcondition: Bytes per entry and nanoseconds per lookup for both structures are printed.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongIdIndexBenchmark {
+
+    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * Precondition: args is empty or holds the number of IDs to generate.
+     * Postcondition: The results are printed to standard output.
+     *
+     * @param args optional number of IDs (default 1,000,000).
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        // Spotify IDs encode 128-bit values, so their first character is at most '7'.
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = randomId(random, BASE62.charAt(random.nextInt(8)));
+        }
+        // Lookups use fresh String objects, as IDs typed into the GUI or read from requests would,
+        // in random order so that neither structure benefits from insertion-order memory layout.
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            int j = random.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        String[] hits = new String[count];
+        String[] misses = new String[count];
+        for (int i = 0; i < count; i++) {
+            hits[i] = new String(ids[order[i]].toCharArray());
+            misses[i] = randomId(random, BASE62.charAt(random.nextInt(8)));
+        }
+        SongRecord song = new EagerSongRecord();
+
+        long before = usedHeap();
+        HashMap<String, SongRecord> map = new HashMap<>();
+        for (String id : ids) {
+            map.put(new String(id.toCharArray()), song);
+        }
+        long mapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        SongIdIndex index = new SongIdIndex(count);
+        for (int i = 0; i < count; i++) {
+            index.put(ids[i], i);
+        }
+        long indexBytes = usedHeap() - before;
+
+        System.out.printf("Entries: %,d%n", count);
+        System.out.printf("HashMap<String, SongRecord>: %6.1f bytes/entry%n", (double) mapBytes / count);
+        System.out.printf("SongIdIndex:                 %6.1f bytes/entry (table estimate %.1f)%n",
+                (double) indexBytes / count, (double) index.estimatedTableBytes() / count);
+
+        long sink = 0;
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String id : hits) {
+                sink += map.get(id) != null ? 1 : 0;
+            }
+            long mapHit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String id : hits) {
+                sink += index.get(id);
+            }
+            long indexHit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String id : misses) {
+                sink += map.get(id) != null ? 1 : 0;
+            }
+            long mapMiss = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (String id : misses) {
+                sink += index.get(id);
+            }
+            long indexMiss = System.nanoTime() - start;
+
+            System.out.printf("Round %d throughput: hit  HashMap %5.1f ns, SongIdIndex %5.1f ns | "
+                    + "miss HashMap %5.1f ns, SongIdIndex %5.1f ns%n", round,
+                    (double) mapHit / count, (double) indexHit / count,
+                    (double) mapMiss / count, (double) indexMiss / count);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            // The next key's position depends on the previous result, which serializes the lookups.
+            long start = System.nanoTime();
+            int next = 0;
+            for (int i = 0; i < count; i++) {
+                SongRecord found = map.get(hits[next]);
+                next = (next + 1 + (found == null ? 1 : 0)) % count;
+            }
+            long mapHit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            next = 0;
+            for (int i = 0; i < count; i++) {
+                next = (next + 1 + (index.get(hits[next]) >>> 31)) % count;
+            }
+            long indexHit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            next = 0;
+            for (int i = 0; i < count; i++) {
+                SongRecord found = map.get(misses[next]);
+                next = (next + 1 + (found == null ? 0 : 1)) % count;
+            }
+            long mapMiss = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            next = 0;
+            for (int i = 0; i < count; i++) {
+                next = (next + 2 - (index.get(misses[next]) >>> 31)) % count;
+            }
+            long indexMiss = System.nanoTime() - start;
+            sink += next;
+
+            System.out.printf("Round %d latency:    hit  HashMap %5.1f ns, SongIdIndex %5.1f ns | "
+                    + "miss HashMap %5.1f ns, SongIdIndex %5.1f ns%n", round,
+                    (double) mapHit / count, (double) indexHit / count,
+                    (double) mapMiss / count, (double) indexMiss / count);
+        }
+        // Print the checksum so the JIT cannot drop the lookups.
+        System.out.println("Checksum: " + sink);
+    }
+
+    private static String randomId(Random random, char first) {
+        char[] chars = new char[SongIdIndex.PACKED_ID_LENGTH];
+        chars[0] = first;
+        for (int i = 1; i < chars.length; i++) {
+            chars[i] = BASE62.charAt(random.nextInt(BASE62.length()));
+        }
+        return new String(chars);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
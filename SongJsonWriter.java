@@ -0,0 +1,404 @@
+//package hashingAndDocumentation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The SongJsonWriter class serializes SongRecord objects as JSON straight into a byte buffer, which is then
+ * written to an output stream as is. No String or intermediate byte array is built for a song: text fields
+ * are encoded to UTF-8 and escaped character by character into the buffer, and integers are written digit by
+ * digit. Doubles print exactly as Double.toString prints them, so as in SongRecord.toString; those with a short
+ * decimal form are written digit by digit too, and only the rest go through Double.toString.
+ *
+ * writeText and writeNumber write plain text without JSON quoting, so the same buffer also serves other
+ * formats, such as the text and CSV exports of SongExporter.
+ *
+ * When the writer has an output stream, the buffer is flushed to it whenever it fills up, so a whole catalog
+ * can be streamed through one fixed buffer. Without an output stream the buffer grows instead, and the
+ * caller sends it with writeTo once the size of the response is known.
+ *
+ * Precondition: A writer is used by one thread at a time.
+ * Postcondition: The bytes written form the JSON of the songs and values passed in, in order.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongJsonWriter {
+
+    // Room kept free at the end of the buffer, so a single value never has to be split across flushes.
+    private static final int VALUE_RESERVE = 32;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    // Exactly representable powers of ten, and the first integer that a double cannot count past exactly.
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16
+    };
+    private static final double MAX_EXACT_LONG = 9007199254740992.0;
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int length;
+
+    /**
+     * Constructor that creates a writer flushing to out whenever the buffer is full, or growing the buffer
+     * as needed when out is null.
+     *
+     * Precondition: capacity is at least 64.
+     * Postcondition: An empty writer is created.
+     *
+     * @param out the stream to flush to, or null to keep everything in memory.
+     * @param capacity the initial buffer size in bytes.
+     */
+    public SongJsonWriter(OutputStream out, int capacity) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, capacity)];
+    }
+
+    /**
+     * Writes a song as a JSON object, with the same field names as SongRecord.toString.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The object is appended.
+     *
+     * @param song the song to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeSong(SongRecord song) throws IOException {
+        writeAscii("{\"id\":");
+        writeString(song.getId());
+        writeAscii(",\"name\":");
+        writeString(song.getName());
+        writeAscii(",\"artists\":[");
+        List<String> artists = song.getArtists();
+        if (artists != null) {
+            for (int i = 0; i < artists.size(); i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeString(artists.get(i));
+            }
+        }
+        writeAscii("],\"year\":");
+        writeInt(song.getYear());
+        writeAscii(",\"releaseDate\":");
+        writeString(song.getReleaseDate());
+        writeAscii(",\"popularity\":");
+        writeInt(song.getPopularity());
+        writeAscii(",\"durationMs\":");
+        writeInt(song.getDurationMs());
+        writeAscii(",\"explicit\":");
+        writeInt(song.getExplicit());
+        writeAscii(",\"key\":");
+        writeInt(song.getKey());
+        writeAscii(",\"mode\":");
+        writeInt(song.getMode());
+        writeAscii(",\"valence\":");
+        writeDouble(song.getValence());
+        writeAscii(",\"acousticness\":");
+        writeDouble(song.getAcousticness());
+        writeAscii(",\"danceability\":");
+        writeDouble(song.getDanceability());
+        writeAscii(",\"energy\":");
+        writeDouble(song.getEnergy());
+        writeAscii(",\"instrumentalness\":");
+        writeDouble(song.getInstrumentalness());
+        writeAscii(",\"liveness\":");
+        writeDouble(song.getLiveness());
+        writeAscii(",\"loudness\":");
+        writeDouble(song.getLoudness());
+        writeAscii(",\"speechiness\":");
+        writeDouble(song.getSpeechiness());
+        writeAscii(",\"tempo\":");
+        writeDouble(song.getTempo());
+        writeByte('}');
+        return this;
+    }
+
+    /**
+     * Writes a JSON string literal, or null.
+     *
+     * Precondition: None.
+     * Postcondition: The quoted and escaped value is appended.
+     *
+     * @param value the text to write, or null.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeString(String value) throws IOException {
+        if (value == null) {
+            return writeAscii("null");
+        }
+        writeByte('"');
+        encode(value, true);
+        return writeByte('"');
+    }
+
+    /**
+     * Writes text as plain UTF-8, without quotes or escaping, for output formats other than JSON.
+     *
+     * Precondition: None.
+     * Postcondition: The text is appended; null is written as "null", as string concatenation would.
+     *
+     * @param text the text to write, or null.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeText(String text) throws IOException {
+        encode(text == null ? "null" : text, false);
+        return this;
+    }
+
+    /**
+     * Encodes text to UTF-8 into the buffer, escaping quotes, backslashes and control characters if escape is set.
+     */
+    private void encode(String value, boolean escape) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            ensure(VALUE_RESERVE);
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 || c < 0x20 && !escape) {
+                if (escape && (c == '"' || c == '\\')) {
+                    buffer[length++] = '\\';
+                }
+                buffer[length++] = (byte) c;
+            } else if (c < 0x20) {
+                buffer[length++] = '\\';
+                buffer[length++] = 'u';
+                buffer[length++] = '0';
+                buffer[length++] = '0';
+                buffer[length++] = HEX[c >> 4];
+                buffer[length++] = HEX[c & 0xF];
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate cannot be encoded; write U+FFFD as String.getBytes would.
+                buffer[length++] = (byte) 0xEF;
+                buffer[length++] = (byte) 0xBF;
+                buffer[length++] = (byte) 0xBD;
+            } else {
+                buffer[length++] = (byte) (0xE0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Writes an int in decimal.
+     *
+     * Precondition: None.
+     * Postcondition: The digits are appended.
+     *
+     * @param value the value to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeInt(int value) throws IOException {
+        ensure(VALUE_RESERVE);
+        long remaining = value;
+        if (remaining < 0) {
+            buffer[length++] = '-';
+            remaining = -remaining;
+        }
+        int digits = 1;
+        for (long power = 10; power <= remaining; power *= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Writes a double as Double.toString prints it, or null for NaN and infinities, which JSON cannot hold.
+     *
+     * Precondition: None.
+     * Postcondition: The number is appended.
+     *
+     * @param value the value to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeDouble(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return writeAscii("null");
+        }
+        return writeNumber(value);
+    }
+
+    /**
+     * Writes a double exactly as Double.toString prints it, including NaN and Infinity.
+     *
+     * Precondition: None.
+     * Postcondition: The number is appended.
+     *
+     * @param value the value to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeNumber(double value) throws IOException {
+        double magnitude = Math.abs(value);
+        // Double.toString uses plain notation in [0.001, 10^7); most song attributes have few decimals there,
+        // and the shortest decimal that reads back as the value can then be found with exact arithmetic.
+        if (magnitude >= 1e-3 && magnitude < 1e7) {
+            for (int decimals = 1; decimals < POWERS_OF_TEN.length; decimals++) {
+                double scaled = Math.rint(magnitude * POWERS_OF_TEN[decimals]);
+                if (scaled >= MAX_EXACT_LONG) {
+                    break;
+                }
+                // Both operands are exact, so this is the double nearest to scaled / 10^decimals.
+                if (scaled / POWERS_OF_TEN[decimals] == magnitude) {
+                    writeDecimal(value < 0, (long) scaled, decimals);
+                    return this;
+                }
+            }
+        }
+        return writeAscii(Double.toString(value));
+    }
+
+    /**
+     * Writes digits / 10^decimals in plain notation, with exactly decimals digits after the point.
+     */
+    private void writeDecimal(boolean negative, long digits, int decimals) throws IOException {
+        ensure(VALUE_RESERVE);
+        if (negative) {
+            buffer[length++] = '-';
+        }
+        long unit = (long) POWERS_OF_TEN[decimals];
+        long integer = digits / unit;
+        long fraction = digits % unit;
+        int integerDigits = 1;
+        for (long power = 10; power <= integer; power *= 10) {
+            integerDigits++;
+        }
+        int end = length + integerDigits + 1 + decimals;
+        for (int i = end - 1; i > end - 1 - decimals; i--) {
+            buffer[i] = (byte) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        buffer[end - 1 - decimals] = '.';
+        for (int i = end - 2 - decimals; i >= length; i--) {
+            buffer[i] = (byte) ('0' + integer % 10);
+            integer /= 10;
+        }
+        length = end;
+    }
+
+    /**
+     * Writes text that is known to be ASCII and needs no escaping, such as punctuation and field names.
+     *
+     * Precondition: text only holds ASCII characters.
+     * Postcondition: The text is appended unchanged.
+     *
+     * @param text the text to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            if (length == buffer.length) {
+                ensure(1);
+            }
+            buffer[length++] = (byte) text.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Writes one ASCII character.
+     *
+     * Precondition: c is ASCII.
+     * Postcondition: The character is appended.
+     *
+     * @param c the character to write.
+     * @return this writer.
+     * @throws IOException if flushing to the output stream fails.
+     */
+    public SongJsonWriter writeByte(char c) throws IOException {
+        if (length == buffer.length) {
+            ensure(1);
+        }
+        buffer[length++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes in the buffer that have not been flushed.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the buffered byte count.
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Returns a copy of the buffered bytes.
+     *
+     * Precondition: None.
+     * Postcondition: A new array is returned; the buffer is unchanged.
+     *
+     * @return the buffered bytes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Writes the buffered bytes to a stream and empties the buffer.
+     *
+     * Precondition: target is not null.
+     * Postcondition: The buffer is empty.
+     *
+     * @param target the stream to write to.
+     * @throws IOException if writing fails.
+     */
+    public void writeTo(OutputStream target) throws IOException {
+        target.write(buffer, 0, length);
+        length = 0;
+    }
+
+    /**
+     * Writes the buffered bytes to the writer's output stream and flushes it.
+     *
+     * Precondition: The writer was created with an output stream.
+     * Postcondition: The buffer is empty and the stream is flushed.
+     *
+     * @throws IOException if writing fails.
+     */
+    public void flush() throws IOException {
+        writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Makes room for at least needed more bytes, by flushing to the output stream or by growing the buffer.
+     */
+    private void ensure(int needed) throws IOException {
+        if (length + needed <= buffer.length) {
+            return;
+        }
+        if (out != null) {
+            writeTo(out);
+        }
+        if (length + needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + needed));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+//package hashingAndDocumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SongLoadTestClient class measures the lookup latency of a SongHttpServer under many concurrent
+ * connections. It keeps a fixed number of GET /songs/{id} requests in flight for a set time, each for a
+ * random ID from the CSV file, and records the time of every response in a LatencyHistogram.
+ *
+ * Without a server URL it starts a SongHttpServer in the same JVM on a free port, loading the CSV file, so a
+ * test needs nothing else running. Without a CSV file it generates one with SongCsvGenerator first.
+ *
+ * As soon as one request completes another is sent, so when the server falls behind the client waits too,
+ * and the measured percentiles understate what an open-loop client would see.
+ *
+ * Precondition: The machine allows as many open sockets as the chosen concurrency (see ulimit -n).
+ * Postcondition: Throughput, errors and client- and server-side latency percentiles are printed.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongLoadTestClient {
+
+    /**
+     * Runs the load test.
+     *
+     * Precondition: args is empty or holds a CSV path ("-" to generate one), concurrency, seconds and a
+     *               server URL, in that order.
+     * Postcondition: The results are printed to standard output.
+     *
+     * @param args optional CSV path, concurrent requests (default 1,000), duration in seconds (default 10)
+     *             and base URL of a running server (default: start one in this JVM).
+     * @throws Exception if the CSV file cannot be read or the threads are interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        String csvPath = args.length > 0 ? args[0] : "-";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String baseUrl = args.length > 3 ? args[3] : null;
+
+        File generated = null;
+        if (csvPath.equals("-")) {
+            generated = File.createTempFile("load-test-", ".csv");
+            SongCsvGenerator.write(generated.getPath(), 100_000, 42);
+            csvPath = generated.getPath();
+        }
+        SongHttpServer server = null;
+        try {
+            if (baseUrl == null) {
+                SongProgram program = new SongProgram();
+                if (!program.reloadSongs(csvPath)) {
+                    throw new IOException("Could not load " + csvPath);
+                }
+                server = SongHttpServer.start(program, 0);
+                baseUrl = "http://localhost:" + server.getPort();
+            }
+            run(baseUrl, ids(csvPath), concurrency, seconds);
+            if (server != null) {
+                System.out.print("server:\n" + server.stats());
+            }
+        } finally {
+            if (server != null) {
+                server.stop(1);
+            }
+            if (generated != null) {
+                generated.delete();
+            }
+        }
+    }
+
+    private static void run(String baseUrl, String[] ids, int concurrency, int seconds)
+            throws InterruptedException {
+        ExecutorService executor = SongHttpServer.newRequestExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        Semaphore inFlight = new Semaphore(concurrency);
+        SplittableRandom random = new SplittableRandom(7);
+
+        // The first seconds warm up the JIT and open the connections; they are not counted.
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.min(2, seconds));
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+        long sent = 0;
+        long measuredStart = 0;
+        while (true) {
+            inFlight.acquire();
+            long start = System.nanoTime();
+            if (start >= end) {
+                inFlight.release();
+                break;
+            }
+            boolean measured = start >= warmupEnd;
+            if (measured && measuredStart == 0) {
+                measuredStart = start;
+            }
+            String id = ids[random.nextInt(ids.length)];
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/songs/" + id))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (measured) {
+                    if (error != null || response.statusCode() != 200) {
+                        errors.incrementAndGet();
+                    } else {
+                        latency.recordSince(start);
+                    }
+                }
+                inFlight.release();
+            });
+            if (measured) {
+                sent++;
+            }
+        }
+        inFlight.acquire(concurrency);
+        double elapsed = (System.nanoTime() - measuredStart) / 1e9;
+        executor.shutdown();
+
+        System.out.printf("%,d requests with %,d in flight in %.1f s: %,.0f requests/s, %,d errors%n",
+                sent, concurrency, elapsed, sent / elapsed, errors.get());
+        System.out.println("client:\nlookup  " + latency.summary());
+    }
+
+    private static String[] ids(String path) throws IOException {
+        SongStore store = SongCatalog.load(path, 0).getStore();
+        String[] ids = new String[store.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = store.getId(i);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,658 @@
+//package hashingAndDocumentation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The SongMetrics class collects the operational metrics of a SongProgram: rows read, parsed and rejected
+ * by CSV loads (with the reason for each rejection), the time loads spend on I/O, parsing and index inserts,
+ * the latency of getSongById, and the occupancy and estimated size of the structure serving lookups. The
+ * metrics can be read directly, over JMX once register has been called, or as a text report printed
+ * periodically by startDump.
+ *
+ * Recording is cheap enough for the lookup path. Every lookup increments a LongAdder, which does not contend
+ * between threads; only one lookup in LOOKUP_SAMPLE_RATE reads the clock and records its duration in a
+ * LatencyHistogram, because reading System.nanoTime twice would cost more than the budget of about 20 ns.
+ * The sampled percentiles estimate those of all lookups. A load accumulates its counts and timings in plain
+ * fields of its LoadRecorder and adds them to the shared counters every few thousand rows.
+ *
+ * Precondition: Each LoadRecorder is used by one thread.
+ * Postcondition: Reads reflect every recording that completed before the read started, except the rows of a
+ *                running load that have not been flushed yet.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongMetrics implements SongMetricsMXBean {
+
+    /**
+     * Why a CSV row was skipped instead of being loaded.
+     */
+    public enum RejectReason {
+        // The line is empty or holds only whitespace.
+        BLANK_LINE,
+        // A numeric field could not be parsed.
+        BAD_NUMBER,
+        // The line does not split into the expected fields, for example because of a stray quote.
+        MALFORMED_ROW
+    }
+
+    /**
+     * The phases of a CSV load whose time is measured.
+     */
+    public enum LoadPhase {
+        // Reading and decoding lines from the file.
+        IO,
+        // Turning lines into SongRecord objects.
+        PARSE,
+        // Adding the songs to the map or catalog.
+        INDEX
+    }
+
+    /**
+     * The size of the structure that serves getSongById, as reported by the program.
+     */
+    public static final class Occupancy {
+        private final String backend;
+        private final long songs;
+        private final long slots;
+        private final long estimatedBytes;
+
+        /**
+         * Constructor that describes a lookup structure.
+         *
+         * Precondition: None.
+         * Postcondition: The description is created.
+         *
+         * @param backend a short name of the structure, such as "catalog" or "songMap".
+         * @param songs the number of songs it holds, or 0 if it is not known without loading them.
+         * @param slots the number of hash table slots, or 0 if it is not a hash table.
+         * @param estimatedBytes the estimated bytes used by its lookup table, not by the songs themselves.
+         */
+        public Occupancy(String backend, long songs, long slots, long estimatedBytes) {
+            this.backend = backend;
+            this.songs = songs;
+            this.slots = slots;
+            this.estimatedBytes = estimatedBytes;
+        }
+    }
+
+    // One lookup in this many is timed; a power of two.
+    public static final int LOOKUP_SAMPLE_RATE = 64;
+
+    // Rows a LoadRecorder counts before adding them to the shared counters.
+    private static final int FLUSH_ROWS = 4096;
+
+    // Longest rejection message kept; parser messages include the whole line.
+    private static final int MAX_REJECTION_LENGTH = 200;
+
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder[] rowsRejected = newAdders(RejectReason.values().length);
+    private final LongAdder[] phaseNanos = newAdders(LoadPhase.values().length);
+    private volatile String lastRejection;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder lookupMisses = new LongAdder();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+
+    private final Supplier<Occupancy> occupancy;
+
+    // Prints the report for startDump; guarded by this.
+    private ScheduledExecutorService dumpExecutor;
+    private ScheduledFuture<?> dumpTask;
+
+    /**
+     * Constructor that creates empty metrics.
+     *
+     * Precondition: occupancy is not null and is safe to call from any thread.
+     * Postcondition: Every counter is 0.
+     *
+     * @param occupancy supplies the current lookup structure's occupancy when it is read.
+     */
+    public SongMetrics(Supplier<Occupancy> occupancy) {
+        this.occupancy = occupancy;
+    }
+
+    private static LongAdder[] newAdders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * Counts a lookup that is about to start, and decides whether to time it.
+     *
+     * Precondition: None.
+     * Postcondition: The lookup is counted.
+     *
+     * @return the start time to pass to lookupFinished, or 0 if this lookup is not timed.
+     */
+    public long lookupStarted() {
+        lookups.increment();
+        if ((ThreadLocalRandom.current().nextInt() & (LOOKUP_SAMPLE_RATE - 1)) != 0) {
+            return 0;
+        }
+        // System.nanoTime returns 0 so rarely that losing such a sample does not matter.
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the outcome of a lookup counted by lookupStarted.
+     *
+     * Precondition: start was returned by lookupStarted.
+     * Postcondition: A miss is counted, and the duration is recorded if the lookup was timed.
+     *
+     * @param start the value returned by lookupStarted.
+     * @param found whether the song was found.
+     */
+    public void lookupFinished(long start, boolean found) {
+        if (start != 0) {
+            lookupLatency.recordSince(start);
+        }
+        if (!found) {
+            lookupMisses.increment();
+        }
+    }
+
+    /**
+     * Starts recording one CSV load.
+     *
+     * Precondition: None.
+     * Postcondition: A recorder for the load is returned; the clock of its IO phase starts now.
+     *
+     * @param source the file being loaded, named in rejection messages; line numbers in those messages count
+     *               from the first line the recorder sees.
+     * @return the recorder.
+     */
+    public LoadRecorder startLoad(String source) {
+        return new LoadRecorder(source);
+    }
+
+    /**
+     * Counts the rows of one CSV load and times its phases. Each call ends the current phase: readLine ends
+     * the IO phase, parse the PARSE phase and indexed the INDEX phase, so a loop of readLine, parse and
+     * indexed reads the clock three times per row.
+     */
+    public final class LoadRecorder {
+        private final String source;
+        private long mark = System.nanoTime();
+        private long lineNumber;
+        private long read;
+        private long parsed;
+        private long rejected;
+        private final long[] nanos = new long[LoadPhase.values().length];
+
+        private LoadRecorder(String source) {
+            this.source = source;
+        }
+
+        /**
+         * Reads the next line, timing it as I/O. The first call is expected to return the header line, which
+         * is not counted as a row.
+         *
+         * Precondition: reader is open.
+         * Postcondition: The line is counted if it is not the header.
+         *
+         * @param reader the reader of the CSV file.
+         * @return the line, or null at the end of the file.
+         * @throws IOException if reading fails.
+         */
+        public String readLine(BufferedReader reader) throws IOException {
+            String line = reader.readLine();
+            endPhase(LoadPhase.IO);
+            if (line != null && lineNumber++ > 0) {
+                read++;
+            }
+            return line;
+        }
+
+        /**
+         * Parses a row, timing it as parsing. A row that cannot be parsed is counted with its reason and
+         * skipped.
+         *
+         * Precondition: line was returned by readLine.
+         * Postcondition: The row is counted as parsed or rejected.
+         *
+         * @param parser the parser to use.
+         * @param line the row.
+         * @return the song, or null if the row was rejected.
+         */
+        public SongRecord parse(SongRecordParser parser, String line) {
+            SongRecord song = null;
+            if (line.isBlank()) {
+                reject(RejectReason.BLANK_LINE, "blank line");
+            } else {
+                try {
+                    song = parser.parse(line);
+                    parsed++;
+                } catch (IllegalArgumentException e) {
+                    reject(e);
+                }
+            }
+            return parseEnded(song);
+        }
+
+        /**
+         * Counts a data line that the caller split from the file itself, timing the work since the previous
+         * call as I/O. Loaders that do not read through readLine call this before parsing each line.
+         *
+         * Precondition: None.
+         * Postcondition: The line is counted as read.
+         */
+        public void lineRead() {
+            endPhase(LoadPhase.IO);
+            lineNumber++;
+            read++;
+        }
+
+        /**
+         * Parses the row in chars[start, end) like parse(parser, line), for loaders that split lines in a
+         * buffer of their own.
+         *
+         * Precondition: The row was counted with lineRead and holds no line terminator.
+         * Postcondition: The row is counted as parsed or rejected.
+         *
+         * @param parser the parser to use.
+         * @param chars the buffer holding the row.
+         * @param start the index of the row's first character.
+         * @param end the index just past the row's last character.
+         * @return the song, or null if the row was rejected.
+         */
+        public SongRecord parse(SongRecordParser parser, char[] chars, int start, int end) {
+            SongRecord song = null;
+            if (isBlank(chars, start, end)) {
+                reject(RejectReason.BLANK_LINE, "blank line");
+            } else {
+                try {
+                    song = parser.parse(chars, start, end);
+                    parsed++;
+                } catch (IllegalArgumentException e) {
+                    reject(e);
+                }
+            }
+            return parseEnded(song);
+        }
+
+        private boolean isBlank(char[] chars, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (!Character.isWhitespace(chars[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Counts the header line of a file whose lines the caller splits itself, so that line numbers in
+         * rejection messages match the file.
+         *
+         * Precondition: Called once, before the first lineRead.
+         * Postcondition: The header is counted as a line but not as a row.
+         */
+        public void headerRead() {
+            endPhase(LoadPhase.IO);
+            lineNumber++;
+        }
+
+        /**
+         * Parses a row with a step of the caller's own, timing it as parsing, for loaders that do not build
+         * their rows with SongRecordParser.parse. A blank row, or one whose step throws an
+         * IllegalArgumentException, is counted with its reason and skipped.
+         *
+         * Precondition: The row was counted with readLine or lineRead.
+         * Postcondition: The row is counted as parsed or rejected.
+         *
+         * @param blank whether the row is blank; the step is not run for a blank row.
+         * @param step parses the row.
+         * @param <T> the type the step returns.
+         * @return the result of step, or null if the row was rejected.
+         */
+        public <T> T parse(boolean blank, Supplier<T> step) {
+            T row = null;
+            if (blank) {
+                reject(RejectReason.BLANK_LINE, "blank line");
+            } else {
+                try {
+                    row = step.get();
+                    parsed++;
+                } catch (IllegalArgumentException e) {
+                    reject(e);
+                }
+            }
+            return parseEnded(row);
+        }
+
+        private <T> T parseEnded(T row) {
+            endPhase(LoadPhase.PARSE);
+            if (read >= FLUSH_ROWS) {
+                flush();
+            }
+            return row;
+        }
+
+        /**
+         * Ends the INDEX phase of the current row, after the song has been added to the map or catalog.
+         *
+         * Precondition: None.
+         * Postcondition: The time since parse returned is counted as index time.
+         */
+        public void indexed() {
+            endPhase(LoadPhase.INDEX);
+        }
+
+        /**
+         * Adds what has not been flushed yet to the shared counters. Call it when the load ends, whether or
+         * not it succeeded.
+         *
+         * Precondition: None.
+         * Postcondition: The shared counters include every row of this load.
+         *
+         * @return the number of rows of this load that were rejected.
+         */
+        public long finish() {
+            flush();
+            return rejected;
+        }
+
+        private void endPhase(LoadPhase phase) {
+            long now = System.nanoTime();
+            nanos[phase.ordinal()] += now - mark;
+            mark = now;
+        }
+
+        private void reject(IllegalArgumentException e) {
+            reject(e instanceof NumberFormatException ? RejectReason.BAD_NUMBER : RejectReason.MALFORMED_ROW,
+                    e.getMessage());
+        }
+
+        private void reject(RejectReason reason, String message) {
+            rejected++;
+            rowsRejected[reason.ordinal()].increment();
+            String text = source + " line " + lineNumber + ": " + reason + ": " + message;
+            lastRejection = text.length() <= MAX_REJECTION_LENGTH ? text : text.substring(0, MAX_REJECTION_LENGTH);
+        }
+
+        private void flush() {
+            rowsRead.add(read);
+            rowsParsed.add(parsed);
+            for (int i = 0; i < nanos.length; i++) {
+                phaseNanos[i].add(nanos[i]);
+                nanos[i] = 0;
+            }
+            read = 0;
+            parsed = 0;
+        }
+    }
+
+    /**
+     * Returns the histogram of sampled getSongById durations, in nanoseconds.
+     *
+     * Precondition: None.
+     * Postcondition: The live histogram is returned.
+     *
+     * @return the lookup latency histogram.
+     */
+    public LatencyHistogram getLookupLatency() {
+        return lookupLatency;
+    }
+
+    /**
+     * Returns the number of rows rejected for one reason.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @param reason the reason.
+     * @return the number of rows rejected for it.
+     */
+    public long getRowsRejected(RejectReason reason) {
+        return rowsRejected[reason.ordinal()].sum();
+    }
+
+    /**
+     * Returns the total time spent in one load phase.
+     *
+     * Precondition: None.
+     * Postcondition: The time is returned.
+     *
+     * @param phase the phase.
+     * @return the time in nanoseconds.
+     */
+    public long getPhaseNanos(LoadPhase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    @Override
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+
+    @Override
+    public long getRowsRejected() {
+        long total = 0;
+        for (LongAdder adder : rowsRejected) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Long> getRowsRejectedByReason() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (RejectReason reason : RejectReason.values()) {
+            counts.put(reason.name(), getRowsRejected(reason));
+        }
+        return counts;
+    }
+
+    @Override
+    public String getLastRejection() {
+        return lastRejection;
+    }
+
+    @Override
+    public long getIoMillis() {
+        return getPhaseNanos(LoadPhase.IO) / 1_000_000;
+    }
+
+    @Override
+    public long getParseMillis() {
+        return getPhaseNanos(LoadPhase.PARSE) / 1_000_000;
+    }
+
+    @Override
+    public long getIndexMillis() {
+        return getPhaseNanos(LoadPhase.INDEX) / 1_000_000;
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookups.sum();
+    }
+
+    @Override
+    public long getLookupMissCount() {
+        return lookupMisses.sum();
+    }
+
+    @Override
+    public long getLookupSampleCount() {
+        return lookupLatency.count();
+    }
+
+    @Override
+    public double getLookupMeanNanos() {
+        return lookupLatency.mean();
+    }
+
+    @Override
+    public long getLookupP50Nanos() {
+        return lookupLatency.percentile(50);
+    }
+
+    @Override
+    public long getLookupP99Nanos() {
+        return lookupLatency.percentile(99);
+    }
+
+    @Override
+    public long getLookupP999Nanos() {
+        return lookupLatency.percentile(99.9);
+    }
+
+    @Override
+    public String getLookupBackend() {
+        return occupancy.get().backend;
+    }
+
+    @Override
+    public long getSongCount() {
+        return occupancy.get().songs;
+    }
+
+    @Override
+    public long getTableSlots() {
+        return occupancy.get().slots;
+    }
+
+    @Override
+    public double getTableLoadFactor() {
+        Occupancy current = occupancy.get();
+        return current.slots == 0 ? 0 : (double) current.songs / current.slots;
+    }
+
+    @Override
+    public long getEstimatedTableBytes() {
+        return occupancy.get().estimatedBytes;
+    }
+
+    /**
+     * Clears the lookup counters and latency histogram, for example before a benchmark run.
+     *
+     * Precondition: None.
+     * Postcondition: Lookups recorded concurrently with the reset may or may not be kept.
+     */
+    @Override
+    public void resetLookupLatency() {
+        lookups.reset();
+        lookupMisses.reset();
+        lookupLatency.reset();
+    }
+
+    /**
+     * Returns every metric as a few lines of text.
+     *
+     * Precondition: None.
+     * Postcondition: The report is returned.
+     *
+     * @return the report.
+     */
+    @Override
+    public String report() {
+        Occupancy current = occupancy.get();
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("rows     read=%,d parsed=%,d rejected=%,d %s%n", getRowsRead(), getRowsParsed(),
+                getRowsRejected(), getRowsRejectedByReason()));
+        out.append(String.format("load     io=%,dms parse=%,dms index=%,dms%n", getIoMillis(), getParseMillis(),
+                getIndexMillis()));
+        out.append(String.format("lookups  count=%,d misses=%,d sampled %s%n", getLookupCount(),
+                getLookupMissCount(), lookupLatency.summary()));
+        out.append(String.format("table    backend=%s songs=%,d slots=%,d load=%.2f bytes=%,d%n", current.backend,
+                current.songs, current.slots, current.slots == 0 ? 0 : (double) current.songs / current.slots,
+                current.estimatedBytes));
+        if (lastRejection != null) {
+            out.append("rejected ").append(lastRejection).append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server under SongProgram:type=SongMetrics,name=name.
+     *
+     * Precondition: No other metrics are registered under the same name.
+     * Postcondition: The metrics are visible over JMX.
+     *
+     * @param name the name that tells this program's metrics apart from others in the JVM.
+     * @return the name the metrics were registered under.
+     * @throws JMException if the name is invalid or already taken.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("SongProgram:type=SongMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Removes metrics published by register.
+     *
+     * Precondition: objectName was returned by register.
+     * Postcondition: The metrics are no longer visible over JMX.
+     *
+     * @param objectName the name returned by register.
+     * @throws JMException if nothing is registered under the name.
+     */
+    public static void unregister(ObjectName objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(objectName);
+    }
+
+    /**
+     * Prints the report to out every periodMillis milliseconds on a background thread, until stopDump is
+     * called. A dump started before is replaced.
+     *
+     * Precondition: out is not null and periodMillis is positive.
+     * Postcondition: The first report is printed after periodMillis.
+     *
+     * @param out where to print the report.
+     * @param periodMillis the delay between reports in milliseconds.
+     */
+    public synchronized void startDump(PrintStream out, long periodMillis) {
+        if (dumpExecutor == null) {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "song-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+        }
+        dumpTask = dumpExecutor.scheduleAtFixedRate(() -> out.print(report()), periodMillis, periodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the reports started by startDump.
+     *
+     * Precondition: None.
+     * Postcondition: No further reports are printed.
+     */
+    public synchronized void stopDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+//package hashingAndDocumentation;
+
+import java.util.Map;
+
+/**
+ * The SongMetricsMXBean interface lists the attributes and operations of SongMetrics that are published over
+ * JMX, for example to JConsole or VisualVM. Durations are in milliseconds for load phases and in nanoseconds
+ * for lookups.
+ *
+ * Precondition: None.
+ * Postcondition: Every attribute is read from the live counters when it is requested.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public interface SongMetricsMXBean {
+
+    long getRowsRead();
+
+    long getRowsParsed();
+
+    long getRowsRejected();
+
+    Map<String, Long> getRowsRejectedByReason();
+
+    String getLastRejection();
+
+    long getIoMillis();
+
+    long getParseMillis();
+
+    long getIndexMillis();
+
+    long getLookupCount();
+
+    long getLookupMissCount();
+
+    long getLookupSampleCount();
+
+    double getLookupMeanNanos();
+
+    long getLookupP50Nanos();
+
+    long getLookupP99Nanos();
+
+    long getLookupP999Nanos();
+
+    String getLookupBackend();
+
+    long getSongCount();
+
+    long getTableSlots();
+
+    double getTableLoadFactor();
+
+    long getEstimatedTableBytes();
+
+    String report();
+
+    void resetLookupLatency();
+}
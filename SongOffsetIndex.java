@@ -0,0 +1,435 @@
+//package hashingAndDocumentation;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The SongOffsetIndex class is a persistent hash index from song ID to the byte offset of the song's line
+ * in a CSV file. It is built once and then opened with memory mapping, so a tool that needs only a few
+ * songs can look them up without loading the catalog: a cold lookup touches one page of the index and one
+ * page of the CSV, and parses a single line.
+ *
+ * File layout (all numbers big-endian):
+ *   header   magic "SIDX", format version, log2 of the slot count, row count, and the source file's
+ *            length and modification time;
+ *   slots    an open-addressing table with linear probing; each 16-byte slot holds the 64-bit hash of an
+ *            ID (IdBloomFilter.hash) and the offset of its line plus one, or zero for an empty slot.
+ *
+ * A slot whose hash matches is confirmed by parsing the line it points to, so hash collisions never return
+ * the wrong song. When an ID occurs on several lines, the index points to the last one, as loadSongsFromCSV
+ * keeps the last row for an ID. The table is kept at most half full, and both files are mapped in 1 GB
+ * windows, so neither is limited to 2 GB.
+ *
+ * Precondition: The CSV file is not modified while an index over it is open.
+ * Postcondition: getSongById returns the song loadSongsFromCSV would hold for an ID, or null.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongOffsetIndex {
+
+    private static final int MAGIC = 0x53494458;
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+
+    // Bytes per slot: the ID hash and the line offset plus one.
+    private static final int SLOT_BYTES = 16;
+
+    // Size of the mapped windows of both files.
+    private static final int WINDOW_BITS = 30;
+    private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+    // Slots per window of the index file.
+    private static final int SLOT_WINDOW_BITS = WINDOW_BITS - 4;
+
+    private final String csvPath;
+    private final long rowCount;
+    private final long slotMask;
+    private final MappedByteBuffer[] slots;
+    private final MappedByteBuffer[] csv;
+    private final long csvLength;
+
+    private SongOffsetIndex(String csvPath, long rowCount, long slotMask, MappedByteBuffer[] slots,
+                            MappedByteBuffer[] csv, long csvLength) {
+        this.csvPath = csvPath;
+        this.rowCount = rowCount;
+        this.slotMask = slotMask;
+        this.slots = slots;
+        this.csv = csv;
+        this.csvLength = csvLength;
+    }
+
+    /**
+     * Opens an index if it is valid and up to date with the CSV file, and otherwise builds it first.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: An index over the current contents of the CSV file is returned; a stale or damaged
+     *                index file has been replaced.
+     *
+     * @param indexPath the index file to open or create.
+     * @param csvPath the CSV file the index covers.
+     * @param recorder counts the rows read, parsed and rejected if the index is built.
+     * @return the opened index.
+     * @throws IOException if the CSV file cannot be read or the index cannot be written.
+     */
+    public static SongOffsetIndex openOrBuild(String indexPath, String csvPath, SongMetrics.LoadRecorder recorder)
+            throws IOException {
+        try {
+            return open(indexPath, csvPath);
+        } catch (IOException e) {
+            build(csvPath, indexPath, recorder);
+            return open(indexPath, csvPath);
+        }
+    }
+
+    /**
+     * Opens an index with memory mapping after checking its format and freshness.
+     *
+     * Precondition: None.
+     * Postcondition: An index ready to serve lookups is returned.
+     *
+     * @param indexPath the index file.
+     * @param csvPath the CSV file the index must have been built from.
+     * @return the opened index.
+     * @throws IOException if the file is missing, damaged, of another version, or older than the CSV file.
+     */
+    public static SongOffsetIndex open(String indexPath, String csvPath) throws IOException {
+        File source = new File(csvPath);
+        if (!new File(indexPath).isFile()) {
+            throw new IOException("Index not found: " + indexPath);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(indexPath), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Index is truncated: " + indexPath);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a song offset index: " + indexPath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Index version " + version + " is not supported (expected " + VERSION + ")");
+            }
+            int slotBits = header.getInt();
+            header.getInt();
+            long rows = header.getLong();
+            if (slotBits < 1 || slotBits > 40 || channel.size() != HEADER_SIZE + ((long) SLOT_BYTES << slotBits)) {
+                throw new IOException("Index slot table is invalid: " + indexPath);
+            }
+            if (header.getLong() != source.length() || header.getLong() != source.lastModified()) {
+                throw new IOException("Index is stale: " + csvPath + " changed since it was built");
+            }
+            MappedByteBuffer[] slots = map(channel, HEADER_SIZE, (long) SLOT_BYTES << slotBits, FileChannel.MapMode.READ_ONLY);
+            return new SongOffsetIndex(csvPath, rows, (1L << slotBits) - 1, slots, mapSource(csvPath),
+                    source.length());
+        }
+    }
+
+    /**
+     * Builds an index over a CSV file and writes it to indexPath, replacing any previous index atomically.
+     * The file is read twice: once to count the lines and once to index them. Every line is checked as
+     * LazySongRecord.checked would, and a line that cannot be parsed is skipped and counted by recorder, so
+     * a lookup never reaches a line that fails to parse.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: An index file that open accepts exists at indexPath.
+     *
+     * @param csvPath the CSV file to index.
+     * @param indexPath the index file to write.
+     * @param recorder counts the rows read, parsed and rejected.
+     * @throws IOException if the CSV file cannot be read or the index cannot be written.
+     */
+    public static void build(String csvPath, String indexPath, SongMetrics.LoadRecorder recorder) throws IOException {
+        File source = new File(csvPath);
+        long sourceLength = source.length();
+        long sourceModified = source.lastModified();
+        MappedByteBuffer[] csv = mapSource(csvPath);
+
+        long lines = 0;
+        for (long position = 0; position < sourceLength; position = lineEnd(csv, sourceLength, position) + 1) {
+            lines++;
+        }
+        // At most half full, so that probes stay short.
+        int slotBits = Math.max(4, 64 - Long.numberOfLeadingZeros(Math.max(1, lines) * 2 - 1));
+
+        Path target = Paths.get(indexPath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long rows = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer[] slots = map(channel, HEADER_SIZE, (long) SLOT_BYTES << slotBits, FileChannel.MapMode.READ_WRITE);
+            SongOffsetIndex index = new SongOffsetIndex(csvPath, 0, (1L << slotBits) - 1, slots, csv, sourceLength);
+
+            // Skip the header line.
+            long position = lineEnd(csv, sourceLength, 0) + 1;
+            recorder.headerRead();
+            while (position < sourceLength) {
+                long end = lineEnd(csv, sourceLength, position);
+                byte[] line = bytes(csv, position, end);
+                recorder.lineRead();
+                SongRecord song = recorder.parse(LazySongRecord.isBlank(line), () -> LazySongRecord.checked(line));
+                if (song != null && index.insert(song.getId(), position)) {
+                    rows++;
+                }
+                recorder.indexed();
+                position = end + 1;
+            }
+            for (MappedByteBuffer window : slots) {
+                window.force();
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION).putInt(slotBits).putInt(0);
+            header.putLong(rows).putLong(sourceLength).putLong(sourceModified);
+            header.position(HEADER_SIZE).flip();
+            channel.write(header, 0);
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Looks up a song by reading its line from the CSV file.
+     *
+     * Precondition: id is not null.
+     * Postcondition: Returns a new SongRecord parsed from the ID's line, or null if the ID is not indexed.
+     *
+     * @param id the unique ID of the song.
+     * @return the song, or null.
+     */
+    public SongRecord getSongById(String id) {
+        long hash = IdBloomFilter.hash(id);
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long stored = slotLong(slot, 8);
+            if (stored == 0) {
+                return null;
+            }
+            if (slotLong(slot, 0) == hash) {
+                SongRecord song = parseLine(stored - 1);
+                if (song.getId().equals(id)) {
+                    return song;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the byte offset of a song's line in the CSV file.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The offset is returned, or -1 if the ID is not indexed.
+     *
+     * @param id the unique ID of the song.
+     * @return the offset of the first byte of the line, or -1.
+     */
+    public long getOffset(String id) {
+        long hash = IdBloomFilter.hash(id);
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long stored = slotLong(slot, 8);
+            if (stored == 0) {
+                return -1;
+            }
+            if (slotLong(slot, 0) == hash && idAt(stored - 1).equals(id)) {
+                return stored - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns every indexed song in file order, read from the CSV file as the stream is consumed. Lines
+     * whose ID occurs again later in the file are left out, so each ID appears once.
+     *
+     * Precondition: None.
+     * Postcondition: A stream of the indexed songs is returned.
+     *
+     * @return the songs.
+     */
+    public Stream<SongRecord> stream() {
+        return StreamSupport.stream(new LineSpliterator(), false);
+    }
+
+    /**
+     * Returns the number of distinct IDs in the index.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of indexed songs.
+     */
+    public long size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of slots in the hash table, for occupancy monitoring.
+     *
+     * Precondition: None.
+     * Postcondition: The slot count is returned.
+     *
+     * @return the number of slots.
+     */
+    public long getSlotCount() {
+        return slotMask + 1;
+    }
+
+    /**
+     * Returns the size of the index file.
+     *
+     * Precondition: None.
+     * Postcondition: The size is returned.
+     *
+     * @return the size in bytes.
+     */
+    public long getIndexBytes() {
+        return HEADER_SIZE + (slotMask + 1) * SLOT_BYTES;
+    }
+
+    /**
+     * Returns the CSV file the index covers.
+     *
+     * Precondition: None.
+     * Postcondition: The path is returned.
+     *
+     * @return the CSV path given when the index was opened.
+     */
+    public String getCsvPath() {
+        return csvPath;
+    }
+
+    /**
+     * Stores the offset of an ID's line, replacing the offset of an earlier line with the same ID.
+     * Returns whether the ID was new.
+     */
+    private boolean insert(String id, long position) {
+        long hash = IdBloomFilter.hash(id);
+        for (long slot = hash & slotMask; ; slot = (slot + 1) & slotMask) {
+            long stored = slotLong(slot, 8);
+            if (stored == 0) {
+                putSlot(slot, hash, position + 1);
+                return true;
+            }
+            if (slotLong(slot, 0) == hash && idAt(stored - 1).equals(id)) {
+                putSlot(slot, hash, position + 1);
+                return false;
+            }
+        }
+    }
+
+    private long slotLong(long slot, int field) {
+        return slots[(int) (slot >>> SLOT_WINDOW_BITS)]
+                .getLong((int) ((slot & ((1L << SLOT_WINDOW_BITS) - 1)) * SLOT_BYTES) + field);
+    }
+
+    private void putSlot(long slot, long hash, long value) {
+        MappedByteBuffer window = slots[(int) (slot >>> SLOT_WINDOW_BITS)];
+        int at = (int) ((slot & ((1L << SLOT_WINDOW_BITS) - 1)) * SLOT_BYTES);
+        window.putLong(at, hash);
+        window.putLong(at + 8, value);
+    }
+
+    private SongRecord parseLine(long position) {
+        return LazySongRecord.of(bytes(csv, position, lineEnd(csv, csvLength, position)));
+    }
+
+    private String idAt(long position) {
+        return parseLine(position).getId();
+    }
+
+    /**
+     * Maps the CSV file read-only in windows.
+     */
+    private static MappedByteBuffer[] mapSource(String csvPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ)) {
+            return map(channel, 0, channel.size(), FileChannel.MapMode.READ_ONLY);
+        }
+    }
+
+    /**
+     * Maps channel[offset, offset + length) in consecutive windows of 2^WINDOW_BITS bytes.
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, long offset, long length, FileChannel.MapMode mode)
+            throws IOException {
+        MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((length + WINDOW_MASK) >>> WINDOW_BITS)];
+        for (int i = 0; i < windows.length; i++) {
+            long start = (long) i << WINDOW_BITS;
+            windows[i] = channel.map(mode, offset + start, Math.min(1L << WINDOW_BITS, length - start));
+        }
+        return windows;
+    }
+
+    /**
+     * Returns the position of the newline that ends the line starting at position, or length if the last
+     * line has none.
+     */
+    private static long lineEnd(MappedByteBuffer[] file, long length, long position) {
+        while (position < length) {
+            MappedByteBuffer window = file[(int) (position >>> WINDOW_BITS)];
+            int end = window.limit();
+            for (int i = (int) (position & WINDOW_MASK); i < end; i++) {
+                if (window.get(i) == '\n') {
+                    return (position & ~WINDOW_MASK) + i;
+                }
+            }
+            position = (position & ~WINDOW_MASK) + end;
+        }
+        return length;
+    }
+
+    /**
+     * Copies file[from, to) into a new array.
+     */
+    private static byte[] bytes(MappedByteBuffer[] file, long from, long to) {
+        byte[] bytes = new byte[(int) (to - from)];
+        int copied = 0;
+        while (copied < bytes.length) {
+            long position = from + copied;
+            MappedByteBuffer window = file[(int) (position >>> WINDOW_BITS)];
+            int at = (int) (position & WINDOW_MASK);
+            int length = Math.min(bytes.length - copied, window.limit() - at);
+            window.get(at, bytes, copied, length);
+            copied += length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Walks the CSV lines in file order, passing on the songs whose line is the one the index points to.
+     */
+    private final class LineSpliterator extends Spliterators.AbstractSpliterator<SongRecord> {
+        private long position = -1;
+
+        LineSpliterator() {
+            super(rowCount, Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super SongRecord> action) {
+            if (position < 0) {
+                position = lineEnd(csv, csvLength, 0) + 1;
+            }
+            while (position < csvLength) {
+                long start = position;
+                position = lineEnd(csv, csvLength, start) + 1;
+                SongRecord song = parseLine(start);
+                if (getOffset(song.getId()) == start) {
+                    action.accept(song);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -3,11 +3,51 @@
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.management.JMException;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 
 /**
  * The SongProgram class manages SongRecord objects by reading from a CSV file,
@@ -16,9 +56,15 @@ import java.awt.event.ActionListener;
  * Precondition: The CSV file must exist, have a header as its first line, and subsequent lines in the proper CSV format.
  * Postcondition: The internal song map is populated, and song lookup/display functions become available.
  *
- * There are two main execution modes:
+ * There are three main execution modes:
  * 1. Console mode (prints song details to the console).
  * 2. GUI mode (allows song lookup via a simple window).
+ * 3. Server mode (serves song lookups over HTTP; see SongHttpServer).
+ *
+ * Loading methods (loadSongsFromCSV, loadSongs) are meant to be called before lookups start. To replace the
+ * songs while other threads are looking them up, use reloadSongs, which publishes an immutable SongCatalog.
+ * To follow a CSV file that keeps growing, use ingestAppendedSongs or startTailIngest, which publish catalogs
+ * the same way but parse only the rows appended since the previous ingest.
  * 
  * @author  
  * @since   2025-04-15
@@ -28,6 +74,81 @@ public class SongProgram {
     // A HashMap to store SongRecord objects with the song's unique ID as the key.
     private HashMap<String, SongRecord> songMap;
 
+    // Columnar copy of the songs' numeric attributes, built on demand and discarded when songMap changes.
+    private SongStore songStore;
+
+    // Packed ID index over songStore; when built, getSongById uses it, and the songs are kept only in songStore
+    // while songMap stays empty.
+    private SongIdIndex idIndex;
+
+    // Memory-mapped snapshot that serves the songs when they were opened from a snapshot instead of a CSV.
+    private SongSnapshot snapshot;
+
+    // Off-heap copy of the songs that serves them when they were loaded with loadSongsOffHeap.
+    private OffHeapSongStore offHeapStore;
+
+    // Lazily loaded shards that serve the songs when they were loaded with loadSongsSharded.
+    private ShardedSongCatalog shardedCatalog;
+
+    // On-disk ID index that serves the songs from their CSV lines when they were opened with loadSongsIndexed.
+    private SongOffsetIndex offsetIndex;
+
+    // IDs of the rows a collapsing loadSongsFromCSVDeduplicated left out of songMap, mapped to the ID of the
+    // kept row with the same content; getSongById resolves them through it.
+    private final HashMap<String, String> collapsedIds = new HashMap<>();
+
+    // Shared artist names and their IDs; kept across loads so artist IDs stay stable.
+    private final ArtistDictionary artistDictionary = new ArtistDictionary();
+
+    // Catalog published by the most recent hot reload; while set, it serves every lookup instead of songMap.
+    private final AtomicReference<SongCatalog> catalog = new AtomicReference<>();
+
+    // Serializes reloads, so generations are assigned in publication order.
+    private final Object reloadLock = new Object();
+
+    // Reload counters for monitoring.
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong failedReloadCount = new AtomicLong();
+
+    // Runs reloadSongsInBackground requests one at a time; created on first use.
+    private ExecutorService reloadExecutor;
+
+    // Follows the CSV file of ingestAppendedSongs, and the catalog its last ingest published; guarded by reloadLock.
+    private CsvTailReader tailReader;
+    private SongCatalog tailCatalog;
+
+    // Tail ingest counters for monitoring.
+    private final AtomicLong tailIngestedCount = new AtomicLong();
+    private final AtomicLong tailFullLoadCount = new AtomicLong();
+
+    // Aggregations kept up to date as songs are appended; see liveAggregate.
+    private final List<LiveAggregation> liveAggregations = new CopyOnWriteArrayList<>();
+
+    // Polls the followed file for startTailIngest; created on first use and guarded by reloadLock.
+    private ScheduledExecutorService tailExecutor;
+    private ScheduledFuture<?> tailTask;
+
+    // Load counters, lookup latency and occupancy; see getMetrics.
+    private final SongMetrics metrics = new SongMetrics(this::occupancy);
+
+    // JSON of recently requested songs; cleared whenever the songs they were rendered from change.
+    private final SongRenderCache renderCache = new SongRenderCache(RENDER_CACHE_BYTES, this::renderSongJson);
+
+    // Columns that get a sorted secondary index for range queries.
+    private static final SongColumn[] RANGE_INDEXED_COLUMNS = {
+        SongColumn.YEAR, SongColumn.POPULARITY, SongColumn.TEMPO, SongColumn.DURATION_MS
+    };
+
+    // Maximum number of title suggestions shown in the GUI.
+    private static final int SUGGESTION_LIMIT = 500;
+
+    // Memory budget of the rendered song cache.
+    private static final long RENDER_CACHE_BYTES = 32L << 20;
+
+    // Rows read by loadSongsProgressively before it publishes the first catalog.
+    private static final int FIRST_BATCH_ROWS = 10_000;
+
+
     /**
      * Constructor that initializes the SongProgram by creating an empty song map.
      *
@@ -40,31 +161,276 @@ public class SongProgram {
 
     /**
      * Loads songs from a CSV file located at the given file path and stores them in the song map.
-     * The first line (header) is skipped.
+     * The first line (header) is skipped. Rows that cannot be parsed are skipped and counted in the metrics
+     * with the reason, instead of aborting the load.
      *
-     * Precondition: The file at filePath exists and is in the expected CSV format.
+     * Precondition: The file at filePath exists, is UTF-8 encoded, and is in the expected CSV format.
      * Postcondition: songMap is populated with SongRecord objects created from the CSV file's data.
      *
      * @param filePath the path to the CSV file containing song information.
+     * @return true if the whole file was read, false if it could not be opened or reading failed part-way.
      */
-    public void loadSongsFromCSV(String filePath) {
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
+    public boolean loadSongsFromCSV(String filePath) {
+        restoreSongMap();
+        SongMetrics.LoadRecorder recorder = metrics.startLoad(filePath);
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            SongRecordParser parser = new SongRecordParser();
             String line;
             
             // Skip the header line.
-            br.readLine();
+            recorder.readLine(br);
             
             // Read each remaining line, create a SongRecord, and add it to the map.
-            while ((line = br.readLine()) != null) {
-                SongRecord song = new SongRecord(line);
+            while ((line = recorder.readLine(br)) != null) {
+                SongRecord song = recorder.parse(parser, line);
+                if (song != null) {
+                    artistDictionary.internArtists(song);
+                    songMap.put(song.getId(), song);
+                }
+                recorder.indexed();
+            }
+            catalogChanged();
+            System.out.println("Songs successfully loaded from CSV.");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+            return false;
+        } finally {
+            reportRejections(recorder.finish());
+        }
+    }
+
+    /**
+     * Prints how many rows a load skipped, if any, and the last reason.
+     */
+    private void reportRejections(long rejected) {
+        reportRejections(rejected, metrics);
+    }
+
+    /**
+     * Prints how many rows were skipped in metrics that count a single load.
+     */
+    private static void reportRejections(SongMetrics loadMetrics) {
+        reportRejections(loadMetrics.getRowsRejected(), loadMetrics);
+    }
+
+    private static void reportRejections(long rejected, SongMetrics loadMetrics) {
+        if (rejected > 0) {
+            System.err.printf("Skipped %,d rows that could not be parsed; last: %s%n", rejected,
+                    loadMetrics.getLastRejection());
+        }
+    }
+
+    /**
+     * Loads songs from a CSV file using all available cores and stores them in the song map.
+     * The file is split into newline-aligned chunks that are parsed in parallel and merged in file order,
+     * so the resulting map matches the one built by loadSongsFromCSV row for row, including skipped rows.
+     *
+     * Precondition: The file at filePath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: songMap is populated and the load throughput (rows/s, MB/s) is printed.
+     *
+     * @param filePath the path to the CSV file containing song information.
+     */
+    public void loadSongsFromCSVParallel(String filePath) {
+        restoreSongMap();
+        ParallelCsvLoader loader = new ParallelCsvLoader(metrics);
+        try {
+            // Interned before they join the map, whose earlier songs may be read-only store views.
+            Map<String, SongRecord> loaded = new HashMap<>();
+            loader.load(filePath, loaded);
+            for (SongRecord song : loaded.values()) {
+                artistDictionary.internArtists(song);
+            }
+            songMap.putAll(loaded);
+            catalogChanged();
+            System.out.println("Songs successfully loaded from CSV.");
+            System.out.println(loader.throughputSummary());
+            reportRejections(loader.getRowsRejected());
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads songs from a CSV file as LazySongRecord objects and stores them in the song map. Only the field
+     * boundaries and the ID of each line are decoded during the load, and the numbers are checked but not
+     * kept; other fields are decoded when first read, so loading is faster. Rows that cannot be parsed are
+     * skipped and counted, as in loadSongsFromCSV. Each record keeps its raw line as well, so the map takes
+     * more memory than after loadSongsFromCSV. Artist names are not interned, since that would decode every
+     * artist list.
+     *
+     * Precondition: The file at filePath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: songMap is populated with records that behave like those built by loadSongsFromCSV.
+     *
+     * @param filePath the path to the CSV file containing song information.
+     */
+    public void loadSongsFromCSVLazy(String filePath) {
+        restoreSongMap();
+        SongMetrics.LoadRecorder recorder = metrics.startLoad(filePath);
+        try {
+            for (SongRecord song : LazySongRecord.load(filePath, recorder)) {
                 songMap.put(song.getId(), song);
             }
+            catalogChanged();
+            System.out.println("Songs successfully loaded from CSV.");
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+        } finally {
+            reportRejections(recorder.finish());
+        }
+    }
+
+    /**
+     * Loads songs from a CSV file like loadSongsFromCSV, passing every row through a SongDeduplicator first.
+     * Rows with the same content as an earlier row (ignoring the ID) are reported as duplicates, and rows
+     * that reuse an earlier ID with different content as ID conflicts. When collapse is true, duplicates
+     * are not loaded into the song map, so each content group is stored once; getSongById still finds a
+     * duplicate's ID and returns the group's first row for it. Rows that cannot be parsed are skipped and
+     * counted, as in loadSongsFromCSV.
+     *
+     * Precondition: The file at filePath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: songMap is populated and a summary of the duplicates is printed.
+     *
+     * @param filePath the path to the CSV file containing song information.
+     * @param collapse whether to leave duplicate rows out of the song map.
+     * @return the deduplicator holding the duplicate groups and ID conflicts, or null if the file could not be read.
+     */
+    public SongDeduplicator loadSongsFromCSVDeduplicated(String filePath, boolean collapse) {
+        restoreSongMap();
+        SongMetrics.LoadRecorder recorder = metrics.startLoad(filePath);
+        try (BufferedReader br = new BufferedReader(new FileReader(filePath, StandardCharsets.UTF_8))) {
+            SongRecordParser parser = new SongRecordParser();
+            SongDeduplicator deduplicator = new SongDeduplicator();
+            String line;
+
+            // Skip the header line.
+            recorder.readLine(br);
+
+            while ((line = recorder.readLine(br)) != null) {
+                SongRecord song = recorder.parse(parser, line);
+                if (song != null) {
+                    SongRecord kept = deduplicator.keep(song);
+                    if (kept == song || !collapse) {
+                        artistDictionary.internArtists(song);
+                        songMap.put(song.getId(), song);
+                        collapsedIds.remove(song.getId());
+                    } else if (!kept.getId().equals(song.getId())) {
+                        collapsedIds.put(song.getId(), kept.getId());
+                    }
+                }
+                recorder.indexed();
+            }
+            catalogChanged();
             System.out.println("Songs successfully loaded from CSV.");
+            System.out.println(deduplicator.summary());
+            return deduplicator;
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+            return null;
+        } finally {
+            reportRejections(recorder.finish());
+        }
+    }
+
+    /**
+     * Loads songs from a CSV file into off-heap memory instead of the song map, so the catalog adds almost
+     * nothing to the heap that the garbage collector has to trace. getSongById and printAllSongs then return
+     * read-only views that read the song's fields from off-heap memory when they are called.
+     *
+     * Precondition: The file at filePath exists and is in the expected CSV format.
+     * Postcondition: The songs are served from an OffHeapSongStore and songMap is empty.
+     *
+     * @param filePath the path to the CSV file containing song information.
+     */
+    public void loadSongsOffHeap(String filePath) {
+        SongMetrics.LoadRecorder recorder = metrics.startLoad(filePath);
+        try {
+            OffHeapSongStore loaded = OffHeapSongStore.load(filePath, recorder);
+            songMap.clear();
+            collapsedIds.clear();
+            catalogChanged();
+            offHeapStore = loaded;
+            System.out.printf("Songs successfully loaded off-heap (%,d songs, %,d MB direct memory).%n",
+                    loaded.size(), loaded.getOffHeapBytes() >> 20);
+        } catch (IOException e) {
+            System.err.println("Error reading CSV file: " + e.getMessage());
+        } finally {
+            reportRejections(recorder.finish());
+        }
+    }
+
+    /**
+     * Registers many CSV files as shards of one catalog (see ShardedSongCatalog). Only the IDs of each file
+     * are read now; a shard's songs are loaded when a lookup needs them, and unloaded again when the loaded
+     * shards would exceed memoryBudget.
+     *
+     * Precondition: Each file exists, is UTF-8 encoded, is in the expected CSV format, and holds song IDs
+     *               that no other file holds.
+     * Postcondition: Lookups are served from the shards, or an error message is printed.
+     *
+     * @param csvPaths the CSV files of the shards.
+     * @param memoryBudget the estimated bytes the loaded shards may use together.
+     */
+    public void loadSongsSharded(List<String> csvPaths, long memoryBudget) {
+        try {
+            ShardedSongCatalog loaded = new ShardedSongCatalog(memoryBudget, metrics);
+            for (String csvPath : csvPaths) {
+                loaded.addShard(csvPath);
+            }
+            songMap.clear();
+            collapsedIds.clear();
+            catalogChanged();
+            shardedCatalog = loaded;
+            System.out.printf("Registered %d shards (%,d bytes of ID filters).%n", loaded.getShardCount(),
+                    loaded.getFilterBytes());
+            reportRejections(loaded.getRejectedRowCount());
         } catch (IOException e) {
             System.err.println("Error reading CSV file: " + e.getMessage());
         }
     }
 
+    /**
+     * Opens a persistent on-disk index of the CSV file instead of loading the songs (see SongOffsetIndex), so
+     * a tool that needs only a few lookups does not pay for a full load. The index is built on first use and
+     * rebuilt whenever the CSV file has changed since it was built. Each lookup then reads and parses the one
+     * line it needs.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format, and it is
+     *               not modified while the index is in use.
+     * Postcondition: Lookups are served from the CSV file through the index, or an error message is printed.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @param indexPath the path of the index file to open or create.
+     */
+    public void loadSongsIndexed(String csvPath, String indexPath) {
+        SongMetrics.LoadRecorder recorder = metrics.startLoad(csvPath);
+        try {
+            SongOffsetIndex opened = SongOffsetIndex.openOrBuild(indexPath, csvPath, recorder);
+            songMap.clear();
+            collapsedIds.clear();
+            catalogChanged();
+            offsetIndex = opened;
+            System.out.printf("Songs indexed on disk (%,d songs, %,d bytes of index).%n", opened.size(),
+                    opened.getIndexBytes());
+        } catch (IOException e) {
+            System.err.println("Error indexing CSV file: " + e.getMessage());
+        } finally {
+            reportRejections(recorder.finish());
+        }
+    }
+
+    /**
+     * Returns the sharded catalog set up by loadSongsSharded, for its statistics.
+     *
+     * Precondition: None.
+     * Postcondition: The catalog is returned, or null if the songs were not loaded as shards.
+     *
+     * @return the sharded catalog, or null.
+     */
+    public ShardedSongCatalog getShardedCatalog() {
+        return shardedCatalog;
+    }
+
     /**
      * Retrieves a SongRecord from the map using its unique ID.
      *
@@ -75,88 +441,1478 @@ public class SongProgram {
      * @return the SongRecord associated with the provided ID, or null.
      */
     public SongRecord getSongById(String id) {
+        long start = metrics.lookupStarted();
+        SongRecord song = findSongById(id);
+        metrics.lookupFinished(start, song != null);
+        return song;
+    }
+
+    private SongRecord findSongById(String id) {
+        SongCatalog published = catalog.get();
+        if (published != null) {
+            return published.getSongById(id);
+        }
+        if (snapshot != null) {
+            return snapshot.getSongById(id);
+        }
+        if (offHeapStore != null) {
+            return offHeapStore.getSongById(id);
+        }
+        if (shardedCatalog != null) {
+            return shardedCatalog.getSongById(id);
+        }
+        if (offsetIndex != null) {
+            return offsetIndex.getSongById(id);
+        }
+        SongRecord song = findLoadedSong(id);
+        if (song == null && !collapsedIds.isEmpty()) {
+            String kept = collapsedIds.get(id);
+            song = kept == null ? null : findLoadedSong(kept);
+        }
+        return song;
+    }
+
+    /**
+     * Looks a song up in the song map, or in the song store once buildIdIndex has emptied the map.
+     */
+    private SongRecord findLoadedSong(String id) {
+        if (idIndex != null) {
+            int ordinal = idIndex.get(id);
+            return ordinal < 0 ? null : songStore.getRecord(ordinal);
+        }
         return songMap.get(id);
     }
 
     /**
-     * Prints all SongRecord objects in the song map to the console.
+     * Retrieves many songs at once, such as the tracks of a playlist. The IDs are sorted so that repeated IDs
+     * are looked up only once, and when a hot-reloaded catalog is published, every song comes from the same
+     * catalog even if a reload happens meanwhile.
      *
-     * Precondition: The song map is populated with SongRecord objects.
-     * Postcondition: Each song's details are printed to standard output.
+     * Precondition: ids contains no null elements.
+     * Postcondition: Returns an array with one element per ID, in the iteration order of ids: the SongRecord
+     *                with that ID, or null if not found.
+     *
+     * @param ids the unique IDs of the songs, possibly repeated.
+     * @return the songs for the IDs.
      */
-    public void printAllSongs() {
-        for (SongRecord song : songMap.values()) {
-            System.out.println(song);
+    public SongRecord[] getSongsByIds(Collection<String> ids) {
+        SongCatalog published = catalog.get();
+        Function<String, SongRecord> lookup = published != null ? published::getSongById : this::getSongById;
+        return lookupBatch(ids, new SongRecord[ids.size()], lookup);
+    }
+
+    /**
+     * Returns a song as JSON (in the format of SongJsonWriter), from the render cache when it was requested
+     * recently. Concurrent requests for a song that is not cached render it only once.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: Returns the UTF-8 JSON of the song, which the caller must not modify, or null if not found.
+     *
+     * @param id the unique ID of the song.
+     * @return the JSON bytes, or null.
+     */
+    public byte[] getSongJson(String id) {
+        return renderCache.get(id);
+    }
+
+    /**
+     * Returns many songs as JSON, like getSongJson, looking up repeated IDs only once.
+     *
+     * Precondition: ids contains no null elements.
+     * Postcondition: Returns an array with one element per ID, in the iteration order of ids: the JSON of the
+     *                song, or null if not found.
+     *
+     * @param ids the unique IDs of the songs, possibly repeated.
+     * @return the JSON bytes for the IDs.
+     */
+    public byte[][] getSongsJson(Collection<String> ids) {
+        return lookupBatch(ids, new byte[ids.size()][], renderCache::get);
+    }
+
+    /**
+     * Returns the cache behind getSongJson, for its hit rate and other statistics.
+     *
+     * Precondition: None.
+     * Postcondition: The live cache is returned.
+     *
+     * @return the render cache.
+     */
+    public SongRenderCache getRenderCache() {
+        return renderCache;
+    }
+
+    /**
+     * Looks up the distinct IDs of a batch once each, in sorted order, and fills results in the order of ids.
+     */
+    private static <T> T[] lookupBatch(Collection<String> ids, T[] results, Function<String, T> lookup) {
+        String[] distinct = ids.toArray(new String[0]);
+        Arrays.sort(distinct);
+        int count = 0;
+        for (String id : distinct) {
+            if (count == 0 || !id.equals(distinct[count - 1])) {
+                distinct[count++] = id;
+            }
+        }
+        Object[] found = new Object[count];
+        for (int i = 0; i < count; i++) {
+            found[i] = lookup.apply(distinct[i]);
         }
+        int index = 0;
+        for (String id : ids) {
+            @SuppressWarnings("unchecked")
+            T result = (T) found[Arrays.binarySearch(distinct, 0, count, id)];
+            results[index++] = result;
+        }
+        return results;
     }
-    
+
+    /**
+     * Renders a song as JSON for the render cache, or returns null if not found.
+     */
+    private byte[] renderSongJson(String id) {
+        SongRecord song = getSongById(id);
+        if (song == null) {
+            return null;
+        }
+        try {
+            return new SongJsonWriter(null, 1024).writeSong(song).toByteArray();
+        } catch (IOException e) {
+            // Only flushing to an output stream can fail, and this writer has none.
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /**
-     * Opens a simple graphical user interface (GUI) that allows the user to search for a song by its ID.
-     * The GUI includes a text field for input, a search button, and an area to display the results.
+     * Finds the songs that sound most like a given song, using the approximate KD-tree search of the
+     * similarity index. Songs are compared on valence, danceability, energy, acousticness, instrumentalness,
+     * liveness, speechiness, tempo and loudness.
      *
-     * Precondition: The song map is populated with SongRecord objects.
-     * Postcondition: A GUI window appears, enabling the user to enter a song ID and view the song's details.
+     * Precondition: Songs have been loaded and k is not negative.
+     * Postcondition: Up to k songs accepted by filter are returned, most similar first; the list is empty if
+     *                the ID is unknown.
+     *
+     * @param id the unique ID of the song to match.
+     * @param k the number of songs wanted.
+     * @param filter accepts the songs that may be returned, or null to accept all.
+     * @return the most similar songs, excluding the song itself.
      */
-    public void openSearchGui() {
-        // Create the main GUI window.
-        JFrame frame = new JFrame("Song Lookup");
-        frame.setSize(400, 200);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+    public List<SongRecord> findSimilar(String id, int k, Predicate<SongRecord> filter) {
+        SongStore store = getSongStore();
+        int ordinal = storeOrdinal(store, id);
+        if (ordinal < 0) {
+            return new ArrayList<>();
+        }
+        SimilarityIndex index = store.derived(SimilarityIndex.class, SimilarityIndex::new);
+        return toSongs(store, index.nearestApproximate(ordinal, k, toOrdinalFilter(store, filter)));
+    }
 
-        // Create a panel to hold the user interface components.
-        JPanel panel = new JPanel();
-        panel.setLayout(new FlowLayout());
+    /**
+     * Finds the songs that sound most like a given song by comparing it with every loaded song.
+     * Slower than findSimilar, but never misses a closer song.
+     *
+     * Precondition: Songs have been loaded and k is not negative.
+     * Postcondition: The k songs accepted by filter that are nearest to the song are returned, most similar
+     *                first; the list is empty if the ID is unknown.
+     *
+     * @param id the unique ID of the song to match.
+     * @param k the number of songs wanted.
+     * @param filter accepts the songs that may be returned, or null to accept all.
+     * @return the most similar songs, excluding the song itself.
+     */
+    public List<SongRecord> findSimilarExact(String id, int k, Predicate<SongRecord> filter) {
+        SongStore store = getSongStore();
+        int ordinal = storeOrdinal(store, id);
+        if (ordinal < 0) {
+            return new ArrayList<>();
+        }
+        SimilarityIndex index = store.derived(SimilarityIndex.class, SimilarityIndex::new);
+        return toSongs(store, index.nearestExact(ordinal, k, toOrdinalFilter(store, filter)));
+    }
 
-        // Create and add a label, text field, and search button.
-        JLabel label = new JLabel("Enter Song ID:");
-        JTextField idField = new JTextField(20);
-        JButton searchButton = new JButton("Search");
-        panel.add(label);
-        panel.add(idField);
-        panel.add(searchButton);
+    /**
+     * Returns the similarity index, building it over the song store if needed.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: An index over every song in the store is returned and cached with the store.
+     *
+     * @return the similarity index.
+     */
+    public SimilarityIndex getSimilarityIndex() {
+        return getSongStore().derived(SimilarityIndex.class, SimilarityIndex::new);
+    }
 
-        // Create a text area (inside a scroll pane) for displaying search results.
-        JTextArea resultArea = new JTextArea(5, 30);
-        resultArea.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(resultArea);
-        panel.add(scrollPane);
+    /**
+     * Returns the ordinal of an ID in a store, building the store's ID index if needed, or -1 if the ID is unknown.
+     */
+    private static int storeOrdinal(SongStore store, String id) {
+        return store.derived(SongIdIndex.class, SongIdIndex::build).get(id);
+    }
 
-        // Add an action listener for the search button.
-        searchButton.addActionListener(new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                String id = idField.getText();
-                SongRecord song = getSongById(id);
-                if (song != null) {
-                    resultArea.setText("Song Found:\n" + song.toString());
-                } else {
-                    resultArea.setText("Song with ID " + id + " not found.");
-                }
+    /**
+     * Adapts a filter on songs to a filter on the ordinals of a store.
+     */
+    private static IntPredicate toOrdinalFilter(SongStore store, Predicate<SongRecord> filter) {
+        if (filter == null) {
+            return null;
+        }
+        return ordinal -> filter.test(store.getRecord(ordinal));
+    }
+
+    /**
+     * Builds the packed open-addressing ID index over the song store and switches getSongById to use it.
+     * The song store then holds every song and the index finds them, so the song map is emptied to free its
+     * entries and records; getSongById then returns the store's read-only views, and the next load that adds
+     * to the map moves those views back into it first. While a hot-reloaded catalog is published, it keeps
+     * serving lookups and the map is left as it is.
+     *
+     * Precondition: The song map is populated with SongRecord objects.
+     * Postcondition: getSongById resolves IDs through the SongIdIndex.
+     *
+     * @return the built index.
+     */
+    public SongIdIndex buildIdIndex() {
+        SongStore store = getSongStore();
+        SongIdIndex index = store.derived(SongIdIndex.class, SongIdIndex::build);
+        if (catalog.get() == null) {
+            idIndex = index;
+            songMap = new HashMap<>();
+        }
+        return index;
+    }
+
+    /**
+     * Moves the songs back into the song map if buildIdIndex emptied it, so that a load can add to them.
+     *
+     * Precondition: None.
+     * Postcondition: songMap holds every song loaded into it so far, and getSongById uses it again.
+     */
+    private void restoreSongMap() {
+        if (idIndex == null) {
+            return;
+        }
+        HashMap<String, SongRecord> restored = new HashMap<>();
+        for (int ordinal = 0; ordinal < songStore.size(); ordinal++) {
+            SongRecord song = songStore.getRecord(ordinal);
+            restored.put(song.getId(), song);
+        }
+        songMap = restored;
+        idIndex = null;
+    }
+
+    /**
+     * Returns a columnar view of the loaded songs for analytic scans, building it if needed.
+     * Row ordinals follow the iteration order of the song map at the time the store is built.
+     * After a hot reload, the store of the published catalog is returned.
+     *
+     * Precondition: The song map is populated with SongRecord objects.
+     * Postcondition: A SongStore holding every song in the map is returned and cached until the next load.
+     *
+     * @return the columnar song store.
+     */
+    public SongStore getSongStore() {
+        SongCatalog published = catalog.get();
+        if (published != null) {
+            return published.getStore();
+        }
+        if (songStore == null) {
+            if (snapshot != null) {
+                songStore = SongStore.from(snapshot.readAll());
+            } else if (offHeapStore != null) {
+                songStore = SongStore.from(offHeapStore.records());
+            } else if (shardedCatalog != null) {
+                // Loads every shard in turn; the store itself holds all songs regardless of the budget.
+                List<SongRecord> songs = new ArrayList<>();
+                shardedCatalog.forEachSong(songs::add);
+                songStore = SongStore.from(songs);
+            } else if (offsetIndex != null) {
+                List<SongRecord> songs = new ArrayList<>();
+                offsetIndex.stream().forEach(songs::add);
+                songStore = SongStore.from(songs);
+            } else {
+                songStore = SongStore.from(songMap.values());
             }
-        });
+        }
+        return songStore;
+    }
 
-        // Add the panel to the main window and display it.
-        frame.add(panel);
-        frame.setVisible(true);
+    /**
+     * Returns every song credited to an artist, in song store order.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: A list of the artist's songs is returned (empty if the artist is unknown).
+     *
+     * @param artist the artist name, exactly as it appears in the data.
+     * @return the artist's songs.
+     */
+    public List<SongRecord> getSongsByArtist(String artist) {
+        SongStore store = getSongStore();
+        return toSongs(store, artistIndex(store).songsByArtist(artist));
     }
 
     /**
-     * Alternative entry point to demonstrate the GUI mode.
+     * Returns every song credited to all of the given artists (for example, collaborations of two artists).
      *
-     * Precondition: A valid CSV file exists at the specified path.
-     * Postcondition: The song map is populated and the GUI for searching songs is launched.
+     * Precondition: Songs have been loaded and at least one artist is given.
+     * Postcondition: A list of the shared songs is returned (empty if there are none).
      *
-     * @param args command-line arguments (not used).
+     * @param artists the artist names.
+     * @return the songs credited to every artist.
      */
-    public static void main2(String[] args) {
-        SongProgram program = new SongProgram();
+    public List<SongRecord> getSongsByAllArtists(String... artists) {
+        SongStore store = getSongStore();
+        return toSongs(store, artistIndex(store).songsByAllArtists(artists));
+    }
 
-        // Specify the CSV file path.
-        String filePath = "data.csv";  // Update the path if needed.
-        program.loadSongsFromCSV(filePath);
+    /**
+     * Returns the artist inverted index, building it over the song store if needed.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: An index over every song in the store is returned and cached with the store.
+     *
+     * @return the artist index.
+     */
+    public ArtistIndex getArtistIndex() {
+        return artistIndex(getSongStore());
+    }
+
+    private ArtistIndex artistIndex(SongStore store) {
+        return store.derived(ArtistIndex.class, s -> ArtistIndex.build(s, artistDictionary));
+    }
 
-        // Open the song search GUI.
-        program.openSearchGui();
+    /**
+     * Returns the compact encoding of the songs' release dates, titles and artists that the song store reads
+     * these fields from, building the store if needed.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: The text storage of the song store is returned.
+     *
+     * @return the compact text encoding.
+     */
+    public CompactSongText getCompactText() {
+        return getSongStore().getText();
+    }
+
+    /**
+     * Returns the memory used by the release date, title and artist fields in the song store, field by field:
+     * as the String and List objects of eager records, and in the compact encoding the store keeps them in.
+     * The song map, if the songs are still held in it, keeps its own records next to the store.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: The memory breakdown table is returned.
+     *
+     * @return the formatted memory breakdown.
+     */
+    public String stringMemoryReport() {
+        return getCompactText().memoryReport();
+    }
+
+    /**
+     * Returns every song that satisfies all range predicates of a query, for example
+     * {@code new RangeQuery().between(SongColumn.YEAR, 1990, 1999).atLeast(SongColumn.POPULARITY, 70)}.
+     * Predicates on year, popularity, tempo and duration are answered by the sorted secondary indexes.
+     *
+     * Precondition: Songs have been loaded and query is not null.
+     * Postcondition: The matching songs are returned in song store order.
+     *
+     * @param query the range predicates to apply.
+     * @return the matching songs.
+     */
+    public List<SongRecord> findSongs(RangeQuery query) {
+        SongStore store = getSongStore();
+        return toSongs(store, query.evaluate(store, rangeIndexes(store)));
+    }
+
+    /**
+     * Returns the sorted secondary indexes on year, popularity, tempo and duration, building them over the
+     * song store if needed.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: The indexes by column are returned and cached with the store.
+     *
+     * @return the sorted indexes by column.
+     */
+    public Map<SongColumn, SortedColumnIndex> getRangeIndexes() {
+        return rangeIndexes(getSongStore());
+    }
+
+    /**
+     * Returns the range index of a column over a store, or null if the column has no range index.
+     */
+    private static SortedColumnIndex rangeIndex(SongStore store, SongColumn column) {
+        for (SongColumn indexed : RANGE_INDEXED_COLUMNS) {
+            if (indexed == column) {
+                return rangeIndexes(store).get(column);
+            }
+        }
+        return null;
+    }
+
+    private static Map<SongColumn, SortedColumnIndex> rangeIndexes(SongStore store) {
+        return store.derived(SortedColumnIndex.class, s -> {
+            Map<SongColumn, SortedColumnIndex> indexes = new EnumMap<>(SongColumn.class);
+            for (SongColumn column : RANGE_INDEXED_COLUMNS) {
+                indexes.put(column, SortedColumnIndex.build(s, column));
+            }
+            return indexes;
+        });
+    }
+
+    /**
+     * Returns up to limit songs whose title matches what has been typed, best match first: titles starting
+     * with the query, then titles with a word starting with it, then titles containing it, each by popularity.
+     *
+     * Precondition: Songs have been loaded and limit is not negative.
+     * Postcondition: The suggested songs are returned (empty if nothing matches).
+     *
+     * @param query the partial title.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested songs.
+     */
+    public List<SongRecord> suggestByTitle(String query, int limit) {
+        SongStore store = getSongStore();
+        return toSongs(store, store.derived(TitleIndex.class, TitleIndex::build).suggest(query, limit));
+    }
+
+    /**
+     * Returns the title index, building it over the song store if needed.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: An index over every title in the store is returned and cached with the store.
+     *
+     * @return the title index.
+     */
+    public TitleIndex getTitleIndex() {
+        return getSongStore().derived(TitleIndex.class, TitleIndex::build);
+    }
+
+    /**
+     * Runs a grouped aggregation over the loaded songs in parallel, for example
+     * {@code new GroupByQuery(SongGrouping.YEAR).measure(SongColumn.ENERGY, SongColumn.TEMPO)}.
+     *
+     * Precondition: Songs have been loaded and query is not null.
+     * Postcondition: The aggregates of every group in the song store are returned.
+     *
+     * @param query the grouping and the columns to aggregate.
+     * @return the result.
+     */
+    public GroupByResult aggregate(GroupByQuery query) {
+        return query.run(getSongStore());
+    }
+
+    /**
+     * Returns a live aggregation whose result stays up to date as songs are added: rows appended through
+     * ingestAppendedSongs are added to the result incrementally, and any other change of the songs makes
+     * the next result run the query again. The aggregation is kept for the lifetime of this program.
+     *
+     * Precondition: query is not null.
+     * Postcondition: The aggregation is registered; its result describes the songs at the time it is read.
+     *
+     * @param query the grouping and the columns to aggregate.
+     * @return the live aggregation.
+     */
+    public LiveAggregation liveAggregate(GroupByQuery query) {
+        LiveAggregation aggregation = new LiveAggregation(query, this::getSongStore);
+        liveAggregations.add(aggregation);
+        return aggregation;
+    }
+
+    /**
+     * Converts ordinals of a store into the corresponding songs.
+     */
+    private static List<SongRecord> toSongs(SongStore store, int[] ordinals) {
+        List<SongRecord> songs = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            songs.add(store.getRecord(ordinal));
+        }
+        return songs;
+    }
+
+    /**
+     * Passes every loaded song to an action, from whichever store currently serves the songs. When a catalog
+     * is published, the songs of that one catalog are visited even if a reload publishes another meanwhile.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: action has been called once per song.
+     *
+     * @param action the action to run for each song.
+     */
+    public void forEachSong(Consumer<SongRecord> action) {
+        SongCatalog published = catalog.get();
+        if (published != null) {
+            SongStore store = published.getStore();
+            for (int ordinal = 0; ordinal < store.size(); ordinal++) {
+                action.accept(store.getRecord(ordinal));
+            }
+            return;
+        }
+        if (snapshot != null) {
+            for (int ordinal = 0; ordinal < snapshot.size(); ordinal++) {
+                action.accept(snapshot.getRecord(ordinal));
+            }
+            return;
+        }
+        if (offHeapStore != null) {
+            for (int ordinal = 0; ordinal < offHeapStore.size(); ordinal++) {
+                action.accept(offHeapStore.getRecord(ordinal));
+            }
+            return;
+        }
+        if (shardedCatalog != null) {
+            shardedCatalog.forEachSong(action);
+            return;
+        }
+        if (offsetIndex != null) {
+            offsetIndex.stream().forEach(action);
+            return;
+        }
+        if (idIndex != null) {
+            for (int ordinal = 0; ordinal < songStore.size(); ordinal++) {
+                action.accept(songStore.getRecord(ordinal));
+            }
+            return;
+        }
+        for (SongRecord song : songMap.values()) {
+            action.accept(song);
+        }
+    }
+
+    /**
+     * Returns every loaded song as a stream, from whichever store currently serves the songs, in the same
+     * order as forEachSong. Stores that hold rows by ordinal give streams that split well in parallel.
+     *
+     * Precondition: Songs have been loaded.
+     * Postcondition: A stream of all songs is returned.
+     *
+     * @return the songs.
+     */
+    public Stream<SongRecord> streamSongs() {
+        SongCatalog published = catalog.get();
+        if (published != null) {
+            SongStore store = published.getStore();
+            return IntStream.range(0, store.size()).mapToObj(store::getRecord);
+        }
+        if (snapshot != null) {
+            return SongExporter.stream(snapshot);
+        }
+        if (offHeapStore != null) {
+            OffHeapSongStore store = offHeapStore;
+            return IntStream.range(0, store.size()).mapToObj(store::getRecord);
+        }
+        if (shardedCatalog != null) {
+            return shardedCatalog.stream();
+        }
+        if (offsetIndex != null) {
+            return offsetIndex.stream();
+        }
+        if (idIndex != null) {
+            SongStore store = songStore;
+            return IntStream.range(0, store.size()).mapToObj(store::getRecord);
+        }
+        return songMap.values().stream();
+    }
+
+    /**
+     * Exports the songs of a CSV file without loading them, writing the songs that pass the filter in the
+     * exporter's format. Memory use does not depend on the size of the file. Blank lines and lines that
+     * cannot be parsed are skipped, and the number skipped is printed.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: The songs are written to out in file order, or an error message is printed.
+     *
+     * @param csvPath the CSV file to export.
+     * @param exporter the format and fields to write.
+     * @param filter selects the songs to write, or null to write all of them.
+     * @param out the stream to write to.
+     * @param parallel whether to format the songs on all cores; the output is the same.
+     * @return the number of songs written, or -1 if the export failed.
+     */
+    public static long exportSongs(String csvPath, SongExporter exporter, Predicate<? super SongRecord> filter,
+                                   OutputStream out, boolean parallel) {
+        SongMetrics exportMetrics = new SongMetrics(() -> new SongMetrics.Occupancy("none", 0, 0, 0));
+        try (Stream<SongRecord> songs = SongExporter.stream(csvPath, exportMetrics)) {
+            long written = exporter.export(parallel ? songs.parallel() : songs, filter, out);
+            reportRejections(exportMetrics);
+            return written;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Error exporting CSV file: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Prints all SongRecord objects in the song map to the console. The songs are formatted into one large
+     * buffer that is written to standard output as it fills, instead of printing them line by line.
+     *
+     * Precondition: The song map is populated with SongRecord objects.
+     * Postcondition: Each song's details are printed to standard output.
+     */
+    public void printAllSongs() {
+        try {
+            new SongExporter(SongExporter.Format.TEXT).export(streamSongs(), null, System.out);
+        } catch (IOException e) {
+            System.err.println("Error printing songs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Loads songs from a binary snapshot when it is valid and up to date with the CSV file, and otherwise
+     * loads the CSV file and, if the whole file was read, writes a fresh snapshot for the next start.
+     *
+     * Precondition: The CSV file at csvPath exists and is in the expected CSV format.
+     * Postcondition: Songs are available for lookup, either from the mapped snapshot or from songMap.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @param snapshotPath the path of the snapshot to open or create.
+     */
+    public void loadSongs(String csvPath, String snapshotPath) {
+        try {
+            SongSnapshot opened = SongSnapshot.open(snapshotPath, csvPath);
+            songMap.clear();
+            collapsedIds.clear();
+            catalogChanged();
+            snapshot = opened;
+            System.out.println("Songs successfully loaded from snapshot.");
+            return;
+        } catch (IOException e) {
+            System.out.println("Snapshot not used (" + e.getMessage() + "); loading CSV.");
+        }
+        // A failed or partial load must not be saved as a snapshot that looks up to date.
+        if (loadSongsFromCSV(csvPath)) {
+            writeSnapshot(snapshotPath, csvPath);
+        }
+    }
+
+    /**
+     * Writes the loaded songs to a binary snapshot that loadSongs can open on later starts.
+     *
+     * Precondition: Songs have been loaded from the CSV file at sourcePath.
+     * Postcondition: A snapshot file exists at snapshotPath, or an error message is printed.
+     *
+     * @param snapshotPath the path of the snapshot to write.
+     * @param sourcePath the CSV file the songs were loaded from.
+     */
+    public void writeSnapshot(String snapshotPath, String sourcePath) {
+        try {
+            SongStore store = getSongStore();
+            SongSnapshot.write(store, SongIdIndex.build(store), snapshotPath, sourcePath);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reloads the songs from a CSV file without interrupting lookups. A complete new SongCatalog is built on
+     * the calling thread and then published with a single atomic reference swap: concurrent getSongById
+     * callers keep using the previous catalog until the swap, and the new one from then on. They never block
+     * and never see a partly loaded catalog. Rows that cannot be parsed are skipped and counted, as in
+     * loadSongsFromCSV. If the file cannot be read, the current songs stay in place.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: On success, the new catalog serves all lookups and the catalog generation has increased.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @return true if the new catalog was published, false if the reload failed.
+     */
+    public boolean reloadSongs(String csvPath) {
+        synchronized (reloadLock) {
+            try {
+                ParallelCsvLoader loader = new ParallelCsvLoader(metrics);
+                SongCatalog reloaded = SongCatalog.load(csvPath, getCatalogGeneration() + 1, loader);
+                catalog.set(reloaded);
+                renderCache.invalidateAll();
+                reloadCount.incrementAndGet();
+                System.out.printf("Reloaded %d songs (generation %d) in %.1f ms.%n", reloaded.size(),
+                        reloaded.getGeneration(), reloaded.getLoadNanos() / 1e6);
+                reportRejections(loader.getRowsRejected());
+                return true;
+            } catch (IOException | RuntimeException e) {
+                failedReloadCount.incrementAndGet();
+                System.err.println("Error reloading CSV file: " + e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Starts reloadSongs on a background thread and returns immediately. Requests run one at a time in the
+     * order they were made.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: The reload is queued; the future completes with the result of reloadSongs.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @return a future that completes with true if the new catalog was published.
+     */
+    public CompletableFuture<Boolean> reloadSongsInBackground(String csvPath) {
+        ExecutorService executor;
+        synchronized (reloadLock) {
+            if (reloadExecutor == null) {
+                reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "song-reload");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            executor = reloadExecutor;
+        }
+        return CompletableFuture.supplyAsync(() -> reloadSongs(csvPath), executor);
+    }
+
+    /**
+     * Loads songs from a CSV file like reloadSongs, but publishes the rows read so far every time the number
+     * of unpublished rows reaches the size of the published catalog, starting after FIRST_BATCH_ROWS rows.
+     * Lookups (and a GUI showing the catalog) can therefore use the first songs within moments of the start
+     * of a long load. Because each catalog is about twice the size of the one before, building the
+     * intermediate catalogs adds roughly one more full copy to the cost of the load.
+     *
+     * The load stops early, returning false, if the calling thread is interrupted; the songs published so
+     * far stay published.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: On success, the published catalog contains every row of the file; progress has been
+     *                called after each publication with the share of the file read so far.
+     *
+     * @param csvPath the path to the CSV file containing song information.
+     * @param progress receives the share of the file read (0 to 1) after each publication; may be null.
+     * @return true if the whole file was loaded.
+     */
+    public boolean loadSongsProgressively(String csvPath, DoubleConsumer progress) {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            SongMetrics.LoadRecorder recorder = metrics.startLoad(csvPath);
+            try (FileChannel channel = FileChannel.open(Paths.get(csvPath), StandardOpenOption.READ);
+                 BufferedReader br = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                         StandardCharsets.UTF_8), 1 << 16)) {
+                double size = Math.max(1, channel.size());
+                SongRecordParser parser = new SongRecordParser();
+                SongCatalog loaded = null;
+                List<SongRecord> batch = new ArrayList<>();
+                String line;
+
+                // Skip the header line.
+                recorder.readLine(br);
+
+                while ((line = recorder.readLine(br)) != null) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        failedReloadCount.incrementAndGet();
+                        System.err.println("Loading " + csvPath + " was interrupted.");
+                        return false;
+                    }
+                    SongRecord song = recorder.parse(parser, line);
+                    if (song != null) {
+                        batch.add(song);
+                    }
+                    if (batch.size() >= Math.max(FIRST_BATCH_ROWS, loaded == null ? 0 : loaded.size())) {
+                        loaded = publishBatch(loaded, batch, csvPath);
+                        batch = new ArrayList<>();
+                        if (progress != null) {
+                            progress.accept(channel.position() / size);
+                        }
+                    }
+                    recorder.indexed();
+                }
+                if (loaded == null || !batch.isEmpty()) {
+                    loaded = publishBatch(loaded, batch, csvPath);
+                }
+                if (progress != null) {
+                    progress.accept(1);
+                }
+                reloadCount.incrementAndGet();
+                System.out.printf("Loaded %d songs (generation %d) in %.1f ms.%n", loaded.size(),
+                        loaded.getGeneration(), (System.nanoTime() - start) / 1e6);
+                return true;
+            } catch (IOException | RuntimeException e) {
+                failedReloadCount.incrementAndGet();
+                System.err.println("Error loading CSV file: " + e.getMessage());
+                return false;
+            } finally {
+                reportRejections(recorder.finish());
+            }
+        }
+    }
+
+    /**
+     * Publishes the songs of a progressive load read since the previous batch, as a new catalog.
+     *
+     * Precondition: The caller holds reloadLock; previous is the catalog the load published last, or null.
+     * Postcondition: A catalog holding the previous songs and batch is published and returned.
+     */
+    private SongCatalog publishBatch(SongCatalog previous, List<SongRecord> batch, String csvPath) {
+        SongCatalog next = previous == null
+                ? SongCatalog.of(batch, csvPath, getCatalogGeneration() + 1)
+                : previous.withUpserts(batch, previous.getGeneration() + 1);
+        catalog.set(next);
+        if (previous == null) {
+            renderCache.invalidateAll();
+        } else {
+            // A later row may replace a song published by an earlier batch.
+            List<String> changedIds = new ArrayList<>(batch.size());
+            for (SongRecord song : batch) {
+                changedIds.add(song.getId());
+            }
+            renderCache.invalidate(changedIds);
+        }
+        return next;
+    }
+
+    /**
+     * Ingests the rows appended to a CSV file since the previous call, and publishes them like reloadSongs.
+     * Only complete lines after the remembered byte offset are parsed; a line still being written is picked
+     * up by a later call. Songs with a known ID replace the old version, others are added. The first call,
+     * and any call after the file was truncated or rotated (or after the songs were replaced by another load),
+     * falls back to a full load of the file. Lookups continue without blocking throughout. Rows that cannot
+     * be parsed are skipped and counted in the metrics, and the rows after them are still ingested.
+     *
+     * Precondition: The file at csvPath exists, is UTF-8 encoded, and is in the expected CSV format.
+     * Postcondition: On success, the published catalog contains every complete row of the file that could
+     *                be parsed.
+     *
+     * @param csvPath the path to the CSV file to follow.
+     * @return the number of rows ingested (0 if nothing was appended), or -1 if the ingest failed.
+     */
+    public int ingestAppendedSongs(String csvPath) {
+        synchronized (reloadLock) {
+            SongCatalog current = catalog.get();
+            if (tailReader == null || !tailReader.getPath().equals(csvPath)) {
+                tailReader = new CsvTailReader(csvPath);
+            } else if (current == null || current != tailCatalog) {
+                // Another load replaced the songs since the last ingest, so the offset no longer matches them.
+                tailReader.reset();
+            }
+            CsvTailReader.Batch batch;
+            try {
+                batch = tailReader.poll(metrics);
+            } catch (IOException e) {
+                // The offset did not move, but the file may be changing underneath, so read it all next time.
+                tailReader.reset();
+                failedReloadCount.incrementAndGet();
+                System.err.println("Error ingesting CSV file: " + e.getMessage());
+                return -1;
+            }
+            reportRejections(batch.getRejectedCount());
+            try {
+                List<SongRecord> songs = batch.getSongs();
+                SongCatalog updated;
+                if (batch.isFullLoad()) {
+                    updated = SongCatalog.of(songs, csvPath, getCatalogGeneration() + 1);
+                    tailFullLoadCount.incrementAndGet();
+                } else if (songs.isEmpty()) {
+                    return 0;
+                } else {
+                    updated = current.withUpserts(songs, current.getGeneration() + 1);
+                }
+                catalog.set(updated);
+                if (batch.isFullLoad()) {
+                    renderCache.invalidateAll();
+                } else {
+                    // Only replaced songs can be cached; new IDs were unknown, and misses are not cached.
+                    List<String> changedIds = new ArrayList<>(songs.size());
+                    for (SongRecord song : songs) {
+                        changedIds.add(song.getId());
+                    }
+                    renderCache.invalidate(changedIds);
+                }
+                tailCatalog = updated;
+                tailIngestedCount.addAndGet(songs.size());
+                if (!batch.isFullLoad() && updated.size() == current.size() + songs.size()) {
+                    // Every row was new, so live aggregations can add them instead of scanning again.
+                    for (LiveAggregation aggregation : liveAggregations) {
+                        aggregation.appended(current.getStore(), updated.getStore(), songs);
+                    }
+                }
+                return songs.size();
+            } catch (RuntimeException e) {
+                // The offset has moved past rows that were not published, so start over next time.
+                tailReader.reset();
+                failedReloadCount.incrementAndGet();
+                System.err.println("Error ingesting CSV file: " + e.getMessage());
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Starts following a CSV file: ingestAppendedSongs runs now and then every pollMillis milliseconds on
+     * a background thread, until stopTailIngest is called. Any file followed before is no longer polled.
+     *
+     * Precondition: The file at csvPath exists and pollMillis is positive.
+     * Postcondition: Appended rows become visible to lookups within about pollMillis of being written.
+     *
+     * @param csvPath the path to the CSV file to follow.
+     * @param pollMillis the delay between polls in milliseconds.
+     */
+    public void startTailIngest(String csvPath, long pollMillis) {
+        synchronized (reloadLock) {
+            if (tailExecutor == null) {
+                tailExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "song-tail");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            if (tailTask != null) {
+                tailTask.cancel(false);
+            }
+            tailTask = tailExecutor.scheduleWithFixedDelay(() -> ingestAppendedSongs(csvPath), 0, pollMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops following the file passed to startTailIngest. The songs ingested so far stay in place.
+     *
+     * Precondition: None.
+     * Postcondition: No further polls are started.
+     */
+    public void stopTailIngest() {
+        synchronized (reloadLock) {
+            if (tailTask != null) {
+                tailTask.cancel(false);
+                tailTask = null;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rows ingested by ingestAppendedSongs, including those of full loads.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of ingested rows.
+     */
+    public long getTailIngestedCount() {
+        return tailIngestedCount.get();
+    }
+
+    /**
+     * Returns how often ingestAppendedSongs had to load the whole file, because it was the first ingest or
+     * the file was truncated or rotated.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of full loads.
+     */
+    public long getTailFullLoadCount() {
+        return tailFullLoadCount.get();
+    }
+
+    /**
+     * Returns the catalog published by the most recent hot reload.
+     *
+     * Precondition: None.
+     * Postcondition: The current catalog is returned, or null if songs were not loaded by a reload
+     *                (or were loaded again with loadSongsFromCSV or loadSongs since).
+     *
+     * @return the published catalog, or null.
+     */
+    public SongCatalog getCatalog() {
+        return catalog.get();
+    }
+
+    /**
+     * Returns the generation number of the published catalog.
+     *
+     * Precondition: None.
+     * Postcondition: The generation is returned, or 0 if no reloaded catalog is published.
+     *
+     * @return the catalog generation.
+     */
+    public long getCatalogGeneration() {
+        SongCatalog published = catalog.get();
+        return published == null ? 0 : published.getGeneration();
+    }
+
+    /**
+     * Returns how long the published catalog took to load.
+     *
+     * Precondition: None.
+     * Postcondition: The duration is returned, or 0 if no reloaded catalog is published.
+     *
+     * @return the duration of the last successful reload in nanoseconds.
+     */
+    public long getLastReloadNanos() {
+        SongCatalog published = catalog.get();
+        return published == null ? 0 : published.getLoadNanos();
+    }
+
+    /**
+     * Returns the number of successful reloads.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of published catalogs.
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Returns the number of reloads that failed and left the previous songs in place.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the number of failed reloads.
+     */
+    public long getFailedReloadCount() {
+        return failedReloadCount.get();
+    }
+
+    /**
+     * Returns the metrics of this program: rows read, parsed and rejected by loadSongsFromCSV and
+     * loadSongsProgressively, the time those loads spent per phase, the latency of getSongById, and the
+     * occupancy of the structure serving lookups. Call register on the result to publish them over JMX, or
+     * startDump to print them periodically.
+     *
+     * Precondition: None.
+     * Postcondition: The live metrics are returned.
+     *
+     * @return the metrics.
+     */
+    public SongMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Describes the structure that getSongById currently uses, in the same order of precedence. The fields
+     * other than catalog are read without synchronization, so a report taken during a load may be stale.
+     */
+    private SongMetrics.Occupancy occupancy() {
+        SongCatalog published = catalog.get();
+        if (published != null) {
+            return indexOccupancy("catalog", published.getStore().derived(SongIdIndex.class, SongIdIndex::build));
+        }
+        SongSnapshot openedSnapshot = snapshot;
+        if (openedSnapshot != null) {
+            return indexOccupancy("snapshot", openedSnapshot.getIdIndex());
+        }
+        OffHeapSongStore offHeap = offHeapStore;
+        if (offHeap != null) {
+            return new SongMetrics.Occupancy("offHeap", offHeap.size(), 0, offHeap.getOffHeapBytes());
+        }
+        ShardedSongCatalog shards = shardedCatalog;
+        if (shards != null) {
+            return new SongMetrics.Occupancy("sharded", 0, 0, shards.getLoadedBytes() + shards.getFilterBytes());
+        }
+        SongOffsetIndex offsets = offsetIndex;
+        if (offsets != null) {
+            return new SongMetrics.Occupancy("offsetIndex", offsets.size(), offsets.getSlotCount(),
+                    offsets.getIndexBytes());
+        }
+        SongIdIndex index = idIndex;
+        if (index != null) {
+            return indexOccupancy("idIndex", index);
+        }
+        // HashMap doubles its table once it is more than 3/4 full. Each entry costs a 32-byte node and a
+        // 4-byte table slot with compressed pointers; the keys and songs are not counted.
+        int songs = songMap.size();
+        long slots = 16;
+        while (slots * 3 / 4 < songs) {
+            slots <<= 1;
+        }
+        return new SongMetrics.Occupancy("songMap", songs, slots, 16 + slots * 4 + songs * 32L);
+    }
+
+    private static SongMetrics.Occupancy indexOccupancy(String backend, SongIdIndex index) {
+        return new SongMetrics.Occupancy(backend, index.size(), index.capacity(), index.estimatedTableBytes());
+    }
+
+    /**
+     * Discards the structures derived from the loaded songs after the catalog changes.
+     *
+     * Precondition: None.
+     * Postcondition: The song store (with the indexes cached on it), ID index, snapshot, off-heap store, sharded
+     *                catalog, on-disk offset index, any hot-reloaded catalog and the render cache are cleared;
+     *                lookups are served from songMap and the rest is rebuilt on demand.
+     */
+    private void catalogChanged() {
+        songStore = null;
+        idIndex = null;
+        snapshot = null;
+        offHeapStore = null;
+        shardedCatalog = null;
+        offsetIndex = null;
+        catalog.set(null);
+        renderCache.invalidateAll();
+    }
+    
+    /**
+     * Opens a graphical user interface (GUI) for finding songs by ID or by title.
+     * Typing in the title field shows ranked suggestions as you type; selecting one shows its details.
+     * Searches run on a background thread, and a search still running when another key is typed is
+     * cancelled, so the window stays responsive on large catalogs.
+     *
+     * Precondition: The song map is populated with SongRecord objects.
+     * Postcondition: A GUI window appears, enabling the user to search for songs and view their details.
+     */
+    public void openSearchGui() {
+        openSearchGui(null);
+    }
+
+    /**
+     * Opens the song lookup GUI at once and loads a CSV file in the background with loadSongsProgressively.
+     * A progress bar shows how much has been read, and searches and the Browse table work on the songs
+     * published so far. The Browse tab lists the whole catalog in a JTable that reads only the visible rows;
+     * clicking a column header sorts by that column (clicking again reverses the order), using a sort
+     * permutation computed on the search thread.
+     *
+     * Precondition: The file at csvPath exists and is in the expected CSV format, or csvPath is null and the
+     *               songs are already loaded.
+     * Postcondition: A GUI window appears; if csvPath is given, the songs are being loaded.
+     *
+     * @param csvPath the CSV file to load in the background, or null to show the songs already loaded.
+     */
+    public void openSearchGui(String csvPath) {
+        // Create the main GUI window.
+        JFrame frame = new JFrame("Song Lookup");
+        frame.setSize(700, 500);
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        // All catalog access from the GUI runs on this thread, one search at a time.
+        ExecutorService searchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "song-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // The latest search; stale ones are cancelled and their results ignored.
+        AtomicReference<Future<?>> pendingSearch = new AtomicReference<>();
+        AtomicInteger searchGeneration = new AtomicInteger();
+
+        // Create a panel with the ID search row and the title search row.
+        JPanel searchPanel = new JPanel(new GridLayout(2, 1));
+        JPanel idRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JTextField idField = new JTextField(22);
+        JButton searchButton = new JButton("Search");
+        idRow.add(new JLabel("Enter Song ID:"));
+        idRow.add(idField);
+        idRow.add(searchButton);
+        JPanel titleRow = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JTextField titleField = new JTextField(30);
+        titleRow.add(new JLabel("Search by title:"));
+        titleRow.add(titleField);
+        searchPanel.add(idRow);
+        searchPanel.add(titleRow);
+
+        // Suggestions are shown in a JList, which only renders the visible rows; fixed cell sizes keep it
+        // from measuring every row when the results change.
+        SongListModel suggestions = new SongListModel();
+        JList<SongRecord> suggestionList = new JList<>(suggestions);
+        suggestionList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        suggestionList.setFixedCellHeight(20);
+        suggestionList.setFixedCellWidth(640);
+        suggestionList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                SongRecord song = (SongRecord) value;
+                String text = song.getName() + " - " + String.join(", ", song.getArtists())
+                        + " (" + song.getYear() + ")";
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+
+        // Create a text area (inside a scroll pane) for displaying the selected or found song.
+        JTextArea resultArea = new JTextArea(6, 30);
+        resultArea.setEditable(false);
+        resultArea.setLineWrap(true);
+
+        // The whole catalog in a table; the model reads only the rows the table paints, and sorting is done
+        // with precomputed permutations instead of a RowSorter, which would sort every row on this thread.
+        SongTableModel tableModel = new SongTableModel();
+        JTable table = new JTable(tableModel);
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        table.setFillsViewportHeight(true);
+        table.getTableHeader().setReorderingAllowed(false);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Search", new JScrollPane(suggestionList));
+        tabs.addTab("Browse", new JScrollPane(table));
+
+        JSplitPane results = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tabs, new JScrollPane(resultArea));
+        results.setResizeWeight(0.7);
+
+        // Shows the load progress while csvPath is being loaded.
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setString("Loading...");
+        progressBar.setVisible(csvPath != null);
+
+        // Add an action listener for the search button; the lookup runs on the search thread.
+        searchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String id = idField.getText();
+                searchExecutor.submit(() -> {
+                    SongRecord song = getSongById(id);
+                    SwingUtilities.invokeLater(() -> {
+                        if (song != null) {
+                            resultArea.setText("Song Found:\n" + song.toString());
+                        } else {
+                            resultArea.setText("Song with ID " + id + " not found.");
+                        }
+                    });
+                });
+            }
+        });
+
+        // Search titles on every edit, cancelling the previous search if it is still running.
+        titleField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
+            }
+
+            private void search() {
+                String query = titleField.getText();
+                int generation = searchGeneration.incrementAndGet();
+                Future<?> previous = pendingSearch.getAndSet(searchExecutor.submit(() -> {
+                    List<SongRecord> songs = suggestByTitle(query, SUGGESTION_LIMIT);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    SwingUtilities.invokeLater(() -> {
+                        if (generation == searchGeneration.get()) {
+                            suggestions.setSongs(songs);
+                        }
+                    });
+                }));
+                if (previous != null) {
+                    previous.cancel(true);
+                }
+            }
+        });
+
+        // Show the details of the selected suggestion.
+        suggestionList.addListSelectionListener(new ListSelectionListener() {
+            @Override
+            public void valueChanged(ListSelectionEvent e) {
+                SongRecord song = suggestionList.getSelectedValue();
+                if (!e.getValueIsAdjusting() && song != null) {
+                    resultArea.setText(song.toString());
+                }
+            }
+        });
+
+        // Show the details of the selected table row.
+        table.getSelectionModel().addListSelectionListener(new ListSelectionListener() {
+            @Override
+            public void valueChanged(ListSelectionEvent e) {
+                int row = table.getSelectedRow();
+                if (!e.getValueIsAdjusting() && row >= 0) {
+                    resultArea.setText(tableModel.getSongAt(row).toString());
+                }
+            }
+        });
+
+        // Sort by the clicked column; a second click on the same column reverses the order.
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int viewColumn = table.columnAtPoint(e.getPoint());
+                if (viewColumn < 0) {
+                    return;
+                }
+                SongTableModel.Column column = tableModel.getColumn(table.convertColumnIndexToModel(viewColumn));
+                boolean descending = column == tableModel.getSortColumn() && !tableModel.isDescending();
+                sortTable(tableModel, column, descending, searchExecutor);
+            }
+        });
+
+        // Add the panels to the main window and display it.
+        frame.add(searchPanel, BorderLayout.NORTH);
+        frame.add(results, BorderLayout.CENTER);
+        frame.add(progressBar, BorderLayout.SOUTH);
+        frame.setVisible(true);
+
+        if (csvPath != null) {
+            new CatalogLoadWorker(csvPath, tableModel, progressBar, searchExecutor).execute();
+        } else {
+            // Building the store may take a while for a large song map, so it is not done on this thread.
+            searchExecutor.submit(() -> {
+                SongStore store = getSongStore();
+                SwingUtilities.invokeLater(() -> showStore(tableModel, store, searchExecutor));
+            });
+        }
+    }
+
+    /**
+     * Shows a store in the table, sorting it again by the current sort column if there is one.
+     *
+     * Precondition: Called on the event dispatch thread.
+     * Postcondition: The table shows store; a sort is queued on executor if needed.
+     */
+    private static void showStore(SongTableModel model, SongStore store, ExecutorService executor) {
+        if (store == model.getStore()) {
+            return;
+        }
+        model.setStore(store);
+        if (model.getSortColumn() != null) {
+            sortTable(model, model.getSortColumn(), model.isDescending(), executor);
+        }
+    }
+
+    /**
+     * Computes the sort permutation of a column on executor, then applies it to the table on the event
+     * dispatch thread unless the table shows another store by then.
+     *
+     * Precondition: Called on the event dispatch thread.
+     * Postcondition: The sort is queued.
+     */
+    private static void sortTable(SongTableModel model, SongTableModel.Column column, boolean descending,
+                                  ExecutorService executor) {
+        SongStore store = model.getStore();
+        if (store == null) {
+            return;
+        }
+        executor.submit(() -> {
+            IntUnaryOperator order = SongTableModel.sortOrder(store, column, c -> rangeIndex(store, c));
+            SwingUtilities.invokeLater(() -> model.setOrder(store, column, descending, order));
+        });
+    }
+
+    /**
+     * Runs loadSongsProgressively for the GUI and shows each published catalog in the table as it arrives.
+     */
+    private final class CatalogLoadWorker extends SwingWorker<Boolean, Double> {
+        private final String csvPath;
+        private final SongTableModel tableModel;
+        private final JProgressBar progressBar;
+        private final ExecutorService executor;
+
+        CatalogLoadWorker(String csvPath, SongTableModel tableModel, JProgressBar progressBar,
+                          ExecutorService executor) {
+            this.csvPath = csvPath;
+            this.tableModel = tableModel;
+            this.progressBar = progressBar;
+            this.executor = executor;
+        }
+
+        @Override
+        protected Boolean doInBackground() {
+            return loadSongsProgressively(csvPath, fraction -> publish(fraction));
+        }
+
+        @Override
+        protected void process(List<Double> fractions) {
+            // Only the latest publication matters; earlier ones were superseded while this thread was busy.
+            int percent = (int) (fractions.get(fractions.size() - 1) * 100);
+            SongCatalog published = catalog.get();
+            progressBar.setValue(percent);
+            if (published != null) {
+                progressBar.setString(String.format("Loading: %,d songs (%d%%)", published.size(), percent));
+                showStore(tableModel, published.getStore(), executor);
+            }
+        }
+
+        @Override
+        protected void done() {
+            SongCatalog published = catalog.get();
+            boolean loaded;
+            try {
+                loaded = get();
+            } catch (Exception e) {
+                loaded = false;
+            }
+            if (loaded && published != null) {
+                progressBar.setValue(100);
+                progressBar.setString(String.format("Loaded %,d songs", published.size()));
+                showStore(tableModel, published.getStore(), executor);
+            } else {
+                progressBar.setString("Loading " + csvPath + " failed; see the console");
+            }
+        }
+    }
+
+    /**
+     * A list model over a list of songs that is replaced as a whole when new suggestions arrive.
+     */
+    private static class SongListModel extends AbstractListModel<SongRecord> {
+        private static final long serialVersionUID = 1L;
+
+        private List<SongRecord> songs = new ArrayList<>();
+
+        void setSongs(List<SongRecord> newSongs) {
+            int oldSize = songs.size();
+            songs = newSongs;
+            if (oldSize > 0) {
+                fireIntervalRemoved(this, 0, oldSize - 1);
+            }
+            if (!newSongs.isEmpty()) {
+                fireIntervalAdded(this, 0, newSongs.size() - 1);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return songs.size();
+        }
+
+        @Override
+        public SongRecord getElementAt(int index) {
+            return songs.get(index);
+        }
+    }
+
+    /**
+     * Alternative entry point to demonstrate the GUI mode.
+     *
+     * Precondition: A valid CSV file exists at the specified path.
+     * Postcondition: The GUI for searching songs is launched at once and the songs are loaded in the background.
+     *
+     * @param args command-line arguments (not used).
+     */
+    public static void main2(String[] args) {
+        SongProgram program = new SongProgram();
+
+        // Specify the CSV file path.
+        String filePath = "data.csv";  // Update the path if needed.
+
+        // Open the song search GUI; the songs become searchable while they are loaded.
+        program.openSearchGui(filePath);
+    }
+
+    /**
+     * Alternative entry point that runs the headless HTTP lookup service (see SongHttpServer) until the
+     * process is stopped.
+     *
+     * Precondition: A valid CSV file exists at the specified path.
+     * Postcondition: The songs are loaded and served over HTTP; the program's metrics are published over JMX
+     *                and printed every minute.
+     *
+     * @param args optional port to listen on (default 8080).
+     * @throws IOException if the port cannot be bound.
+     */
+    public static void main3(String[] args) throws IOException {
+        SongProgram program = new SongProgram();
+
+        // Specify the CSV file path.
+        String filePath = "data.csv";  // Update the path if needed.
+        program.loadSongs(filePath, "data.snapshot");
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        SongHttpServer server = SongHttpServer.start(program, port);
+        System.out.println("Serving songs on http://localhost:" + server.getPort() + "/songs/{id}");
+
+        // Publish the metrics over JMX and print them every minute.
+        try {
+            program.getMetrics().register("server-" + server.getPort());
+        } catch (JMException e) {
+            System.err.println("Metrics not published over JMX: " + e.getMessage());
+        }
+        program.getMetrics().startDump(System.out, TimeUnit.MINUTES.toMillis(1));
     }
 
     /**
@@ -173,7 +1929,7 @@ public class SongProgram {
 
         // Specify the CSV file path.
         String filePath = "data.csv";  // Update the path if needed.
-        program.loadSongsFromCSV(filePath);
+        program.loadSongs(filePath, "data.snapshot");
 
         // Demonstrate retrieval of a song by a known ID.
         String testId = "4BJqT0PrAfrxzMOxytFOIz";  // Replace with an actual ID from your file.
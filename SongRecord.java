@@ -1,107 +1,47 @@
 //package hashingAndDocumentation;
 
 import java.util.List;
-import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * The SongRecord class holds information about a song. It stores details such as the song's mood,
+ * The SongRecord class holds information about a song. It describes details such as the song's mood,
  * release year, artist names, and other musical attributes.
  *
- * Precondition: When using the CSV constructor, the input string must contain exactly 19 comma-separated
- *               values in the correct order.
- * Postcondition: A SongRecord object is created with all fields populated from default values or the parsed CSV.
+ * SongRecord defines the accessors and the behavior shared by every kind of record (equality, hashing, the
+ * content fingerprint and toString, all read through the getters); subclasses decide where the values are
+ * kept. EagerSongRecord holds them in its own fields, LazySongRecord decodes them from its CSV line, and the
+ * read-only views of SongStore and OffHeapSongStore read them from their store.
  *
- * Example CSV input (19 values expected):
- *   "0.5,2020,0.1,[Artist1;Artist2],0.7,210000,0.8,0,abc123,0.0,5,0.1,-5.0,1,Song Name,50,2020-01-01,0.05,120.0"
+ * Precondition: None.
+ * Postcondition: Records with the same values behave the same, whichever subclass holds them.
  *
  * @author  
  * @since   2025-04-15
  */
-public class SongRecord {
-    // Instance variables to store song attributes
-    private double valence;
-    private int year;
-    private double acousticness;
-    private List<String> artists;
-    private double danceability;
-    private int durationMs;
-    private double energy;
-    private int explicit;
-    private String id;
-    private double instrumentalness;
-    private int key;
-    private double liveness;
-    private double loudness;
-    private int mode;
-    private String name;
-    private int popularity;
-    private String releaseDate;
-    private double speechiness;
-    private double tempo;
+public abstract class SongRecord {
+
+    // Cached content fingerprint, or 0 if it has not been computed since the last change. Volatile because a
+    // plain long may be written in two halves, and published records are read by many threads at once.
+    private volatile long contentFingerprint;
 
     /**
-     * Default constructor that sets default values for the SongRecord.
+     * Constructor for subclasses. No field is initialized, so creating a record allocates nothing else.
      *
      * Precondition: None.
-     * Postcondition: All fields are set to default values (e.g., 0 for numbers, "Unknown Title" for name).
+     * Postcondition: A record with no cached fingerprint is created.
      */
-    public SongRecord() {
-        this.valence = 0.0;
-        this.year = 0;
-        this.acousticness = 0.0;
-        this.artists = Arrays.asList("Unknown Artist");
-        this.danceability = 0.0;
-        this.durationMs = 0;
-        this.energy = 0.0;
-        this.explicit = 0;
-        this.id = "";
-        this.instrumentalness = 0.0;
-        this.key = 0;
-        this.liveness = 0.0;
-        this.loudness = 0.0;
-        this.mode = 0;
-        this.name = "Unknown Title";
-        this.popularity = 0;
-        this.releaseDate = "0";
-        this.speechiness = 0.0;
-        this.tempo = 0.0;
+    protected SongRecord() {
     }
 
     /**
-     * Constructs a SongRecord from a CSV-formatted string.
-     *
-     * Precondition: The 'data' parameter must be a properly formatted CSV string containing exactly 19 values.
-     * Postcondition: The SongRecord object has its fields populated with the values parsed from the CSV string.
+     * Discards the cached content fingerprint. Subclasses call it whenever a setter changes a value other
+     * than the ID.
      *
-     * @param data A CSV string with 19 comma-separated values representing song attributes.
-     * @throws NumberFormatException if numeric conversion fails.
+     * Precondition: None.
+     * Postcondition: The next contentFingerprint call recomputes the fingerprint.
      */
-    public SongRecord(String data) {
-        // Split the CSV line into parts
-        String[] fields = data.split(",");
-        
-        // Parse each field from the CSV string.
-        this.valence = Double.parseDouble(fields[0]);
-        this.year = Integer.parseInt(fields[1]);
-        this.acousticness = Double.parseDouble(fields[2]);
-        // Clean up the artists field and split on semicolons.
-        this.artists = Arrays.asList(fields[3].replaceAll("[\\[\\]']", "").split(";"));
-        this.danceability = Double.parseDouble(fields[4]);
-        this.durationMs = Integer.parseInt(fields[5]);
-        this.energy = Double.parseDouble(fields[6]);
-        this.explicit = Integer.parseInt(fields[7]);
-        this.id = fields[8];
-        this.instrumentalness = Double.parseDouble(fields[9]);
-        this.key = Integer.parseInt(fields[10]);
-        this.liveness = Double.parseDouble(fields[11]);
-        this.loudness = Double.parseDouble(fields[12]);
-        this.mode = Integer.parseInt(fields[13]);
-        this.name = fields[14];
-        this.popularity = Integer.parseInt(fields[15]);
-        this.releaseDate = fields[16];
-        this.speechiness = Double.parseDouble(fields[17]);
-        this.tempo = Double.parseDouble(fields[18]);
+    protected final void contentChanged() {
+        contentFingerprint = 0;
     }
 
     // -------------------------
@@ -116,7 +56,7 @@ public class SongRecord {
      *
      * @return the song's valence.
      */
-    public double getValence() { return valence; }
+    public abstract double getValence();
 
     /**
      * Sets the valence (mood score) of the song.
@@ -126,7 +66,7 @@ public class SongRecord {
      *
      * @param valence the new mood score.
      */
-    public void setValence(double valence) { this.valence = valence; }
+    public abstract void setValence(double valence);
 
     /**
      * Returns the release year of the song.
@@ -136,8 +76,8 @@ public class SongRecord {
      *
      * @return the release year.
      */
-    public int getYear() { return year; }
-    public void setYear(int year) { this.year = year; }
+    public abstract int getYear();
+    public abstract void setYear(int year);
 
     /**
      * Returns the acousticness score.
@@ -147,8 +87,8 @@ public class SongRecord {
      *
      * @return the acousticness.
      */
-    public double getAcousticness() { return acousticness; }
-    public void setAcousticness(double acousticness) { this.acousticness = acousticness; }
+    public abstract double getAcousticness();
+    public abstract void setAcousticness(double acousticness);
 
     /**
      * Returns the list of artists.
@@ -158,8 +98,8 @@ public class SongRecord {
      *
      * @return the artists.
      */
-    public List<String> getArtists() { return artists; }
-    public void setArtists(List<String> artists) { this.artists = artists; }
+    public abstract List<String> getArtists();
+    public abstract void setArtists(List<String> artists);
 
     /**
      * Returns the danceability score.
@@ -169,8 +109,8 @@ public class SongRecord {
      *
      * @return the danceability.
      */
-    public double getDanceability() { return danceability; }
-    public void setDanceability(double danceability) { this.danceability = danceability; }
+    public abstract double getDanceability();
+    public abstract void setDanceability(double danceability);
 
     /**
      * Returns the duration of the song in milliseconds.
@@ -180,8 +120,8 @@ public class SongRecord {
      *
      * @return the duration in milliseconds.
      */
-    public int getDurationMs() { return durationMs; }
-    public void setDurationMs(int durationMs) { this.durationMs = durationMs; }
+    public abstract int getDurationMs();
+    public abstract void setDurationMs(int durationMs);
 
     /**
      * Returns the energy level of the song.
@@ -191,8 +131,8 @@ public class SongRecord {
      *
      * @return the energy.
      */
-    public double getEnergy() { return energy; }
-    public void setEnergy(double energy) { this.energy = energy; }
+    public abstract double getEnergy();
+    public abstract void setEnergy(double energy);
 
     /**
      * Returns the flag indicating explicit content.
@@ -202,8 +142,8 @@ public class SongRecord {
      *
      * @return the explicit flag.
      */
-    public int getExplicit() { return explicit; }
-    public void setExplicit(int explicit) { this.explicit = explicit; }
+    public abstract int getExplicit();
+    public abstract void setExplicit(int explicit);
 
     /**
      * Returns the unique song ID.
@@ -213,8 +153,8 @@ public class SongRecord {
      *
      * @return the song's ID.
      */
-    public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public abstract String getId();
+    public abstract void setId(String id);
 
     /**
      * Returns the instrumentalness score.
@@ -224,8 +164,8 @@ public class SongRecord {
      *
      * @return the instrumentalness.
      */
-    public double getInstrumentalness() { return instrumentalness; }
-    public void setInstrumentalness(double instrumentalness) { this.instrumentalness = instrumentalness; }
+    public abstract double getInstrumentalness();
+    public abstract void setInstrumentalness(double instrumentalness);
 
     /**
      * Returns the musical key of the song.
@@ -235,8 +175,8 @@ public class SongRecord {
      *
      * @return the key.
      */
-    public int getKey() { return key; }
-    public void setKey(int key) { this.key = key; }
+    public abstract int getKey();
+    public abstract void setKey(int key);
 
     /**
      * Returns the liveness score.
@@ -246,8 +186,8 @@ public class SongRecord {
      *
      * @return the liveness.
      */
-    public double getLiveness() { return liveness; }
-    public void setLiveness(double liveness) { this.liveness = liveness; }
+    public abstract double getLiveness();
+    public abstract void setLiveness(double liveness);
 
     /**
      * Returns the loudness level.
@@ -257,8 +197,8 @@ public class SongRecord {
      *
      * @return the loudness.
      */
-    public double getLoudness() { return loudness; }
-    public void setLoudness(double loudness) { this.loudness = loudness; }
+    public abstract double getLoudness();
+    public abstract void setLoudness(double loudness);
 
     /**
      * Returns the mode of the song (major or minor).
@@ -268,8 +208,8 @@ public class SongRecord {
      *
      * @return the mode.
      */
-    public int getMode() { return mode; }
-    public void setMode(int mode) { this.mode = mode; }
+    public abstract int getMode();
+    public abstract void setMode(int mode);
 
     /**
      * Returns the title of the song.
@@ -279,8 +219,8 @@ public class SongRecord {
      *
      * @return the song's name.
      */
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public abstract String getName();
+    public abstract void setName(String name);
 
     /**
      * Returns the popularity rating of the song.
@@ -290,8 +230,8 @@ public class SongRecord {
      *
      * @return the popularity.
      */
-    public int getPopularity() { return popularity; }
-    public void setPopularity(int popularity) { this.popularity = popularity; }
+    public abstract int getPopularity();
+    public abstract void setPopularity(int popularity);
 
     /**
      * Returns the release date as a string.
@@ -301,8 +241,8 @@ public class SongRecord {
      *
      * @return the release date.
      */
-    public String getReleaseDate() { return releaseDate; }
-    public void setReleaseDate(String releaseDate) { this.releaseDate = releaseDate; }
+    public abstract String getReleaseDate();
+    public abstract void setReleaseDate(String releaseDate);
 
     /**
      * Returns the speechiness score.
@@ -312,8 +252,8 @@ public class SongRecord {
      *
      * @return the speechiness.
      */
-    public double getSpeechiness() { return speechiness; }
-    public void setSpeechiness(double speechiness) { this.speechiness = speechiness; }
+    public abstract double getSpeechiness();
+    public abstract void setSpeechiness(double speechiness);
 
     /**
      * Returns the tempo (beats per minute) of the song.
@@ -323,8 +263,8 @@ public class SongRecord {
      *
      * @return the tempo.
      */
-    public double getTempo() { return tempo; }
-    public void setTempo(double tempo) { this.tempo = tempo; }
+    public abstract double getTempo();
+    public abstract void setTempo(double tempo);
 
     // -------------------------
     // Overridden Methods
@@ -341,30 +281,31 @@ public class SongRecord {
     @Override
     public String toString() {
         return "SongRecord{" +
-                "valence=" + valence +
-                ", year=" + year +
-                ", acousticness=" + acousticness +
-                ", artists=" + artists +
-                ", danceability=" + danceability +
-                ", durationMs=" + durationMs +
-                ", energy=" + energy +
-                ", explicit=" + explicit +
-                ", id='" + id + '\'' +
-                ", instrumentalness=" + instrumentalness +
-                ", key=" + key +
-                ", liveness=" + liveness +
-                ", loudness=" + loudness +
-                ", mode=" + mode +
-                ", name='" + name + '\'' +
-                ", popularity=" + popularity +
-                ", releaseDate=" + releaseDate +
-                ", speechiness=" + speechiness +
-                ", tempo=" + tempo +
+                "valence=" + getValence() +
+                ", year=" + getYear() +
+                ", acousticness=" + getAcousticness() +
+                ", artists=" + getArtists() +
+                ", danceability=" + getDanceability() +
+                ", durationMs=" + getDurationMs() +
+                ", energy=" + getEnergy() +
+                ", explicit=" + getExplicit() +
+                ", id='" + getId() + '\'' +
+                ", instrumentalness=" + getInstrumentalness() +
+                ", key=" + getKey() +
+                ", liveness=" + getLiveness() +
+                ", loudness=" + getLoudness() +
+                ", mode=" + getMode() +
+                ", name='" + getName() + '\'' +
+                ", popularity=" + getPopularity() +
+                ", releaseDate=" + getReleaseDate() +
+                ", speechiness=" + getSpeechiness() +
+                ", tempo=" + getTempo() +
                 '}';
     }
 
     /**
-     * Compares this SongRecord with another object for equality.
+     * Compares this SongRecord with another object for equality. Fields are read through the getters, so a
+     * view of a stored row equals an EagerSongRecord with the same values.
      *
      * Precondition: The other object is not null.
      * Postcondition: Returns true if all fields of both SongRecord objects are equal.
@@ -375,31 +316,70 @@ public class SongRecord {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof SongRecord)) return false;
         SongRecord that = (SongRecord) o;
-        return Double.compare(that.valence, valence) == 0 &&
-                year == that.year &&
-                Double.compare(that.acousticness, acousticness) == 0 &&
-                Objects.equals(artists, that.artists) &&
-                Double.compare(that.danceability, danceability) == 0 &&
-                durationMs == that.durationMs &&
-                Double.compare(that.energy, energy) == 0 &&
-                explicit == that.explicit &&
-                Objects.equals(id, that.id) &&
-                Double.compare(that.instrumentalness, instrumentalness) == 0 &&
-                key == that.key &&
-                Double.compare(that.liveness, liveness) == 0 &&
-                Double.compare(that.loudness, loudness) == 0 &&
-                mode == that.mode &&
-                Objects.equals(name, that.name) &&
-                popularity == that.popularity &&
-                releaseDate == that.releaseDate &&
-                Double.compare(that.speechiness, speechiness) == 0 &&
-                Double.compare(that.tempo, tempo) == 0;
+        return Objects.equals(getId(), that.getId()) && contentEquals(that);
+    }
+
+    /**
+     * Compares every field except the ID with another song, so re-releases of the same track under
+     * different IDs compare equal. When both fingerprints are already cached, different fingerprints
+     * answer the comparison without reading the fields.
+     *
+     * Precondition: other is not null.
+     * Postcondition: Returns true if all fields other than the ID are equal.
+     *
+     * @param other the song to compare with.
+     * @return true if the songs have the same content.
+     */
+    public boolean contentEquals(SongRecord other) {
+        if (contentFingerprint != 0 && other.contentFingerprint != 0
+                && contentFingerprint != other.contentFingerprint) {
+            return false;
+        }
+        return Double.compare(other.getValence(), getValence()) == 0 &&
+                getYear() == other.getYear() &&
+                Double.compare(other.getAcousticness(), getAcousticness()) == 0 &&
+                Objects.equals(getArtists(), other.getArtists()) &&
+                Double.compare(other.getDanceability(), getDanceability()) == 0 &&
+                getDurationMs() == other.getDurationMs() &&
+                Double.compare(other.getEnergy(), getEnergy()) == 0 &&
+                getExplicit() == other.getExplicit() &&
+                Double.compare(other.getInstrumentalness(), getInstrumentalness()) == 0 &&
+                getKey() == other.getKey() &&
+                Double.compare(other.getLiveness(), getLiveness()) == 0 &&
+                Double.compare(other.getLoudness(), getLoudness()) == 0 &&
+                getMode() == other.getMode() &&
+                Objects.equals(getName(), other.getName()) &&
+                getPopularity() == other.getPopularity() &&
+                Objects.equals(getReleaseDate(), other.getReleaseDate()) &&
+                Double.compare(other.getSpeechiness(), getSpeechiness()) == 0 &&
+                Double.compare(other.getTempo(), getTempo()) == 0;
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of every field except the ID (see SongFingerprint), computing it on
+     * first use and caching it until a setter changes the song. Changing the artist list in place through
+     * getArtists does not clear the cache; use setArtists instead.
+     *
+     * Precondition: The SongRecord is fully initialized.
+     * Postcondition: The fingerprint is returned; equal content always gives an equal fingerprint.
+     *
+     * @return the content fingerprint.
+     */
+    public long contentFingerprint() {
+        // Single-check caching as in String.hashCode: a thread that sees 0 simply recomputes the same value.
+        long fingerprint = contentFingerprint;
+        if (fingerprint == 0) {
+            fingerprint = SongFingerprint.of(this);
+            contentFingerprint = fingerprint;
+        }
+        return fingerprint;
     }
 
     /**
-     * Computes the hash code for the SongRecord based on all its attributes.
+     * Computes the hash code for the SongRecord based on all its attributes, from the cached content
+     * fingerprint and the ID's own cached hash, so repeated calls cost no field reads or allocation.
      *
      * Precondition: The SongRecord is fully initialized.
      * Postcondition: A hash code is calculated and returned.
@@ -408,7 +388,7 @@ public class SongRecord {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(valence, year, acousticness, artists, danceability, durationMs, energy, explicit, id,
-                instrumentalness, key, liveness, loudness, mode, name, popularity, releaseDate, speechiness, tempo);
+        long fingerprint = contentFingerprint();
+        return 31 * (int) (fingerprint ^ (fingerprint >>> 32)) + Objects.hashCode(getId());
     }
 }
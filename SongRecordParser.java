@@ -0,0 +1,548 @@
+//package hashingAndDocumentation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The SongRecordParser class turns one CSV line into a SongRecord in a single pass over a char buffer.
+ * Field boundaries are located first, then numeric fields are decoded directly from the buffer without
+ * creating intermediate strings; only the text fields (artists, id, name, release date) become Strings.
+ *
+ * Quoted fields are supported, so titles such as "Hello, Goodbye" or artist lists such as
+ * "['Artist1', 'Artist2']" are read as one field. A doubled quote ("") inside a quoted field is an escaped quote.
+ *
+ * The decode methods convert a single field of a UTF-8 line, for records that decode their fields only when
+ * they are read (see LazySongRecord); they give exactly the values a full parse would.
+ *
+ * A parser keeps reusable scratch buffers and is therefore not thread-safe; use one instance per thread,
+ * for example through forCurrentThread().
+ *
+ * Precondition: Each line contains exactly 19 comma-separated values in the order documented by SongRecord.
+ * Postcondition: Parsed numeric values are identical to those produced by Double.parseDouble and Integer.parseInt.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongRecordParser {
+
+    // Number of columns in a song CSV line.
+    public static final int FIELD_COUNT = 19;
+
+    // Column positions of the fields in a CSV line.
+    static final int VALENCE = 0;
+    static final int YEAR = 1;
+    static final int ACOUSTICNESS = 2;
+    static final int ARTISTS = 3;
+    static final int DANCEABILITY = 4;
+    static final int DURATION_MS = 5;
+    static final int ENERGY = 6;
+    static final int EXPLICIT = 7;
+    static final int ID = 8;
+    static final int INSTRUMENTALNESS = 9;
+    static final int KEY = 10;
+    static final int LIVENESS = 11;
+    static final int LOUDNESS = 12;
+    static final int MODE = 13;
+    static final int NAME = 14;
+    static final int POPULARITY = 15;
+    static final int RELEASE_DATE = 16;
+    static final int SPEECHINESS = 17;
+    static final int TEMPO = 18;
+
+    // Powers of ten that are exactly representable as doubles (Clinger's fast path).
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // Largest mantissa that a double represents exactly.
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private static final ThreadLocal<SongRecordParser> PER_THREAD = ThreadLocal.withInitial(SongRecordParser::new);
+
+    // Start (inclusive) and end (exclusive) of each field's content, excluding surrounding quotes.
+    private final int[] fieldStart = new int[FIELD_COUNT];
+    private final int[] fieldEnd = new int[FIELD_COUNT];
+    private final boolean[] fieldQuoted = new boolean[FIELD_COUNT];
+
+    // Reusable buffers for String input and for unescaping quoted text.
+    private char[] lineBuffer = new char[256];
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Returns the parser owned by the calling thread, creating it on first use.
+     *
+     * Precondition: None.
+     * Postcondition: The same parser is returned for every call made by the same thread.
+     *
+     * @return the calling thread's parser.
+     */
+    public static SongRecordParser forCurrentThread() {
+        return PER_THREAD.get();
+    }
+
+    /**
+     * Parses a CSV line into a new SongRecord.
+     *
+     * Precondition: line is a CSV line with 19 values.
+     * Postcondition: A new SongRecord populated from the line is returned.
+     *
+     * @param line the CSV line to parse.
+     * @return the parsed SongRecord.
+     * @throws NumberFormatException if a numeric field cannot be parsed.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public SongRecord parse(String line) {
+        SongRecord song = new EagerSongRecord();
+        parseInto(line, song);
+        return song;
+    }
+
+    /**
+     * Parses the characters buffer[start, end) into a new SongRecord.
+     *
+     * Precondition: The range holds one CSV line (without its line terminator) with 19 values.
+     * Postcondition: A new SongRecord populated from the range is returned.
+     *
+     * @param buffer the characters to read from.
+     * @param start index of the first character of the line.
+     * @param end index just past the last character of the line.
+     * @return the parsed SongRecord.
+     * @throws NumberFormatException if a numeric field cannot be parsed.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public SongRecord parse(char[] buffer, int start, int end) {
+        SongRecord song = new EagerSongRecord();
+        parseInto(buffer, start, end, song);
+        return song;
+    }
+
+    /**
+     * Parses a CSV line and stores the values in an existing SongRecord.
+     *
+     * Precondition: line is a CSV line with 19 values and target is not null.
+     * Postcondition: Every field of target is overwritten with the values from the line.
+     *
+     * @param line the CSV line to parse.
+     * @param target the record that receives the values.
+     * @throws NumberFormatException if a numeric field cannot be parsed.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public void parseInto(String line, SongRecord target) {
+        int length = line.length();
+        if (lineBuffer.length < length) {
+            lineBuffer = new char[Math.max(length, lineBuffer.length * 2)];
+        }
+        line.getChars(0, length, lineBuffer, 0);
+        parseInto(lineBuffer, 0, length, target);
+    }
+
+    /**
+     * Parses the characters buffer[start, end) and stores the values in an existing SongRecord.
+     *
+     * Precondition: The range holds one CSV line with 19 values and target is not null.
+     * Postcondition: Every field of target is overwritten with the values from the range.
+     *
+     * @param buffer the characters to read from.
+     * @param start index of the first character of the line.
+     * @param end index just past the last character of the line.
+     * @param target the record that receives the values.
+     * @throws NumberFormatException if a numeric field cannot be parsed.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public void parseInto(char[] buffer, int start, int end, SongRecord target) {
+        splitFields(buffer, start, end);
+
+        target.setValence(parseDouble(buffer, VALENCE));
+        target.setYear(parseInt(buffer, YEAR));
+        target.setAcousticness(parseDouble(buffer, ACOUSTICNESS));
+        target.setArtists(parseArtists(buffer, ARTISTS));
+        target.setDanceability(parseDouble(buffer, DANCEABILITY));
+        target.setDurationMs(parseInt(buffer, DURATION_MS));
+        target.setEnergy(parseDouble(buffer, ENERGY));
+        target.setExplicit(parseInt(buffer, EXPLICIT));
+        target.setId(text(buffer, ID));
+        target.setInstrumentalness(parseDouble(buffer, INSTRUMENTALNESS));
+        target.setKey(parseInt(buffer, KEY));
+        target.setLiveness(parseDouble(buffer, LIVENESS));
+        target.setLoudness(parseDouble(buffer, LOUDNESS));
+        target.setMode(parseInt(buffer, MODE));
+        target.setName(text(buffer, NAME));
+        target.setPopularity(parseInt(buffer, POPULARITY));
+        target.setReleaseDate(text(buffer, RELEASE_DATE));
+        target.setSpeechiness(parseDouble(buffer, SPEECHINESS));
+        target.setTempo(parseDouble(buffer, TEMPO));
+    }
+
+    /**
+     * Returns only the ID of a CSV line, without converting any other field. This is much cheaper than a
+     * full parse, for passes that only need to know which songs a file holds.
+     *
+     * Precondition: line is a CSV line with 19 values.
+     * Postcondition: The ID is returned; no SongRecord is created.
+     *
+     * @param line the CSV line to read.
+     * @return the song ID.
+     * @throws IllegalArgumentException if the line does not contain 19 fields.
+     */
+    public String parseId(String line) {
+        int length = line.length();
+        if (lineBuffer.length < length) {
+            lineBuffer = new char[Math.max(length, lineBuffer.length * 2)];
+        }
+        line.getChars(0, length, lineBuffer, 0);
+        splitFields(lineBuffer, 0, length);
+        return text(lineBuffer, ID);
+    }
+
+    /**
+     * Decodes a text field (such as the name) from UTF-8 bytes, exactly as a full parse would.
+     *
+     * Precondition: line[start, end) is the content of one field, without its surrounding quotes.
+     * Postcondition: The field's text is returned.
+     *
+     * @param line the UTF-8 bytes of a CSV line.
+     * @param start index of the first byte of the field content.
+     * @param end index just past the last byte of the field content.
+     * @param quoted whether the field was enclosed in quotes, so doubled quotes must be unescaped.
+     * @return the text.
+     */
+    public String decodeText(byte[] line, int start, int end, boolean quoted) {
+        int length = decode(line, start, end);
+        return text(lineBuffer, 0, length, quoted);
+    }
+
+    /**
+     * Decodes an int field from UTF-8 bytes, exactly as a full parse would.
+     *
+     * Precondition: line[start, end) is the content of one field, without its surrounding quotes.
+     * Postcondition: The field's value is returned.
+     *
+     * @param line the UTF-8 bytes of a CSV line.
+     * @param start index of the first byte of the field content.
+     * @param end index just past the last byte of the field content.
+     * @param quoted whether the field was enclosed in quotes.
+     * @return the value.
+     * @throws NumberFormatException if the field is not an int.
+     */
+    public int decodeInt(byte[] line, int start, int end, boolean quoted) {
+        int length = decode(line, start, end);
+        return parseInt(lineBuffer, 0, length, quoted);
+    }
+
+    /**
+     * Decodes a double field from UTF-8 bytes, exactly as a full parse would.
+     *
+     * Precondition: line[start, end) is the content of one field, without its surrounding quotes.
+     * Postcondition: The field's value is returned.
+     *
+     * @param line the UTF-8 bytes of a CSV line.
+     * @param start index of the first byte of the field content.
+     * @param end index just past the last byte of the field content.
+     * @param quoted whether the field was enclosed in quotes.
+     * @return the value.
+     * @throws NumberFormatException if the field is not a double.
+     */
+    public double decodeDouble(byte[] line, int start, int end, boolean quoted) {
+        int length = decode(line, start, end);
+        return parseDouble(lineBuffer, 0, length, quoted);
+    }
+
+    /**
+     * Decodes the artists field from UTF-8 bytes, exactly as a full parse would.
+     *
+     * Precondition: line[start, end) is the content of one field, without its surrounding quotes.
+     * Postcondition: A new fixed-size list of artist names is returned.
+     *
+     * @param line the UTF-8 bytes of a CSV line.
+     * @param start index of the first byte of the field content.
+     * @param end index just past the last byte of the field content.
+     * @param quoted whether the field was enclosed in quotes.
+     * @return the artists.
+     */
+    public List<String> decodeArtists(byte[] line, int start, int end, boolean quoted) {
+        int length = decode(line, start, end);
+        return parseArtists(lineBuffer, 0, length, quoted);
+    }
+
+    /**
+     * Decodes UTF-8 bytes into the start of lineBuffer and returns the number of chars; ASCII is widened directly.
+     */
+    private int decode(byte[] line, int start, int end) {
+        int length = end - start;
+        if (lineBuffer.length < length) {
+            lineBuffer = new char[Math.max(length, lineBuffer.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            byte b = line[start + i];
+            if (b < 0) {
+                String text = new String(line, start, length, StandardCharsets.UTF_8);
+                text.getChars(0, text.length(), lineBuffer, 0);
+                return text.length();
+            }
+            lineBuffer[i] = (char) b;
+        }
+        return length;
+    }
+
+    /**
+     * Records the boundaries of the 19 fields in buffer[start, end).
+     *
+     * Precondition: None.
+     * Postcondition: fieldStart, fieldEnd and fieldQuoted describe each field, or an exception is thrown.
+     */
+    private void splitFields(char[] buffer, int start, int end) {
+        int field = 0;
+        int pos = start;
+        while (true) {
+            if (field == FIELD_COUNT) {
+                throw new IllegalArgumentException("Expected " + FIELD_COUNT + " fields but found more in: "
+                        + new String(buffer, start, end - start));
+            }
+            if (pos < end && buffer[pos] == '"') {
+                // Quoted field: runs until a quote that is not followed by another quote.
+                int contentStart = ++pos;
+                while (pos < end) {
+                    if (buffer[pos] == '"') {
+                        if (pos + 1 < end && buffer[pos + 1] == '"') {
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                fieldStart[field] = contentStart;
+                fieldEnd[field] = pos;
+                fieldQuoted[field] = true;
+                // Step over the closing quote.
+                pos++;
+            } else {
+                int contentStart = pos;
+                while (pos < end && buffer[pos] != ',') {
+                    pos++;
+                }
+                fieldStart[field] = contentStart;
+                fieldEnd[field] = pos;
+                fieldQuoted[field] = false;
+            }
+            field++;
+
+            if (pos >= end) {
+                break;
+            }
+            if (buffer[pos] != ',') {
+                throw new IllegalArgumentException("Unexpected character after quoted field " + (field - 1)
+                        + " in: " + new String(buffer, start, end - start));
+            }
+            pos++;
+        }
+
+        if (field != FIELD_COUNT) {
+            throw new IllegalArgumentException("Expected " + FIELD_COUNT + " fields but found " + field
+                    + " in: " + new String(buffer, start, end - start));
+        }
+    }
+
+    /**
+     * Returns the text of a field, unescaping doubled quotes in quoted fields.
+     */
+    private String text(char[] buffer, int field) {
+        return text(buffer, fieldStart[field], fieldEnd[field], fieldQuoted[field]);
+    }
+
+    private String text(char[] buffer, int start, int end, boolean quoted) {
+        if (!quoted) {
+            return new String(buffer, start, end - start);
+        }
+        scratch.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            scratch.append(c);
+            // Skip the second quote of an escaped pair.
+            if (c == '"' && i + 1 < end && buffer[i + 1] == '"') {
+                i++;
+            }
+        }
+        return scratch.toString();
+    }
+
+    /**
+     * Parses the artists field. Brackets and single quotes are removed and the remainder is split on ';',
+     * which matches the original split/replaceAll logic (including its handling of empty entries).
+     * A quoted field holds a Python-style list such as ['A, B', "Guns N' Roses"]; there, names are
+     * separated by ',' or ';' outside of the per-name quotes, and quotes inside a name are kept.
+     */
+    private List<String> parseArtists(char[] buffer, int field) {
+        return parseArtists(buffer, fieldStart[field], fieldEnd[field], fieldQuoted[field]);
+    }
+
+    private List<String> parseArtists(char[] buffer, int start, int end, boolean quoted) {
+        List<String> artists = new ArrayList<>(2);
+        boolean sawContent = false;
+        // Quote character that opened the current name in a quoted list, or 0 between names.
+        char open = 0;
+        scratch.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            if (!quoted) {
+                if (c == '[' || c == ']' || c == '\'') {
+                    continue;
+                }
+                sawContent = true;
+                if (c == ';') {
+                    artists.add(scratch.toString());
+                    scratch.setLength(0);
+                } else {
+                    scratch.append(c);
+                }
+                continue;
+            }
+
+            // Inside a quoted CSV field an escaped quote ("") stands for a single '"'.
+            if (c == '"' && i + 1 < end && buffer[i + 1] == '"') {
+                i++;
+            }
+            if (open != 0) {
+                if (c == open) {
+                    open = 0;
+                } else {
+                    scratch.append(c);
+                }
+            } else if (c == '\'' || c == '"') {
+                open = c;
+                sawContent = true;
+            } else if (c == ',' || c == ';') {
+                artists.add(scratch.toString());
+                scratch.setLength(0);
+                sawContent = true;
+            } else if (c != '[' && c != ']' && c != ' ') {
+                scratch.append(c);
+                sawContent = true;
+            }
+        }
+        artists.add(scratch.toString());
+
+        if (!sawContent) {
+            // String.split on an empty string yields a single empty element.
+            return Arrays.asList("");
+        }
+        // String.split drops trailing empty strings.
+        int size = artists.size();
+        while (size > 0 && artists.get(size - 1).isEmpty()) {
+            size--;
+        }
+        return Arrays.asList(artists.subList(0, size).toArray(new String[0]));
+    }
+
+    /**
+     * Parses an int field directly from the buffer, falling back to Integer.parseInt for anything
+     * other than an optionally signed run of at most 9 digits.
+     */
+    private int parseInt(char[] buffer, int field) {
+        return parseInt(buffer, fieldStart[field], fieldEnd[field], fieldQuoted[field]);
+    }
+
+    private int parseInt(char[] buffer, int start, int end, boolean quoted) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+            negative = buffer[pos] == '-';
+            pos++;
+        }
+        int digits = end - pos;
+        if (digits < 1 || digits > 9) {
+            return Integer.parseInt(text(buffer, start, end, quoted));
+        }
+        int value = 0;
+        for (; pos < end; pos++) {
+            int d = buffer[pos] - '0';
+            if (d < 0 || d > 9) {
+                return Integer.parseInt(text(buffer, start, end, quoted));
+            }
+            value = value * 10 + d;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a double field directly from the buffer. Decimal numbers whose mantissa fits in 53 bits and
+     * whose decimal exponent lies within [-22, 22] are converted exactly with one multiplication or division;
+     * every other form is delegated to Double.parseDouble so the result is always identical to it.
+     */
+    private double parseDouble(char[] buffer, int field) {
+        return parseDouble(buffer, fieldStart[field], fieldEnd[field], fieldQuoted[field]);
+    }
+
+    private double parseDouble(char[] buffer, int start, int end, boolean quoted) {
+        int pos = start;
+        boolean negative = false;
+        if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+            negative = buffer[pos] == '-';
+            pos++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean overflow = false;
+
+        // Integer part.
+        for (; pos < end && isDigit(buffer[pos]); pos++, digits++) {
+            if (mantissa > MAX_EXACT_MANTISSA / 10) {
+                overflow = true;
+            } else {
+                mantissa = mantissa * 10 + (buffer[pos] - '0');
+            }
+        }
+        // Fraction part.
+        if (pos < end && buffer[pos] == '.') {
+            pos++;
+            for (; pos < end && isDigit(buffer[pos]); pos++, digits++) {
+                if (mantissa > MAX_EXACT_MANTISSA / 10) {
+                    overflow = true;
+                } else {
+                    mantissa = mantissa * 10 + (buffer[pos] - '0');
+                    exponent--;
+                }
+            }
+        }
+        // Optional exponent.
+        if (digits > 0 && pos < end && (buffer[pos] == 'e' || buffer[pos] == 'E')) {
+            pos++;
+            boolean negativeExponent = false;
+            if (pos < end && (buffer[pos] == '-' || buffer[pos] == '+')) {
+                negativeExponent = buffer[pos] == '-';
+                pos++;
+            }
+            int explicitExponent = 0;
+            int exponentDigits = 0;
+            for (; pos < end && isDigit(buffer[pos]) && exponentDigits < 4; pos++, exponentDigits++) {
+                explicitExponent = explicitExponent * 10 + (buffer[pos] - '0');
+            }
+            if (exponentDigits == 0) {
+                return Double.parseDouble(text(buffer, start, end, quoted));
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if (digits == 0 || pos != end || overflow || mantissa > MAX_EXACT_MANTISSA
+                || exponent < -22 || exponent > 22) {
+            return Double.parseDouble(text(buffer, start, end, quoted));
+        }
+
+        double value = mantissa;
+        if (exponent > 0) {
+            value *= POWERS_OF_TEN[exponent];
+        } else if (exponent < 0) {
+            value /= POWERS_OF_TEN[-exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
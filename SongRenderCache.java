@@ -0,0 +1,378 @@
+//package hashingAndDocumentation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The SongRenderCache class keeps rendered songs (for example their JSON) by song ID, so that popular songs
+ * are rendered once instead of on every request. The cache is bounded by the total size of the rendered
+ * bytes, not by the number of entries.
+ *
+ * Eviction follows a segmented LRU policy: a new entry starts in a probation segment, and moves to a
+ * protected segment (80% of the space) when it is read again. Entries are evicted from the least recently
+ * used end of probation first, so a burst of songs read only once cannot push out the songs that are read
+ * all the time. When the protected segment is full, its least recently used entry goes back to probation.
+ *
+ * The cache is split into 16 shards by ID hash, each with its own lock and its own share of the space. When
+ * several threads miss on the same ID at the same time, only the first renders it and the others wait for
+ * that result.
+ *
+ * Precondition: The renderer returns the current rendering of an ID, or null for an unknown ID.
+ * Postcondition: get returns what the renderer returns, except that it may come from the cache; entries
+ *                dropped with invalidate or invalidateAll are never returned afterwards.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongRenderCache {
+
+    // Number of shards; a power of two.
+    private static final int SHARDS = 16;
+
+    // Share of a shard's space used by the protected segment.
+    private static final double PROTECTED_SHARE = 0.8;
+
+    // Estimated bytes used per entry beyond the rendered bytes: the entry, map node, ID string and array header.
+    private static final int ENTRY_OVERHEAD = 120;
+
+    private final Function<String, byte[]> renderer;
+    private final long maxBytes;
+    private final Shard[] shards = new Shard[SHARDS];
+
+    // Renders in progress, so concurrent misses on one ID wait for a single render.
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    // Increased by every invalidation; a render that started before one is not stored.
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor that creates an empty cache.
+     *
+     * Precondition: maxBytes is positive and renderer is not null.
+     * Postcondition: An empty cache is created.
+     *
+     * @param maxBytes the largest total size of the cached entries, in bytes.
+     * @param renderer renders the song with an ID, or returns null if there is none.
+     */
+    public SongRenderCache(long maxBytes, Function<String, byte[]> renderer) {
+        this.renderer = renderer;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(maxBytes / SHARDS);
+        }
+    }
+
+    /**
+     * Returns the rendering of a song, from the cache when possible. Unknown IDs are not cached, so a song
+     * added later is found.
+     *
+     * Precondition: id is not null.
+     * Postcondition: The rendering is returned and cached, or null is returned if the song does not exist.
+     *
+     * @param id the unique ID of the song.
+     * @return the rendered bytes, which the caller must not modify, or null.
+     */
+    public byte[] get(String id) {
+        Shard shard = shardOf(id);
+        byte[] cached = shard.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(id, render);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            long stamp = invalidations.get();
+            byte[] rendered = renderer.apply(id);
+            if (rendered != null) {
+                shard.put(id, rendered, stamp);
+            }
+            render.complete(rendered);
+            return rendered;
+        } catch (RuntimeException e) {
+            render.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, render);
+        }
+    }
+
+    /**
+     * Drops the cached renderings of some songs, for example after they changed.
+     *
+     * Precondition: ids is not null.
+     * Postcondition: The next get of each ID renders it again.
+     *
+     * @param ids the IDs of the songs to drop.
+     */
+    public void invalidate(Iterable<String> ids) {
+        invalidations.incrementAndGet();
+        for (String id : ids) {
+            // Later misses must not wait for a render that may have read the old song.
+            inFlight.remove(id);
+            shardOf(id).remove(id);
+        }
+    }
+
+    /**
+     * Drops every cached rendering, for example after the songs were reloaded.
+     *
+     * Precondition: None.
+     * Postcondition: The cache is empty; hit statistics are kept.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        inFlight.clear();
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Returns the number of gets answered from the cache.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of gets not answered from the cache, including those that waited for another
+     * thread's render.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of misses that waited for a render already in progress instead of rendering.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the coalesced miss count.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted to stay within the size limit.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the eviction count.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the share of gets answered from the cache.
+     *
+     * Precondition: None.
+     * Postcondition: A value between 0 and 1 is returned; 0 before the first get.
+     *
+     * @return the hit rate.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * Precondition: None.
+     * Postcondition: The count is returned.
+     *
+     * @return the entry count.
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the estimated memory used by the cached entries.
+     *
+     * Precondition: None.
+     * Postcondition: The estimate is returned; it never exceeds the limit given to the constructor.
+     *
+     * @return the estimated size in bytes.
+     */
+    public long getWeightedSize() {
+        long bytes = 0;
+        for (Shard shard : shards) {
+            bytes += shard.weight();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns a one-line summary of the cache statistics.
+     *
+     * Precondition: None.
+     * Postcondition: The summary is returned.
+     *
+     * @return the statistics text.
+     */
+    public String stats() {
+        return String.format("entries=%,d size=%,d/%,d bytes hits=%,d misses=%,d (coalesced %,d) hitRate=%.1f%% "
+                + "evictions=%,d", size(), getWeightedSize(), maxBytes, getHitCount(), getMissCount(),
+                getCoalescedCount(), getHitRate() * 100, getEvictionCount());
+    }
+
+    private Shard shardOf(String id) {
+        int hash = id.hashCode();
+        return shards[(hash ^ hash >>> 16) & (SHARDS - 1)];
+    }
+
+    /**
+     * A cached rendering and its estimated size.
+     */
+    private static final class Entry {
+        final byte[] value;
+        final int weight;
+
+        Entry(String id, byte[] value) {
+            this.value = value;
+            this.weight = value.length + 2 * id.length() + ENTRY_OVERHEAD;
+        }
+    }
+
+    /**
+     * One shard: a probation and a protected segment, both in least recently used order, under one lock.
+     */
+    private final class Shard {
+        private final long maxWeight;
+        private final long maxProtectedWeight;
+
+        // Insertion order is kept by removing and re-adding entries, so the first entry is the least recent.
+        private final LinkedHashMap<String, Entry> probation = new LinkedHashMap<>();
+        private final LinkedHashMap<String, Entry> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+        private long probationWeight;
+        private long protectedWeight;
+
+        Shard(long maxWeight) {
+            this.maxWeight = maxWeight;
+            this.maxProtectedWeight = (long) (maxWeight * PROTECTED_SHARE);
+        }
+
+        synchronized byte[] get(String id) {
+            Entry entry = protectedEntries.get(id);
+            if (entry != null) {
+                return entry.value;
+            }
+            entry = probation.remove(id);
+            if (entry == null) {
+                return null;
+            }
+            // Read a second time: promote it, and make room by moving protected entries back to probation.
+            probationWeight -= entry.weight;
+            protectedEntries.put(id, entry);
+            protectedWeight += entry.weight;
+            Iterator<Map.Entry<String, Entry>> oldest = protectedEntries.entrySet().iterator();
+            while (protectedWeight > maxProtectedWeight && protectedEntries.size() > 1) {
+                Map.Entry<String, Entry> demoted = oldest.next();
+                oldest.remove();
+                protectedWeight -= demoted.getValue().weight;
+                probation.put(demoted.getKey(), demoted.getValue());
+                probationWeight += demoted.getValue().weight;
+            }
+            return entry.value;
+        }
+
+        synchronized void put(String id, byte[] value, long stamp) {
+            // An invalidation since the render started may have made the value stale.
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            Entry entry = new Entry(id, value);
+            if (entry.weight > maxWeight) {
+                return;
+            }
+            removeEntry(id);
+            probation.put(id, entry);
+            probationWeight += entry.weight;
+            while (probationWeight + protectedWeight > maxWeight) {
+                LinkedHashMap<String, Entry> segment = probation.isEmpty() ? protectedEntries : probation;
+                Iterator<Map.Entry<String, Entry>> oldest = segment.entrySet().iterator();
+                Entry evicted = oldest.next().getValue();
+                oldest.remove();
+                if (segment == probation) {
+                    probationWeight -= evicted.weight;
+                } else {
+                    protectedWeight -= evicted.weight;
+                }
+                evictions.increment();
+            }
+        }
+
+        synchronized void remove(String id) {
+            removeEntry(id);
+        }
+
+        private void removeEntry(String id) {
+            Entry entry = probation.remove(id);
+            if (entry != null) {
+                probationWeight -= entry.weight;
+            }
+            entry = protectedEntries.remove(id);
+            if (entry != null) {
+                protectedWeight -= entry.weight;
+            }
+        }
+
+        synchronized void clear() {
+            probation.clear();
+            protectedEntries.clear();
+            probationWeight = 0;
+            protectedWeight = 0;
+        }
+
+        synchronized int size() {
+            return probation.size() + protectedEntries.size();
+        }
+
+        synchronized long weight() {
+            return probationWeight + protectedWeight;
+        }
+    }
+}
@@ -0,0 +1,420 @@
+//package hashingAndDocumentation;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The SongSnapshot class writes a loaded catalog to a compact binary file and opens that file again with
+ * memory mapping, so later starts can serve lookups without parsing the CSV.
+ *
+ * File layout (all numbers big-endian):
+ *   header   magic "SONG", format version, row count, source file length and modification time,
+ *            CRC32 of the body, and an (offset, length) table for every section;
+ *   columns  one fixed-width section per SongColumn (8 bytes per double, 4 bytes per int);
+ *   heaps    for id, name, release date and artists: an int[rowCount + 1] offset table followed by the
+ *            UTF-8 bytes of every row; artist names are each terminated by a unit separator (U+001F);
+ *   index    the prebuilt SongIdIndex, written by SongIdIndex.writeTo.
+ *
+ * Each section is mapped separately, so a snapshot may exceed 2 GB as long as each section does not.
+ * Records are materialized from the mapped sections only when they are looked up.
+ *
+ * Precondition: The snapshot is opened with the same source file it was written from.
+ * Postcondition: An opened snapshot answers lookups exactly like the catalog it was written from.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongSnapshot {
+
+    // "SONG" in ASCII.
+    private static final int MAGIC = 0x534F4E47;
+
+    // Incremented whenever the layout changes; older files are treated as stale.
+    public static final int VERSION = 1;
+
+    private static final int TEXT_HEAPS = 4;
+    private static final int ID_HEAP = 0;
+    private static final int NAME_HEAP = 1;
+    private static final int RELEASE_DATE_HEAP = 2;
+    private static final int ARTISTS_HEAP = 3;
+
+    // Columns, then an offset table and a byte section per heap, then the ID index.
+    private static final int COLUMN_SECTIONS = SongColumn.values().length;
+    private static final int SECTION_COUNT = COLUMN_SECTIONS + 2 * TEXT_HEAPS + 1;
+    private static final int INDEX_SECTION = SECTION_COUNT - 1;
+
+    // magic, version, rowCount, sectionCount (4 bytes each), sourceLength, sourceModified, checksum (8 bytes each).
+    private static final int HEADER_SIZE = 4 * 4 + 3 * 8 + SECTION_COUNT * 2 * 8;
+
+    // Separates (and terminates) artist names in the artists heap.
+    private static final char ARTIST_SEPARATOR = '\u001F';
+
+    // Largest window used to checksum the body.
+    private static final int CHECKSUM_WINDOW = 1 << 30;
+
+    private final int rowCount;
+    private final ByteBuffer[] sections;
+    private final SongIdIndex index;
+
+    private SongSnapshot(int rowCount, ByteBuffer[] sections, SongIdIndex index) {
+        this.rowCount = rowCount;
+        this.sections = sections;
+        this.index = index;
+    }
+
+    /**
+     * Writes a snapshot of a SongStore. The file is written under a temporary name and then moved into place,
+     * so a reader never sees a partially written snapshot.
+     *
+     * Precondition: index maps every ID of store to its ordinal, and sourcePath is the CSV the store came from.
+     * Postcondition: A snapshot file exists at snapshotPath; if writing fails, the temporary file is removed.
+     *
+     * @param store the songs to write.
+     * @param index the ID index over store.
+     * @param snapshotPath the file to write.
+     * @param sourcePath the CSV file the songs were loaded from, recorded to detect staleness.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static void write(SongStore store, SongIdIndex index, String snapshotPath, String sourcePath)
+            throws IOException {
+        File source = new File(sourcePath);
+        Path target = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        int rows = store.size();
+        long[] offsets = new long[SECTION_COUNT];
+        long[] lengths = new long[SECTION_COUNT];
+        CRC32 crc = new CRC32();
+
+        boolean written = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.position(HEADER_SIZE);
+                // The counter sits above the buffer so that it always knows the logical write position.
+                CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), 1 << 16));
+                DataOutputStream out = new DataOutputStream(counter);
+
+                int section = 0;
+                for (SongColumn column : SongColumn.values()) {
+                    offsets[section] = HEADER_SIZE + counter.count;
+                    for (int row = 0; row < rows; row++) {
+                        if (column.isInteger()) {
+                            out.writeInt((int) store.get(column, row));
+                        } else {
+                            out.writeDouble(store.get(column, row));
+                        }
+                    }
+                    section++;
+                }
+
+                for (int heap = 0; heap < TEXT_HEAPS; heap++) {
+                    // First the offset table, then the bytes; the text is encoded once per pass to save memory.
+                    offsets[section] = HEADER_SIZE + counter.count;
+                    int offset = 0;
+                    out.writeInt(offset);
+                    for (int row = 0; row < rows; row++) {
+                        offset = Math.addExact(offset, heapBytes(store.getRecord(row), heap).length);
+                        out.writeInt(offset);
+                    }
+                    section++;
+
+                    offsets[section] = HEADER_SIZE + counter.count;
+                    for (int row = 0; row < rows; row++) {
+                        out.write(heapBytes(store.getRecord(row), heap));
+                    }
+                    section++;
+                }
+
+                offsets[section] = HEADER_SIZE + counter.count;
+                index.writeTo(out);
+                out.flush();
+
+                for (int i = 0; i < SECTION_COUNT; i++) {
+                    long end = i + 1 < SECTION_COUNT ? offsets[i + 1] : HEADER_SIZE + counter.count;
+                    lengths[i] = end - offsets[i];
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(SECTION_COUNT);
+                header.putLong(source.length()).putLong(source.lastModified()).putLong(crc.getValue());
+                for (int i = 0; i < SECTION_COUNT; i++) {
+                    header.putLong(offsets[i]).putLong(lengths[i]);
+                }
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+        } finally {
+            // Do not leave a partial file behind when writing fails.
+            if (!written) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Opens a snapshot with memory mapping after checking its version, checksum and freshness.
+     *
+     * Precondition: None.
+     * Postcondition: A snapshot ready to serve lookups is returned.
+     *
+     * @param snapshotPath the snapshot file.
+     * @param sourcePath the CSV file the snapshot must have been written from.
+     * @return the opened snapshot.
+     * @throws IOException if the file is missing, corrupt, of another version, or older than the source.
+     */
+    public static SongSnapshot open(String snapshotPath, String sourcePath) throws IOException {
+        File source = new File(sourcePath);
+        if (!new File(snapshotPath).isFile()) {
+            throw new IOException("Snapshot not found: " + snapshotPath);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(snapshotPath), StandardOpenOption.READ)) {
+            long fileLength = channel.size();
+            if (fileLength < HEADER_SIZE) {
+                throw new IOException("Snapshot is truncated: " + snapshotPath);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a song snapshot: " + snapshotPath);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Snapshot version " + version + " is not supported (expected " + VERSION + ")");
+            }
+            int rows = header.getInt();
+            if (header.getInt() != SECTION_COUNT) {
+                throw new IOException("Snapshot section table is invalid: " + snapshotPath);
+            }
+            if (header.getLong() != source.length() || header.getLong() != source.lastModified()) {
+                throw new IOException("Snapshot is stale: " + sourcePath + " changed since it was written");
+            }
+            long checksum = header.getLong();
+            if (checksum(channel, HEADER_SIZE, fileLength) != checksum) {
+                throw new IOException("Snapshot checksum mismatch: " + snapshotPath);
+            }
+
+            ByteBuffer[] sections = new ByteBuffer[SECTION_COUNT];
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                long offset = header.getLong();
+                long length = header.getLong();
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            }
+            SongIdIndex index = SongIdIndex.readFrom(sections[INDEX_SECTION].duplicate());
+            return new SongSnapshot(rows, sections, index);
+        }
+    }
+
+    /**
+     * Returns the number of songs in the snapshot.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned.
+     *
+     * @return the number of songs.
+     */
+    public int size() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the ID index loaded from the snapshot.
+     *
+     * Precondition: None.
+     * Postcondition: The index mapping IDs to snapshot ordinals is returned.
+     *
+     * @return the ID index.
+     */
+    public SongIdIndex getIdIndex() {
+        return index;
+    }
+
+    /**
+     * Looks up a song by ID and materializes it from the mapped sections.
+     *
+     * Precondition: id is not null.
+     * Postcondition: A new SongRecord is returned, or null if the ID is not in the snapshot.
+     *
+     * @param id the unique ID of the song.
+     * @return the song, or null.
+     */
+    public SongRecord getSongById(String id) {
+        int ordinal = index.get(id);
+        return ordinal < 0 ? null : getRecord(ordinal);
+    }
+
+    /**
+     * Materializes the song stored at a row.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: A new SongRecord holding the row's values is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the song.
+     */
+    public SongRecord getRecord(int ordinal) {
+        if (ordinal < 0 || ordinal >= rowCount) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + rowCount + ")");
+        }
+        SongRecord song = new EagerSongRecord();
+        song.setValence(doubleAt(SongColumn.VALENCE, ordinal));
+        song.setYear(intAt(SongColumn.YEAR, ordinal));
+        song.setAcousticness(doubleAt(SongColumn.ACOUSTICNESS, ordinal));
+        song.setArtists(splitArtists(textAt(ARTISTS_HEAP, ordinal)));
+        song.setDanceability(doubleAt(SongColumn.DANCEABILITY, ordinal));
+        song.setDurationMs(intAt(SongColumn.DURATION_MS, ordinal));
+        song.setEnergy(doubleAt(SongColumn.ENERGY, ordinal));
+        song.setExplicit(intAt(SongColumn.EXPLICIT, ordinal));
+        song.setId(textAt(ID_HEAP, ordinal));
+        song.setInstrumentalness(doubleAt(SongColumn.INSTRUMENTALNESS, ordinal));
+        song.setKey(intAt(SongColumn.KEY, ordinal));
+        song.setLiveness(doubleAt(SongColumn.LIVENESS, ordinal));
+        song.setLoudness(doubleAt(SongColumn.LOUDNESS, ordinal));
+        song.setMode(intAt(SongColumn.MODE, ordinal));
+        song.setName(textAt(NAME_HEAP, ordinal));
+        song.setPopularity(intAt(SongColumn.POPULARITY, ordinal));
+        song.setReleaseDate(textAt(RELEASE_DATE_HEAP, ordinal));
+        song.setSpeechiness(doubleAt(SongColumn.SPEECHINESS, ordinal));
+        song.setTempo(doubleAt(SongColumn.TEMPO, ordinal));
+        return song;
+    }
+
+    /**
+     * Returns the ID of the song stored at a row, without materializing the rest of the record.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: The song ID is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the song's ID.
+     */
+    public String getId(int ordinal) {
+        if (ordinal < 0 || ordinal >= rowCount) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + rowCount + ")");
+        }
+        return textAt(ID_HEAP, ordinal);
+    }
+
+    /**
+     * Materializes every song in row order.
+     *
+     * Precondition: None.
+     * Postcondition: A list of size() new SongRecords is returned.
+     *
+     * @return all songs in the snapshot.
+     */
+    public List<SongRecord> readAll() {
+        List<SongRecord> songs = new ArrayList<>(rowCount);
+        for (int ordinal = 0; ordinal < rowCount; ordinal++) {
+            songs.add(getRecord(ordinal));
+        }
+        return songs;
+    }
+
+    private double doubleAt(SongColumn column, int ordinal) {
+        return sections[column.ordinal()].getDouble(ordinal * Double.BYTES);
+    }
+
+    private int intAt(SongColumn column, int ordinal) {
+        return sections[column.ordinal()].getInt(ordinal * Integer.BYTES);
+    }
+
+    private String textAt(int heap, int ordinal) {
+        ByteBuffer offsets = sections[COLUMN_SECTIONS + 2 * heap];
+        ByteBuffer bytes = sections[COLUMN_SECTIONS + 2 * heap + 1];
+        int start = offsets.getInt(ordinal * Integer.BYTES);
+        int end = offsets.getInt((ordinal + 1) * Integer.BYTES);
+        byte[] value = new byte[end - start];
+        bytes.get(start, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the UTF-8 bytes a heap stores for a record.
+     */
+    private static byte[] heapBytes(SongRecord song, int heap) {
+        switch (heap) {
+            case ID_HEAP: return song.getId().getBytes(StandardCharsets.UTF_8);
+            case NAME_HEAP: return song.getName().getBytes(StandardCharsets.UTF_8);
+            case RELEASE_DATE_HEAP: return song.getReleaseDate().getBytes(StandardCharsets.UTF_8);
+            default:
+                StringBuilder artists = new StringBuilder();
+                for (String artist : song.getArtists()) {
+                    artists.append(artist).append(ARTIST_SEPARATOR);
+                }
+                return artists.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<String> splitArtists(String text) {
+        List<String> artists = new ArrayList<>(2);
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ARTIST_SEPARATOR) {
+                artists.add(text.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return Arrays.asList(artists.toArray(new String[0]));
+    }
+
+    /**
+     * Computes the CRC32 of channel[from, to) through memory-mapped windows.
+     */
+    private static long checksum(FileChannel channel, long from, long to) throws IOException {
+        CRC32 crc = new CRC32();
+        for (long position = from; position < to; position += CHECKSUM_WINDOW) {
+            long length = Math.min(CHECKSUM_WINDOW, to - position);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * An output stream that counts the bytes written through it.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,588 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The SongStore class keeps the numeric attributes of many songs in a columnar (struct-of-arrays) layout:
+ * one primitive double[] or int[] per SongColumn, all indexed by the same row ordinal. Scans such as
+ * "energy &gt; 0.8 and tempo between 120 and 130" therefore read only the arrays they need, sequentially.
+ *
+ * Filters return selection vectors: ascending int[] arrays of matching ordinals. A selection can be passed to
+ * another filter to refine it, or to an aggregate to restrict it. Passing null as a selection means "all rows".
+ *
+ * The release date, title and artists of each row are kept in a CompactSongText, and getRecord returns a
+ * read-only view that reads every field from the store's arrays, so the store holds no SongRecord and no
+ * per-song String other than the ID.
+ *
+ * Indexes built over a store's ordinals (ID, artist, title, range and similarity indexes) can be cached on the
+ * store itself with derived, so they are discarded together with the store and can never be paired with
+ * the rows of a different one.
+ *
+ * Precondition: Songs are appended with add before any filter or aggregate is run.
+ * Postcondition: Row ordinals are assigned in insertion order, starting at 0, and never change.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongStore {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    // Number of rows stored.
+    private int size;
+
+    // One array per numeric column, indexed by row ordinal.
+    private final double[][] doubleColumns = new double[SongColumn.values().length][];
+    private final int[][] intColumns = new int[SongColumn.values().length][];
+
+    // ID and text fields of each row, so a matching ordinal can be turned back into a song.
+    private String[] ids;
+    private CompactSongText text;
+
+    // Structures derived from the rows, by key; cleared whenever a row is added or replaced.
+    private final ConcurrentHashMap<Object, Object> derived = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor that creates an empty store with a default capacity.
+     *
+     * Precondition: None.
+     * Postcondition: An empty store is created.
+     */
+    public SongStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor that creates an empty store sized for the expected number of songs.
+     *
+     * Precondition: initialCapacity is not negative.
+     * Postcondition: An empty store is created; it grows automatically beyond initialCapacity.
+     *
+     * @param initialCapacity the number of rows to allocate up front.
+     */
+    public SongStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        for (SongColumn column : SongColumn.values()) {
+            if (column.isInteger()) {
+                intColumns[column.ordinal()] = new int[capacity];
+            } else {
+                doubleColumns[column.ordinal()] = new double[capacity];
+            }
+        }
+        ids = new String[capacity];
+        text = new CompactSongText(capacity, new ArtistDictionary());
+    }
+
+    /**
+     * Builds a store containing every song of a collection, in iteration order.
+     *
+     * Precondition: songs is not null and contains no null elements.
+     * Postcondition: A store with songs.size() rows is returned.
+     *
+     * @param songs the songs to store.
+     * @return the populated store.
+     */
+    public static SongStore from(Collection<SongRecord> songs) {
+        SongStore store = new SongStore(songs.size());
+        for (SongRecord song : songs) {
+            store.add(song);
+        }
+        return store;
+    }
+
+    /**
+     * Appends a song as a new row.
+     *
+     * Precondition: song is not null.
+     * Postcondition: The song's attributes are copied into the columns; the song itself is not kept.
+     *
+     * @param song the song to append.
+     * @return the row ordinal assigned to the song.
+     */
+    public int add(SongRecord song) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        for (SongColumn column : SongColumn.values()) {
+            if (column.isInteger()) {
+                intColumns[column.ordinal()][row] = (int) column.read(song);
+            } else {
+                doubleColumns[column.ordinal()][row] = column.read(song);
+            }
+        }
+        ids[row] = song.getId();
+        text.set(row, song);
+        if (!derived.isEmpty()) {
+            derived.clear();
+        }
+        return row;
+    }
+
+    /**
+     * Returns an independent copy of this store's rows, with room for extraCapacity more rows.
+     * The columns are copied as whole arrays, so copying is much cheaper than adding the records again;
+     * derived structures are not copied.
+     *
+     * Precondition: extraCapacity is not negative.
+     * Postcondition: A store with the same rows and ordinals is returned; this store is unchanged.
+     *
+     * @param extraCapacity the number of rows the copy should be able to take without growing.
+     * @return the copy.
+     */
+    public SongStore copy(int extraCapacity) {
+        SongStore copy = new SongStore(0);
+        int capacity = Math.max(size + extraCapacity, 1);
+        for (SongColumn column : SongColumn.values()) {
+            int c = column.ordinal();
+            if (column.isInteger()) {
+                copy.intColumns[c] = Arrays.copyOf(intColumns[c], capacity);
+            } else {
+                copy.doubleColumns[c] = Arrays.copyOf(doubleColumns[c], capacity);
+            }
+        }
+        copy.ids = Arrays.copyOf(ids, capacity);
+        copy.text = text.copy(capacity);
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * Replaces the song stored at a row, keeping its ordinal.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size() and song is not null.
+     * Postcondition: The row holds the new song's attributes and the derived structures are cleared.
+     *
+     * @param ordinal the row ordinal.
+     * @param song the song to store.
+     */
+    public void set(int ordinal, SongRecord song) {
+        checkOrdinal(ordinal);
+        for (SongColumn column : SongColumn.values()) {
+            if (column.isInteger()) {
+                intColumns[column.ordinal()][ordinal] = (int) column.read(song);
+            } else {
+                doubleColumns[column.ordinal()][ordinal] = column.read(song);
+            }
+        }
+        ids[ordinal] = song.getId();
+        text.set(ordinal, song);
+        if (!derived.isEmpty()) {
+            derived.clear();
+        }
+    }
+
+    /**
+     * Returns a structure derived from this store's rows, building and caching it on first use.
+     * Safe to call from several threads once the store is no longer modified; if two threads request the
+     * same structure at once, both may build it but every caller receives the same cached instance.
+     *
+     * Precondition: key and builder are not null, and builder always creates the same kind of object for key.
+     * Postcondition: The cached structure for key is returned until the next add or set.
+     *
+     * @param key identifies the structure, for example its class.
+     * @param builder creates the structure from this store.
+     * @param <T> the type of the structure.
+     * @return the cached structure.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T derived(Object key, Function<SongStore, ? extends T> builder) {
+        Object value = derived.get(key);
+        if (value == null) {
+            // Built outside the map, so a builder may itself request other derived structures.
+            Object built = builder.apply(this);
+            value = derived.putIfAbsent(key, built);
+            if (value == null) {
+                value = built;
+            }
+        }
+        return (T) value;
+    }
+
+    /**
+     * Returns the number of rows in the store.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned.
+     *
+     * @return the number of rows.
+     */
+    public int size() { return size; }
+
+    /**
+     * Returns the ID of the song at a row.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: The song ID is returned.
+     *
+     * @param ordinal the row ordinal.
+     * @return the song's ID.
+     */
+    public String getId(int ordinal) {
+        checkOrdinal(ordinal);
+        return ids[ordinal];
+    }
+
+    /**
+     * Returns a read-only view of the song stored at a row. The view reads the store's arrays, so it reflects
+     * a later set of the same row.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: A record equal to the one added at this ordinal is returned; its setters throw
+     *                UnsupportedOperationException.
+     *
+     * @param ordinal the row ordinal.
+     * @return the song at the row.
+     */
+    public SongRecord getRecord(int ordinal) {
+        checkOrdinal(ordinal);
+        return new Row(this, ordinal);
+    }
+
+    /**
+     * Returns the storage holding the release date, title and artists of every row.
+     *
+     * Precondition: None.
+     * Postcondition: The store's text storage is returned; it must not be modified directly.
+     *
+     * @return the text storage.
+     */
+    public CompactSongText getText() {
+        return text;
+    }
+
+    /**
+     * Returns one attribute of one row, widening int columns to double.
+     *
+     * Precondition: 0 &lt;= ordinal &lt; size().
+     * Postcondition: The stored value is returned.
+     *
+     * @param column the attribute to read.
+     * @param ordinal the row ordinal.
+     * @return the attribute value.
+     */
+    public double get(SongColumn column, int ordinal) {
+        checkOrdinal(ordinal);
+        return column.isInteger() ? intColumns[column.ordinal()][ordinal] : doubleColumns[column.ordinal()][ordinal];
+    }
+
+    // -------------------------
+    // Filters
+    // -------------------------
+
+    /**
+     * Returns the rows whose value in column lies in [min, max].
+     *
+     * Precondition: None.
+     * Postcondition: An ascending selection of matching ordinals is returned.
+     *
+     * @param column the attribute to test.
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return the matching ordinals.
+     */
+    public int[] filterRange(SongColumn column, double min, double max) {
+        return filterRange(null, column, min, max);
+    }
+
+    /**
+     * Returns the rows of a selection whose value in column lies in [min, max].
+     *
+     * Precondition: selection is null or an ascending array of valid ordinals.
+     * Postcondition: An ascending subset of the selection (or of all rows, if null) is returned.
+     *
+     * @param selection the candidate rows, or null for all rows.
+     * @param column the attribute to test.
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return the matching ordinals.
+     */
+    public int[] filterRange(int[] selection, SongColumn column, double min, double max) {
+        int count = selection == null ? size : selection.length;
+        int[] out = new int[count];
+        int matches = 0;
+
+        if (column.isInteger()) {
+            int[] values = intColumns[column.ordinal()];
+            if (selection == null) {
+                for (int row = 0; row < count; row++) {
+                    int v = values[row];
+                    out[matches] = row;
+                    matches += (v >= min && v <= max) ? 1 : 0;
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    int v = values[row];
+                    out[matches] = row;
+                    matches += (v >= min && v <= max) ? 1 : 0;
+                }
+            }
+        } else {
+            double[] values = doubleColumns[column.ordinal()];
+            if (selection == null) {
+                for (int row = 0; row < count; row++) {
+                    double v = values[row];
+                    out[matches] = row;
+                    matches += (v >= min && v <= max) ? 1 : 0;
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    int row = selection[i];
+                    double v = values[row];
+                    out[matches] = row;
+                    matches += (v >= min && v <= max) ? 1 : 0;
+                }
+            }
+        }
+        return Arrays.copyOf(out, matches);
+    }
+
+    /**
+     * Returns the rows whose value in column is strictly greater than threshold.
+     *
+     * Precondition: None.
+     * Postcondition: An ascending selection of matching ordinals is returned.
+     *
+     * @param column the attribute to test.
+     * @param threshold the exclusive lower bound.
+     * @return the matching ordinals.
+     */
+    public int[] filterGreaterThan(SongColumn column, double threshold) {
+        return filterRange(null, column, Math.nextUp(threshold), Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the rows of a selection whose value in column is strictly greater than threshold.
+     *
+     * Precondition: selection is null or an ascending array of valid ordinals.
+     * Postcondition: An ascending subset of the selection is returned.
+     *
+     * @param selection the candidate rows, or null for all rows.
+     * @param column the attribute to test.
+     * @param threshold the exclusive lower bound.
+     * @return the matching ordinals.
+     */
+    public int[] filterGreaterThan(int[] selection, SongColumn column, double threshold) {
+        return filterRange(selection, column, Math.nextUp(threshold), Double.POSITIVE_INFINITY);
+    }
+
+    // -------------------------
+    // Aggregates
+    // -------------------------
+
+    /**
+     * Returns the number of rows in a selection.
+     *
+     * Precondition: None.
+     * Postcondition: The selection length (or size(), if null) is returned.
+     *
+     * @param selection the rows to count, or null for all rows.
+     * @return the row count.
+     */
+    public int count(int[] selection) {
+        return selection == null ? size : selection.length;
+    }
+
+    /**
+     * Returns the sum of a column over a selection.
+     *
+     * Precondition: selection is null or contains valid ordinals.
+     * Postcondition: The sum is returned (0 for an empty selection).
+     *
+     * @param selection the rows to include, or null for all rows.
+     * @param column the attribute to sum.
+     * @return the sum of the values.
+     */
+    public double sum(int[] selection, SongColumn column) {
+        int count = count(selection);
+        double sum = 0.0;
+        if (column.isInteger()) {
+            int[] values = intColumns[column.ordinal()];
+            long total = 0;
+            if (selection == null) {
+                for (int row = 0; row < count; row++) {
+                    total += values[row];
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    total += values[selection[i]];
+                }
+            }
+            sum = total;
+        } else {
+            double[] values = doubleColumns[column.ordinal()];
+            if (selection == null) {
+                for (int row = 0; row < count; row++) {
+                    sum += values[row];
+                }
+            } else {
+                for (int i = 0; i < count; i++) {
+                    sum += values[selection[i]];
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the arithmetic mean of a column over a selection.
+     *
+     * Precondition: selection is null or contains valid ordinals.
+     * Postcondition: The mean is returned, or NaN for an empty selection.
+     *
+     * @param selection the rows to include, or null for all rows.
+     * @param column the attribute to average.
+     * @return the mean value.
+     */
+    public double mean(int[] selection, SongColumn column) {
+        int count = count(selection);
+        return count == 0 ? Double.NaN : sum(selection, column) / count;
+    }
+
+    /**
+     * Returns the smallest value of a column over a selection.
+     *
+     * Precondition: selection is null or contains valid ordinals.
+     * Postcondition: The minimum is returned, or NaN for an empty selection.
+     *
+     * @param selection the rows to include, or null for all rows.
+     * @param column the attribute to inspect.
+     * @return the minimum value.
+     */
+    public double min(int[] selection, SongColumn column) {
+        int count = count(selection);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        if (column.isInteger()) {
+            int[] values = intColumns[column.ordinal()];
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, values[selection == null ? i : selection[i]]);
+            }
+        } else {
+            double[] values = doubleColumns[column.ordinal()];
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, values[selection == null ? i : selection[i]]);
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Returns the largest value of a column over a selection.
+     *
+     * Precondition: selection is null or contains valid ordinals.
+     * Postcondition: The maximum is returned, or NaN for an empty selection.
+     *
+     * @param selection the rows to include, or null for all rows.
+     * @param column the attribute to inspect.
+     * @return the maximum value.
+     */
+    public double max(int[] selection, SongColumn column) {
+        int count = count(selection);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        if (column.isInteger()) {
+            int[] values = intColumns[column.ordinal()];
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, values[selection == null ? i : selection[i]]);
+            }
+        } else {
+            double[] values = doubleColumns[column.ordinal()];
+            for (int i = 0; i < count; i++) {
+                max = Math.max(max, values[selection == null ? i : selection[i]]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Doubles the capacity of every column.
+     */
+    private void grow() {
+        int capacity = ids.length * 2;
+        for (SongColumn column : SongColumn.values()) {
+            int c = column.ordinal();
+            if (column.isInteger()) {
+                intColumns[c] = Arrays.copyOf(intColumns[c], capacity);
+            } else {
+                doubleColumns[c] = Arrays.copyOf(doubleColumns[c], capacity);
+            }
+        }
+        ids = Arrays.copyOf(ids, capacity);
+    }
+
+    private void checkOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " out of range [0, " + size + ")");
+        }
+    }
+
+    /**
+     * A read-only SongRecord backed by one row of a store.
+     */
+    private static final class Row extends SongRecord {
+        private final SongStore store;
+        private final int row;
+
+        Row(SongStore store, int ordinal) {
+            this.store = store;
+            this.row = ordinal;
+        }
+
+        private double real(SongColumn column) { return store.doubleColumns[column.ordinal()][row]; }
+        private int whole(SongColumn column) { return store.intColumns[column.ordinal()][row]; }
+
+        @Override public double getValence() { return real(SongColumn.VALENCE); }
+        @Override public int getYear() { return whole(SongColumn.YEAR); }
+        @Override public double getAcousticness() { return real(SongColumn.ACOUSTICNESS); }
+        @Override public List<String> getArtists() { return store.text.getArtists(row); }
+        @Override public double getDanceability() { return real(SongColumn.DANCEABILITY); }
+        @Override public int getDurationMs() { return whole(SongColumn.DURATION_MS); }
+        @Override public double getEnergy() { return real(SongColumn.ENERGY); }
+        @Override public int getExplicit() { return whole(SongColumn.EXPLICIT); }
+        @Override public String getId() { return store.ids[row]; }
+        @Override public double getInstrumentalness() { return real(SongColumn.INSTRUMENTALNESS); }
+        @Override public int getKey() { return whole(SongColumn.KEY); }
+        @Override public double getLiveness() { return real(SongColumn.LIVENESS); }
+        @Override public double getLoudness() { return real(SongColumn.LOUDNESS); }
+        @Override public int getMode() { return whole(SongColumn.MODE); }
+        @Override public String getName() { return store.text.getName(row); }
+        @Override public int getPopularity() { return whole(SongColumn.POPULARITY); }
+        @Override public String getReleaseDate() { return store.text.getReleaseDate(row); }
+        @Override public double getSpeechiness() { return real(SongColumn.SPEECHINESS); }
+        @Override public double getTempo() { return real(SongColumn.TEMPO); }
+
+        @Override public void setValence(double valence) { throw readOnly(); }
+        @Override public void setYear(int year) { throw readOnly(); }
+        @Override public void setAcousticness(double acousticness) { throw readOnly(); }
+        @Override public void setArtists(List<String> artists) { throw readOnly(); }
+        @Override public void setDanceability(double danceability) { throw readOnly(); }
+        @Override public void setDurationMs(int durationMs) { throw readOnly(); }
+        @Override public void setEnergy(double energy) { throw readOnly(); }
+        @Override public void setExplicit(int explicit) { throw readOnly(); }
+        @Override public void setId(String id) { throw readOnly(); }
+        @Override public void setInstrumentalness(double instrumentalness) { throw readOnly(); }
+        @Override public void setKey(int key) { throw readOnly(); }
+        @Override public void setLiveness(double liveness) { throw readOnly(); }
+        @Override public void setLoudness(double loudness) { throw readOnly(); }
+        @Override public void setMode(int mode) { throw readOnly(); }
+        @Override public void setName(String name) { throw readOnly(); }
+        @Override public void setPopularity(int popularity) { throw readOnly(); }
+        @Override public void setReleaseDate(String releaseDate) { throw readOnly(); }
+        @Override public void setSpeechiness(double speechiness) { throw readOnly(); }
+        @Override public void setTempo(double tempo) { throw readOnly(); }
+
+        private static UnsupportedOperationException readOnly() {
+            return new UnsupportedOperationException("Song store views are read-only");
+        }
+    }
+}
@@ -0,0 +1,262 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * The SongTableModel class shows the songs of a SongStore in a JTable without copying them: a cell is read
+ * from the store only when the table paints it, and JTable paints only the visible rows, so browsing a
+ * catalog of millions of songs costs the same as browsing a few hundred.
+ *
+ * Sorting does not move any songs either. A sorted view is a permutation from table row to store ordinal:
+ * numeric columns use a SortedColumnIndex (the program's range index when the column has one) and text
+ * columns a sorted ordinal array, both built by sortOrder off the event dispatch thread and cached with the
+ * store. Descending order reads the same permutation backwards.
+ *
+ * Precondition: The model is used on the event dispatch thread, and a store given to it is no longer modified.
+ * Postcondition: Row r shows the song at the r-th position of the current order.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SongTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The columns of the table, each with its header and, for numeric columns, the SongColumn it shows.
+     */
+    public enum Column {
+        NAME("Name", null),
+        ARTISTS("Artists", null),
+        YEAR("Year", SongColumn.YEAR),
+        POPULARITY("Popularity", SongColumn.POPULARITY),
+        DURATION_MS("Duration (ms)", SongColumn.DURATION_MS),
+        TEMPO("Tempo", SongColumn.TEMPO),
+        ENERGY("Energy", SongColumn.ENERGY),
+        DANCEABILITY("Danceability", SongColumn.DANCEABILITY),
+        VALENCE("Valence", SongColumn.VALENCE),
+        ACOUSTICNESS("Acousticness", SongColumn.ACOUSTICNESS),
+        ID("ID", null);
+
+        private final String header;
+        private final SongColumn songColumn;
+
+        Column(String header, SongColumn songColumn) {
+            this.header = header;
+            this.songColumn = songColumn;
+        }
+    }
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private SongStore store;
+
+    // Current order: table row to store ordinal, or null for store order.
+    private IntUnaryOperator order;
+    private Column sortColumn;
+    private boolean descending;
+
+    /**
+     * Replaces the songs shown, for example when a larger catalog has been published while loading. The sort
+     * column is kept, but the rows are shown in store order until setOrder supplies the order for the new store.
+     *
+     * Precondition: Called on the event dispatch thread.
+     * Postcondition: The table shows the songs of store.
+     *
+     * @param store the songs to show, or null for none.
+     */
+    public void setStore(SongStore store) {
+        this.store = store;
+        this.order = null;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Sorts the table by a column, using an order computed by sortOrder. An order computed for a store that
+     * has since been replaced is ignored.
+     *
+     * Precondition: Called on the event dispatch thread; order was returned by sortOrder for forStore and column.
+     * Postcondition: The table is sorted by column if forStore is still the store shown.
+     *
+     * @param forStore the store the order was computed for.
+     * @param column the sort column.
+     * @param descending whether to show the largest values first.
+     * @param order the permutation returned by sortOrder.
+     */
+    public void setOrder(SongStore forStore, Column column, boolean descending, IntUnaryOperator order) {
+        if (forStore != store) {
+            return;
+        }
+        this.sortColumn = column;
+        this.descending = descending;
+        this.order = order;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Returns the sort permutation of a column: the store ordinal at each position in ascending order.
+     * A numeric column uses the sorted index that sharedIndexes returns for it, so the table does not keep
+     * a second copy of an index the program already holds; otherwise the permutation is built on first use,
+     * which takes a pass over the column, and then cached with the store.
+     *
+     * Precondition: store is no longer modified; should be called off the event dispatch thread.
+     * Postcondition: The permutation is returned.
+     *
+     * @param store the songs to sort.
+     * @param column the column to sort by.
+     * @param sharedIndexes returns an existing sorted index of a column over store, or null if there is none.
+     * @return a function from sorted position to store ordinal.
+     */
+    public static IntUnaryOperator sortOrder(SongStore store, Column column,
+                                             Function<SongColumn, SortedColumnIndex> sharedIndexes) {
+        if (column.songColumn != null) {
+            SortedColumnIndex index = sharedIndexes.apply(column.songColumn);
+            if (index == null) {
+                index = store.derived(column.songColumn, s -> SortedColumnIndex.build(s, column.songColumn));
+            }
+            return index::ordinalAt;
+        }
+        int[] ordinals = store.derived(column, s -> sortByText(s, column));
+        return position -> ordinals[position];
+    }
+
+    /**
+     * Returns the ordinals of a store sorted by the text of a column, ignoring case.
+     */
+    private static int[] sortByText(SongStore store, Column column) {
+        String[] keys = new String[store.size()];
+        Integer[] ordinals = new Integer[store.size()];
+        for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+            keys[ordinal] = String.valueOf(textOf(store.getRecord(ordinal), column));
+            ordinals[ordinal] = ordinal;
+        }
+        Arrays.sort(ordinals, Comparator.comparing((Integer ordinal) -> keys[ordinal], String.CASE_INSENSITIVE_ORDER));
+        int[] sorted = new int[ordinals.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ordinals[i];
+        }
+        return sorted;
+    }
+
+    private static String textOf(SongRecord song, Column column) {
+        switch (column) {
+            case NAME:
+                return song.getName();
+            case ARTISTS:
+                return song.getArtists() == null ? null : String.join(", ", song.getArtists());
+            default:
+                return song.getId();
+        }
+    }
+
+    /**
+     * Returns the store shown.
+     *
+     * Precondition: None.
+     * Postcondition: The store is returned.
+     *
+     * @return the store, or null if none has been set.
+     */
+    public SongStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the column the table was last sorted by.
+     *
+     * Precondition: None.
+     * Postcondition: The column is returned.
+     *
+     * @return the sort column, or null if the table was never sorted.
+     */
+    public Column getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Returns whether the table was last sorted in descending order.
+     *
+     * Precondition: None.
+     * Postcondition: The direction is returned.
+     *
+     * @return true for descending order.
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Returns the column shown at a model column index.
+     *
+     * Precondition: 0 &lt;= columnIndex &lt; getColumnCount().
+     * Postcondition: The column is returned.
+     *
+     * @param columnIndex the model column index.
+     * @return the column.
+     */
+    public Column getColumn(int columnIndex) {
+        return COLUMNS[columnIndex];
+    }
+
+    /**
+     * Returns the song shown in a table row.
+     *
+     * Precondition: 0 &lt;= row &lt; getRowCount().
+     * Postcondition: The song is returned.
+     *
+     * @param row the table row.
+     * @return the song.
+     */
+    public SongRecord getSongAt(int row) {
+        return store.getRecord(ordinalAt(row));
+    }
+
+    private int ordinalAt(int row) {
+        if (order == null) {
+            return row;
+        }
+        return order.applyAsInt(descending ? store.size() - 1 - row : row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return store == null ? 0 : store.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int columnIndex) {
+        return COLUMNS[columnIndex].header;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        SongColumn songColumn = COLUMNS[columnIndex].songColumn;
+        if (songColumn == null) {
+            return String.class;
+        }
+        return songColumn.isInteger() ? Integer.class : Double.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Column column = COLUMNS[columnIndex];
+        int ordinal = ordinalAt(rowIndex);
+        if (column.songColumn == null) {
+            return textOf(store.getRecord(ordinal), column);
+        }
+        double value = store.get(column.songColumn, ordinal);
+        if (column.songColumn.isInteger()) {
+            return (int) value;
+        }
+        return value;
+    }
+}
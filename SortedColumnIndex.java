@@ -0,0 +1,232 @@
+//package hashingAndDocumentation;
+
+import java.util.Arrays;
+
+/**
+ * The SortedColumnIndex class is a secondary index on one SongColumn of a SongStore: a primitive array of
+ * the column's values in ascending order, paired with an array of the row ordinal each value came from.
+ * A range query finds its first and last position by binary search, so it costs O(log n) plus the number of
+ * matching rows, instead of a scan over every row.
+ *
+ * The index is sorted with an LSD radix sort on order-preserving integer encodings of the keys, which is
+ * linear in the number of rows and keeps equal keys in ordinal order.
+ *
+ * Precondition: The store's rows do not change after the index is built.
+ * Postcondition: Range results match SongStore.filterRange on the same column and bounds.
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class SortedColumnIndex {
+
+    private final SongColumn column;
+
+    // Sorted keys; exactly one of these is non-null, depending on the column type.
+    private final int[] intKeys;
+    private final double[] doubleKeys;
+
+    // ordinals[i] is the row whose value is the i-th key.
+    private final int[] ordinals;
+
+    private SortedColumnIndex(SongColumn column, int[] intKeys, double[] doubleKeys, int[] ordinals) {
+        this.column = column;
+        this.intKeys = intKeys;
+        this.doubleKeys = doubleKeys;
+        this.ordinals = ordinals;
+    }
+
+    /**
+     * Builds a sorted index over one column of every row of a store.
+     *
+     * Precondition: store and column are not null.
+     * Postcondition: An index with store.size() entries is returned.
+     *
+     * @param store the store whose column is indexed.
+     * @param column the attribute to index.
+     * @return the index.
+     */
+    public static SortedColumnIndex build(SongStore store, SongColumn column) {
+        int size = store.size();
+        long[] encoded = new long[size];
+        int[] ordinals = new int[size];
+        for (int row = 0; row < size; row++) {
+            double value = store.get(column, row);
+            encoded[row] = column.isInteger() ? (long) value - Integer.MIN_VALUE : sortableBits(value);
+            ordinals[row] = row;
+        }
+        radixSort(encoded, ordinals, column.isInteger() ? Integer.BYTES : Long.BYTES);
+
+        if (column.isInteger()) {
+            int[] keys = new int[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (int) (encoded[i] + Integer.MIN_VALUE);
+            }
+            return new SortedColumnIndex(column, keys, null, ordinals);
+        }
+        double[] keys = new double[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = store.get(column, ordinals[i]);
+        }
+        return new SortedColumnIndex(column, null, keys, ordinals);
+    }
+
+    /**
+     * Returns the indexed column.
+     *
+     * Precondition: None.
+     * Postcondition: The column is returned.
+     *
+     * @return the column.
+     */
+    public SongColumn getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns the number of rows in the index.
+     *
+     * Precondition: None.
+     * Postcondition: The row count is returned.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return ordinals.length;
+    }
+
+    /**
+     * Returns the row at a position of the sorted order, so the index can serve as a sort permutation.
+     *
+     * Precondition: 0 &lt;= position &lt; size().
+     * Postcondition: The index is unchanged.
+     *
+     * @param position the position in ascending order of value (ties in ordinal order).
+     * @return the row ordinal at that position.
+     */
+    public int ordinalAt(int position) {
+        return ordinals[position];
+    }
+
+    /**
+     * Returns the number of rows whose value lies in [min, max], without touching the rows themselves.
+     *
+     * Precondition: None.
+     * Postcondition: The index is unchanged.
+     *
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return the number of matching rows.
+     */
+    public int count(double min, double max) {
+        return Math.max(0, upperBound(max) - lowerBound(min));
+    }
+
+    /**
+     * Returns the rows whose value lies in [min, max], ordered by value (ties in ordinal order).
+     *
+     * Precondition: None.
+     * Postcondition: A new array of matching ordinals is returned.
+     *
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return the matching ordinals.
+     */
+    public int[] range(double min, double max) {
+        int from = lowerBound(min);
+        int to = upperBound(max);
+        return from >= to ? new int[0] : Arrays.copyOfRange(ordinals, from, to);
+    }
+
+    /**
+     * Returns the rows whose value lies in [min, max] as a compressed bitmap, for intersecting with other
+     * predicates.
+     *
+     * Precondition: None.
+     * Postcondition: A bitmap of the matching ordinals is returned.
+     *
+     * @param min the inclusive lower bound.
+     * @param max the inclusive upper bound.
+     * @return the matching ordinals.
+     */
+    public OrdinalBitmap rangeBitmap(double min, double max) {
+        return OrdinalBitmap.of(ordinals, lowerBound(min), upperBound(max));
+    }
+
+    /**
+     * Returns the first position whose key is not below min. NaN keys sort last, so they count as not below.
+     */
+    private int lowerBound(double min) {
+        int lo = 0;
+        int hi = ordinals.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(mid) < min) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the first position whose key is above max, treating NaN keys as above every bound.
+     */
+    private int upperBound(double max) {
+        int lo = 0;
+        int hi = ordinals.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (key(mid) <= max) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private double key(int position) {
+        return intKeys != null ? intKeys[position] : doubleKeys[position];
+    }
+
+    /**
+     * Encodes a double so that unsigned comparison of the result matches numeric comparison of the values.
+     * -0.0 is folded into 0.0, because the range filters treat them as equal.
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /**
+     * Stable LSD radix sort of unsigned keys, one byte per pass, moving values along with their keys.
+     * Passes whose byte is the same in every key are skipped.
+     */
+    private static void radixSort(long[] keys, int[] values, int bytes) {
+        int n = keys.length;
+        long[] keyBuffer = new long[n];
+        int[] valueBuffer = new int[n];
+        int[] counts = new int[257];
+        for (int pass = 0; pass < bytes; pass++) {
+            int shift = pass * 8;
+            Arrays.fill(counts, 0);
+            for (long key : keys) {
+                counts[(int) ((key >>> shift) & 0xFF) + 1]++;
+            }
+            if (n == 0 || counts[(int) ((keys[0] >>> shift) & 0xFF) + 1] == n) {
+                continue;
+            }
+            for (int b = 0; b < 256; b++) {
+                counts[b + 1] += counts[b];
+            }
+            for (int i = 0; i < n; i++) {
+                int target = counts[(int) ((keys[i] >>> shift) & 0xFF)]++;
+                keyBuffer[target] = keys[i];
+                valueBuffer[target] = values[i];
+            }
+            System.arraycopy(keyBuffer, 0, keys, 0, n);
+            System.arraycopy(valueBuffer, 0, values, 0, n);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+//package hashingAndDocumentation;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * The TitleIndex class suggests songs whose title contains what the user has typed so far.
+ *
+ * Titles are normalized (lower case, accents removed, punctuation turned into single spaces) and stored in
+ * one char[] arena. An n-gram index maps hashed character trigrams, plus word-prefix keys for one- and
+ * two-character queries, to posting lists in compressed-sparse-row form. A query reads the posting list of
+ * its rarest key and verifies each candidate against the normalized title, because distinct trigrams can
+ * share a hash bucket.
+ *
+ * Songs are numbered by rank (most popular first) inside the index, and posting lists are sorted by rank,
+ * so candidates are visited from the most to the least popular. Suggestions are ranked by how the title
+ * matches (title prefix, then word prefix, then anywhere) and then by popularity. The search stops once the
+ * first tier is full, or after a fixed number of candidates for very common queries, so a keystroke costs
+ * a few milliseconds even on catalogs with millions of songs.
+ *
+ * Precondition: The store's rows do not change after the index is built.
+ * Postcondition: Suggestions are store ordinals of songs whose normalized title contains the normalized
+ *                query (for one- and two-character queries, a word of the title must start with it).
+ *
+ * @author
+ * @since   2026-10-16
+ */
+public class TitleIndex {
+
+    // Number of hash buckets for n-gram keys.
+    private static final int BUCKETS = 1 << 20;
+
+    // Maximum number of candidates verified by one query.
+    private static final int MAX_CANDIDATES = 50_000;
+
+    // Third character of the key that marks a word starting with a single character.
+    private static final char WORD_START = '\u0001';
+
+    // Ranking tiers: the title starts with the query, a word starts with it, or it occurs inside a word.
+    private static final int TITLE_PREFIX = 0;
+    private static final int WORD_PREFIX = 1;
+    private static final int SUBSTRING = 2;
+
+    // rankToOrdinal[rank] is the store ordinal of the song with that popularity rank.
+    private final int[] rankToOrdinal;
+
+    // Normalized titles in rank order: title r is arena[titleStarts[r], titleStarts[r + 1]).
+    private final char[] arena;
+    private final int[] titleStarts;
+
+    // Ranks of the titles containing each key: postings[offsets[b], offsets[b + 1]) for bucket b, ascending.
+    private final int[] offsets;
+    private final int[] postings;
+
+    private TitleIndex(int[] rankToOrdinal, char[] arena, int[] titleStarts, int[] offsets, int[] postings) {
+        this.rankToOrdinal = rankToOrdinal;
+        this.arena = arena;
+        this.titleStarts = titleStarts;
+        this.offsets = offsets;
+        this.postings = postings;
+    }
+
+    /**
+     * Builds the title index over every row of a store.
+     *
+     * Precondition: store is not null.
+     * Postcondition: An index over store.size() titles is returned.
+     *
+     * @param store the songs whose titles are indexed.
+     * @return the index.
+     */
+    public static TitleIndex build(SongStore store) {
+        int size = store.size();
+
+        // Most popular first; ties keep store order. ~popularity sorts descending as a signed key.
+        long[] order = new long[size];
+        for (int row = 0; row < size; row++) {
+            order[row] = ((long) ~(int) store.get(SongColumn.POPULARITY, row) << 32) | row;
+        }
+        Arrays.sort(order);
+        int[] rankToOrdinal = new int[size];
+        String[] titles = new String[size];
+        long totalChars = 0;
+        for (int rank = 0; rank < size; rank++) {
+            rankToOrdinal[rank] = (int) order[rank];
+            titles[rank] = normalize(store.getRecord(rankToOrdinal[rank]).getName());
+            totalChars += titles[rank].length();
+        }
+        order = null;
+
+        char[] arena = new char[Math.toIntExact(totalChars)];
+        int[] titleStarts = new int[size + 1];
+        for (int rank = 0; rank < size; rank++) {
+            String title = titles[rank];
+            title.getChars(0, title.length(), arena, titleStarts[rank]);
+            titleStarts[rank + 1] = titleStarts[rank] + title.length();
+        }
+        titles = null;
+
+        // Two passes over the keys of every title: count per bucket, then fill. lastRank drops repeated
+        // buckets within one title, so each posting list holds a rank at most once.
+        int[] offsets = new int[BUCKETS + 1];
+        int[] lastRank = new int[BUCKETS];
+        Arrays.fill(lastRank, -1);
+        for (int rank = 0; rank < size; rank++) {
+            forEachKey(arena, titleStarts[rank], titleStarts[rank + 1], rank, lastRank, offsets, null);
+        }
+        int total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            int count = offsets[b];
+            offsets[b] = total;
+            total += count;
+        }
+        offsets[BUCKETS] = total;
+
+        int[] postings = new int[total];
+        int[] fill = Arrays.copyOf(offsets, BUCKETS);
+        Arrays.fill(lastRank, -1);
+        for (int rank = 0; rank < size; rank++) {
+            forEachKey(arena, titleStarts[rank], titleStarts[rank + 1], rank, lastRank, fill, postings);
+        }
+        return new TitleIndex(rankToOrdinal, arena, titleStarts, offsets, postings);
+    }
+
+    /**
+     * Returns the best-ranked songs whose title matches a query.
+     * If the calling thread is interrupted (for example, because the user typed another character), the
+     * search stops early and returns an empty array.
+     *
+     * Precondition: query is not null and limit is not negative.
+     * Postcondition: Up to limit store ordinals are returned, best match first; the index is unchanged.
+     *
+     * @param query the text typed so far.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested ordinals.
+     */
+    public int[] suggest(String query, int limit) {
+        char[] q = normalize(query).toCharArray();
+        if (q.length == 0 || limit <= 0) {
+            return new int[0];
+        }
+
+        // Choose the key with the shortest posting list.
+        int bucket;
+        if (q.length == 1) {
+            bucket = bucket(' ', q[0], WORD_START);
+        } else if (q.length == 2) {
+            bucket = bucket(' ', q[0], q[1]);
+        } else {
+            bucket = bucket(q[0], q[1], q[2]);
+            for (int i = 1; i + 2 < q.length; i++) {
+                int candidate = bucket(q[i], q[i + 1], q[i + 2]);
+                if (offsets[candidate + 1] - offsets[candidate] < offsets[bucket + 1] - offsets[bucket]) {
+                    bucket = candidate;
+                }
+            }
+        }
+
+        int[][] tiers = new int[3][limit];
+        int[] tierCounts = new int[3];
+        int end = Math.min(offsets[bucket + 1], offsets[bucket] + MAX_CANDIDATES);
+        for (int p = offsets[bucket]; p < end && tierCounts[TITLE_PREFIX] < limit; p++) {
+            if ((p & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+                return new int[0];
+            }
+            int rank = postings[p];
+            int tier = matchTier(q, titleStarts[rank], titleStarts[rank + 1]);
+            // A song must also start a word with short queries, which only index word prefixes.
+            if (tier >= 0 && (q.length > 2 || tier != SUBSTRING) && tierCounts[tier] < limit) {
+                tiers[tier][tierCounts[tier]++] = rankToOrdinal[rank];
+            }
+        }
+
+        int[] result = new int[Math.min(limit, tierCounts[0] + tierCounts[1] + tierCounts[2])];
+        int n = 0;
+        for (int tier = 0; tier < 3 && n < result.length; tier++) {
+            int take = Math.min(tierCounts[tier], result.length - n);
+            System.arraycopy(tiers[tier], 0, result, n, take);
+            n += take;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of indexed titles.
+     *
+     * Precondition: None.
+     * Postcondition: The title count is returned.
+     *
+     * @return the number of titles.
+     */
+    public int size() {
+        return rankToOrdinal.length;
+    }
+
+    /**
+     * Normalizes a title or query for matching: accents are removed, letters are lower-cased, and every run
+     * of characters that are not letters or digits becomes a single space (none at either end).
+     *
+     * Precondition: None.
+     * Postcondition: The normalized text is returned ("" for null).
+     *
+     * @param text the text to normalize.
+     * @return the normalized text.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                // Decompose accented letters so that the accents become separate marks, dropped below.
+                text = Normalizer.normalize(text, Normalizer.Form.NFD);
+                break;
+            }
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+                out.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                pendingSpace = true;
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Returns the best tier in which query occurs in arena[start, end), or -1 if it does not occur.
+     */
+    private int matchTier(char[] query, int start, int end) {
+        int best = -1;
+        int last = end - query.length;
+        for (int i = start; i <= last; i++) {
+            if (arena[i] != query[0]) {
+                continue;
+            }
+            int j = 1;
+            while (j < query.length && arena[i + j] == query[j]) {
+                j++;
+            }
+            if (j == query.length) {
+                if (i == start) {
+                    return TITLE_PREFIX;
+                }
+                if (arena[i - 1] == ' ') {
+                    return WORD_PREFIX;
+                }
+                best = SUBSTRING;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Visits the keys of one title: every trigram of the title preceded by a space (which includes the
+     * two-character word prefixes) and a single-character key for each word start. With postings == null the
+     * bucket counters are incremented; otherwise the rank is written at the bucket's next position.
+     */
+    private static void forEachKey(char[] arena, int start, int end, int rank, int[] lastRank,
+                                   int[] positions, int[] postings) {
+        for (int i = start - 1; i < end - 2; i++) {
+            char first = i < start ? ' ' : arena[i];
+            if (first == ' ') {
+                addKey(bucket(' ', arena[i + 1], WORD_START), rank, lastRank, positions, postings);
+            }
+            addKey(bucket(first, arena[i + 1], arena[i + 2]), rank, lastRank, positions, postings);
+        }
+        // A word in the last two characters still needs its single-character key.
+        for (int i = Math.max(start, end - 2); i < end; i++) {
+            if ((i == start || arena[i - 1] == ' ') && arena[i] != ' ') {
+                addKey(bucket(' ', arena[i], WORD_START), rank, lastRank, positions, postings);
+            }
+        }
+    }
+
+    private static void addKey(int bucket, int rank, int[] lastRank, int[] positions, int[] postings) {
+        if (lastRank[bucket] == rank) {
+            return;
+        }
+        lastRank[bucket] = rank;
+        if (postings == null) {
+            positions[bucket]++;
+        } else {
+            postings[positions[bucket]++] = rank;
+        }
+    }
+
+    private static int bucket(char a, char b, char c) {
+        int h = (a * 0x9E3779B1) ^ (b * 0x85EBCA77) ^ (c * 0xC2B2AE3D);
+        h ^= h >>> 15;
+        h *= 0x2C1B3C6D;
+        h ^= h >>> 13;
+        return h & (BUCKETS - 1);
+    }
+}